@@ -8,9 +8,26 @@
 package net.sf.robocode.repository;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 
 /**
@@ -28,6 +45,106 @@ public final class CodeSizeCalculator {
 		return getCodeSize("processZipFile", jarFile);
 	}
 
+	/**
+	 * Calculates the code size of class files held in memory, e.g. classes just compiled by the robot editor.
+	 *
+	 * @param location is the location reported for the class files, e.g. the directory they will be written to.
+	 * @param classFiles is the content of the class files by file name.
+	 * @return the code size of the class files, or null if it could not be calculated.
+	 */
+	public static Integer getClassFilesCodeSize(File location, Map<String, byte[]> classFiles) {
+		Integer codesize;
+		try {
+			// The code size utility reads class files from files or zip streams only
+			ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+			ZipOutputStream zipOut = new ZipOutputStream(zipBytes);
+
+			for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+				zipOut.putNextEntry(new ZipEntry(classFile.getKey()));
+				zipOut.write(classFile.getValue());
+				zipOut.closeEntry();
+			}
+			zipOut.close();
+
+			ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(zipBytes.toByteArray()));
+
+			// Call the code size utility using reflection
+			Class<?> classType = Class.forName("codesize.Codesize");
+
+			Method method = classType.getMethod("processZipFile", new Class[] { File.class, ZipInputStream.class });
+			Object item = method.invoke(null/* static method */, location, zipIn);
+
+			// Calls Codesize.Item.getCodeSize()
+			method = item.getClass().getMethod("getCodeSize", (Class[]) null);
+			codesize = (Integer) method.invoke(item, (Object[]) null);
+
+		} catch (IOException e) {
+			codesize = null;
+		} catch (IllegalAccessException e) {
+			codesize = null;
+		} catch (InvocationTargetException e) {
+			codesize = null;
+		} catch (NoSuchMethodException e) {
+			codesize = null;
+		} catch (ClassNotFoundException e) {
+			codesize = null;
+		}
+		return codesize;
+	}
+
+	/**
+	 * Calculates the code sizes of the specified jar files in parallel, using a thread per available processor.
+	 *
+	 * @param jarFiles is the jar files to calculate the code sizes for.
+	 * @return a map containing the code size of each jar file. Jar files for which the code size could not be
+	 *         calculated are not contained in the map.
+	 */
+	public static Map<File, Integer> getJarFileCodeSizes(Collection<File> jarFiles) {
+		Map<File, Integer> codeSizes = new HashMap<File, Integer>();
+
+		if (jarFiles.isEmpty()) {
+			return codeSizes;
+		}
+		int numThreads = Math.min(jarFiles.size(), Runtime.getRuntime().availableProcessors());
+
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "CodeSizeCalculator");
+
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		try {
+			List<File> files = new ArrayList<File>(jarFiles);
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>(files.size());
+
+			for (final File jarFile : files) {
+				futures.add(executor.submit(new Callable<Integer>() {
+					public Integer call() {
+						return getJarFileCodeSize(jarFile);
+					}
+				}));
+			}
+			for (int i = 0; i < files.size(); i++) {
+				try {
+					Integer codeSize = futures.get(i).get();
+
+					if (codeSize != null) {
+						codeSizes.put(files.get(i), codeSize);
+					}
+				} catch (ExecutionException ignore) {// The code size could not be calculated
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+		return codeSizes;
+	}
+
 	private static Integer getCodeSize(String invokeMethod, File jarFile) {
 		Integer codesize;
 		try {
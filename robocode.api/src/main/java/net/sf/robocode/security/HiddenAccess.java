@@ -47,6 +47,7 @@ public class HiddenAccess {
 	private static Method initContainerRe;
 	private static Method cleanup;
 	private static Method robocodeMain;
+	private static Method robotProcessMain;
 	private static boolean initialized;
 	private static boolean foundCore = false;
 
@@ -108,6 +109,9 @@ public class HiddenAccess {
 			robocodeMain = main.getDeclaredMethod("robocodeMain", Object.class);
 			robocodeMain.setAccessible(true);
 
+			robotProcessMain = main.getDeclaredMethod("robotProcessMain", Object.class);
+			robotProcessMain.setAccessible(true);
+
 			initialized = true;
 		} catch (NoSuchMethodException e) {
 			Logger.logError(e);
@@ -335,4 +339,16 @@ public class HiddenAccess {
 		}
 	}
 
+	public static void robotProcessMain(final String[] args) {
+		init();
+		try {
+			robotProcessMain.invoke(null, (Object) args);
+		} catch (IllegalAccessException e) {
+			Logger.logError(e);
+		} catch (InvocationTargetException e) {
+			Logger.logError(e.getCause());
+			Logger.logError(e);
+		}
+	}
+
 }
@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.security;
+
+
+/**
+ * Entry point of a robot process, which hosts a single robot outside the process of the game.
+ * The only argument is the channel file created by the game for talking with the robot process.
+ */
+public final class RobotProcessMain {
+
+	private RobotProcessMain() {}
+
+	public static void main(final String[] args) {
+		HiddenAccess.robotProcessMain(args);
+	}
+}
@@ -19,13 +19,17 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.*;
 import java.util.HashMap;
 import java.util.Map;
 
 
 /**
+ * Serializer of the data exchanged between the robots and the game.
+ * <p>
+ * Strings are encoded as UTF-8 in a single pass, and the encoded forms of short strings like robot names are cached
+ * by each serializer. The buffers for reading from and writing to streams are reused, and arrays of primitives are
+ * put and read in bulk. A serializer must only be used by one thread at a time.
+ *
  * @author Pavel Savara (original)
  */
 public final class RbSerializer {
@@ -34,6 +38,7 @@ public final class RbSerializer {
 	public final static int SIZEOF_BOOL = 1;
 	public final static int SIZEOF_CHAR = 2;
 	public final static int SIZEOF_INT = 4;
+	public final static int SIZEOF_FLOAT = 4;
 	public final static int SIZEOF_LONG = 8;
 	public final static int SIZEOF_DOUBLE = 8;
 
@@ -76,58 +81,76 @@ public final class RbSerializer {
 
 	private final static ISerializableHelper[] typeToHelper = new ISerializableHelper[256];
 	private static Map<Class<?>, Byte> classToType = new HashMap<Class<?>, Byte>();
-	private final static Charset charset;
-	private final CharsetEncoder encoder;
-	private final CharsetDecoder decoder;
 
 	private static final int BYTE_ORDER = 0xC0DEDEA1;
+	private static final int SIZEOF_HEADER = SIZEOF_INT + SIZEOF_INT + SIZEOF_INT;
 	private final int currentVersion;
 
+	// Direct-mapped cache of the UTF-8 encoded forms of short strings, indexed by the hash code of the string
+	private static final int STRING_CACHE_SIZE = 64;
+	private static final int MAX_CACHED_STRING_LENGTH = 64;
+	private final String[] cachedStrings = new String[STRING_CACHE_SIZE];
+	private final byte[][] cachedEncodings = new byte[STRING_CACHE_SIZE][];
+
+	private char[] decodedChars = new char[256];
+	private byte[] encodedBytes = new byte[256];
+	private ByteBuffer streamBuffer = ByteBuffer.allocate(1024);
+
+	private static final ThreadLocal<RbSerializer> threadSerializer = new ThreadLocal<RbSerializer>() {
+		@Override
+		protected RbSerializer initialValue() {
+			return new RbSerializer();
+		}
+	};
+
 	static {
-		charset = Charset.forName("UTF8"); // we will use it as UCS-2
 		register(null, TERMINATOR_TYPE); // reserved for end of (list) element
 	}
 
 	public RbSerializer() {
 		this.currentVersion = ContainerBase.getComponent(IVersionManagerBase.class).getVersionAsInt();
-		encoder = charset.newEncoder();
-		encoder.onMalformedInput(CodingErrorAction.REPORT);
-		encoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
-		// throw away forst bom
-		ByteBuffer buffer = ByteBuffer.allocate(8);
+	}
 
-		encoder.encode(CharBuffer.wrap("BOM"), buffer, false);
+	public void serialize(OutputStream target, byte type, Object object) throws IOException {
+		final ByteBuffer buffer = serializeToStreamBuffer(type, object);
 
-		decoder = charset.newDecoder();
-		decoder.onMalformedInput(CodingErrorAction.REPORT);
-		decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		target.write(buffer.array(), 0, buffer.limit());
 	}
 
-	public void serialize(OutputStream target, byte type, Object object) throws IOException {
+	/**
+	 * Serializes the object with header into the reused stream buffer, which is returned ready for reading.
+	 */
+	private ByteBuffer serializeToStreamBuffer(byte type, Object object) throws IOException {
 		int length = sizeOf(type, object);
-
-		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
+		ByteBuffer buffer = getStreamBuffer(SIZEOF_HEADER + length);
 
 		buffer.putInt(BYTE_ORDER);
 		buffer.putInt(currentVersion);
 		buffer.putInt(length);
-		target.write(buffer.array());
 
 		// body
-		buffer = ByteBuffer.allocate(length);
 		serialize(buffer, type, object);
 		if (buffer.remaining() != 0) {
 			throw new IOException("Serialization failed: bad size"); 
 		}
-		target.write(buffer.array());
+		((Buffer) buffer).flip();
+		return buffer;
+	}
+
+	private ByteBuffer getStreamBuffer(int size) {
+		if (streamBuffer.capacity() < size) {
+			streamBuffer = ByteBuffer.allocate(Math.max(size, 2 * streamBuffer.capacity()));
+		}
+		((Buffer) streamBuffer).clear();
+		((Buffer) streamBuffer).limit(size);
+		return streamBuffer;
 	}
 
 	public ByteBuffer serialize(byte type, Object object) throws IOException {
 		int length = sizeOf(type, object);
 
 		// header
-		ByteBuffer buffer = ByteBuffer.allocateDirect(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT + length);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(SIZEOF_HEADER + length);
 
 		buffer.putInt(BYTE_ORDER);
 		buffer.putInt(currentVersion);
@@ -144,7 +167,7 @@ public final class RbSerializer {
 	public ByteBuffer serializeToBuffer(ByteBuffer buffer, byte type, Object object) throws IOException {
 		int length = sizeOf(type, object);
 
-		((Buffer) buffer).limit(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT + length);
+		((Buffer) buffer).limit(SIZEOF_HEADER + length);
 
 		buffer.putInt(BYTE_ORDER);
 		buffer.putInt(currentVersion);
@@ -160,7 +183,7 @@ public final class RbSerializer {
 
 	public Object deserialize(InputStream source) throws IOException {
 		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
+		ByteBuffer buffer = getStreamBuffer(SIZEOF_HEADER);
 
 		fillBuffer(source, buffer);
 		((Buffer) buffer).flip();
@@ -177,7 +200,7 @@ public final class RbSerializer {
 		int length = buffer.getInt();
 
 		// body
-		buffer = ByteBuffer.allocate(length);
+		buffer = getStreamBuffer(length);
 		fillBuffer(source, buffer);
 		((Buffer) buffer).flip();
 		final Object res = deserializeAny(buffer);
@@ -235,10 +258,17 @@ public final class RbSerializer {
 		if (data == null) {
 			buffer.putInt(-1);
 		} else {
-			ByteBuffer slice = encode(data);
+			final byte[] encoded = getCachedEncoding(data);
+
+			if (encoded != null) {
+				buffer.putInt(encoded.length);
+				buffer.put(encoded);
+			} else {
+				final int length = encodedLength(data);
 
-			buffer.putInt(slice.limit());
-			buffer.put(slice);
+				buffer.putInt(length);
+				encode(data, length, buffer);
+			}
 		}
 	}
 
@@ -256,9 +286,8 @@ public final class RbSerializer {
 			buffer.putInt(-1);
 		} else {
 			buffer.putInt(data.length);
-			for (int aData : data) {
-				buffer.putInt(aData);
-			}
+			buffer.asIntBuffer().put(data);
+			((Buffer) buffer).position(buffer.position() + data.length * SIZEOF_INT);
 		}
 	}
 
@@ -267,9 +296,8 @@ public final class RbSerializer {
 			buffer.putInt(-1);
 		} else {
 			buffer.putInt(data.length);
-			for (char aData : data) {
-				buffer.putChar(aData);
-			}
+			buffer.asCharBuffer().put(data);
+			((Buffer) buffer).position(buffer.position() + data.length * SIZEOF_CHAR);
 		}
 	}
 
@@ -278,9 +306,8 @@ public final class RbSerializer {
 			buffer.putInt(-1);
 		} else {
 			buffer.putInt(data.length);
-			for (double aData : data) {
-				buffer.putDouble(aData);
-			}
+			buffer.asDoubleBuffer().put(data);
+			((Buffer) buffer).position(buffer.position() + data.length * SIZEOF_DOUBLE);
 		}
 	}
 
@@ -289,9 +316,8 @@ public final class RbSerializer {
 			buffer.putInt(-1);
 		} else {
 			buffer.putInt(data.length);
-			for (float aData : data) {
-				buffer.putFloat(aData);
-			}
+			buffer.asFloatBuffer().put(data);
+			((Buffer) buffer).position(buffer.position() + data.length * SIZEOF_FLOAT);
 		}
 	}
 
@@ -336,18 +362,22 @@ public final class RbSerializer {
 		if (bytes == -1) {
 			return null;
 		}
-		final ByteBuffer slice = buffer.slice();
-
-		((Buffer) slice).limit(bytes);
-		final String res;
+		final byte[] encoded;
+		final int offset;
 
-		try {
-			res = decoder.decode(slice).toString();
-		} catch (CharacterCodingException e) {
-			throw new Error("Bad character", e);
+		if (buffer.hasArray()) {
+			encoded = buffer.array();
+			offset = buffer.arrayOffset() + buffer.position();
+			((Buffer) buffer).position(buffer.position() + bytes);
+		} else {
+			if (encodedBytes.length < bytes) {
+				encodedBytes = new byte[Math.max(bytes, 2 * encodedBytes.length)];
+			}
+			encoded = encodedBytes;
+			offset = 0;
+			buffer.get(encoded, 0, bytes);
 		}
-		((Buffer) buffer).position(buffer.position() + bytes);
-		return res;
+		return decode(encoded, offset, bytes);
 	}
 
 	public byte[] deserializeBytes(ByteBuffer buffer) {
@@ -370,9 +400,8 @@ public final class RbSerializer {
 		}
 		int[] res = new int[len];
 
-		for (int i = 0; i < len; i++) {
-			res[i] = buffer.getInt();
-		}
+		buffer.asIntBuffer().get(res);
+		((Buffer) buffer).position(buffer.position() + len * SIZEOF_INT);
 		return res;
 	}
 
@@ -384,9 +413,8 @@ public final class RbSerializer {
 		}
 		float[] res = new float[len];
 
-		for (int i = 0; i < len; i++) {
-			res[i] = buffer.getFloat();
-		}
+		buffer.asFloatBuffer().get(res);
+		((Buffer) buffer).position(buffer.position() + len * SIZEOF_FLOAT);
 		return res;
 	}
 
@@ -398,9 +426,8 @@ public final class RbSerializer {
 		}
 		char[] res = new char[len];
 
-		for (int i = 0; i < len; i++) {
-			res[i] = buffer.getChar();
-		}
+		buffer.asCharBuffer().get(res);
+		((Buffer) buffer).position(buffer.position() + len * SIZEOF_CHAR);
 		return res;
 	}
 
@@ -412,9 +439,8 @@ public final class RbSerializer {
 		}
 		double[] res = new double[len];
 
-		for (int i = 0; i < len; i++) {
-			res[i] = buffer.getDouble();
-		}
+		buffer.asDoubleBuffer().get(res);
+		((Buffer) buffer).position(buffer.position() + len * SIZEOF_DOUBLE);
 		return res;
 	}
 
@@ -443,7 +469,12 @@ public final class RbSerializer {
 	}
 
 	public int sizeOf(String data) {
-		return (data == null) ? SIZEOF_INT : SIZEOF_INT + encode(data).limit();
+		if (data == null) {
+			return SIZEOF_INT;
+		}
+		final byte[] encoded = getCachedEncoding(data);
+
+		return SIZEOF_INT + (encoded != null ? encoded.length : encodedLength(data));
 	}
 
 	public int sizeOf(byte[] data) {
@@ -467,12 +498,156 @@ public final class RbSerializer {
 		return helper;
 	}
 
-	private ByteBuffer encode(String data) {
-		final ByteBuffer slice = ByteBuffer.allocate(data.length() * 3);
+	private byte[] getCachedEncoding(String data) {
+		if (data.length() > MAX_CACHED_STRING_LENGTH) {
+			return null;
+		}
+		final int index = data.hashCode() & (STRING_CACHE_SIZE - 1);
+		final String cached = cachedStrings[index];
+
+		if (cached != data && (cached == null || !cached.equals(data))) {
+			final byte[] encoded = new byte[encodedLength(data)];
+
+			encode(data, encoded.length, ByteBuffer.wrap(encoded));
+			cachedStrings[index] = data;
+			cachedEncodings[index] = encoded;
+		}
+		return cachedEncodings[index];
+	}
+
+	/**
+	 * Returns the length of the string encoded as UTF-8, where an unpaired surrogate is replaced by '?'.
+	 */
+	private static int encodedLength(String data) {
+		final int len = data.length();
+		int length = len;
+
+		for (int i = 0; i < len; i++) {
+			final char c = data.charAt(i);
+
+			if (c >= 0x80) {
+				if (c < 0x800) {
+					length += 1;
+				} else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+					length += 2;
+				} else if (isSurrogatePair(data, i)) {
+					length += 2;
+					i++;
+				}
+			}
+		}
+		return length;
+	}
+
+	private static boolean isSurrogatePair(String data, int index) {
+		return Character.isHighSurrogate(data.charAt(index)) && index + 1 < data.length()
+				&& Character.isLowSurrogate(data.charAt(index + 1));
+	}
+
+	/**
+	 * Encodes the string as UTF-8 into the buffer, where the encoded length must be known already.
+	 */
+	private static void encode(String data, int length, ByteBuffer buffer) {
+		final int len = data.length();
+
+		if (length == len) { // ASCII only, besides unpaired surrogates
+			if (buffer.hasArray()) {
+				final byte[] array = buffer.array();
+				final int offset = buffer.arrayOffset() + buffer.position();
+
+				for (int i = 0; i < len; i++) {
+					final char c = data.charAt(i);
+
+					array[offset + i] = (byte) (c < 0x80 ? c : '?');
+				}
+				((Buffer) buffer).position(buffer.position() + len);
+			} else {
+				for (int i = 0; i < len; i++) {
+					final char c = data.charAt(i);
 
-		encoder.encode(CharBuffer.wrap(data), slice, false);
-		((Buffer) slice).flip();
-		return slice;
+					buffer.put((byte) (c < 0x80 ? c : '?'));
+				}
+			}
+			return;
+		}
+		for (int i = 0; i < len; i++) {
+			final char c = data.charAt(i);
+
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (c < 0x800) {
+				buffer.put((byte) (0xC0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+				buffer.put((byte) (0xE0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if (isSurrogatePair(data, i)) {
+				final int cp = Character.toCodePoint(c, data.charAt(++i));
+
+				buffer.put((byte) (0xF0 | (cp >> 18)));
+				buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+				buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (cp & 0x3F)));
+			} else {
+				buffer.put((byte) '?');
+			}
+		}
+	}
+
+	/**
+	 * Decodes UTF-8, where malformed input is an error.
+	 */
+	private String decode(byte[] encoded, int offset, int length) {
+		if (decodedChars.length < length) {
+			decodedChars = new char[Math.max(length, 2 * decodedChars.length)];
+		}
+		final char[] chars = decodedChars;
+		final int end = offset + length;
+		int count = 0;
+		int i = offset;
+
+		try {
+			while (i < end) {
+				final int b = encoded[i++];
+
+				if (b >= 0) {
+					chars[count++] = (char) b;
+				} else if ((b & 0xE0) == 0xC0 && (b & 0x1E) != 0) {
+					chars[count++] = (char) (((b & 0x1F) << 6) | continuation(encoded[i++]));
+				} else if ((b & 0xF0) == 0xE0) {
+					final int c = ((b & 0x0F) << 12) | (continuation(encoded[i++]) << 6) | continuation(encoded[i++]);
+
+					if (c < 0x800 || (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE)) {
+						throw new Error("Bad character");
+					}
+					chars[count++] = (char) c;
+				} else if ((b & 0xF8) == 0xF0) {
+					final int cp = ((b & 0x07) << 18) | (continuation(encoded[i++]) << 12)
+							| (continuation(encoded[i++]) << 6) | continuation(encoded[i++]);
+
+					if (cp < Character.MIN_SUPPLEMENTARY_CODE_POINT || cp > Character.MAX_CODE_POINT) {
+						throw new Error("Bad character");
+					}
+					count += Character.toChars(cp, chars, count);
+				} else {
+					throw new Error("Bad character");
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new Error("Bad character", e);
+		}
+		if (i > end) {
+			throw new Error("Bad character");
+		}
+		return new String(chars, 0, count);
+	}
+
+	private static int continuation(byte b) {
+		if ((b & 0xC0) != 0x80) {
+			throw new Error("Bad character");
+		}
+		return b & 0x3F;
 	}
 
 	private void fillBuffer(InputStream source, ByteBuffer buffer) throws IOException {
@@ -509,7 +684,7 @@ public final class RbSerializer {
 	}
 
 	public static ByteBuffer serializeToBuffer(Object src) throws IOException {
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 		final Byte type = classToType.get(src.getClass());
 
 		return rbs.serialize(type, src);
@@ -517,21 +692,17 @@ public final class RbSerializer {
 
 	@SuppressWarnings({ "unchecked"})
 	public static <T> T deserializeFromBuffer(ByteBuffer buffer) throws IOException {
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 		final Object res = rbs.deserialize(buffer);
 
 		return (T) res;
 	}
 
 	public static Object deepCopy(byte type, Object src) {
-		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 
 		try {
-			rbs.serialize(out, type, src);
-			ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
-
-			return rbs.deserialize(in);
+			return rbs.deserialize(rbs.serializeToStreamBuffer(type, src));
 		} catch (IOException e) {
 			Logger.logError(e);
 			return null;
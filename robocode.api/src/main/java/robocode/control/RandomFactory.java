@@ -17,6 +17,12 @@ import java.util.Random;
  * The RandomFactory is used for controlling the generation of random numbers,
  * and supports generating random numbers that are deterministic, which is
  * useful for testing purposes.
+ * <p>
+ * Threads can have their own random number generator, which is used instead of
+ * the shared one by {@link #getRandom()}, and by {@link Math#random()} when
+ * {@link #installThreadRandom()} succeeded. Each robot thread uses its own
+ * random number generator, so robots do not contend on the shared one, and
+ * behave the same for the same battle seed.
  *
  * @author Pavel Savara (original)
  * @author Xor (fixed for Java 8)
@@ -27,6 +33,10 @@ import java.util.Random;
 public class RandomFactory {
 	private static Random randomNumberGenerator = new Random();
 
+	private static final InheritableThreadLocal<Random> threadRandomNumberGenerator = new InheritableThreadLocal<Random>();
+	private static final ThreadRandom threadRandom = new ThreadRandom();
+	private static boolean threadRandomInstalled;
+
 	private static boolean warningNotSupportedLogged;
 	private static boolean isDeterministic;
 
@@ -36,12 +46,44 @@ public class RandomFactory {
 
 	/**
 	 * Returns the random number generator used for generating a stream of random
-	 * numbers.
+	 * numbers, which is the random number generator of the current thread if it
+	 * has one.
 	 *
 	 * @return a {@link java.util.Random} instance.
 	 * @see java.util.Random
 	 */
 	public static Random getRandom() {
+		Random random = threadRandomNumberGenerator.get();
+
+		return random != null ? random : getSharedRandom();
+	}
+
+	/**
+	 * Sets the random number generator of the current thread, which is inherited
+	 * by the threads it creates.
+	 *
+	 * @param random
+	 *            a {@link java.util.Random} instance, or null for using the
+	 *            shared random number generator.
+	 * @since 1.9.3.9
+	 */
+	public static void setThreadRandom(Random random) {
+		threadRandomNumberGenerator.set(random);
+	}
+
+	/**
+	 * Makes {@link Math#random()} use the random number generator of the current
+	 * thread, like {@link #getRandom()} does.
+	 *
+	 * @since 1.9.3.9
+	 */
+	public static synchronized void installThreadRandom() {
+		if (!threadRandomInstalled) {
+			setRandom(getSharedRandom());
+		}
+	}
+
+	private static Random getSharedRandom() {
 		if (randomNumberGenerator == null) {
 			Field field = getRandomNumberGeneratorField();
 			if (field != null) {
@@ -80,10 +122,10 @@ public class RandomFactory {
 		final boolean savedFieldAccessible = field.isAccessible();
 
 		field.setAccessible(true);
-		randomNumberGenerator = (Random) field.get(null);
+		Random random = (Random) field.get(null);
 		field.setAccessible(savedFieldAccessible);
 
-		return randomNumberGenerator;
+		return random instanceof ThreadRandom ? null : random;
 	}
 
 	/**
@@ -95,12 +137,20 @@ public class RandomFactory {
 	 * @see java.util.Random
 	 */
 	public static void setRandom(Random random) {
+		if (random instanceof ThreadRandom) {
+			return;
+		}
 		randomNumberGenerator = random;
 
+		// Math.random() uses the random number generator of the current thread, or else the shared one
+		if (threadRandomInstalled) {
+			return;
+		}
 		Field field = getRandomNumberGeneratorField();
 		if (field != null) {
 			try {
 				setRandomNumberGenerator(field);
+				threadRandomInstalled = true;
 			} catch (Exception e) {
 				logWarningNotSupported();
 			}
@@ -123,7 +173,7 @@ public class RandomFactory {
 			try {
 				modifiersField.setInt(field, oldModifiers & ~Modifier.FINAL);
 
-				field.set(null, randomNumberGenerator);
+				field.set(null, threadRandom);
 			} finally {
 				modifiersField.setInt(field, oldModifiers);
 			}
@@ -159,4 +209,72 @@ public class RandomFactory {
 			warningNotSupportedLogged = true;
 		}
 	}
+
+	/**
+	 * Random number generator, which hands out the random numbers of the random
+	 * number generator returned by {@link #getRandom()}. It is installed as the
+	 * random number generator of {@link Math#random()}.
+	 */
+	private static final class ThreadRandom extends Random {
+		private static final long serialVersionUID = 1L;
+
+		// False while the super constructor sets the seed
+		private final boolean constructed;
+
+		ThreadRandom() {
+			constructed = true;
+		}
+
+		@Override
+		public void setSeed(long seed) {
+			if (constructed) {
+				getRandom().setSeed(seed);
+			}
+		}
+
+		@Override
+		protected int next(int bits) {
+			return getRandom().nextInt() >>> (32 - bits);
+		}
+
+		@Override
+		public void nextBytes(byte[] bytes) {
+			getRandom().nextBytes(bytes);
+		}
+
+		@Override
+		public int nextInt() {
+			return getRandom().nextInt();
+		}
+
+		@Override
+		public int nextInt(int bound) {
+			return getRandom().nextInt(bound);
+		}
+
+		@Override
+		public long nextLong() {
+			return getRandom().nextLong();
+		}
+
+		@Override
+		public boolean nextBoolean() {
+			return getRandom().nextBoolean();
+		}
+
+		@Override
+		public float nextFloat() {
+			return getRandom().nextFloat();
+		}
+
+		@Override
+		public double nextDouble() {
+			return getRandom().nextDouble();
+		}
+
+		@Override
+		public double nextGaussian() {
+			return getRandom().nextGaussian();
+		}
+	}
 }
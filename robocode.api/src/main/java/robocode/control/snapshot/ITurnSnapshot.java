@@ -20,6 +20,8 @@ public interface ITurnSnapshot {
 
 	/**
 	 * Returns a list of snapshots for the robots participating in the battle. 
+	 * <p>
+	 * The returned array is shared by all callers and must not be modified.
 	 *
 	 * @return a list of snapshots for the robots participating in the battle. 
 	 */
@@ -27,6 +29,8 @@ public interface ITurnSnapshot {
 
 	/**
 	 * Returns a list of snapshots for the bullets that are currently on the battlefield.
+	 * <p>
+	 * The returned array is shared by all callers and must not be modified.
 	 *
 	 * @return a list of snapshots for the bullets that are currently on the battlefield.
 	 */
@@ -56,6 +60,9 @@ public interface ITurnSnapshot {
 	/**
 	 * Returns an array of sorted scores grouped by teams, ordered by position.
 	 * Note that the team index cannot be used to determine the score with the sorted scores.
+	 * <p>
+	 * The ranking is maintained by the battle as the scores change, so the scores are not sorted
+	 * when calling this method. The returned array is shared by all callers and must not be modified.
 	 *
 	 * @return an array of sorted IScoreSnapshots, where the bigger scores are placed first in the list.
 	 * 
@@ -66,6 +73,8 @@ public interface ITurnSnapshot {
 	/**
 	 * Returns an array of indexed scores grouped by teams that can be used to determine the score
 	 * for the individual team based on the team index.
+	 * <p>
+	 * The returned array is shared by all callers and must not be modified.
 	 *
 	 * @return an array of indexed IScoreSnapshots, where each index matches an index of a specific team.
 	 * 
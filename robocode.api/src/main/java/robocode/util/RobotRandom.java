@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package robocode.util;
+
+
+import java.util.Random;
+
+
+/**
+ * Random number generator used in place of {@link java.util.Random} by robots.
+ * <p>
+ * When a robot class is loaded, the random number generators it creates with
+ * {@code new java.util.Random(...)} are created as instances of this class
+ * instead, and subclasses of {@link java.util.Random} get this class as super
+ * class. Fields, parameters and return values keep the type
+ * {@link java.util.Random}. A random number generator created
+ * without a seed is seeded from the random number generator of the robot, so a
+ * battle behaves the same every time it is run with the same battle seed.
+ * <p>
+ * Robots should not use this class directly, but {@link java.util.Random}.
+ *
+ * @since 1.9.3.9
+ */
+public class RobotRandom extends Random {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a new random number generator, which is seeded from the random
+	 * number generator of the robot.
+	 */
+	public RobotRandom() {
+		super(Utils.getRandom().nextLong());
+	}
+
+	/**
+	 * Creates a new random number generator using a single {@code long} seed.
+	 *
+	 * @param seed the initial seed.
+	 */
+	public RobotRandom(long seed) {
+		super(seed);
+	}
+}
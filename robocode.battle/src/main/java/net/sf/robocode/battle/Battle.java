@@ -12,6 +12,7 @@ import net.sf.robocode.battle.events.BattleEventDispatcher;
 import net.sf.robocode.battle.peer.BulletPeer;
 import net.sf.robocode.battle.peer.ContestantPeer;
 import net.sf.robocode.battle.peer.RobotPeer;
+import net.sf.robocode.battle.peer.RobotStatistics;
 import net.sf.robocode.battle.peer.TeamPeer;
 import net.sf.robocode.battle.snapshot.TurnSnapshot;
 import net.sf.robocode.host.ICpuManager;
@@ -22,13 +23,13 @@ import net.sf.robocode.repository.IRobotItem;
 import net.sf.robocode.security.HiddenAccess;
 import net.sf.robocode.settings.ISettingsManager;
 import robocode.*;
-import robocode.control.RandomFactory;
 import robocode.control.RobotResults;
 import robocode.control.RobotSetup;
 import robocode.control.RobotSpecification;
 import robocode.control.events.*;
 import robocode.control.events.RoundEndedEvent;
 import robocode.control.snapshot.BulletState;
+import robocode.control.snapshot.IScoreSnapshot;
 import robocode.control.snapshot.ITurnSnapshot;
 
 import java.util.*;
@@ -81,14 +82,31 @@ public final class Battle extends BaseBattle {
 	// Initial robot setups (if any)
 	private RobotSetup[] initialRobotSetups;
 
+	// Ranking of the contestants by score, and the total and current scores of the contestants by contestant index
+	private ScoreRanking scoreRanking;
+	private int[] contestantIndexes;
+	private double[] contestantTotalScores;
+	private double[] contestantCurrentScores;
+
+	// Merged score snapshots of the contestants with several robots, and the score snapshots of the robots they were
+	// merged from, which are shared by the turn snapshots until the score of one of the robots changes
+	private IScoreSnapshot[] contestantScoreSnapshots;
+	private IScoreSnapshot[][] contestantRobotScoreSnapshots;
+
+	// Seed of the battle, from which the seeds of the random number generators of the engine and robots are derived
+	private long randomSeed;
+	private Random random;
+
 	public Battle(ISettingsManager properties, IBattleManager battleManager, IHostManager hostManager, ICpuManager cpuManager, BattleEventDispatcher eventDispatcher) { // NO_UCD (unused code)
 		super(properties, battleManager, eventDispatcher);
 		this.hostManager = hostManager;
 		this.cpuConstant = cpuManager.getCpuConstant();
 	}
 
-	void setup(RobotSpecification[] battlingRobotsList, BattleProperties battleProps, boolean paused) {
+	void setup(RobotSpecification[] battlingRobotsList, BattleProperties battleProps, boolean paused, long randomSeed) {
 		isPaused = paused;
+		this.randomSeed = randomSeed;
+		random = new Random(splitSeed(randomSeed, 0));
 		battleRules = HiddenAccess.createRules(battleProps.getBattlefieldWidth(), battleProps.getBattlefieldHeight(),
 				battleProps.getNumRounds(), battleProps.getGunCoolingRate(), battleProps.getInactivityTime(),
 				battleProps.getHideEnemyNames(), battleProps.getSentryBorderSize());
@@ -161,6 +179,85 @@ public final class Battle extends BaseBattle {
 				contestants.add(robotPeer);
 			}
 		}
+
+		// team indexes and robot indexes may coincide, and the turn snapshots merge the scores of such contestants
+		boolean[] isContestantIndex = new boolean[robots.size()];
+		int contestantCount = 0;
+
+		for (ContestantPeer contestant : contestants) {
+			int contestantIndex = contestant instanceof TeamPeer
+					? ((TeamPeer) contestant).getContestantIndex()
+					: ((RobotPeer) contestant).getContestantIndex();
+
+			if (!isContestantIndex[contestantIndex]) {
+				isContestantIndex[contestantIndex] = true;
+				contestantCount++;
+			}
+		}
+		contestantIndexes = new int[contestantCount];
+		for (int i = 0, j = 0; i < isContestantIndex.length; i++) {
+			if (isContestantIndex[i]) {
+				contestantIndexes[j++] = i;
+			}
+		}
+		scoreRanking = new ScoreRanking(contestantIndexes);
+		contestantTotalScores = new double[robots.size()];
+		contestantCurrentScores = new double[robots.size()];
+		contestantScoreSnapshots = new IScoreSnapshot[robots.size()];
+		contestantRobotScoreSnapshots = new IScoreSnapshot[robots.size()][];
+	}
+
+	/**
+	 * Returns the contestant indexes ranked by the total and current scores of the contestants, best first. The
+	 * returned array is shared until the ranking changes, and must not be modified.
+	 */
+	public int[] getScoreRanking() {
+		return scoreRanking.getRanking();
+	}
+
+	/**
+	 * Updates the ranking of the contestants with their scores. The scores of team members are summed up in the same
+	 * order as the team scores of the turn snapshots, so the ranking matches the team scores exactly.
+	 */
+	private void updateScoreRanking() {
+		Arrays.fill(contestantTotalScores, 0);
+		Arrays.fill(contestantCurrentScores, 0);
+
+		for (RobotPeer robotPeer : robots) {
+			RobotStatistics statistics = robotPeer.getRobotStatistics();
+			int contestantIndex = robotPeer.getContestantIndex();
+
+			contestantTotalScores[contestantIndex] += statistics.getTotalScore();
+			contestantCurrentScores[contestantIndex] += statistics.getCurrentScore();
+		}
+		for (int contestantIndex : contestantIndexes) {
+			scoreRanking.update(contestantIndex,
+					contestantTotalScores[contestantIndex] + contestantCurrentScores[contestantIndex]);
+		}
+	}
+
+	/**
+	 * Returns the merged score snapshot of a contestant if it was merged from the specified score snapshots of its
+	 * robots, or null if the score of one of the robots has changed since.
+	 */
+	public IScoreSnapshot getContestantScoreSnapshot(int contestantIndex, IScoreSnapshot[] robotScoreSnapshots) {
+		final IScoreSnapshot[] merged = contestantRobotScoreSnapshots[contestantIndex];
+
+		if (merged == null || merged.length != robotScoreSnapshots.length) {
+			return null;
+		}
+		for (int i = 0; i < merged.length; i++) {
+			if (merged[i] != robotScoreSnapshots[i]) {
+				return null;
+			}
+		}
+		return contestantScoreSnapshots[contestantIndex];
+	}
+
+	public void setContestantScoreSnapshot(int contestantIndex, IScoreSnapshot scoreSnapshot,
+			IScoreSnapshot[] robotScoreSnapshots) {
+		contestantScoreSnapshots[contestantIndex] = scoreSnapshot;
+		contestantRobotScoreSnapshots[contestantIndex] = robotScoreSnapshots;
 	}
 
 	public void registerDeathRobot(RobotPeer r) {
@@ -329,6 +426,8 @@ public final class Battle extends BaseBattle {
 
 		Logger.logMessage(""); // puts in a new-line in the log message
 
+		updateScoreRanking();
+
 		final ITurnSnapshot snapshot = new TurnSnapshot(this, robots, bullets, false);
 
 		eventDispatcher.onRoundStarted(new RoundStartedEvent(snapshot, getRoundNum()));
@@ -442,6 +541,15 @@ public final class Battle extends BaseBattle {
 
 	@Override
 	protected void finalizeTurn() {
+		updateScoreRanking();
+
+		if (isRoundOver()) {
+			// The robots are stopped before the last turn of the round is published, so it has all the text they printed
+			for (RobotPeer robotPeer : robots) {
+				robotPeer.waitForStop();
+			}
+		}
+
 		eventDispatcher.onTurnEnded(new TurnEndedEvent(new TurnSnapshot(this, robots, bullets, true)));
 
 		super.finalizeTurn();
@@ -468,6 +576,35 @@ public final class Battle extends BaseBattle {
 		return results.toArray(new BattleResults[results.size()]);
 	}
 
+	/**
+	 * Returns the random number generator of the engine, which is seeded from the seed of the battle.
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Returns the seed of the random number generator of a robot, which is derived from the seed of the battle.
+	 *
+	 * @param robotIndex the index of the robot.
+	 * @return the seed of the random number generator of the robot.
+	 */
+	public long getRobotRandomSeed(int robotIndex) {
+		return splitSeed(randomSeed, robotIndex + 1);
+	}
+
+	/**
+	 * Derives the seed of a random number stream from the seed of the battle, where streams with different indexes
+	 * get independent seeds. This is the SplitMix64 generator, which is also used by java.util.SplittableRandom.
+	 */
+	private static long splitSeed(long seed, int streamIndex) {
+		long z = seed + (streamIndex + 1) * 0x9E3779B97F4A7C15L;
+
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
 	/**
 	 * Returns a list of all robots in random order. This method is used to gain fair play in Robocode,
 	 * so that a robot placed before another robot in the list will not gain any benefit when the game
@@ -480,7 +617,7 @@ public final class Battle extends BaseBattle {
 	private List<RobotPeer> getRobotsAtRandom() {
 		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(robots);
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
+		Collections.shuffle(shuffledList, random);
 		return shuffledList;
 	}
 
@@ -492,7 +629,7 @@ public final class Battle extends BaseBattle {
 	private List<BulletPeer> getBulletsAtRandom() {
 		List<BulletPeer> shuffledList = new ArrayList<BulletPeer>(bullets);
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
+		Collections.shuffle(shuffledList, random);
 		return shuffledList;
 	}
 
@@ -504,7 +641,7 @@ public final class Battle extends BaseBattle {
 	private List<RobotPeer> getDeathRobotsAtRandom() {
 		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(deathRobots);
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
+		Collections.shuffle(shuffledList, random);
 		return shuffledList;
 	}
 
@@ -699,8 +836,6 @@ public final class Battle extends BaseBattle {
 		for (int i = 0; i < positions.size(); i++) {
 			coords = positions.get(i).split(",");
 
-			Random random = RandomFactory.getRandom();
-
 			x = RobotPeer.WIDTH + random.nextDouble() * (battleRules.getBattlefieldWidth() - 2 * RobotPeer.WIDTH);
 			y = RobotPeer.HEIGHT + random.nextDouble() * (battleRules.getBattlefieldHeight() - 2 * RobotPeer.HEIGHT);
 			heading = 2 * Math.PI * random.nextDouble();
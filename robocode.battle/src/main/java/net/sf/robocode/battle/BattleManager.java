@@ -183,12 +183,6 @@ public class BattleManager implements IBattleManager {
 				&& System.getProperty("TESTING", "none").equals("none"))
 						|| enableCLIRecording;
 
-		if (recording) {
-			recordManager.attachRecorder(battleEventDispatcher);
-		} else {
-			recordManager.detachRecorder();
-		}
-
 		// resets seed for deterministic behavior of Random
 		final String seed = System.getProperty("RANDOMSEED", "none");
 
@@ -199,8 +193,21 @@ public class BattleManager implements IBattleManager {
 			RandomFactory.resetDeterministic(Long.valueOf(seed));
 		}
 
+		// the engine and robots get random number generators of their own, which are seeded from the battle seed
+		RandomFactory.installThreadRandom();
+
+		final long randomSeed = (battleProperties.getRandomSeed() != null)
+				? battleProperties.getRandomSeed()
+				: RandomFactory.getRandom().nextLong();
+
+		if (recording) {
+			recordManager.attachRecorder(battleEventDispatcher, randomSeed);
+		} else {
+			recordManager.detachRecorder();
+		}
+
 		Battle realBattle = Container.createComponent(Battle.class);
-		realBattle.setup(battlingRobotsList, battleProperties, isPaused());
+		realBattle.setup(battlingRobotsList, battleProperties, isPaused(), randomSeed);
 
 		battle = realBattle;
 
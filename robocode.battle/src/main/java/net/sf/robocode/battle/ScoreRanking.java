@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Ranking of the contestants of a battle by their scores, which is kept up to date as the scores change.
+ * <p>
+ * The contestants are kept in ranked order, where a contestant is only moved when its score has changed, and then
+ * only past the contestants it overtakes or falls behind. Contestants with equal scores are ranked by descending
+ * contestant index, which is the order a stable sort in descending order would give.
+ */
+final class ScoreRanking {
+
+	// Contestant indexes in ranked order, best first
+	private final int[] order;
+
+	// Positions in the ranked order, and scores, by contestant index
+	private final int[] positions;
+	private final double[] scores;
+
+	// Copy of the ranked order handed out, which is shared until the order changes
+	private int[] ranking;
+
+	/**
+	 * Creates a ranking of contestants that all have a score of zero.
+	 *
+	 * @param contestantIndexes the indexes of the contestants.
+	 */
+	ScoreRanking(int[] contestantIndexes) {
+		int maxIndex = -1;
+
+		for (int index : contestantIndexes) {
+			maxIndex = Math.max(maxIndex, index);
+		}
+		positions = new int[maxIndex + 1];
+		scores = new double[maxIndex + 1];
+
+		order = contestantIndexes.clone();
+		Arrays.sort(order);
+		for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+			int index = order[i];
+
+			order[i] = order[j];
+			order[j] = index;
+		}
+		for (int i = 0; i < order.length; i++) {
+			positions[order[i]] = i;
+		}
+	}
+
+	/**
+	 * Updates the score of a contestant, and moves it to its new rank if the score has changed.
+	 *
+	 * @param contestantIndex the index of the contestant.
+	 * @param score the total and current score of the contestant.
+	 */
+	void update(int contestantIndex, double score) {
+		if (scores[contestantIndex] == score) {
+			return;
+		}
+		scores[contestantIndex] = score;
+
+		int pos = positions[contestantIndex];
+		int start = pos;
+
+		while (pos > 0 && isBefore(contestantIndex, order[pos - 1])) {
+			order[pos] = order[pos - 1];
+			positions[order[pos]] = pos;
+			pos--;
+		}
+		while (pos < order.length - 1 && isBefore(order[pos + 1], contestantIndex)) {
+			order[pos] = order[pos + 1];
+			positions[order[pos]] = pos;
+			pos++;
+		}
+		order[pos] = contestantIndex;
+		positions[contestantIndex] = pos;
+
+		if (pos != start) {
+			ranking = null;
+		}
+	}
+
+	/**
+	 * Returns the contestant indexes in ranked order, best first. The returned array is shared until the ranked order
+	 * changes, and must not be modified.
+	 */
+	int[] getRanking() {
+		if (ranking == null) {
+			ranking = order.clone();
+		}
+		return ranking;
+	}
+
+	private boolean isBefore(int contestant1, int contestant2) {
+		double score1 = scores[contestant1];
+		double score2 = scores[contestant2];
+
+		return score1 > score2 || (score1 == score2 && contestant1 > contestant2);
+	}
+}
@@ -22,7 +22,6 @@ import net.sf.robocode.repository.IRobotItem;
 import net.sf.robocode.security.HiddenAccess;
 import net.sf.robocode.serialization.RbSerializer;
 import robocode.*;
-import robocode.control.RandomFactory;
 import robocode.control.RobotSetup;
 import robocode.control.RobotSpecification;
 import robocode.control.snapshot.BulletState;
@@ -41,7 +40,9 @@ import static java.lang.Math.*;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -75,12 +76,16 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	private static final int MAX_SKIPPED_TURNS = 30;
 	private static final int MAX_SKIPPED_TURNS_WITH_IO = 240;
+	private static final int MAX_RECIPIENTS = 64;
 
 	private Battle battle;
 	private RobotStatistics statistics;
 	private final RobotSpecification robotSpecification;
 	private final TeamPeer teamPeer;
 
+	// The team members receiving the messages sent to a recipient, where a null recipient means all other members
+	private final Map<String, RobotPeer[]> recipientMembers = new HashMap<String, RobotPeer[]>();
+
 	private IHostingRobotProxy robotProxy;
 	private AtomicReference<RobotStatus> status = new AtomicReference<RobotStatus>();
 	private AtomicReference<ExecCommands> commands = new AtomicReference<ExecCommands>();
@@ -95,6 +100,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	private final StringBuilder battleText = new StringBuilder(1024);
 	private final StringBuilder proxyText = new StringBuilder(1024);
+	private String proxyTextOfTurn; // the only text printed by the robot since the last read out, taken over as it is
 	private RobotStatics statics;
 	private BattleRules battleRules;
 
@@ -174,7 +180,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 
 		this.statics = new RobotStatics(robotSpecification, suffix, isTeamLeader, battleRules, teamName, teamMembers,
-				robotIndex, teamIndex);
+				robotIndex, teamIndex, battle.getRobotRandomSeed(robotIndex));
 		this.statistics = new RobotStatistics(this, battle.getRobotsCount());
 
 		this.robotProxy = (IHostingRobotProxy) hostManager.createRobotProxy(robotSpecification, statics, this);
@@ -188,17 +194,41 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	private void print(String s) {
+		if (s.length() == 0) {
+			return;
+		}
 		synchronized (proxyText) {
-			proxyText.append(s);
+			if (proxyTextOfTurn == null && proxyText.length() == 0) {
+				proxyTextOfTurn = s;
+			} else {
+				if (proxyTextOfTurn != null) {
+					proxyText.append(proxyTextOfTurn);
+					proxyTextOfTurn = null;
+				}
+				proxyText.append(s);
+			}
 		}
 	}
 
 	public String readOutText() {
 		synchronized (proxyText) {
-			final String robotText = battleText.toString() + proxyText.toString();
+			final String robotText;
+
+			if (battleText.length() == 0 && proxyText.length() == 0) {
+				robotText = (proxyTextOfTurn != null) ? proxyTextOfTurn : "";
+			} else {
+				StringBuilder sb = new StringBuilder(battleText.length() + proxyText.length()
+						+ (proxyTextOfTurn != null ? proxyTextOfTurn.length() : 0));
 
+				sb.append(battleText).append(proxyText);
+				if (proxyTextOfTurn != null) {
+					sb.append(proxyTextOfTurn);
+				}
+				robotText = sb.toString();
+			}
 			battleText.setLength(0);
 			proxyText.setLength(0);
+			proxyTextOfTurn = null;
 			return robotText;
 		}
 	}
@@ -271,6 +301,12 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		return statics.getTeamIndex();
 	}
 
+	public int getContestantIndex() {
+		int teamIndex = getTeamIndex();
+
+		return teamIndex >= 0 ? teamIndex : getRobotIndex();
+	}
+
 	// -------------------
 	// status 
 	// -------------------
@@ -499,10 +535,12 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	public final ExecResults waitForBattleEndImpl(ExecCommands newCommands) {
+		// The text is kept after the robot has been halted, as it has been read from the console of the robot already
+		print(newCommands.getOutputText());
+
 		if (!isHalt()) {
 			// from robot to battle
 			commands.set(new ExecCommands(newCommands, true));
-			print(newCommands.getOutputText());
 
 			waitForNextTurn();
 		}
@@ -668,7 +706,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 
 		if (!valid) {
-			final Random random = RandomFactory.getRandom();
+			final Random random = battle.getRandom();
 
 			double maxWidth = battleRules.getBattlefieldWidth() - RobotPeer.WIDTH;
 			double maxHeight = battleRules.getBattlefieldHeight() - RobotPeer.HEIGHT;
@@ -760,6 +798,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		synchronized (proxyText) { // Bug fix #387
 			battleText.setLength(0);
 			proxyText.setLength(0);
+			proxyTextOfTurn = null;
 		}
 
 		// Prepare new execution commands, but copy the colors from the last commands.
@@ -948,8 +987,8 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		// dispatch messages
 		if (statics.isTeamRobot() && teamPeer != null) {
 			for (TeamMessage teamMessage : currentCommands.getTeamMessages()) {
-				for (RobotPeer member : teamPeer) {
-					if (checkDispatchToMember(member, teamMessage.recipient)) {
+				for (RobotPeer member : getRecipientMembers(teamMessage.recipient)) {
+					if (member.isAlive()) {
 						member.addTeamMessage(teamMessage);
 					}
 				}
@@ -967,29 +1006,33 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		queue.add(message);
 	}
 
-	private boolean checkDispatchToMember(RobotPeer member, String recipient) {
-		if (member.isAlive()) {
-			if (recipient == null) {
-				if (member != this) {
-					return true;
-				}
-			} else {
-				final int nl = recipient.length();
-				final String currentName = member.statics.getName();
+	// The members of a team are fixed for the battle, so the members matching a recipient are only looked up once
+	private RobotPeer[] getRecipientMembers(String recipient) {
+		RobotPeer[] members = recipientMembers.get(recipient);
 
-				if ((currentName.length() >= nl && currentName.substring(0, nl).equals(recipient))) {
-					return true;
-				}
+		if (members == null) {
+			List<RobotPeer> matching = new ArrayList<RobotPeer>();
 
-				final String currentClassName = member.statics.getFullClassName();
-
-				if ((currentClassName.length() >= nl && currentClassName.substring(0, nl).equals(recipient))) {
-					return true;
+			for (RobotPeer member : teamPeer) {
+				if (checkDispatchToMember(member, recipient)) {
+					matching.add(member);
 				}
+			}
+			members = matching.toArray(new RobotPeer[matching.size()]);
 
+			if (recipientMembers.size() >= MAX_RECIPIENTS) {
+				recipientMembers.clear();
 			}
+			recipientMembers.put(recipient, members);
 		}
-		return false;
+		return members;
+	}
+
+	private boolean checkDispatchToMember(RobotPeer member, String recipient) {
+		if (recipient == null) {
+			return member != this;
+		}
+		return member.statics.getName().startsWith(recipient) || member.statics.getFullClassName().startsWith(recipient);
 	}
 
 	public String getNameForEvent(RobotPeer otherRobot) {
@@ -1676,6 +1719,9 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	public void waitForStop() {
 		robotProxy.waitForStopThread();
+
+		// Text printed just before the robot was stopped, e.g. in onDeath() when the round ended right after
+		print(robotProxy.readOutText());
 	}
 
 	/**
@@ -1705,6 +1751,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		synchronized (proxyText) { // Bug fix #387
 			battleText.setLength(0);
 			proxyText.setLength(0);
+			proxyTextOfTurn = null;
 		}
 	}
 
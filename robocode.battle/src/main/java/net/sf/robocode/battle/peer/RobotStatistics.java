@@ -9,6 +9,7 @@ package net.sf.robocode.battle.peer;
 
 
 import robocode.BattleResults;
+import robocode.control.snapshot.IScoreSnapshot;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -50,6 +51,9 @@ public class RobotStatistics implements ContestantStatistics {
 	private int totalSeconds;
 	private int totalThirds;
 
+	// Snapshot of the scores, which is shared by the turn snapshots until the scores change
+	private IScoreSnapshot scoreSnapshot;
+
 	RobotStatistics(RobotPeer robotPeer, int numberOfRobots) {
 		super();
 		this.robotPeer = robotPeer;
@@ -68,6 +72,7 @@ public class RobotStatistics implements ContestantStatistics {
 	}
 
 	private void resetScores() {
+		scoreSnapshot = null;
 		robotDamageMap = null;
 		survivalScore = 0;
 		lastSurvivorBonus = 0;
@@ -78,6 +83,7 @@ public class RobotStatistics implements ContestantStatistics {
 	}
 
 	public void generateTotals() {
+		scoreSnapshot = null;
 		totalSurvivalScore += survivalScore;
 		totalLastSurvivorBonus += lastSurvivorBonus;
 		totalBulletDamageScore += bulletDamageScore;
@@ -166,12 +172,14 @@ public class RobotStatistics implements ContestantStatistics {
 
 	public void scoreSurvival() {
 		if (isActive && !robotPeer.isSentryRobot()) {
+			scoreSnapshot = null;
 			survivalScore += 50;
 		}
 	}
 
 	public void scoreLastSurvivor() {
 		if (isActive && !robotPeer.isSentryRobot()) {
+			scoreSnapshot = null;
 			int enemyCount = numberOfRobots - 1;
 
 			if (robotPeer.getTeamPeer() != null) {
@@ -188,6 +196,7 @@ public class RobotStatistics implements ContestantStatistics {
 
 	void scoreBulletDamage(String robot, double damage) {
 		if (isActive) {
+			scoreSnapshot = null;
 			incrementRobotDamage(robot, damage);
 			bulletDamageScore += damage;
 		}
@@ -195,6 +204,7 @@ public class RobotStatistics implements ContestantStatistics {
 
 	double scoreBulletKill(String robot) {
 		if (isActive) {
+			scoreSnapshot = null;
 			double bonus;
 
 			if (robotPeer.getTeamPeer() == null) {
@@ -214,6 +224,7 @@ public class RobotStatistics implements ContestantStatistics {
 
 	void scoreRammingDamage(String robot) {
 		if (isActive) {
+			scoreSnapshot = null;
 			incrementRobotDamage(robot, robocode.Rules.ROBOT_HIT_DAMAGE);
 			rammingDamageScore += robocode.Rules.ROBOT_HIT_BONUS;
 		}
@@ -221,6 +232,7 @@ public class RobotStatistics implements ContestantStatistics {
 
 	double scoreRammingKill(String robot) {
 		if (isActive) {
+			scoreSnapshot = null;
 			double bonus;
 
 			if (robotPeer.getTeamPeer() == null) {
@@ -239,6 +251,7 @@ public class RobotStatistics implements ContestantStatistics {
 
 	public void scoreRobotDeath(int enemiesRemaining) {
 		if (!robotPeer.isSentryRobot()) {
+			scoreSnapshot = null;
 			switch (enemiesRemaining) {
 			case 0:
 				if (!robotPeer.isWinner()) {
@@ -259,6 +272,7 @@ public class RobotStatistics implements ContestantStatistics {
 
 	public void scoreFirsts() {
 		if (isActive && !robotPeer.isSentryRobot()) {
+			scoreSnapshot = null;
 			totalFirsts++;
 		}
 	}
@@ -268,6 +282,17 @@ public class RobotStatistics implements ContestantStatistics {
 		isActive = false;
 	}
 
+	/**
+	 * Returns the snapshot of the scores, or null if the scores have changed since the snapshot was set.
+	 */
+	public IScoreSnapshot getScoreSnapshot() {
+		return scoreSnapshot;
+	}
+
+	public void setScoreSnapshot(IScoreSnapshot scoreSnapshot) {
+		this.scoreSnapshot = scoreSnapshot;
+	}
+
 	public BattleResults getFinalResults() {
 		return new BattleResults(robotPeer.getTeamName(), rank, totalScore, totalSurvivalScore, totalLastSurvivorBonus,
 				totalBulletDamageScore, totalBulletKillBonus, totalRammingDamageScore, totalRammingKillBonus, totalFirsts,
@@ -9,6 +9,7 @@ package net.sf.robocode.battle.snapshot;
 
 
 import net.sf.robocode.battle.peer.RobotPeer;
+import net.sf.robocode.battle.peer.RobotStatistics;
 import net.sf.robocode.peer.DebugProperty;
 import net.sf.robocode.peer.ExecCommands;
 import net.sf.robocode.serialization.IXmlSerializable;
@@ -184,7 +185,14 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 			outputStreamSnapshot = robot.readOutText();
 		}
 
-		robotScoreSnapshot = new ScoreSnapshot(robot.getName(), robot.getRobotStatistics());
+		// the score snapshot is shared by the turn snapshots until the score changes
+		final RobotStatistics statistics = robot.getRobotStatistics();
+
+		robotScoreSnapshot = statistics.getScoreSnapshot();
+		if (robotScoreSnapshot == null) {
+			robotScoreSnapshot = new ScoreSnapshot(robot.getName(), statistics);
+			statistics.setScoreSnapshot(robotScoreSnapshot);
+		}
 	}
 
 	@Override
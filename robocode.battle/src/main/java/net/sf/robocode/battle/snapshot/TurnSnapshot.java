@@ -41,6 +41,21 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 	/** List of snapshots for the bullets that are currently on the battlefield */
 	private List<IBulletSnapshot> bullets;
 
+	/** Array view of the robots, which is shared by all callers of getRobots() */
+	private transient volatile IRobotSnapshot[] robotArray;
+
+	/** Array view of the bullets, which is shared by all callers of getBullets() */
+	private transient volatile IBulletSnapshot[] bulletArray;
+
+	/** Contestant indexes ranked by score, best first, which is null for snapshots read from XML */
+	private int[] scoreRanking;
+
+	/** Team scores by contestant index, which are shared by all callers of getIndexedTeamScores() */
+	private transient volatile IScoreSnapshot[] indexedTeamScores;
+
+	/** Team scores in ranked order, which are shared by all callers of getSortedTeamScores() */
+	private transient volatile IScoreSnapshot[] sortedTeamScores;
+
 	/** Current TPS (turns per second) */
 	private int tps;
 
@@ -68,8 +83,15 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 		robots = new ArrayList<IRobotSnapshot>();
 		bullets = new ArrayList<IBulletSnapshot>();
 
+		boolean hasTeams = false;
+
 		for (RobotPeer robotPeer : battleRobots) {
 			robots.add(new RobotSnapshot(robotPeer, readoutText));
+
+			hasTeams |= robotPeer.getTeamPeer() != null;
+		}
+		if (hasTeams) {
+			indexedTeamScores = computeIndexedTeamScores(battle);
 		}
 
 		for (BulletPeer bulletPeer : battleBullets) {
@@ -79,6 +101,8 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 		tps = battle.getTPS();
 		turn = battle.getTime();
 		round = battle.getRoundNum();
+
+		scoreRanking = battle.getScoreRanking();
 	}
 
 	@Override
@@ -90,14 +114,26 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 	 * {@inheritDoc}
 	 */
 	public IRobotSnapshot[] getRobots() {
-		return robots.toArray(new IRobotSnapshot[robots.size()]);
+		IRobotSnapshot[] array = robotArray;
+
+		if (array == null) {
+			array = robots.toArray(new IRobotSnapshot[robots.size()]);
+			robotArray = array;
+		}
+		return array;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	public IBulletSnapshot[] getBullets() {
-		return bullets.toArray(new IBulletSnapshot[bullets.size()]);
+		IBulletSnapshot[] array = bulletArray;
+
+		if (array == null) {
+			array = bullets.toArray(new IBulletSnapshot[bullets.size()]);
+			bulletArray = array;
+		}
+		return array;
 	}
 
 	/**
@@ -125,22 +161,49 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 	 * {@inheritDoc}
 	 */
 	public IScoreSnapshot[] getSortedTeamScores() {
-		List<IScoreSnapshot> copy = new ArrayList<IScoreSnapshot>();
-		for (IScoreSnapshot score : getIndexedTeamScores()) {
-			if (score != null) {
-				copy.add(score);
-			}
+		IScoreSnapshot[] sorted = sortedTeamScores;
+
+		if (sorted != null) {
+			return sorted;
 		}
+		IScoreSnapshot[] indexed = getIndexedTeamScores();
+
+		if (scoreRanking != null) {
+			// the battle keeps the contestants ranked, so the scores do not need to be sorted
+			sorted = new IScoreSnapshot[scoreRanking.length];
+			for (int i = 0; i < sorted.length; i++) {
+				sorted[i] = indexed[scoreRanking[i]];
+			}
+		} else {
+			List<IScoreSnapshot> copy = new ArrayList<IScoreSnapshot>();
+			for (IScoreSnapshot score : indexed) {
+				if (score != null) {
+					copy.add(score);
+				}
+			}
 
-		Collections.sort(copy);
-		Collections.reverse(copy);
-		return copy.toArray(new IScoreSnapshot[0]);
+			Collections.sort(copy);
+			Collections.reverse(copy);
+			sorted = copy.toArray(new IScoreSnapshot[0]);
+		}
+		sortedTeamScores = sorted;
+		return sorted;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	public IScoreSnapshot[] getIndexedTeamScores() {
+		IScoreSnapshot[] indexed = indexedTeamScores;
+
+		if (indexed == null) {
+			indexed = computeIndexedTeamScores();
+			indexedTeamScores = indexed;
+		}
+		return indexed;
+	}
+
+	private IScoreSnapshot[] computeIndexedTeamScores() {
 		// team scores are computed on demand from team scores to not duplicate data in the snapshot
 
 		List<IScoreSnapshot> results = new ArrayList<IScoreSnapshot>();
@@ -163,6 +226,61 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 		return results.toArray(new IScoreSnapshot[0]);
 	}
 
+	// The team scores of a battle with teams are computed up front, as the score of a contestant is shared with the
+	// previous turn while the scores of its robots are unchanged. The scores of the robots with the same contestant
+	// index are merged in the order of the robots, like computeIndexedTeamScores() does, as a team index may coincide
+	// with the index of a robot that is not in a team.
+	private IScoreSnapshot[] computeIndexedTeamScores(Battle battle) {
+		final int count = robots.size();
+
+		int[] robotCounts = new int[count];
+
+		for (IRobotSnapshot robot : robots) {
+			robotCounts[robot.getContestantIndex()]++;
+		}
+		IRobotSnapshot[][] contestantRobots = new IRobotSnapshot[count][];
+
+		for (int i = 0; i < count; i++) {
+			contestantRobots[i] = new IRobotSnapshot[robotCounts[i]];
+			robotCounts[i] = 0;
+		}
+		for (IRobotSnapshot robot : robots) {
+			final int contestantIndex = robot.getContestantIndex();
+
+			contestantRobots[contestantIndex][robotCounts[contestantIndex]++] = robot;
+		}
+		IScoreSnapshot[] indexed = new IScoreSnapshot[count];
+
+		for (int contestantIndex = 0; contestantIndex < count; contestantIndex++) {
+			final IRobotSnapshot[] members = contestantRobots[contestantIndex];
+
+			if (members.length == 1) {
+				indexed[contestantIndex] = members[0].getScoreSnapshot();
+			} else if (members.length > 1) {
+				indexed[contestantIndex] = getMergedScoreSnapshot(battle, contestantIndex, members);
+			}
+		}
+		return indexed;
+	}
+
+	private static IScoreSnapshot getMergedScoreSnapshot(Battle battle, int contestantIndex, IRobotSnapshot[] members) {
+		IScoreSnapshot[] memberScores = new IScoreSnapshot[members.length];
+
+		for (int i = 0; i < memberScores.length; i++) {
+			memberScores[i] = members[i].getScoreSnapshot();
+		}
+		IScoreSnapshot score = battle.getContestantScoreSnapshot(contestantIndex, memberScores);
+
+		if (score == null) {
+			score = memberScores[0];
+			for (int i = 1; i < memberScores.length; i++) {
+				score = new ScoreSnapshot(members[i].getTeamName(), score, memberScores[i]);
+			}
+			battle.setContestantScoreSnapshot(contestantIndex, score, memberScores);
+		}
+		return score;
+	}
+
 	public void stripDetails(SerializableOptions options) {
 		for (IRobotSnapshot r : getRobots()) {
 			((RobotSnapshot) r).stripDetails(options);
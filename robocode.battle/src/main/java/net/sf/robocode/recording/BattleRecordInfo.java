@@ -35,11 +35,15 @@ class BattleRecordInfo implements Serializable, IXmlSerializable {
 	BattleRules battleRules;
 	Integer[] turnsInRounds;
 	List<BattleResults> results;
+	Long randomSeed;
 
 	public void writeXml(XmlWriter writer, SerializableOptions options) throws IOException {
 		writer.startElement("recordInfo"); {
 			writer.writeAttribute("robotCount", robotCount);
 			writer.writeAttribute("roundsCount", roundsCount);
+			if (randomSeed != null) {
+				writer.writeAttribute("randomSeed", randomSeed);
+			}
 			if (!options.skipVersion) {
 				writer.writeAttribute("ver", serialVersionUID);
 			}
@@ -90,6 +94,11 @@ class BattleRecordInfo implements Serializable, IXmlSerializable {
 						recordInfo.roundsCount = Integer.parseInt(value);
 					}
 				});
+				reader.expect("randomSeed", new XmlReader.Attribute() {
+					public void read(String value) {
+						recordInfo.randomSeed = Long.valueOf(value);
+					}
+				});
 
 				new BattleRulesWrapper(recordInfo).readXml(reader);
 
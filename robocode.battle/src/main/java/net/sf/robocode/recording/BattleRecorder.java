@@ -39,11 +39,11 @@ class BattleRecorder {
 		this.properties = properties;
 	}
 
-	void attachRecorder(BattleEventDispatcher battleEventDispatcher) {
+	void attachRecorder(BattleEventDispatcher battleEventDispatcher, long randomSeed) {
 		if (battleObserver != null) {
 			battleObserver.dispose();
 		}
-		battleObserver = new BattleObserver(battleEventDispatcher);
+		battleObserver = new BattleObserver(battleEventDispatcher, randomSeed);
 	}
 
 	void detachRecorder() {
@@ -54,12 +54,14 @@ class BattleRecorder {
 
 	private class BattleObserver extends BattleAdaptor {
 		private final BattleEventDispatcher dispatcher;
+		private final long randomSeed;
 
 		private int currentTurn;
 		private int currentRound;
 
-		public BattleObserver(BattleEventDispatcher dispatcher) {
+		public BattleObserver(BattleEventDispatcher dispatcher, long randomSeed) {
 			this.dispatcher = dispatcher;
+			this.randomSeed = randomSeed;
 			dispatcher.addListener(this);
 		}
 
@@ -71,7 +73,7 @@ class BattleRecorder {
 		@Override
 		public void onBattleStarted(BattleStartedEvent event) {
 			recordmanager.cleanupStreams();
-			recordmanager.createRecordInfo(event.getBattleRules(), event.getRobotsCount());
+			recordmanager.createRecordInfo(event.getBattleRules(), event.getRobotsCount(), randomSeed);
 
 			currentRound = 0;
 			currentTurn = 0;
@@ -92,8 +92,8 @@ public class RecordManager implements IRecordManager {
 		fileReadStream = null;
 	}
 
-	public void attachRecorder(BattleEventDispatcher battleEventDispatcher) {
-		recorder.attachRecorder(battleEventDispatcher);
+	public void attachRecorder(BattleEventDispatcher battleEventDispatcher, long randomSeed) {
+		recorder.attachRecorder(battleEventDispatcher, randomSeed);
 	}
 
 	public void detachRecorder() {
@@ -406,7 +406,7 @@ public class RecordManager implements IRecordManager {
 		return recordInfo != null;
 	}
 
-	void createRecordInfo(BattleRules rules, int numRobots) {
+	void createRecordInfo(BattleRules rules, int numRobots, long randomSeed) {
 		try {
 			createTempFile();
 
@@ -420,6 +420,7 @@ public class RecordManager implements IRecordManager {
 		recordInfo = new BattleRecordInfo();
 		recordInfo.robotCount = numRobots;
 		recordInfo.battleRules = rules;
+		recordInfo.randomSeed = randomSeed;
 		recordInfo.turnsInRounds = new Integer[rules.getNumRounds()];
 		for (int i = 0; i < rules.getNumRounds(); i++) {
 			recordInfo.turnsInRounds[i] = 0; 
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.benchmarks;
+
+
+import robocode.control.BattleSpecification;
+import robocode.control.BattlefieldSpecification;
+import robocode.control.IRobocodeEngine;
+import robocode.control.RobocodeEngine;
+import robocode.control.RobotSpecification;
+import robocode.control.events.IBattleListener;
+
+import java.io.File;
+
+
+/**
+ * Runs headless battles for the benchmarks with a single engine per JVM.
+ * <p>
+ * The sample robots are unpacked into target/robots of the benchmarks module by the build, which is used as robots
+ * directory unless the ROBOTPATH system property is set.
+ */
+final class BenchmarkBattles {
+
+	private static IRobocodeEngine engine;
+
+	private BenchmarkBattles() {}
+
+	/**
+	 * Returns a comma separated list of robot names, where a robot is repeated the given number of times.
+	 */
+	static String repeat(String robotName, int count) {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(robotName);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Runs a battle and waits until it is over.
+	 *
+	 * @param robotNames the comma separated names of the robots.
+	 * @param numRounds  the number of rounds.
+	 * @param listener   the listener receiving the events of the battle.
+	 */
+	static void runBattle(String robotNames, int numRounds, IBattleListener listener) {
+		IRobocodeEngine engine = getEngine();
+		RobotSpecification[] robots = engine.getLocalRepository(robotNames);
+
+		if (robots == null || robots.length != robotNames.split(",").length) {
+			throw new IllegalStateException("Robots were not loaded: " + robotNames);
+		}
+		engine.addBattleListener(listener);
+		try {
+			engine.runBattle(new BattleSpecification(numRounds, new BattlefieldSpecification(), robots), true);
+		} finally {
+			engine.removeBattleListener(listener);
+		}
+	}
+
+	private static synchronized IRobocodeEngine getEngine() {
+		if (engine == null) {
+			File target = new File("robocode.benchmarks/target");
+
+			if (!target.isDirectory()) {
+				target = new File("target");
+			}
+			if (System.getProperty("ROBOTPATH") == null) {
+				System.setProperty("ROBOTPATH", new File(target, "robots").getAbsolutePath());
+			}
+			System.setProperty("WORKINGDIRECTORY", target.getAbsolutePath());
+			System.setProperty("java.awt.headless", "true");
+
+			engine = new RobocodeEngine(target.getAbsoluteFile());
+		}
+		return engine;
+	}
+}
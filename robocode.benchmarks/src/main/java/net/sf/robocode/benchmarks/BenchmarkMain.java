@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.benchmarks;
+
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+
+/**
+ * Runs the benchmarks and writes the results as JSON, which can be compared between commits, e.g. with the JMH
+ * visualizers. The benchmarks are built and run from the root of the project with:
+ * <pre>
+ * mvn -P benchmarks package -DskipTests
+ * java -cp "robocode.benchmarks/target/classes:$(cat robocode.benchmarks/target/classpath.txt)" net.sf.robocode.benchmarks.BenchmarkMain
+ * </pre>
+ * The usual JMH command line options can be given, e.g. a regular expression selecting the benchmarks to run. The
+ * results are written to robocode.benchmarks/target/jmh-result.json unless another file is given with -rff.
+ */
+public final class BenchmarkMain {
+
+	private BenchmarkMain() {}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		OptionsBuilder options = new OptionsBuilder();
+
+		options.parent(commandLineOptions);
+		options.shouldFailOnError(true);
+		if (!commandLineOptions.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLineOptions.getResult().hasValue()) {
+			File target = new File("robocode.benchmarks/target");
+
+			options.result(new File(target.isDirectory() ? target : new File("target"), "jmh-result.json").getPath());
+		}
+		new Runner(options.build()).run();
+	}
+}
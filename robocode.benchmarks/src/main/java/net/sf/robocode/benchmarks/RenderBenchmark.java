@@ -0,0 +1,370 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.core.Container;
+import net.sf.robocode.settings.ISettingsManager;
+import net.sf.robocode.ui.ImageManager;
+import net.sf.robocode.ui.battleview.BattleRenderer;
+import org.openjdk.jmh.annotations.*;
+import robocode.BattleRules;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleStartedEvent;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks painting the frames of a battle without a display, where the robots and bullets are interpolated
+ * between turns like in the battle view. The turns are taken from a real battle, and are painted over and over.
+ * <p>
+ * The bytes allocated per painted frame are reported by the GC profiler as gc.alloc.rate.norm, e.g. with:
+ * <pre>
+ * java -cp ... net.sf.robocode.benchmarks.BenchmarkMain RenderBenchmark -prof gc
+ * </pre>
+ * The frames are drawn into a graphics discarding the drawing, so only the allocations of the renderer itself are
+ * counted, and not the allocations made by Java2D when rasterizing the drawing. The energy texts are formatted when
+ * the energy of a robot changes, so some bytes per frame remain.
+ * <p>
+ * Security is switched off, so the renderer is not loaded by the engine class loader of the container.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true", "-DRANDOMSEED=1", "-DNOSECURITY=true" })
+public class RenderBenchmark {
+
+	private static final String ROBOT_NAMES = "sample.Fire,sample.SpinBot,sample.Crazy,sample.Walls,sample.RamFire,"
+			+ "sample.TrackFire";
+
+	private static final int FRAMES_PER_TURN = 4;
+
+	private final List<ITurnSnapshot> snapshots = new ArrayList<ITurnSnapshot>();
+	private BattleRules battleRules;
+	private int robotsCount;
+
+	private BattleRenderer renderer;
+	private Graphics2D graphics;
+
+	private int turn;
+	private int frame;
+	private ITurnSnapshot lastSnapshot;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkBattles.runBattle(ROBOT_NAMES, 1, new BattleAdaptor() {
+			@Override
+			public void onBattleStarted(BattleStartedEvent event) {
+				battleRules = event.getBattleRules();
+				robotsCount = event.getRobotsCount();
+			}
+
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {
+				snapshots.add(event.getTurnSnapshot());
+			}
+		});
+
+		ISettingsManager settingsManager = Container.getComponent(ISettingsManager.class);
+		ImageManager imageManager = new ImageManager(settingsManager);
+
+		imageManager.initialize();
+
+		renderer = new BattleRenderer(settingsManager, imageManager);
+		renderer.startBattle(battleRules, robotsCount);
+
+		graphics = new DiscardingGraphics(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB).createGraphics());
+		renderer.initialize(800, 600, graphics);
+	}
+
+	@Benchmark
+	public void drawFrame() {
+		ITurnSnapshot snapshot = snapshots.get(turn);
+
+		renderer.drawBattle(graphics, snapshot, lastSnapshot, (double) (frame + 1) / FRAMES_PER_TURN);
+
+		if (++frame == FRAMES_PER_TURN) {
+			frame = 0;
+			if (++turn == snapshots.size()) {
+				// the battle is painted again from the first turn, which has no turn before it
+				turn = 0;
+				lastSnapshot = null;
+			} else {
+				lastSnapshot = snapshot;
+			}
+		}
+	}
+
+	/**
+	 * Graphics keeping its state, but discarding everything drawn. Fonts are measured by the graphics of an image.
+	 */
+	private static class DiscardingGraphics extends Graphics2D {
+		private final Graphics2D fontGraphics;
+
+		private AffineTransform transform = new AffineTransform();
+		private Shape clip;
+		private Color color = Color.BLACK;
+		private Color background = Color.BLACK;
+		private Paint paint = Color.BLACK;
+		private Font font;
+		private Stroke stroke = new BasicStroke();
+		private Composite composite = AlphaComposite.SrcOver;
+		private final RenderingHints renderingHints = new RenderingHints(null);
+
+		DiscardingGraphics(Graphics2D fontGraphics) {
+			this.fontGraphics = fontGraphics;
+			font = fontGraphics.getFont();
+		}
+
+		public void draw(Shape s) {}
+
+		public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+			return true;
+		}
+
+		public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y) {}
+
+		public void drawRenderedImage(RenderedImage img, AffineTransform xform) {}
+
+		public void drawRenderableImage(RenderableImage img, AffineTransform xform) {}
+
+		public void drawString(String str, int x, int y) {}
+
+		public void drawString(String str, float x, float y) {}
+
+		public void drawString(AttributedCharacterIterator iterator, int x, int y) {}
+
+		public void drawString(AttributedCharacterIterator iterator, float x, float y) {}
+
+		public void drawGlyphVector(GlyphVector g, float x, float y) {}
+
+		public void fill(Shape s) {}
+
+		public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+			return false;
+		}
+
+		public GraphicsConfiguration getDeviceConfiguration() {
+			return fontGraphics.getDeviceConfiguration();
+		}
+
+		public void setComposite(Composite comp) {
+			composite = comp;
+		}
+
+		public void setPaint(Paint paint) {
+			this.paint = paint;
+		}
+
+		public void setStroke(Stroke s) {
+			stroke = s;
+		}
+
+		public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+			renderingHints.put(hintKey, hintValue);
+		}
+
+		public Object getRenderingHint(RenderingHints.Key hintKey) {
+			return renderingHints.get(hintKey);
+		}
+
+		public void setRenderingHints(Map<?, ?> hints) {
+			renderingHints.clear();
+			renderingHints.putAll(hints);
+		}
+
+		public void addRenderingHints(Map<?, ?> hints) {
+			renderingHints.putAll(hints);
+		}
+
+		public RenderingHints getRenderingHints() {
+			return renderingHints;
+		}
+
+		public void translate(int x, int y) {
+			transform.translate(x, y);
+		}
+
+		public void translate(double tx, double ty) {
+			transform.translate(tx, ty);
+		}
+
+		public void rotate(double theta) {
+			transform.rotate(theta);
+		}
+
+		public void rotate(double theta, double x, double y) {
+			transform.rotate(theta, x, y);
+		}
+
+		public void scale(double sx, double sy) {
+			transform.scale(sx, sy);
+		}
+
+		public void shear(double shx, double shy) {
+			transform.shear(shx, shy);
+		}
+
+		public void transform(AffineTransform tx) {
+			transform.concatenate(tx);
+		}
+
+		public void setTransform(AffineTransform tx) {
+			transform.setTransform(tx);
+		}
+
+		public AffineTransform getTransform() {
+			return transform;
+		}
+
+		public Paint getPaint() {
+			return paint;
+		}
+
+		public Composite getComposite() {
+			return composite;
+		}
+
+		public void setBackground(Color color) {
+			background = color;
+		}
+
+		public Color getBackground() {
+			return background;
+		}
+
+		public Stroke getStroke() {
+			return stroke;
+		}
+
+		public void clip(Shape s) {
+			clip = s;
+		}
+
+		public FontRenderContext getFontRenderContext() {
+			return fontGraphics.getFontRenderContext();
+		}
+
+		public Graphics create() {
+			return this;
+		}
+
+		public Color getColor() {
+			return color;
+		}
+
+		public void setColor(Color c) {
+			color = c;
+			paint = c;
+		}
+
+		public void setPaintMode() {}
+
+		public void setXORMode(Color c1) {}
+
+		public Font getFont() {
+			return font;
+		}
+
+		public void setFont(Font font) {
+			this.font = font;
+		}
+
+		public FontMetrics getFontMetrics(Font f) {
+			return fontGraphics.getFontMetrics(f);
+		}
+
+		public Rectangle getClipBounds() {
+			return clip != null ? clip.getBounds() : null;
+		}
+
+		public void clipRect(int x, int y, int width, int height) {}
+
+		public void setClip(int x, int y, int width, int height) {}
+
+		public Shape getClip() {
+			return clip;
+		}
+
+		public void setClip(Shape clip) {
+			this.clip = clip;
+		}
+
+		public void copyArea(int x, int y, int width, int height, int dx, int dy) {}
+
+		public void drawLine(int x1, int y1, int x2, int y2) {}
+
+		public void fillRect(int x, int y, int width, int height) {}
+
+		public void clearRect(int x, int y, int width, int height) {}
+
+		public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {}
+
+		public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {}
+
+		public void drawOval(int x, int y, int width, int height) {}
+
+		public void fillOval(int x, int y, int width, int height) {}
+
+		public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {}
+
+		public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {}
+
+		public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {}
+
+		public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {}
+
+		public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {}
+
+		public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+			return true;
+		}
+
+		public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+			return true;
+		}
+
+		public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+			return true;
+		}
+
+		public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor, ImageObserver observer) {
+			return true;
+		}
+
+		public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+				ImageObserver observer) {
+			return true;
+		}
+
+		public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+				Color bgcolor, ImageObserver observer) {
+			return true;
+		}
+
+		public void dispose() {}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.peer.BulletCommand;
+import net.sf.robocode.peer.BulletStatus;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.peer.TeamMessage;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.serialization.RbSerializer;
+import org.openjdk.jmh.annotations.*;
+import robocode.Bullet;
+import robocode.Event;
+import robocode.HitByBulletEvent;
+import robocode.RobotStatus;
+import robocode.ScannedRobotEvent;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks the serialization of the commands and results exchanged between a robot and the battle every turn, into
+ * a reused buffer as done by RobotPeer, and the deserialization of them.
+ * <p>
+ * Security is switched off, so the engine classes are not loaded by the engine class loader of the container.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true", "-DNOSECURITY=true" })
+public class SerializerBenchmark {
+
+	// number of scanned robots, which is the main part of the results in a melee battle
+	@Param({ "1", "9" })
+	public int scannedRobots;
+
+	private RbSerializer serializer;
+	private ExecCommands commands;
+	private ExecResults results;
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+	private ByteBuffer commandsData;
+	private ByteBuffer resultsData;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		// the container registers the serializable types of the engine
+		HiddenAccess.initContainer();
+		serializer = new RbSerializer();
+
+		commands = new ExecCommands();
+		commands.setBodyTurnRemaining(0.5);
+		commands.setGunTurnRemaining(-0.25);
+		commands.setRadarTurnRemaining(Math.PI / 4);
+		commands.setDistanceRemaining(100);
+		commands.setMoved(true);
+		commands.setOutputText("Turning towards the enemy\n");
+		commands.getBullets().add(new BulletCommand(1.9, false, 0, 1));
+
+		RobotStatus status = HiddenAccess.createStatus(87.5, 400, 300, 1, 2, 3, 8, 0.5, Math.PI / 4, -0.25, 100, 0.4,
+				scannedRobots, 0, 3, 10, 1234);
+
+		List<Event> events = new ArrayList<Event>();
+
+		for (int i = 0; i < scannedRobots; i++) {
+			events.add(new ScannedRobotEvent("sample.SpinBot (" + (i + 1) + ")", 100 - i, 0.1 * i, 100 + 10 * i, 2, 8, false));
+		}
+		events.add(new HitByBulletEvent(0.3, new Bullet(1.2, 410, 310, 3, "sample.Fire (1)", null, true, 7)));
+
+		List<BulletStatus> bulletUpdates = new ArrayList<BulletStatus>();
+
+		bulletUpdates.add(new BulletStatus(1, 420, 320, null, true));
+
+		results = new ExecResults(commands, status, events, new ArrayList<TeamMessage>(), bulletUpdates, false, false,
+				false);
+
+		commandsData = copy(serializeCommands());
+		resultsData = copy(serializeResults());
+	}
+
+	@Benchmark
+	public ByteBuffer serializeCommands() throws IOException {
+		((Buffer) buffer).clear();
+		return serializer.serializeToBuffer(buffer, RbSerializer.ExecCommands_TYPE, commands);
+	}
+
+	@Benchmark
+	public ByteBuffer serializeResults() throws IOException {
+		((Buffer) buffer).clear();
+		return serializer.serializeToBuffer(buffer, RbSerializer.ExecResults_TYPE, results);
+	}
+
+	@Benchmark
+	public Object deserializeCommands() throws IOException {
+		((Buffer) commandsData).rewind();
+		return serializer.deserialize(commandsData);
+	}
+
+	@Benchmark
+	public Object deserializeResults() throws IOException {
+		((Buffer) resultsData).rewind();
+		return serializer.deserialize(resultsData);
+	}
+
+	private static ByteBuffer copy(ByteBuffer serialized) {
+		((Buffer) serialized).flip();
+		ByteBuffer copy = ByteBuffer.allocateDirect(serialized.remaining());
+
+		copy.put(serialized);
+		((Buffer) copy).flip();
+		return copy;
+	}
+}
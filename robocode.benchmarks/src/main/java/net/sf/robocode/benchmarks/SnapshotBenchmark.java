@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.serialization.IXmlSerializable;
+import net.sf.robocode.serialization.SerializableOptions;
+import net.sf.robocode.serialization.XmlWriter;
+import org.openjdk.jmh.annotations.*;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks writing a turn snapshot with Java serialization versus writing it as XML through XmlWriter, as done by
+ * the battle recorder. The snapshot is taken from a real battle.
+ * <p>
+ * Security is switched off, so the snapshot classes are not loaded by the engine class loader of the container.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true", "-DRANDOMSEED=1", "-DNOSECURITY=true" })
+public class SnapshotBenchmark {
+
+	// turn of the battle the snapshot is taken from, where the robots are fighting
+	private static final int SNAPSHOT_TURN = 100;
+
+	@Param({ "2", "10" })
+	public int robotCount;
+
+	private ITurnSnapshot snapshot;
+
+	private final SerializableOptions options = new SerializableOptions(false);
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	private final CharArrayWriter chars = new CharArrayWriter();
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkBattles.runBattle(BenchmarkBattles.repeat("sample.SpinBot", robotCount), 1, new BattleAdaptor() {
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {
+				if (snapshot == null || event.getTurnSnapshot().getTurn() <= SNAPSHOT_TURN) {
+					snapshot = event.getTurnSnapshot();
+				}
+			}
+		});
+	}
+
+	@Benchmark
+	public int javaSerialization() throws IOException {
+		bytes.reset();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+
+		out.writeObject(snapshot);
+		out.close();
+		return bytes.size();
+	}
+
+	@Benchmark
+	public int xmlWriting() throws IOException {
+		chars.reset();
+		XmlWriter writer = new XmlWriter(chars, false);
+
+		((IXmlSerializable) snapshot).writeXml(writer, options);
+		return chars.size();
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.host.IHostedThread;
+import net.sf.robocode.host.security.ThreadManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks the thread checks of the ThreadManager done by the security manager on every permission check, i.e.
+ * whether a thread is a safe thread of the engine, and which robot a thread belongs to. The checks should take the
+ * same time regardless of the number of robots in the battle.
+ * <p>
+ * The thread group of the benchmark thread is registered as the thread group of the last robot, as the group of a
+ * thread cannot be changed. The checks of the current thread are the ones done by the security manager, which cache
+ * their verdict for the thread, where the checks of another thread look the thread up each time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true" })
+public class ThreadManagerBenchmark {
+
+	// number of robots, where each robot has its own thread group
+	@Param({ "1", "10", "100" })
+	public int robotCount;
+
+	private ThreadManager threadManager;
+
+	// a thread of the robot in the middle, which is not the current thread
+	private Thread robotThread;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		threadManager = new ThreadManager();
+
+		ThreadGroup battleGroup = new ThreadGroup("Battle");
+
+		threadManager.addSafeThreadGroup(battleGroup);
+		threadManager.addSafeThread(new Thread(battleGroup, "Battle Thread"));
+
+		for (int i = 0; i < robotCount - 1; i++) {
+			ThreadGroup robotGroup = new ThreadGroup("sample.Fire (" + i + ")");
+
+			threadManager.addThreadGroup(robotGroup, createRobotProxy());
+			if (i == robotCount / 2) {
+				robotThread = new Thread(robotGroup, "sample.Fire (" + i + ") Thread");
+			}
+		}
+		threadManager.addThreadGroup(Thread.currentThread().getThreadGroup(), createRobotProxy());
+		if (robotThread == null) {
+			robotThread = new Thread(Thread.currentThread().getThreadGroup(), "Robot Thread");
+		}
+	}
+
+	@Benchmark
+	public boolean isSafeThread() {
+		return threadManager.isSafeThread(Thread.currentThread());
+	}
+
+	@Benchmark
+	public IHostedThread getRobotProxy() {
+		return threadManager.getRobotProxy(Thread.currentThread());
+	}
+
+	@Benchmark
+	public boolean isSafeThreadOfOtherThread() {
+		return threadManager.isSafeThread(robotThread);
+	}
+
+	@Benchmark
+	public IHostedThread getRobotProxyOfOtherThread() {
+		return threadManager.getRobotProxy(robotThread);
+	}
+
+	// the proxy of a robot is only looked up, so none of its methods are called
+	private static IHostedThread createRobotProxy() {
+		return (IHostedThread) Proxy.newProxyInstance(IHostedThread.class.getClassLoader(),
+				new Class<?>[] { IHostedThread.class }, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.benchmarks;
+
+
+import org.openjdk.jmh.annotations.*;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.TurnEndedEvent;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks the turn loop of the battle with synthetic robot counts.
+ * <p>
+ * Battle.updateBullets(), Battle.updateRobots(), BulletPeer.checkBulletCollision() and RobotPeer.scan() need robots
+ * that are hosted by the engine, so they are measured through one round battles, and the turns per second are
+ * reported as secondary result. Sitting ducks mostly cost the robot updates, spin bots add scans and bullets, and
+ * fire bots add bullets hitting robots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true", "-DRANDOMSEED=1" })
+public class TurnLoopBenchmark {
+
+	@Param({ "2", "10", "30" })
+	public int robotCount;
+
+	@Param({ "sample.SittingDuck", "sample.SpinBot", "sample.Fire" })
+	public String robot;
+
+	private String robotNames;
+
+	/**
+	 * Counts the turns of the battles as operations of the benchmark.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Turns extends BattleAdaptor {
+		public long turns;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			turns = 0;
+		}
+
+		@Override
+		public void onTurnEnded(TurnEndedEvent event) {
+			turns++;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		robotNames = BenchmarkBattles.repeat(robot, robotCount);
+	}
+
+	@Benchmark
+	public void battle(Turns turns) {
+		BenchmarkBattles.runBattle(robotNames, 1, turns);
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.events;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.openjdk.jmh.annotations.*;
+import robocode.Bullet;
+import robocode.BulletMissedEvent;
+import robocode.Event;
+import robocode.HitByBulletEvent;
+import robocode.HitWallEvent;
+import robocode.Robot;
+import robocode.RobotDeathEvent;
+import robocode.ScannedRobotEvent;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks the event queue of the EventManager, where a turn worth of events is sorted by time and priority and
+ * dispatched to a robot in that order. The benchmark is in the package of the queue, which is package private.
+ * <p>
+ * The EventManager itself needs a robot proxy hosted by the engine, so its queue and the dispatch of the events are
+ * benchmarked the way EventManager.processEvents() uses them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true" })
+public class EventQueueBenchmark {
+
+	@Param({ "4", "32" })
+	public int eventCount;
+
+	private Event[] events;
+	private PriorityEventQueue queue;
+	private Robot robot;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		HiddenAccess.init();
+
+		Bullet bullet = new Bullet(1.2, 410, 310, 3, "sample.Fire (1)", null, true, 7);
+
+		events = new Event[eventCount];
+		for (int i = 0; i < eventCount; i++) {
+			Event event;
+			int priority;
+
+			// default priorities of the events, in an order that needs sorting
+			switch (i % 5) {
+			case 0:
+				event = new ScannedRobotEvent("sample.SpinBot (" + i + ")", 100, 0.1 * i, 100 + i, 2, 8, false);
+				priority = 10;
+				break;
+
+			case 1:
+				event = new BulletMissedEvent(bullet);
+				priority = 60;
+				break;
+
+			case 2:
+				event = new HitByBulletEvent(0.3, bullet);
+				priority = 20;
+				break;
+
+			case 3:
+				event = new RobotDeathEvent("sample.Fire (" + i + ")");
+				priority = 70;
+				break;
+
+			default:
+				event = new HitWallEvent(0.5);
+				priority = 30;
+				break;
+			}
+			HiddenAccess.setEventPriority(event, priority);
+			HiddenAccess.setEventTime(event, 1000 + i % 2);
+			events[i] = event;
+		}
+		queue = new PriorityEventQueue();
+		robot = new Robot();
+	}
+
+	@Benchmark
+	public int sortAndDispatch() {
+		for (Event event : events) {
+			queue.add(event);
+		}
+		int dispatched = 0;
+		Event event;
+
+		while ((event = queue.poll()) != null) {
+			HiddenAccess.dispatch(event, robot, null, null);
+			dispatched++;
+		}
+		return dispatched;
+	}
+}
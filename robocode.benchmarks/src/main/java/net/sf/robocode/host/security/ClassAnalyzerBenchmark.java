@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+
+
+/**
+ * Benchmarks the analysis of the class files of robots done by the ClassAnalyzer, i.e. the scan for referenced
+ * classes done when a robot class is loaded, the replacement of the random number generators, and the search for
+ * the main classes of robots done when the robots directory is read. An operation analyzes all the classes of the
+ * corpus. The benchmark is in the package of the ClassAnalyzer, as the analysis is package private.
+ * <p>
+ * The corpus is the sample robots unpacked into target/robots of the benchmarks module by the build, or the class
+ * files and robot jars found in the directory given with the corpus parameter, e.g. the robots directory of a
+ * RoboRumble client with <code>-p corpus=/path/to/robots</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true" })
+public class ClassAnalyzerBenchmark {
+
+	// directory with the class files and jars to analyze, where empty is the sample robots
+	@Param({ "" })
+	public String corpus;
+
+	// class files by binary name, e.g. "sample/Walls"
+	private final Map<String, ByteBuffer> classFiles = new LinkedHashMap<String, ByteBuffer>();
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		File directory;
+
+		if (corpus.length() > 0) {
+			directory = new File(corpus);
+		} else {
+			File target = new File("robocode.benchmarks/target");
+
+			directory = new File(target.isDirectory() ? target : new File("target"), "robots");
+		}
+		readDirectory(directory, "");
+		if (classFiles.isEmpty()) {
+			throw new IllegalStateException("No class files found in " + directory.getAbsolutePath());
+		}
+	}
+
+	@Benchmark
+	public void referencedClasses(Blackhole blackhole) {
+		for (ByteBuffer classFile : classFiles.values()) {
+			Set<String> referencedClasses = new HashSet<String>();
+
+			ClassAnalyzer.getReferencedClasses(classFile.duplicate(), referencedClasses);
+			blackhole.consume(referencedClasses);
+		}
+	}
+
+	// robots are loaded by a thread per robot, which analyze their classes in parallel
+	@Benchmark
+	@Threads(4)
+	public void referencedClassesConcurrently(Blackhole blackhole) {
+		referencedClasses(blackhole);
+	}
+
+	@Benchmark
+	public void replaceRandomClass(Blackhole blackhole) {
+		for (ByteBuffer classFile : classFiles.values()) {
+			blackhole.consume(ClassAnalyzer.replaceRandomClass(classFile.duplicate()));
+		}
+	}
+
+	// a new predicate, as for each root of the repository, so the super classes are analyzed again
+	@Benchmark
+	public void mainClasses(Blackhole blackhole) {
+		ClassAnalyzer.RobotMainClassPredicate predicate = new ClassAnalyzer.RobotMainClassPredicate(
+				new ClassAnalyzer.ByteBufferFunction() {
+			public ByteBuffer get(String binaryName) {
+				ByteBuffer classFile = classFiles.get(binaryName);
+
+				return (classFile == null) ? null : classFile.duplicate();
+			}
+		});
+
+		for (String binaryName : classFiles.keySet()) {
+			blackhole.consume(predicate.isMainClassBinary(binaryName));
+		}
+	}
+
+	private void readDirectory(File directory, String path) throws IOException {
+		File[] files = directory.listFiles();
+
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String name = file.getName();
+
+			if (file.isDirectory()) {
+				readDirectory(file, path + name + '/');
+			} else if (name.endsWith(".class")) {
+				InputStream in = new FileInputStream(file);
+
+				try {
+					addClassFile(path + name, in);
+				} finally {
+					in.close();
+				}
+			} else if (name.endsWith(".jar")) {
+				JarInputStream in = new JarInputStream(new FileInputStream(file));
+
+				try {
+					readJar(in);
+				} finally {
+					in.close();
+				}
+			}
+		}
+	}
+
+	// team jars contain the jars of their robots
+	private void readJar(JarInputStream in) throws IOException {
+		JarEntry entry;
+
+		while ((entry = in.getNextJarEntry()) != null) {
+			String name = entry.getName();
+
+			if (name.endsWith(".class")) {
+				addClassFile(name, in);
+			} else if (name.endsWith(".jar")) {
+				readJar(new JarInputStream(in));
+			}
+		}
+	}
+
+	private void addClassFile(String name, InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int count;
+
+		while ((count = in.read(buffer)) >= 0) {
+			out.write(buffer, 0, count);
+		}
+		classFiles.put(name.substring(0, name.length() - ".class".length()), ByteBuffer.wrap(out.toByteArray()));
+	}
+}
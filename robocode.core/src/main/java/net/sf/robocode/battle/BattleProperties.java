@@ -38,7 +38,8 @@ public class BattleProperties implements Serializable {
 			BATTLE_HIDE_ENEMY_NAMES = "robocode.battle.hideEnemyNames",
 			BATTLE_SELECTEDROBOTS = "robocode.battle.selectedRobots",
 			BATTLE_INITIAL_POSITIONS = "robocode.battle.initialPositions",
-			BATTLE_SENTRY_BORDER_SIZE = "robocode.battle.sentryBorderSize";
+			BATTLE_SENTRY_BORDER_SIZE = "robocode.battle.sentryBorderSize",
+			BATTLE_RANDOM_SEED = "robocode.battle.randomSeed";
 
 	private int battlefieldWidth = 800;
 	private int battlefieldHeight = 600;
@@ -49,6 +50,7 @@ public class BattleProperties implements Serializable {
 	private int sentryBorderSize = 100;
 	private String selectedRobots;
 	private String initialPositions;
+	private Long randomSeed;
 
 	private final Properties props = new Properties();
 
@@ -328,6 +330,29 @@ public class BattleProperties implements Serializable {
 		props.setProperty(BATTLE_SENTRY_BORDER_SIZE, "" + sentryBorderSize);
 	}
 
+	/**
+	 * Returns the seed of the battle, from which the random number generators of the engine and robots are seeded.
+	 *
+	 * @return the seed of the battle, or null if the battle gets a new seed every time it is run.
+	 */
+	public Long getRandomSeed() {
+		return randomSeed;
+	}
+
+	/**
+	 * Sets the seed of the battle, from which the random number generators of the engine and robots are seeded.
+	 *
+	 * @param randomSeed is the seed of the battle, or null if the battle gets a new seed every time it is run.
+	 */
+	public void setRandomSeed(Long randomSeed) {
+		this.randomSeed = randomSeed;
+		if (randomSeed != null) {
+			props.setProperty(BATTLE_RANDOM_SEED, "" + randomSeed);
+		} else {
+			props.remove(BATTLE_RANDOM_SEED);
+		}
+	}
+
 	public void store(FileOutputStream out, String desc) throws IOException {
 		props.store(out, desc);
 	}
@@ -343,5 +368,9 @@ public class BattleProperties implements Serializable {
 		selectedRobots = props.getProperty(BATTLE_SELECTEDROBOTS, "");
 		initialPositions = props.getProperty(BATTLE_INITIAL_POSITIONS, "");
 		sentryBorderSize = Integer.parseInt(props.getProperty(BATTLE_SENTRY_BORDER_SIZE, "100"));
+
+		String seed = props.getProperty(BATTLE_RANDOM_SEED);
+
+		randomSeed = (seed != null && seed.trim().length() > 0) ? Long.valueOf(seed.trim()) : null;
 	}
 }
@@ -34,6 +34,10 @@ public class BattleRankingTableModel extends AbstractTableModel {
 	// The sum of the scores gathered by the robots in the previous rounds
 	private double totalSum;
 
+	// The rows changed by the last update
+	private int firstChangedRow;
+	private int lastChangedRow = -1;
+
 	/**
 	 * Function for counting the sum of the scores gathered by the robots.
 	 */
@@ -47,13 +51,66 @@ public class BattleRankingTableModel extends AbstractTableModel {
 		}
 	}
 
-	public void updateSource(ITurnSnapshot snapshot) {
-		if (snapshot != null) {
-			scoreSnapshotList = snapshot.getSortedTeamScores();
-			countTotalScores();
-		} else {
-			scoreSnapshotList = null;
+	/**
+	 * Updates the ranking with the scores of a turn snapshot. The battle shares score snapshots between turns until
+	 * the scores change, so rows with the same score snapshots as before are unchanged.
+	 *
+	 * @param snapshot the turn snapshot, or null if there is no battle.
+	 * @return true if the ranking has changed; false otherwise.
+	 */
+	public boolean updateSource(ITurnSnapshot snapshot) {
+		final IScoreSnapshot[] previous = scoreSnapshotList;
+
+		scoreSnapshotList = (snapshot != null) ? snapshot.getSortedTeamScores() : null;
+
+		if (scoreSnapshotList == null || previous == null || scoreSnapshotList.length != previous.length) {
+			firstChangedRow = 0;
+			lastChangedRow = getRowCount() - 1;
+			if (scoreSnapshotList != null) {
+				countTotalScores();
+			}
+			fireTableDataChanged();
+			return scoreSnapshotList != previous;
+		}
+		final int rows = scoreSnapshotList.length;
+
+		int first = 0;
+
+		while (first < rows && scoreSnapshotList[first] == previous[first]) {
+			first++;
+		}
+		if (first == rows) {
+			firstChangedRow = 0;
+			lastChangedRow = -1;
+			return false;
+		}
+		int last = rows - 1;
+
+		while (scoreSnapshotList[last] == previous[last]) {
+			last--;
 		}
+		firstChangedRow = first;
+		lastChangedRow = last;
+
+		countTotalScores();
+
+		// The score percentages of all rows depend on the sum of the scores
+		fireTableRowsUpdated(0, rows - 1);
+		return true;
+	}
+
+	/**
+	 * Returns the first row changed by the last update.
+	 */
+	public int getFirstChangedRow() {
+		return firstChangedRow;
+	}
+
+	/**
+	 * Returns the last row changed by the last update, which is less than the first row if no rows were changed.
+	 */
+	public int getLastChangedRow() {
+		return lastChangedRow;
 	}
 
 	public int getColumnCount() {
@@ -35,10 +35,30 @@ public class BattleResultsTableModel extends javax.swing.table.AbstractTableMode
 	// The sum of the scores gathered by the robots.
 	private final double totalScore;
 
+	// The placements of the rows, where robots with equal scores share the placement of the last of them
+	private final int[] places;
+
 	public BattleResultsTableModel(BattleResults[] results, int numRounds) {
 		this.results = results;
 		this.numRounds = numRounds;
 		totalScore = countTotalScore();
+		places = countPlaces();
+	}
+
+	/**
+	 * Function for counting the placements of the robots, which are sorted by score.
+	 *
+	 * @return The placements by row.
+	 */
+	private int[] countPlaces() {
+		int[] places = new int[results.length];
+
+		for (int row = results.length - 1; row >= 0; row--) {
+			places[row] = (row + 1 < results.length && results[row].getScore() == results[row + 1].getScore())
+					? places[row + 1]
+					: row + 1;
+		}
+		return places;
 	}
 
 	/**
@@ -126,14 +146,8 @@ public class BattleResultsTableModel extends javax.swing.table.AbstractTableMode
 		BattleResults statistics = results[row];
 
 		switch (col) {
-		case 0: {
-			int place = row + 1;
-
-			while (place < getRowCount() && statistics.getScore() == results[place].getScore()) {
-				place++;
-			}
-			return getPlacementString(place);
-		}
+		case 0:
+			return getPlacementString(places[row]);
 
 		case 1:
 			return statistics.getTeamLeaderName();
@@ -12,6 +12,7 @@ import net.sf.robocode.battle.BattleResultsTableModel;
 import net.sf.robocode.battle.IBattleManager;
 import net.sf.robocode.host.ICpuManager;
 import net.sf.robocode.host.IHostManager;
+import net.sf.robocode.host.IRobotProcess;
 import net.sf.robocode.io.FileUtil;
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.io.RobocodeProperties;
@@ -64,6 +65,10 @@ public final class RobocodeMain extends RobocodeMainBase {
 		String recordXmlFilename;
 		String replayFilename;
 		String resultsFilename;
+		String framesDirectory;
+		int frameWidth = 800;
+		int frameHeight = 600;
+		int framesPerTurn = 1;
 		int tps;
 	}
 
@@ -139,6 +144,15 @@ public final class RobocodeMain extends RobocodeMainBase {
 			}
 
 			final boolean enableCLIRecording = (setup.recordFilename != null || setup.recordXmlFilename != null);
+
+			if (setup.framesDirectory != null) {
+				if (windowManager == null) {
+					System.err.println("Writing frames needs the robocode.ui module");
+					System.exit(8);
+				}
+				battleManager.addListener(windowManager.createFrameWriter(new File(setup.framesDirectory),
+						setup.frameWidth, setup.frameHeight, setup.framesPerTurn));
+			}
 			
 			// Note: At this point the GUI should be opened (if enabled) before starting the battle from a battle file
 			if (setup.battleFilename != null) {
@@ -231,6 +245,30 @@ public final class RobocodeMain extends RobocodeMainBase {
 			} else if (currentArg.equalsIgnoreCase("-results") && (i < args.length + 1)) {
 				setup.resultsFilename = args[i + 1];
 				i++;
+			} else if (currentArg.equalsIgnoreCase("-frames") && (i < args.length + 1)) {
+				setup.framesDirectory = args[i + 1];
+				i++;
+			} else if (currentArg.equalsIgnoreCase("-framesize") && (i < args.length + 1)) {
+				String[] size = args[i + 1].toLowerCase().split("x");
+
+				if (size.length != 2) {
+					Logger.logError("framesize must be <width>x<height>");
+					System.exit(8);
+				}
+				setup.frameWidth = Integer.parseInt(size[0]);
+				setup.frameHeight = Integer.parseInt(size[1]);
+				if (setup.frameWidth < 1 || setup.frameHeight < 1) {
+					Logger.logError("framesize must be > 0");
+					System.exit(8);
+				}
+				i++;
+			} else if (currentArg.equalsIgnoreCase("-framesperturn") && (i < args.length + 1)) {
+				setup.framesPerTurn = Integer.parseInt(args[i + 1]);
+				if (setup.framesPerTurn < 1) {
+					Logger.logError("framesperturn must be > 0");
+					System.exit(8);
+				}
+				i++;
 			} else if (currentArg.equalsIgnoreCase("-tps") && (i < args.length + 1)) {
 				setup.tps = Integer.parseInt(args[i + 1]);
 				if (setup.tps < 1) {
@@ -294,6 +332,7 @@ public final class RobocodeMain extends RobocodeMainBase {
 		System.out.print(
 				"Usage: robocode [-?] [-help] [-cwd path] [-battle filename [-results filename]\n"
 						+ "                [-record filename] [-recordXML filename] [-replay filename]\n"
+						+ "                [-frames path [-framesize size] [-framesperturn frames]]\n"
 						+ "                [-tps tps] [-minimize] [-nodisplay] [-nosound]\n\n" + "where options include:\n"
 						+ "  -? or -help                Prints out the command line usage of Robocode\n"
 						+ "  -cwd <path>                Change the current working directory\n"
@@ -302,6 +341,11 @@ public final class RobocodeMain extends RobocodeMainBase {
 						+ "  -record <bin record file>  Record the battle into the specified file as binary\n"
 						+ "  -recordXML <xml rec file>  Record the battle into the specified file as XML\n"
 						+ "  -replay <record file>      Replay the specified battle record\n"
+						+ "  -frames <path>             Render the battle or replay into PNG files in the\n"
+						+ "                             specified directory, e.g. for making a video\n"
+						+ "  -framesize <size>          Set the size of the frames, e.g. 800x600 (default)\n"
+						+ "  -framesperturn <frames>    Set the frames per turn, where the robots and\n"
+						+ "                             bullets are interpolated between turns (default 1)\n"
 						+ "  -tps <tps>                 Set the TPS > 0 (Turns Per Second)\n"
 						+ "  -minimize                  Run minimized when Robocode starts\n"
 						+ "  -nodisplay                 Run with the display / GUI disabled\n"
@@ -405,6 +449,24 @@ public final class RobocodeMain extends RobocodeMainBase {
 		Container.getComponent(IHostManager.class).cleanup();
 	}
 
+	public void runRobotProcess(String[] args) {
+		if (windowManager != null) {
+			windowManager.setSlave(true);
+			windowManager.setEnableGUI(false);
+		}
+		hostManager.initSecurity();
+
+		int exitCode = 0;
+
+		try {
+			Container.getComponent(IRobotProcess.class).run(args);
+		} catch (Throwable t) {
+			Logger.logError(t);
+			exitCode = 1;
+		}
+		System.exit(exitCode);
+	}
+
 	public void initForRobocodeEngine(IBattleListener listener) {
 		final IWindowManager windowManager = Container.getComponent(IWindowManager.class);
 
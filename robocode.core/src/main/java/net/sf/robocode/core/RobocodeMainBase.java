@@ -30,6 +30,8 @@ public abstract class RobocodeMainBase implements Runnable {
 
 	public abstract void cleanup();
 
+	public abstract void runRobotProcess(String[] args);
+
 	// -----------
 	// entrypoints called with reflection from HiddenAccess in robocode.api module
 	// -----------
@@ -55,6 +57,14 @@ public abstract class RobocodeMainBase implements Runnable {
 		new Thread(group, main, "Robocode main thread").start();
 	}
 
+	@CalledViaReflection
+	public static void robotProcessMain(Object args) {
+		// here we cross transition to EngineClassLoader classes using interface which is defined in system classLoader
+		RobocodeMainBase main = Container.getComponent(RobocodeMainBase.class);
+
+		main.runRobotProcess((String[]) args);
+	}
+
 	@CalledViaReflection
 	public static void initContainer() {
 		// here we cross transition to EngineClassLoader classes using interface which is defined in system classLoader
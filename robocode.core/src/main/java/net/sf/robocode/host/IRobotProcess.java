@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host;
+
+
+/**
+ * Hosts a robot in a process of its own, controlled by the game through a channel file.
+ */
+public interface IRobotProcess {
+
+	/**
+	 * Serves the game until it cleans up the robot or goes away.
+	 *
+	 * @param args the path of the channel file as the first argument.
+	 */
+	void run(String[] args);
+}
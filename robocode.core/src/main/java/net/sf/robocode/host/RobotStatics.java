@@ -56,11 +56,14 @@ public final class RobotStatics implements IRobotStatics, Serializable {
 	private final int robotIndex;
 	private final int teamIndex;
 
-	public RobotStatics(RobotSpecification robotSpecification, String suffix, boolean isLeader, BattleRules rules, String teamName, List<String> teamMembers, int robotIndex, int teamIndex) {
+	private final long randomSeed;
+
+	public RobotStatics(RobotSpecification robotSpecification, String suffix, boolean isLeader, BattleRules rules, String teamName, List<String> teamMembers, int robotIndex, int teamIndex, long randomSeed) {
 		IRobotItem robotItem = (IRobotItem) HiddenAccess.getFileSpecification(robotSpecification);
 
 		this.robotIndex = robotIndex;
 		this.teamIndex = teamIndex;
+		this.randomSeed = randomSeed;
 
 		this.shortClassName = robotItem.getShortClassName();
 		this.fullClassName = robotItem.getFullClassName();
@@ -98,7 +101,7 @@ public final class RobotStatics implements IRobotStatics, Serializable {
 	private RobotStatics(String robocodeVersion, boolean isJuniorRobot, boolean isInteractiveRobot, boolean isPaintRobot, boolean isAdvancedRobot,
 			boolean isTeamRobot, boolean isTeamLeader, boolean isDroid, boolean isSentryRobot, String name, String shortName,
 			String veryShortName, String fullClassName, String shortClassName, BattleRules battleRules,
-			String[] teammates, String teamName, int robotIndex, int teamIndex) {
+			String[] teammates, String teamName, int robotIndex, int teamIndex, long randomSeed) {
 
 		this.robocodeVersion = robocodeVersion;
 		this.isJuniorRobot = isJuniorRobot;
@@ -119,6 +122,7 @@ public final class RobotStatics implements IRobotStatics, Serializable {
 		this.teamName = teamName;
 		this.robotIndex = robotIndex;
 		this.teamIndex = teamIndex;
+		this.randomSeed = randomSeed;
 	}
 
 	public String getRobocodeVersion() {
@@ -201,6 +205,13 @@ public final class RobotStatics implements IRobotStatics, Serializable {
 		return teamIndex;
 	}
 
+	/**
+	 * Returns the seed of the random number generator of the robot, which is derived from the seed of the battle.
+	 */
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
 	static ISerializableHelper createHiddenSerializer() {
 		return new SerializableHelper();
 	}
@@ -222,6 +233,7 @@ public final class RobotStatics implements IRobotStatics, Serializable {
 			size += RbSerializer.SIZEOF_INT;
 			size += serializer.sizeOf(obj.teamName);
 			size += RbSerializer.SIZEOF_INT * 2;
+			size += RbSerializer.SIZEOF_LONG;
 
 			return size;
 		}
@@ -259,6 +271,7 @@ public final class RobotStatics implements IRobotStatics, Serializable {
 			serializer.serialize(buffer, obj.teamName);
 			serializer.serialize(buffer, obj.robotIndex);
 			serializer.serialize(buffer, obj.teamIndex);
+			serializer.serialize(buffer, obj.randomSeed);
 		}
 
 		public Object deserialize(RbSerializer serializer, ByteBuffer buffer) {
@@ -302,11 +315,12 @@ public final class RobotStatics implements IRobotStatics, Serializable {
 			String teamName = serializer.deserializeString(buffer);
 			int robotIndex = serializer.deserializeInt(buffer);
 			int teamIndex = serializer.deserializeInt(buffer);
+			long randomSeed = serializer.deserializeLong(buffer);
 
 			return new RobotStatics(robocodeVersion, isJuniorRobot, isInteractiveRobot, isPaintRobot, isAdvancedRobot,
 					isTeamRobot, isTeamLeader, isDroid, isSentryRobot, name, shortName, veryShortName, fullClassName,
-					shortClassName, battleRules, teammates.toArray(new String[teammates.size()]), teamName, robotIndex,
-					teamIndex);
+					shortClassName, battleRules, teammates == null ? null : teammates.toArray(new String[teammates.size()]), teamName, robotIndex,
+					teamIndex, randomSeed);
 		}
 	}
 
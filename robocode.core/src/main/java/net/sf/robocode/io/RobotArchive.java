@@ -0,0 +1,508 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.io;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * Random-access reader for robot jar files and jar files nested within robot jar files, e.g. team jars.
+ * <p>
+ * The outer jar file is read into memory, and the central directory is read once into an index of the entries.
+ * Entries are served as {@link ByteBuffer}s, where stored entries are read-only slices of the jar in memory, and
+ * deflated entries are inflated directly from it. Nested jars are indexed the same way by their offset within the
+ * outer jar, so classes within team jars are read without extracting the nested jars into temporary files.
+ * A deflated nested jar is inflated once, and kept with the outer jar until {@link #closeAll()} is called.
+ * <p>
+ * Jar files up to 4 MB are read into the heap, so they are not kept open. Larger jar files are memory-mapped, where
+ * stored entries are copied out of the mapped file, so no buffer handed out refers to the mapping. Mapped files are
+ * unmapped when {@link #closeAll()} is called, or when the file is opened again after it has been modified, which
+ * releases the lock Windows keeps on mapped files. Until then, a mapped jar file that is rewritten in place, instead
+ * of being replaced by a new file, can make the JVM crash with a bus error on Linux when the mapping is read. The
+ * modification time and length of a jar file are checked each time an entry is read by URL, which keeps this window
+ * short but does not close it.
+ * <p>
+ * Supported URLs are the ones used by the repository, i.e. {@code jar:file:/robots/Bot.jar!/entry} and
+ * {@code jar:jarjar:file:/robots/Team.jar^/Bot.jar!/entry}.
+ * Zip64 archives are not supported. In this case, or if an URL is not supported, the methods return null
+ * so the caller can fall back to using an URL connection instead.
+ */
+public final class RobotArchive {
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_HEADER_SIGNATURE = 0x06054b50;
+
+	private static final int END_HEADER_SIZE = 22;
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+
+	private static final String JAR_PREFIX = "jar:file:";
+	private static final String JARJAR_PREFIX = "jar:jarjar:file:";
+	private static final String ENTRY_SEPARATOR = "!/";
+
+	// Jar files up to this size are read into the heap instead of being memory-mapped
+	private static final int MAX_READ_SIZE = 4 * 1024 * 1024;
+
+	// Entries are read into arrays, so larger entries are rejected instead of risking to run out of memory
+	private static final int MAX_ENTRY_SIZE = 64 * 1024 * 1024;
+
+	// Deflate cannot compress data to less than about a thousandth of its size
+	private static final int MAX_DEFLATE_RATIO = 1032;
+
+	// Opened archive files by their path
+	private static final Map<String, RobotArchive> archives = new HashMap<String, RobotArchive>();
+
+	private final ByteBuffer data;
+	private final MappedByteBuffer mapped; // null if the archive is not memory-mapped
+	private boolean isClosed; // guarded by this
+	private final Map<String, Entry> entries;
+	private final Map<String, RobotArchive> nestedArchives = new HashMap<String, RobotArchive>();
+
+	private final long lastModified;
+	private final long length;
+
+	private static final class Entry {
+		final int method;
+		final int compressedSize;
+		final int size;
+		final int localHeaderOffset;
+
+		Entry(int method, int compressedSize, int size, int localHeaderOffset) {
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+	}
+
+	private RobotArchive(ByteBuffer data, long lastModified, long length) throws IOException {
+		this.data = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+		this.mapped = (data instanceof MappedByteBuffer) ? (MappedByteBuffer) data : null;
+		this.lastModified = lastModified;
+		this.length = length;
+		this.entries = readCentralDirectory(this.data);
+	}
+
+	/**
+	 * Returns the archive for the specified jar file. The archive is opened, i.e. read or memory-mapped and indexed, if
+	 * the file has not been opened before or has been modified since, in which case the previous archive is closed.
+	 *
+	 * @param file is the jar file.
+	 * @return the archive for the jar file.
+	 * @throws IOException if the file could not be read or is not a supported archive.
+	 */
+	public static RobotArchive open(File file) throws IOException {
+		final String path = file.getPath();
+
+		synchronized (archives) {
+			RobotArchive archive = archives.get(path);
+
+			if (archive == null || archive.lastModified != file.lastModified() || archive.length != file.length()) {
+				if (archive != null) {
+					archive.close();
+				}
+				archive = new RobotArchive(read(file), file.lastModified(), file.length());
+				archives.put(path, archive);
+			}
+			return archive;
+		}
+	}
+
+	/**
+	 * Closes all opened archives, where the memory-mapped jar files are unmapped. Entries can no longer be read from
+	 * the closed archives, but the buffers already read from them stay valid.
+	 */
+	public static void closeAll() {
+		synchronized (archives) {
+			for (RobotArchive archive : archives.values()) {
+				archive.close();
+			}
+			archives.clear();
+		}
+	}
+
+	private void close() {
+		if (mapped != null) {
+			synchronized (this) {
+				isClosed = true;
+				unmap(mapped);
+			}
+		}
+	}
+
+	/**
+	 * Reads an entry from a robot jar or a jar nested within a robot jar.
+	 *
+	 * @param baseUrl is the URL of the jar, e.g. {@code jar:file:/robots/Bot.jar!/}
+	 * @param name is the name of the entry within the jar, e.g. {@code sample/Walls.class}.
+	 * @return the content of the entry, or null if the entry does not exist or the URL is not supported.
+	 */
+	public static ByteBuffer readEntry(URL baseUrl, String name) {
+		if (baseUrl == null) {
+			return null;
+		}
+		final String base = baseUrl.toString();
+
+		if (!base.endsWith(ENTRY_SEPARATOR)) {
+			return null;
+		}
+		return readEntry(base + name);
+	}
+
+	/**
+	 * Reads an entry from a robot jar or a jar nested within a robot jar.
+	 *
+	 * @param url is the URL of the entry, e.g. {@code jar:file:/robots/Bot.jar!/sample/Walls.class}
+	 * @return the content of the entry, or null if the entry does not exist or the URL is not supported.
+	 */
+	public static ByteBuffer readEntry(URL url) {
+		return url == null ? null : readEntry(url.toString());
+	}
+
+	private static ByteBuffer readEntry(String url) {
+		final String path;
+		final boolean nested = url.startsWith(JARJAR_PREFIX);
+
+		if (nested) {
+			path = url.substring(JARJAR_PREFIX.length());
+		} else if (url.startsWith(JAR_PREFIX)) {
+			path = url.substring(JAR_PREFIX.length());
+		} else {
+			return null;
+		}
+		final int entryIndex = path.indexOf(ENTRY_SEPARATOR);
+
+		if (entryIndex < 0) {
+			return null;
+		}
+		final String entryName = path.substring(entryIndex + ENTRY_SEPARATOR.length());
+		String filePath = path.substring(0, entryIndex);
+		String nestedName = null;
+
+		if (nested) {
+			int nestedIndex = filePath.indexOf(JarJar.SEPARATOR);
+
+			if (nestedIndex < 0) {
+				return null;
+			}
+			nestedName = filePath.substring(nestedIndex + JarJar.SEPARATOR.length());
+			filePath = filePath.substring(0, nestedIndex);
+		}
+		try {
+			File file = new File(new URI("file:" + filePath));
+
+			if (!file.isFile()) {
+				return null;
+			}
+			RobotArchive archive = open(file);
+
+			if (nestedName != null) {
+				archive = archive.getNestedArchive(nestedName);
+				if (archive == null) {
+					return null;
+				}
+			}
+			return archive.getEntry(entryName);
+		} catch (IOException e) {
+			return null;
+		} catch (URISyntaxException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Checks if this archive contains an entry with the specified name.
+	 *
+	 * @param name is the name of the entry.
+	 * @return true if the entry exists; false otherwise.
+	 */
+	public boolean contains(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * Returns the content of the entry with the specified name.
+	 *
+	 * @param name is the name of the entry.
+	 * @return a buffer with the content of the entry, or null if the entry does not exist. The buffer is a read-only
+	 *         slice of the jar in the heap if the entry is stored, and a new buffer if the entry is deflated or the jar
+	 *         is memory-mapped.
+	 * @throws IOException if the entry could not be read, or the archive has been closed.
+	 */
+	public ByteBuffer getEntry(String name) throws IOException {
+		Entry entry = entries.get(name);
+
+		if (entry == null) {
+			return null;
+		}
+		if (mapped == null) {
+			return getContent(entry);
+		}
+		synchronized (this) {
+			if (isClosed) {
+				throw new IOException("Archive closed");
+			}
+			return getContent(entry);
+		}
+	}
+
+	private ByteBuffer getContent(Entry entry) throws IOException {
+		ByteBuffer content = slice(getDataOffset(entry), entry.compressedSize);
+
+		switch (entry.method) {
+		case METHOD_STORED:
+			if (mapped != null) {
+				ByteBuffer copy = ByteBuffer.allocate(content.remaining());
+
+				copy.put(content);
+				((Buffer) copy).flip();
+				return copy;
+			}
+			return content.asReadOnlyBuffer();
+
+		case METHOD_DEFLATED:
+			return inflate(content, entry.size);
+
+		default:
+			throw new IOException("Unsupported compression method: " + entry.method);
+		}
+	}
+
+	/**
+	 * Returns the archive for a jar nested within this archive.
+	 *
+	 * @param name is the name of the nested jar entry, e.g. {@code Bot.jar}.
+	 * @return the nested archive, or null if the entry does not exist.
+	 * @throws IOException if the nested jar could not be read or is not a supported archive.
+	 */
+	public RobotArchive getNestedArchive(String name) throws IOException {
+		synchronized (nestedArchives) {
+			RobotArchive nested = nestedArchives.get(name);
+
+			if (nested == null) {
+				ByteBuffer content = getEntry(name);
+
+				if (content == null) {
+					return null;
+				}
+				nested = new RobotArchive(content, lastModified, length);
+				nestedArchives.put(name, nested);
+			}
+			return nested;
+		}
+	}
+
+	private int getDataOffset(Entry entry) throws IOException {
+		final int offset = entry.localHeaderOffset;
+
+		if (data.getInt(offset) != LOCAL_HEADER_SIGNATURE) {
+			throw new IOException("Invalid local header");
+		}
+		int nameLength = data.getShort(offset + 26) & 0xFFFF;
+		int extraLength = data.getShort(offset + 28) & 0xFFFF;
+
+		return offset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+	}
+
+	private ByteBuffer slice(int offset, int size) throws IOException {
+		if (offset < 0 || size < 0 || offset + size > data.limit()) {
+			throw new IOException("Invalid entry offset or size");
+		}
+		ByteBuffer buffer = data.duplicate();
+
+		((Buffer) buffer).position(offset);
+		((Buffer) buffer).limit(offset + size);
+		return buffer.slice();
+	}
+
+	private static ByteBuffer inflate(ByteBuffer compressed, int size) throws IOException {
+		// The Inflater only reads from arrays, so the compressed data is copied from the mapped file
+		byte[] input = new byte[compressed.remaining()];
+
+		compressed.get(input);
+
+		Inflater inflater = new Inflater(true);
+
+		try {
+			inflater.setInput(input);
+
+			byte[] output = new byte[size];
+			int read = 0;
+
+			while (read < size) {
+				int n = inflater.inflate(output, read, size - read);
+
+				if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				read += n;
+			}
+			if (read != size) {
+				throw new IOException("Invalid deflated entry");
+			}
+			return ByteBuffer.wrap(output);
+		} catch (DataFormatException e) {
+			throw new IOException("Invalid deflated entry: " + e.getMessage());
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static Map<String, Entry> readCentralDirectory(ByteBuffer data) throws IOException {
+		final int endOffset = findEndHeader(data);
+
+		final int count = data.getShort(endOffset + 10) & 0xFFFF;
+		int offset = data.getInt(endOffset + 16);
+
+		if (count == 0xFFFF || offset == 0xFFFFFFFF) {
+			throw new IOException("Zip64 archives are not supported");
+		}
+		Map<String, Entry> entries = new HashMap<String, Entry>(count * 2);
+
+		for (int i = 0; i < count; i++) {
+			if (offset < 0 || offset + CENTRAL_HEADER_SIZE > data.limit()
+					|| data.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+				throw new IOException("Invalid central directory");
+			}
+			int method = data.getShort(offset + 10) & 0xFFFF;
+			int compressedSize = data.getInt(offset + 20);
+			int size = data.getInt(offset + 24);
+			int nameLength = data.getShort(offset + 28) & 0xFFFF;
+			int extraLength = data.getShort(offset + 30) & 0xFFFF;
+			int commentLength = data.getShort(offset + 32) & 0xFFFF;
+			int localHeaderOffset = data.getInt(offset + 42);
+
+			if (compressedSize == 0xFFFFFFFF || size == 0xFFFFFFFF || localHeaderOffset == 0xFFFFFFFF) {
+				throw new IOException("Zip64 archives are not supported");
+			}
+			checkEntrySize(method, compressedSize, size, data.limit());
+
+			byte[] nameBytes = new byte[nameLength];
+			ByteBuffer nameBuffer = data.duplicate();
+
+			((Buffer) nameBuffer).position(offset + CENTRAL_HEADER_SIZE);
+			nameBuffer.get(nameBytes);
+
+			String name = decodeName(nameBytes);
+
+			if (!name.endsWith("/")) {
+				entries.put(name, new Entry(method, compressedSize, size, localHeaderOffset));
+			}
+			offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+		return entries;
+	}
+
+	// Checks the sizes read from the central directory before they are used for allocating the content of the entry
+	private static void checkEntrySize(int method, int compressedSize, int size, int archiveSize) throws IOException {
+		if (compressedSize < 0 || compressedSize > archiveSize || size < 0 || size > MAX_ENTRY_SIZE) {
+			throw new IOException("Invalid entry size");
+		}
+		if (method == METHOD_DEFLATED && size > (long) compressedSize * MAX_DEFLATE_RATIO + 1024) {
+			throw new IOException("Invalid entry size");
+		}
+	}
+
+	private static int findEndHeader(ByteBuffer data) throws IOException {
+		final int last = data.limit() - END_HEADER_SIZE;
+		final int first = Math.max(0, last - MAX_COMMENT_SIZE);
+
+		for (int offset = last; offset >= first; offset--) {
+			if (data.getInt(offset) == END_HEADER_SIGNATURE) {
+				return offset;
+			}
+		}
+		throw new IOException("Not a jar file");
+	}
+
+	private static String decodeName(byte[] bytes) {
+		try {
+			return new String(bytes, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			return new String(bytes);
+		}
+	}
+
+	private static ByteBuffer read(File file) throws IOException {
+		FileInputStream fis = null;
+
+		try {
+			fis = new FileInputStream(file);
+			FileChannel channel = fis.getChannel();
+			long size = channel.size();
+
+			if (size > MAX_READ_SIZE) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("Unexpected end of file: " + file);
+				}
+			}
+			((Buffer) buffer).flip();
+			return buffer;
+		} finally {
+			FileUtil.cleanupStream(fis);
+		}
+	}
+
+	// Unmaps a mapped file right away instead of when the buffer is garbage collected. The cleaner of the buffer is
+	// only reachable by reflection, where the file stays mapped until the buffer is collected if this fails.
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			try {
+				// Java 9 and later
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+
+				theUnsafe.setAccessible(true);
+				invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			} catch (NoSuchMethodException e) {
+				// Java 8 and earlier
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		} catch (Exception e) {
+			Logger.logWarning("Could not unmap robot archive: " + e);
+		}
+	}
+}
@@ -88,6 +88,9 @@ public class URLJarCollector {
 	}
 
 	public static synchronized void gc() {
+		if (enabled) {
+			RobotArchive.closeAll();
+		}
 		if (sunJVM) {
 			// Close all JarURLConnections if garbage collection is enabled
 			if (enabled) {
@@ -18,7 +18,7 @@ import net.sf.robocode.serialization.SerializableOptions;
  */
 public interface IRecordManager {
 
-	void attachRecorder(BattleEventDispatcher battleEventDispatcher);
+	void attachRecorder(BattleEventDispatcher battleEventDispatcher, long randomSeed);
 	void detachRecorder();
 
 	void saveRecord(String fileName, BattleRecordFormat format, SerializableOptions options);
@@ -39,8 +39,14 @@ public interface IRepositoryManager extends IRepositoryManagerBase {
 	boolean refresh(boolean force);
 	void reload(boolean forced);
 
-	List<IRobotSpecItem> getRepositoryItems(boolean onlyWithSource, boolean onlyWithPackage,
-			boolean onlyRobots, boolean onlyDevelopment, boolean onlyNotDevelopment, boolean ignoreTeamRobots, boolean onlyInJar);
+	/**
+	 * Returns the valid robots and teams in the repository that match the specified query.
+	 * The lookup is done using indexes over the repository items, which are rebuilt when the repository changes.
+	 *
+	 * @param query is the query the items must match.
+	 * @return a sorted list of the matching robots and teams.
+	 */
+	List<IRobotSpecItem> getRepositoryItems(RepositoryQuery query);
 
 	RobotSpecification[] loadSelectedRobots(RobotSpecification[] selectedRobots);
 
@@ -17,6 +17,10 @@ import java.net.URL;
 public interface IRobotItem extends IRobotSpecItem {
 	String getPlatform();
 
+	Integer getCodeSize();
+
+	RobotType getRobotType();
+
 	boolean isJuniorRobot();
 	boolean isStandardRobot();
 	boolean isAdvancedRobot();
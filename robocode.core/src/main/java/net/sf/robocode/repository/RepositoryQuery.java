@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.repository;
+
+
+/**
+ * Query for robots and teams in the robot repository, used with {@link IRepositoryManager#getRepositoryItems(RepositoryQuery)}.
+ * All criteria that have been set must be fulfilled by the items returned. Criteria that have not been set match any item.
+ * The setters return the query itself so criteria can be chained, e.g.
+ * {@code new RepositoryQuery().setPackage("sample").setRobotsOnly(true)}.
+ */
+public final class RepositoryQuery {
+
+	/**
+	 * The code size classes used by RoboRumble, where a robot belongs to a code size class if its code size is
+	 * less than the class' maximum code size.
+	 */
+	public enum CodeSizeClass {
+		NANO(250),
+		MICRO(750),
+		MINI(1500);
+
+		private final int maxCodeSize;
+
+		private CodeSizeClass(int maxCodeSize) {
+			this.maxCodeSize = maxCodeSize;
+		}
+
+		public int getMaxCodeSize() {
+			return maxCodeSize;
+		}
+
+		public boolean contains(int codeSize) {
+			return codeSize < maxCodeSize;
+		}
+	}
+
+	/**
+	 * The origin of robots and teams, i.e. from a development directory or from a jar file.
+	 */
+	public enum Origin {
+		ANY,
+		DEVELOPMENT,
+		NOT_DEVELOPMENT,
+		JAR
+	}
+
+	private String namePrefix;
+	private String shortName;
+	private String packageName;
+	private String authorName;
+	private CodeSizeClass codeSizeClass;
+	private RobotType robotType;
+	private Origin origin = Origin.ANY;
+	private boolean robotsOnly;
+	private boolean onlyWithSource;
+	private boolean onlyWithPackage;
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	/**
+	 * Only items with a full class name or short class name starting with the specified prefix, ignoring case.
+	 */
+	public RepositoryQuery setNamePrefix(String namePrefix) {
+		this.namePrefix = namePrefix;
+		return this;
+	}
+
+	public String getShortName() {
+		return shortName;
+	}
+
+	/**
+	 * Only items with the specified short class name, e.g. "Walls", ignoring case.
+	 */
+	public RepositoryQuery setShortName(String shortName) {
+		this.shortName = shortName;
+		return this;
+	}
+
+	public String getPackage() {
+		return packageName;
+	}
+
+	/**
+	 * Only items within the specified full package, e.g. "sample".
+	 */
+	public RepositoryQuery setPackage(String packageName) {
+		this.packageName = packageName;
+		return this;
+	}
+
+	public String getAuthorName() {
+		return authorName;
+	}
+
+	/**
+	 * Only items made by the specified author, ignoring case.
+	 */
+	public RepositoryQuery setAuthorName(String authorName) {
+		this.authorName = authorName;
+		return this;
+	}
+
+	public CodeSizeClass getCodeSizeClass() {
+		return codeSizeClass;
+	}
+
+	/**
+	 * Only robots with a known code size within the specified code size class. Teams are never included.
+	 */
+	public RepositoryQuery setCodeSizeClass(CodeSizeClass codeSizeClass) {
+		this.codeSizeClass = codeSizeClass;
+		return this;
+	}
+
+	public RobotType getRobotType() {
+		return robotType;
+	}
+
+	/**
+	 * Only robots having all the types of the specified robot type, e.g. only team robots that are also droids.
+	 * Teams are never included.
+	 */
+	public RepositoryQuery setRobotType(RobotType robotType) {
+		this.robotType = robotType;
+		return this;
+	}
+
+	public Origin getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * Only items with the specified origin. Default is {@link Origin#ANY}.
+	 */
+	public RepositoryQuery setOrigin(Origin origin) {
+		this.origin = (origin == null) ? Origin.ANY : origin;
+		return this;
+	}
+
+	public boolean isRobotsOnly() {
+		return robotsOnly;
+	}
+
+	/**
+	 * Only robots, i.e. no teams.
+	 */
+	public RepositoryQuery setRobotsOnly(boolean robotsOnly) {
+		this.robotsOnly = robotsOnly;
+		return this;
+	}
+
+	public boolean isOnlyWithSource() {
+		return onlyWithSource;
+	}
+
+	/**
+	 * Only items that include source files.
+	 */
+	public RepositoryQuery setOnlyWithSource(boolean onlyWithSource) {
+		this.onlyWithSource = onlyWithSource;
+		return this;
+	}
+
+	public boolean isOnlyWithPackage() {
+		return onlyWithPackage;
+	}
+
+	/**
+	 * Only items that are within a package, i.e. not in the default package.
+	 */
+	public RepositoryQuery setOnlyWithPackage(boolean onlyWithPackage) {
+		this.onlyWithPackage = onlyWithPackage;
+		return this;
+	}
+}
@@ -79,6 +79,16 @@ public final class RobotType implements Serializable {
 		return typeFlags;
 	}
 
+	/**
+	 * Checks if this robot type has all the types of the specified robot type.
+	 *
+	 * @param robotType is the robot type to check.
+	 * @return true if all type flags of the specified robot type are set for this robot type; false otherwise.
+	 */
+	public boolean includes(RobotType robotType) {
+		return (typeFlags & robotType.typeFlags) == robotType.typeFlags;
+	}
+
 	public boolean isValid() {
 		return isJuniorRobot() || isStandardRobot() || isAdvancedRobot();
 	}
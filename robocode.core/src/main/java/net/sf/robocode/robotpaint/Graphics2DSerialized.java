@@ -56,6 +56,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.text.AttributedCharacterIterator;
 import java.text.CharacterIterator;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 
 
@@ -67,6 +69,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	private static final int INITIAL_BUFFER_SIZE = 2 * 1024;
 	private static final int MAX_BUFFER_SIZE = 1024 * 1024; // 64 * 1024;
+	private static final int MAX_INTERNED_OBJECTS = 256;
 
 	private final Method[] methods = Method.class.getEnumConstants();
 
@@ -171,6 +174,15 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	// Serializer for this proxy
 	private final RbSerializer serializer = new RbSerializer();
 
+	// Display lists compiled from the calls of the last two turns, where the front list is the one replayed last
+	private DisplayList frontList = new DisplayList();
+	private DisplayList backList = new DisplayList();
+
+	// Interned objects of the display lists, which are shared between turns
+	private final Map<Integer, Color> internedColors = new HashMap<Integer, Color>();
+	private final Map<Font, Font> internedFonts = new HashMap<Font, Font>();
+	private final Map<Stroke, Stroke> internedStrokes = new HashMap<Stroke, Stroke>();
+
 	// FOR-DEBUG private Method lastRead;
 	// FOR-DEBUG private int lastPos;
 
@@ -1404,37 +1416,77 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 		((Buffer) calls).flip();
 
-		while (calls.remaining() > 0) {
-			processQueuedCall(g);
-		}
+		DisplayList list = backList;
+
+		compile(list);
+		replay(g, list);
+		list.clear();
 	}
 
 	public void processTo(Graphics2D g, Object graphicsCalls) {
+		replay(g, getDisplayList((byte[]) graphicsCalls));
+	}
+
+	public byte[] readoutQueuedCalls() {
+		if (calls == null || calls.position() == 0) {
+			return null;
+		}
+		byte[] res = new byte[calls.position()];
+
+		((Buffer) calls).flip();
+		calls.get(res);
+
 		((Buffer) calls).clear();
+		calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
+
+		return res;
+	}
+
+	/**
+	 * Returns the display list compiled from the specified calls of a turn. The lists of the last two turns are kept,
+	 * so the frames repeating a turn are replayed without decoding its calls again, and the arrays of the older list
+	 * are reused for compiling the calls of the next turn.
+	 */
+	private DisplayList getDisplayList(byte[] graphicsCalls) {
+		if (frontList.source != graphicsCalls) {
+			DisplayList list = backList;
+
+			backList = frontList;
+			frontList = list;
 
-		((Buffer) calls).mark(); // Mark for rollback
-		try {
-			calls.put((byte[]) graphicsCalls);
-		} catch (BufferOverflowException e) {
-			((Buffer) calls).reset(); // Rollback buffer
-			if (reallocBuffer()) {
-				processTo(g, graphicsCalls);
-				return; // must exit here
+			if (list.source != graphicsCalls) {
+				ByteBuffer recordedCalls = calls;
+
+				calls = ByteBuffer.wrap(graphicsCalls);
+				try {
+					calls.order(calls.get() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+					compile(list);
+				} catch (BufferUnderflowException e) {
+					throw new BadPaintException(e);
+				} finally {
+					calls = recordedCalls;
+				}
+				list.source = graphicsCalls;
 			}
-			((Buffer) calls).clear();
 		}
+		return frontList;
+	}
 
-		((Buffer) calls).flip();
-		calls.order(calls.get() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+	private void compile(DisplayList list) {
+		list.clear();
 
 		while (calls.remaining() > 0) {
+			list.mark();
 			try {
-				processQueuedCall(g);
+				compileQueuedCall(list);
 			} catch (BadPaintException e) {
+				list.clear();
 				throw e;
 			} catch (BufferUnderflowException e) {
+				list.clear();
 				throw new BadPaintException(e);
 			} catch (Exception e) {
+				list.rollback(); // Drop the arguments of the call that could not be read
 				e.printStackTrace();
 				// FOR-DEBUG } catch (Error e) {
 				// FOR-DEBUG 	calls.position(lastPos - 4);
@@ -1442,206 +1494,138 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 		}
 	}
 
-	public byte[] readoutQueuedCalls() {
-		if (calls == null || calls.position() == 0) {
-			return null;
-		}
-		byte[] res = new byte[calls.position()];
-
-		((Buffer) calls).flip();
-		calls.get(res);
-
-		((Buffer) calls).clear();
-		calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
-
-		return res;
-	}
-
-	private void processQueuedCall(Graphics2D g) {
+	private void compileQueuedCall(DisplayList list) {
 		Method m = readMethod();
 
 		switch (m) {
 		// case NIL:
 		// 	throw new BadPaintException(new RuntimeException("NIL encountered"));
 
-		case TRANSLATE_INT:
-			processTranslate_int(g);
-			break;
-
-		case SET_COLOR:
-			processSetColor(g);
-			break;
-
 		case SET_PAINT_MODE:
-			processSetPaintMode(g);
-			break;
-
-		case SET_XOR_MODE:
-			processSetXORMode(g);
-			break;
-
-		case SET_FONT:
-			processSetFont(g);
-			break;
-
-		case CLIP_RECT:
-			processClipRect(g);
-			break;
-
-		case SET_CLIP:
-			processSetClip(g);
-			break;
-
-		case SET_CLIP_SHAPE:
-			processSetClip_Shape(g);
-			break;
-
-		case COPY_AREA:
-			processCopyArea(g);
-			break;
-
-		case DRAW_LINE:
-			processDrawLine(g);
-			break;
-
-		case FILL_RECT:
-			processFillRect(g);
-			break;
-
-		case DRAW_RECT:
-			processDrawRect(g);
-			break;
-
-		case CLEAR_RECT:
-			processClearRect(g);
+			// setPaintMode()
 			break;
 
-		case DRAW_ROUND_RECT:
-			processDrawRoundRect(g);
-			break;
-
-		case FILL_ROUND_RECT:
-			processFillRoundRect(g);
-			break;
-
-		case DRAW_3D_RECT:
-			processDraw3DRect(g);
-			break;
-
-		case FILL_3D_RECT:
-			processFill3DRect(g);
-			break;
-
-		case DRAW_OVAL:
-			processDrawOval(g);
+		case TRANSLATE_INT:
+			// translate(int, int)
+			list.addInts(calls, 2);
 			break;
 
-		case FILL_OVAL:
-			processFillOval(g);
+		case CLIP_RECT: // clipRect(int, int, int, int)
+		case SET_CLIP: // setClip(int, int, int, int)
+		case DRAW_LINE: // drawLine(int, int, int, int)
+		case FILL_RECT: // fillRect(int, int, int, int)
+		case DRAW_RECT: // drawRect(int, int, int, int)
+		case CLEAR_RECT: // clearRect(int, int, int, int)
+		case DRAW_OVAL: // drawOval(int, int, int, int)
+		case FILL_OVAL: // fillOval(int, int, int, int)
+			list.addInts(calls, 4);
 			break;
 
-		case DRAW_ARC:
-			processDrawArc(g);
+		case COPY_AREA: // copyArea(int, int, int, int, int, int)
+		case DRAW_ROUND_RECT: // drawRoundRect(int, int, int, int, int, int)
+		case FILL_ROUND_RECT: // fillRoundRect(int, int, int, int, int, int)
+		case DRAW_ARC: // drawArc(int, int, int, int, int, int)
+		case FILL_ARC: // fillArc(int, int, int, int, int, int)
+			list.addInts(calls, 6);
 			break;
 
-		case FILL_ARC:
-			processFillArc(g);
+		case DRAW_3D_RECT: // draw3DRect(int, int, int, int, boolean)
+		case FILL_3D_RECT: // fill3DRect(int, int, int, int, boolean)
+			list.addInts(calls, 4);
+			list.addInt(serializer.deserializeBoolean(calls) ? 1 : 0);
 			break;
 
-		case DRAW_POLYLINE:
-			processDrawPolyline(g);
+		case SET_COLOR: // setColor(Color)
+		case SET_XOR_MODE: // setXORMode(Color)
+		case SET_BACKGROUND: // setBackground(Color)
+			list.addObject(readColor());
 			break;
 
-		case DRAW_POLYGON:
-			processDrawPolygon(g);
+		case SET_FONT:
+			// setFont(Font)
+			list.addObject(readFont());
 			break;
 
-		case FILL_POLYGON:
-			processFillPolygon(g);
+		case SET_CLIP_SHAPE: // setClip(Shape)
+		case DRAW_SHAPE: // draw(Shape)
+		case FILL_SHAPE: // fill(Shape)
+		case CLIP: // clip(Shape)
+			list.addObject(readShape());
 			break;
 
-		case DRAW_STRING_INT:
-			processDrawString_int(g);
+		case DRAW_POLYLINE: // drawPolyline(int[], int[], int)
+		case DRAW_POLYGON: // drawPolygon(int[], int[], int)
+		case FILL_POLYGON: // fillPolygon(int[], int[], int)
+			list.addObject(serializer.deserializeIntegers(calls));
+			list.addObject(serializer.deserializeIntegers(calls));
+			list.addInt(calls.getInt());
 			break;
 
-		case DRAW_STRING_ACI_INT:
-			processDrawString_ACIterator_int(g);
+		case DRAW_STRING_INT: // drawString(String, int, int)
+		case DRAW_STRING_ACI_INT: // drawString(String, int, int)
+			list.addObject(serializer.deserializeString(calls));
+			list.addInts(calls, 2);
 			break;
 
 		case DRAW_CHARS:
-			processDrawChars(g);
+			// drawChars(char[], int, int, int, int)
+			list.addObject(serializer.deserializeChars(calls));
+			list.addInts(calls, 4);
 			break;
 
 		case DRAW_BYTES:
-			processDrawBytes(g);
-			break;
-
-		case DRAW_SHAPE:
-			processDrawShape(g);
-			break;
-
-		case DRAW_STRING_FLOAT:
-			processDrawString_float(g);
+			// drawBytes(byte[], int, int, int, int)
+			list.addObject(serializer.deserializeBytes(calls));
+			list.addInts(calls, 4);
 			break;
 
-		case DRAW_STRING_ACI_FLOAT:
-			processDrawString_ACIterator_float(g);
-			break;
-
-		case FILL_SHAPE:
-			processFillShape(g);
+		case DRAW_STRING_FLOAT: // drawString(String, float, float)
+		case DRAW_STRING_ACI_FLOAT: // drawString(String, float, float)
+			list.addObject(serializer.deserializeString(calls));
+			list.addDouble(calls.getFloat());
+			list.addDouble(calls.getFloat());
 			break;
 
 		case SET_COMPOSITE:
-			processSetComposite(g);
+			// setComposite(Composite)
+			list.addObject(readComposite());
 			break;
 
 		case SET_PAINT:
-			processSetPaint(g);
+			// setPaint(Paint)
+			list.addObject(readPaint());
 			break;
 
 		case SET_STROKE:
-			processSetStroke(g);
+			// setStroke(Stroke)
+			list.addObject(readStroke());
 			break;
 
-		case TRANSLATE_DOUBLE:
-			processTranslate_double(g);
+		case TRANSLATE_DOUBLE: // translate(double, double)
+		case SCALE: // scale(double, double)
+		case SHEAR: // shear(double, double)
+			list.addDoubles(calls, 2);
 			break;
 
 		case ROTATE:
-			processRotate(g);
+			// rotate(double)
+			list.addDoubles(calls, 1);
 			break;
 
 		case ROTATE_XY:
-			processRotate_xy(g);
-			break;
-
-		case SCALE:
-			processScale(g);
-			break;
-
-		case SHEAR:
-			processShear(g);
-			break;
-
-		case TRANSFORM:
-			processTransform(g);
-			break;
-
-		case SET_TRANSFORM:
-			processSetTransform(g);
+			// rotate(double, double, double)
+			list.addDoubles(calls, 3);
 			break;
 
-		case SET_BACKGROUND:
-			processSetBackground(g);
+		case TRANSFORM: // transform(AffineTransform)
+		case SET_TRANSFORM: // setTransform(AffineTransform)
+			list.addObject(readAffineTransform());
 			break;
 
-		case CLIP:
-			processClip(g);
-			break;
-
- 		case DRAW_RENDERED_IMAGE:
- 			processDrawRenderedImage(g);
+		case DRAW_RENDERED_IMAGE:
+			// drawRenderedImage(RenderedImage, AffineTransform)
+			list.addObject(readRenderedImage());
+			list.addObject(readAffineTransform());
 			break;
 
 		case DRAW_GLYPH_VECTOR:
@@ -1661,237 +1645,258 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			notSupported();
 			break;
 		}
+		list.addMethod(m);
 	}
 
-	private void processTranslate_int(Graphics2D g) {
-		// translate(int, int)
-		g.translate(calls.getInt(), calls.getInt());
-	}
-
-	private void processSetColor(Graphics2D g) {
-		// setColor(Color)
-		g.setColor(readColor());
-	}
-
-	private void processSetPaintMode(Graphics2D g) {
-		// setPaintMode()
-		g.setPaintMode();
-	}
-
-	private void processSetXORMode(Graphics2D g) {
-		// setXORMode(Color)
-		g.setXORMode(readColor());
-	}
-
-	private void processSetFont(Graphics2D g) {
-		Font font = calls.get() == 0
-				? null
-				: new Font(serializer.deserializeString(calls), calls.getInt(), calls.getInt());
-
-		// setFont(Font)
-		g.setFont(font);
-	}
-
-	private void processClipRect(Graphics2D g) {
-		// clipRect(int, int, int, int)
-		g.clipRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
+	private void replay(Graphics2D g, DisplayList list) {
+		final byte[] ops = list.ops;
+		final int[] ints = list.ints;
+		final double[] doubles = list.doubles;
+		final Object[] objects = list.objects;
 
-	private void processSetClip(Graphics2D g) {
-		// setClip(int, int, int, int)
-		g.setClip(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
+		int ip = 0;
+		int dp = 0;
+		int op = 0;
 
-	private void processSetClip_Shape(Graphics2D g) {
-		// setClip(Shape)
-		g.setClip(readShape());
-	}
-
-	private void processCopyArea(Graphics2D g) {
-		// copyArea(int, int, int, int, int, int)
-		g.copyArea(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
+		for (int n = 0; n < list.opCount; n++) {
+			// The arguments are consumed before each call, so a failing call does not affect the following calls
+			final int i = ip;
+			final int d = dp;
+			final int o = op;
 
-	private void processDrawLine(Graphics2D g) {
-		// drawLine(int, int, int, int)
-		g.drawLine(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processFillRect(Graphics2D g) {
-		// fillRect(int, int, int, int)
-		g.fillRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawRect(Graphics2D g) {
-		// drawRect(int, int, int, int)
-		g.drawRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processClearRect(Graphics2D g) {
-		// clearRect(int, int, int, int)
-		g.clearRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawRoundRect(Graphics2D g) {
-		// drawRoundRect(int, int, int, int, int, int)
-		g.drawRoundRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processFillRoundRect(Graphics2D g) {
-		// fillRoundRect(int, int, int, int, int, int)
-		g.fillRoundRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processDraw3DRect(Graphics2D g) {
-		// draw3DRect(int, int, int, int, boolean)
-		g.draw3DRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(),
-				serializer.deserializeBoolean(calls));
-	}
-
-	private void processFill3DRect(Graphics2D g) {
-		// fill3DRect(int, int, int, int, boolean)
-		g.fill3DRect(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(),
-				serializer.deserializeBoolean(calls));
-	}
-
-	private void processDrawOval(Graphics2D g) {
-		// drawOval(int, int, int, int)
-		g.drawOval(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processFillOval(Graphics2D g) {
-		// fillOval(int, int, int, int)
-		g.fillOval(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawArc(Graphics2D g) {
-		// drawArc(int, int, int, int, int, int)
-		g.drawArc(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processFillArc(Graphics2D g) {
-		// fillArc(int, int, int, int, int, int)
-		g.fillArc(calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawPolyline(Graphics2D g) {
-		// drawPolyline(int[], int[], int)
-		g.drawPolyline(serializer.deserializeIntegers(calls), serializer.deserializeIntegers(calls), calls.getInt());
-	}
-
-	private void processDrawPolygon(Graphics2D g) {
-		// drawPolygon(int[], int[], int)
-		g.drawPolygon(serializer.deserializeIntegers(calls), serializer.deserializeIntegers(calls), calls.getInt());
-	}
-
-	private void processFillPolygon(Graphics2D g) {
-		// fillPolygon(int[], int[], int)
-		g.fillPolygon(serializer.deserializeIntegers(calls), serializer.deserializeIntegers(calls), calls.getInt());
-	}
-
-	private void processDrawString_int(Graphics2D g) {
-		// drawString(String, int, int)
-		g.drawString(serializer.deserializeString(calls), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawString_ACIterator_int(Graphics2D g) {
-		// drawString(String, int, int)
-		g.drawString(serializer.deserializeString(calls), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawChars(Graphics2D g) {
-		// drawBytes(char[], int, int, int, int)
-		g.drawChars(serializer.deserializeChars(calls), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawBytes(Graphics2D g) {
-		// drawBytes(byte[], int, int, int, int)
-		g.drawBytes(serializer.deserializeBytes(calls), calls.getInt(), calls.getInt(), calls.getInt(), calls.getInt());
-	}
-
-	private void processDrawShape(Graphics2D g) {
-		// draw(Shape)
-		g.draw(readShape());
-	}
-
-	private void processDrawString_float(Graphics2D g) {
-		// drawString(String, float, float)
-		g.drawString(serializer.deserializeString(calls), calls.getFloat(), calls.getFloat());
-	}
-
-	private void processDrawString_ACIterator_float(Graphics2D g) {
-		// drawString(String, float, float)
-		g.drawString(serializer.deserializeString(calls), calls.getFloat(), calls.getFloat());
-	}
-
-	private void processFillShape(Graphics2D g) {
-		// fill(Shape)
-		g.fill(readShape());
-	}
-
-	private void processSetComposite(Graphics2D g) {
-		// setComposite(Composite)
-		g.setComposite(readComposite());
-	}
-
-	private void processSetPaint(Graphics2D g) {
-		// setPaint(Paint)
-		g.setPaint(readPaint());
-	}
-
-	private void processSetStroke(Graphics2D g) {
-		// setStroke(Stroke)
-		g.setStroke(readStroke());
-	}
-
-	private void processTranslate_double(Graphics2D g) {
-		// translate(double, double)
-		g.translate(calls.getDouble(), calls.getDouble());
-	}
-
-	private void processRotate(Graphics2D g) {
-		// rotate(double)
-		g.rotate(calls.getDouble());
-	}
-
-	private void processRotate_xy(Graphics2D g) {
-		// rotate(double)
-		g.rotate(calls.getDouble(), calls.getDouble(), calls.getDouble());
-	}
-
-	private void processScale(Graphics2D g) {
-		// scale(double, double)
-		g.scale(calls.getDouble(), calls.getDouble());
-	}
-
-	private void processShear(Graphics2D g) {
-		// shear(double, double)
-		g.shear(calls.getDouble(), calls.getDouble());
-	}
-
-	private void processTransform(Graphics2D g) {
-		// transform(AffineTransform)
-		g.transform(readAffineTransform());
-	}
-
-	private void processSetTransform(Graphics2D g) {
-		// setTransform(AffineTransform)
-		g.setTransform(readAffineTransform());
-	}
-
-	private void processSetBackground(Graphics2D g) {
-		// setBackground(Color)
-		g.setBackground(readColor());
-	}
-
-	private void processClip(Graphics2D g) {
-		// clip(Shape)
-		g.clip(readShape());
-	}
-
-	private void processDrawRenderedImage(Graphics2D g) {
-		// drawRenderedImage(RenderedImage, AffineTransform)
-		g.drawRenderedImage(readRenderedImage(), readAffineTransform());
+			try {
+				switch (methods[ops[n]]) {
+				case SET_PAINT_MODE:
+					g.setPaintMode();
+					break;
+
+				case TRANSLATE_INT:
+					ip += 2;
+					g.translate(ints[i], ints[i + 1]);
+					break;
+
+				case CLIP_RECT:
+					ip += 4;
+					g.clipRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case SET_CLIP:
+					ip += 4;
+					g.setClip(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case DRAW_LINE:
+					ip += 4;
+					g.drawLine(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case FILL_RECT:
+					ip += 4;
+					g.fillRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case DRAW_RECT:
+					ip += 4;
+					g.drawRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case CLEAR_RECT:
+					ip += 4;
+					g.clearRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case DRAW_OVAL:
+					ip += 4;
+					g.drawOval(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case FILL_OVAL:
+					ip += 4;
+					g.fillOval(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case COPY_AREA:
+					ip += 6;
+					g.copyArea(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4], ints[i + 5]);
+					break;
+
+				case DRAW_ROUND_RECT:
+					ip += 6;
+					g.drawRoundRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4], ints[i + 5]);
+					break;
+
+				case FILL_ROUND_RECT:
+					ip += 6;
+					g.fillRoundRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4], ints[i + 5]);
+					break;
+
+				case DRAW_ARC:
+					ip += 6;
+					g.drawArc(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4], ints[i + 5]);
+					break;
+
+				case FILL_ARC:
+					ip += 6;
+					g.fillArc(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4], ints[i + 5]);
+					break;
+
+				case DRAW_3D_RECT:
+					ip += 5;
+					g.draw3DRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4] != 0);
+					break;
+
+				case FILL_3D_RECT:
+					ip += 5;
+					g.fill3DRect(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4] != 0);
+					break;
+
+				case SET_COLOR:
+					op++;
+					g.setColor((Color) objects[o]);
+					break;
+
+				case SET_XOR_MODE:
+					op++;
+					g.setXORMode((Color) objects[o]);
+					break;
+
+				case SET_BACKGROUND:
+					op++;
+					g.setBackground((Color) objects[o]);
+					break;
+
+				case SET_FONT:
+					op++;
+					g.setFont((Font) objects[o]);
+					break;
+
+				case SET_CLIP_SHAPE:
+					op++;
+					g.setClip((Shape) objects[o]);
+					break;
+
+				case DRAW_SHAPE:
+					op++;
+					g.draw((Shape) objects[o]);
+					break;
+
+				case FILL_SHAPE:
+					op++;
+					g.fill((Shape) objects[o]);
+					break;
+
+				case CLIP:
+					op++;
+					g.clip((Shape) objects[o]);
+					break;
+
+				case DRAW_POLYLINE:
+					op += 2;
+					ip++;
+					g.drawPolyline((int[]) objects[o], (int[]) objects[o + 1], ints[i]);
+					break;
+
+				case DRAW_POLYGON:
+					op += 2;
+					ip++;
+					g.drawPolygon((int[]) objects[o], (int[]) objects[o + 1], ints[i]);
+					break;
+
+				case FILL_POLYGON:
+					op += 2;
+					ip++;
+					g.fillPolygon((int[]) objects[o], (int[]) objects[o + 1], ints[i]);
+					break;
+
+				case DRAW_STRING_INT:
+				case DRAW_STRING_ACI_INT:
+					op++;
+					ip += 2;
+					g.drawString((String) objects[o], ints[i], ints[i + 1]);
+					break;
+
+				case DRAW_CHARS:
+					op++;
+					ip += 4;
+					g.drawChars((char[]) objects[o], ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case DRAW_BYTES:
+					op++;
+					ip += 4;
+					g.drawBytes((byte[]) objects[o], ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+					break;
+
+				case DRAW_STRING_FLOAT:
+				case DRAW_STRING_ACI_FLOAT:
+					op++;
+					dp += 2;
+					g.drawString((String) objects[o], (float) doubles[d], (float) doubles[d + 1]);
+					break;
+
+				case SET_COMPOSITE:
+					op++;
+					g.setComposite((Composite) objects[o]);
+					break;
+
+				case SET_PAINT:
+					op++;
+					g.setPaint((Paint) objects[o]);
+					break;
+
+				case SET_STROKE:
+					op++;
+					g.setStroke((Stroke) objects[o]);
+					break;
+
+				case TRANSLATE_DOUBLE:
+					dp += 2;
+					g.translate(doubles[d], doubles[d + 1]);
+					break;
+
+				case SCALE:
+					dp += 2;
+					g.scale(doubles[d], doubles[d + 1]);
+					break;
+
+				case SHEAR:
+					dp += 2;
+					g.shear(doubles[d], doubles[d + 1]);
+					break;
+
+				case ROTATE:
+					dp++;
+					g.rotate(doubles[d]);
+					break;
+
+				case ROTATE_XY:
+					dp += 3;
+					g.rotate(doubles[d], doubles[d + 1], doubles[d + 2]);
+					break;
+
+				case TRANSFORM:
+					op++;
+					g.transform((AffineTransform) objects[o]);
+					break;
+
+				case SET_TRANSFORM:
+					op++;
+					g.setTransform((AffineTransform) objects[o]);
+					break;
+
+				case DRAW_RENDERED_IMAGE:
+					op += 2;
+					g.drawRenderedImage((RenderedImage) objects[o], (AffineTransform) objects[o + 1]);
+					break;
+
+				default:
+					notSupported();
+					break;
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
 	}
 
 	private Shape readShape() {
@@ -2141,7 +2146,7 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			return null;
 
 		case 1:
-			return new Color(calls.getInt(), true);
+			return internColor(calls.getInt());
 		}
 		notSupported();
 		return null;
@@ -2166,8 +2171,18 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 			return null;
 
 		case 1:
-			return new BasicStroke(calls.getFloat(), calls.getInt(), calls.getInt(), calls.getFloat(),
+			Stroke stroke = new BasicStroke(calls.getFloat(), calls.getInt(), calls.getInt(), calls.getFloat(),
 					serializer.deserializeFloats(calls), calls.getFloat());
+			Stroke interned = internedStrokes.get(stroke);
+
+			if (interned == null) {
+				if (internedStrokes.size() >= MAX_INTERNED_OBJECTS) {
+					internedStrokes.clear();
+				}
+				internedStrokes.put(stroke, stroke);
+				interned = stroke;
+			}
+			return interned;
 		}
 		notSupported();
 		return null;
@@ -2296,7 +2311,38 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	}
 
 	private Color readColor() {
-		return calls.get() == 0 ? null : new Color(calls.getInt(), true);
+		return calls.get() == 0 ? null : internColor(calls.getInt());
+	}
+
+	private Color internColor(int argb) {
+		Integer key = argb;
+		Color color = internedColors.get(key);
+
+		if (color == null) {
+			if (internedColors.size() >= MAX_INTERNED_OBJECTS) {
+				internedColors.clear();
+			}
+			color = new Color(argb, true);
+			internedColors.put(key, color);
+		}
+		return color;
+	}
+
+	private Font readFont() {
+		if (calls.get() == 0) {
+			return null;
+		}
+		Font font = new Font(serializer.deserializeString(calls), calls.getInt(), calls.getInt());
+		Font interned = internedFonts.get(font);
+
+		if (interned == null) {
+			if (internedFonts.size() >= MAX_INTERNED_OBJECTS) {
+				internedFonts.clear();
+			}
+			internedFonts.put(font, font);
+			interned = font;
+		}
+		return interned;
 	}
 
 	private void put(Color value) {
@@ -2406,6 +2452,93 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	// Worker classes
 	// --------------------------------------------------------------------------
 
+	/**
+	 * Compact display list of the calls of a turn, where the arguments of the calls are decoded into arrays of
+	 * primitives and (interned) objects, which are read back in order when the list is replayed. The arrays grow
+	 * as needed, and are kept when the list is cleared for reuse.
+	 */
+	private static final class DisplayList {
+		// The calls this list was compiled from, or null if the list has not been compiled from a turn
+		Object source;
+
+		byte[] ops = new byte[64];
+		int[] ints = new int[256];
+		double[] doubles = new double[64];
+		Object[] objects = new Object[64];
+
+		int opCount;
+		int intCount;
+		int doubleCount;
+		int objectCount;
+
+		// Counts marked for rollback
+		private int markedIntCount;
+		private int markedDoubleCount;
+		private int markedObjectCount;
+
+		void clear() {
+			source = null;
+			opCount = 0;
+			intCount = 0;
+			doubleCount = 0;
+			Arrays.fill(objects, 0, objectCount, null);
+			objectCount = 0;
+		}
+
+		void mark() {
+			markedIntCount = intCount;
+			markedDoubleCount = doubleCount;
+			markedObjectCount = objectCount;
+		}
+
+		void rollback() {
+			intCount = markedIntCount;
+			doubleCount = markedDoubleCount;
+			Arrays.fill(objects, markedObjectCount, objectCount, null);
+			objectCount = markedObjectCount;
+		}
+
+		void addMethod(Method m) {
+			if (opCount == ops.length) {
+				ops = Arrays.copyOf(ops, 2 * opCount);
+			}
+			ops[opCount++] = (byte) m.ordinal();
+		}
+
+		void addInt(int value) {
+			if (intCount == ints.length) {
+				ints = Arrays.copyOf(ints, 2 * intCount);
+			}
+			ints[intCount++] = value;
+		}
+
+		void addInts(ByteBuffer buffer, int count) {
+			for (int i = 0; i < count; i++) {
+				addInt(buffer.getInt());
+			}
+		}
+
+		void addDouble(double value) {
+			if (doubleCount == doubles.length) {
+				doubles = Arrays.copyOf(doubles, 2 * doubleCount);
+			}
+			doubles[doubleCount++] = value;
+		}
+
+		void addDoubles(ByteBuffer buffer, int count) {
+			for (int i = 0; i < count; i++) {
+				addDouble(buffer.getDouble());
+			}
+		}
+
+		void addObject(Object value) {
+			if (objectCount == objects.length) {
+				objects = Arrays.copyOf(objects, 2 * objectCount);
+			}
+			objects[objectCount++] = value;
+		}
+	}
+
 
 	/**
 	 * Extended FontMetrics class which only purpose is to let us access its
@@ -13,6 +13,8 @@ import robocode.control.events.IBattleListener;
 import robocode.control.snapshot.ITurnSnapshot;
 
 import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
 
 
 /**
@@ -56,4 +58,16 @@ public interface IWindowManager extends IWindowManagerBase {
 	void removeBattleListener(IBattleListener listener);
 
 	void runIntroBattle();
+
+	/**
+	 * Creates a battle listener, which renders the turns of the battles and replays it listens to into numbered PNG
+	 * files in the specified directory without a display.
+	 *
+	 * @param directory     the directory to write the frames into, which is created if it does not exist
+	 * @param width         the width of the frames
+	 * @param height        the height of the frames
+	 * @param framesPerTurn the number of frames rendered per turn
+	 * @return the battle listener writing the frames
+	 */
+	IBattleListener createFrameWriter(File directory, int width, int height, int framesPerTurn) throws IOException;
 }
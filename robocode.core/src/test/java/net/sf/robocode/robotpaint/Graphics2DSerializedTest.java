@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.robotpaint;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+
+public class Graphics2DSerializedTest {
+
+	@BeforeClass
+	public static void init() {
+		// we need to switch off engine classloader for this test
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("WORKINGDIRECTORY", "target//test-classes");
+		System.setProperty("TESTING", "true");
+		HiddenAccess.initContainer();
+	}
+
+	@AfterClass
+	public static void cleanup() {
+		System.setProperty("NOSECURITY", "false");
+	}
+
+	@Test
+	public void replayDrawsLikeTheRobot() {
+		Graphics2DSerialized robotGraphics = new Graphics2DSerialized();
+
+		robotGraphics.setPaintingEnabled(true);
+		paint(robotGraphics);
+
+		byte[] graphicsCalls = robotGraphics.readoutQueuedCalls();
+		Graphics2DSerialized viewGraphics = new Graphics2DSerialized();
+
+		viewGraphics.setPaintingEnabled(true);
+
+		BufferedImage expected = newImage();
+		BufferedImage replayed = newImage();
+		BufferedImage repeated = newImage();
+
+		paint(expected.createGraphics());
+		viewGraphics.processTo(replayed.createGraphics(), graphicsCalls);
+		viewGraphics.processTo(repeated.createGraphics(), graphicsCalls);
+
+		Assert.assertTrue(Arrays.equals(pixels(expected), pixels(replayed)));
+		Assert.assertTrue(Arrays.equals(pixels(expected), pixels(repeated)));
+	}
+
+	@Test
+	public void objectsAreInternedBetweenTurns() {
+		Graphics2DSerialized robotGraphics = new Graphics2DSerialized();
+		Graphics2DSerialized viewGraphics = new Graphics2DSerialized();
+		Graphics2DSerialized target = new Graphics2DSerialized();
+
+		robotGraphics.setPaintingEnabled(true);
+		viewGraphics.setPaintingEnabled(true);
+
+		Color[] colors = new Color[3];
+		Font[] fonts = new Font[3];
+		BasicStroke[] strokes = new BasicStroke[3];
+
+		for (int turn = 0; turn < 3; turn++) {
+			robotGraphics.setColor(new Color(10, 20, 30, 40));
+			robotGraphics.setFont(new Font("Dialog", Font.BOLD, 14));
+			robotGraphics.setStroke(new BasicStroke(2.5f));
+			robotGraphics.drawLine(0, 0, turn, turn);
+
+			viewGraphics.processTo(target, robotGraphics.readoutQueuedCalls());
+
+			colors[turn] = target.getColor();
+			fonts[turn] = target.getFont();
+			strokes[turn] = (BasicStroke) target.getStroke();
+		}
+		Assert.assertEquals(new Color(10, 20, 30, 40), colors[0]);
+		Assert.assertEquals(Font.BOLD, fonts[0].getStyle());
+		Assert.assertEquals(14, fonts[0].getSize());
+		Assert.assertEquals(2.5f, strokes[0].getLineWidth(), 0);
+		for (int turn = 1; turn < 3; turn++) {
+			Assert.assertSame(colors[0], colors[turn]);
+			Assert.assertSame(fonts[0], fonts[turn]);
+			Assert.assertSame(strokes[0], strokes[turn]);
+		}
+	}
+
+	@Test(expected = BadPaintException.class)
+	public void truncatedCallsAreBadPaint() {
+		Graphics2DSerialized robotGraphics = new Graphics2DSerialized();
+
+		robotGraphics.setPaintingEnabled(true);
+		robotGraphics.drawRect(1, 2, 3, 4);
+
+		byte[] graphicsCalls = robotGraphics.readoutQueuedCalls();
+		Graphics2DSerialized viewGraphics = new Graphics2DSerialized();
+
+		viewGraphics.processTo(newImage().createGraphics(), Arrays.copyOf(graphicsCalls, graphicsCalls.length - 2));
+	}
+
+	private static void paint(Graphics2D g) {
+		g.setColor(Color.RED);
+		g.fillRect(10, 10, 30, 20);
+		g.setStroke(new BasicStroke(3));
+		g.setColor(new Color(0, 128, 255, 200));
+		g.draw(new Ellipse2D.Double(40, 40, 30, 15));
+		g.translate(5, 5);
+		g.rotate(0.3);
+		g.drawPolygon(new int[] { 0, 20, 10 }, new int[] { 0, 0, 15 }, 3);
+
+		GeneralPath path = new GeneralPath();
+
+		path.moveTo(50, 5);
+		path.lineTo(70, 25);
+		path.quadTo(60, 40, 45, 30);
+		path.closePath();
+		g.fill(path);
+		g.setColor(Color.GREEN);
+		g.fillOval(60, 60, 10, 10);
+	}
+
+	private static BufferedImage newImage() {
+		return new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	private static int[] pixels(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+}
@@ -29,6 +29,8 @@ import java.awt.geom.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -141,6 +143,94 @@ public class RbSerializerTest {
 		Assert.assertEquals(ec2.getDebugProperties().get(0).getValue(), "Pli lu?ouk k pl belsk dy");
 	}
 
+	@Test
+	public void strings() throws IOException {
+		RbSerializer rbs = new RbSerializer();
+		StringBuilder longText = new StringBuilder();
+
+		for (int i = 0; i < 100; i++) {
+			longText.append("line ").append(i).append(" \u00e9\u20ac\ud83d\ude00\n");
+		}
+		String[] strings = { "", "Foo", "sample.Crazy (2)", "\u00e9t\u00e9", "\u20ac100", "\ud83d\ude00 smile",
+			longText.toString() };
+
+		for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(8192), ByteBuffer.allocateDirect(8192) }) {
+			for (int pass = 0; pass < 2; pass++) { // second pass from the cached encodings
+				for (String s : strings) {
+					byte[] expected = s.getBytes("UTF-8");
+
+					Assert.assertEquals(RbSerializer.SIZEOF_INT + expected.length, rbs.sizeOf(s));
+
+					((Buffer) buffer).clear();
+					buffer.putInt(42); // not at the start of the buffer
+					rbs.serialize(buffer, s);
+					((Buffer) buffer).flip();
+					Assert.assertEquals(42, buffer.getInt());
+
+					int length = buffer.getInt();
+					byte[] actual = new byte[length];
+
+					buffer.get(actual);
+					Assert.assertArrayEquals(expected, actual);
+
+					((Buffer) buffer).position(RbSerializer.SIZEOF_INT);
+					Assert.assertEquals(s, rbs.deserializeString(buffer));
+					Assert.assertEquals(0, buffer.remaining());
+				}
+			}
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+
+		rbs.serialize(buffer, (String) null);
+		rbs.serialize(buffer, "a\ud800b"); // unpaired surrogate
+		((Buffer) buffer).flip();
+		Assert.assertNull(rbs.deserializeString(buffer));
+		Assert.assertEquals("a?b", rbs.deserializeString(buffer));
+	}
+
+	@Test
+	public void primitiveArrays() {
+		RbSerializer rbs = new RbSerializer();
+		int[] ints = { 1, -2, Integer.MAX_VALUE };
+		char[] chars = { 'a', '\u20ac' };
+		double[] doubles = { 1.5, -0.25, Double.NaN };
+		float[] floats = { 3.25f };
+		ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+
+		buffer.put((byte) 7);
+		rbs.serialize(buffer, ints);
+		rbs.serialize(buffer, chars);
+		rbs.serialize(buffer, doubles);
+		rbs.serialize(buffer, floats);
+		rbs.serialize(buffer, (int[]) null);
+		((Buffer) buffer).flip();
+
+		Assert.assertEquals(7, buffer.get());
+		Assert.assertArrayEquals(ints, rbs.deserializeIntegers(buffer));
+		Assert.assertArrayEquals(chars, rbs.deserializeChars(buffer));
+		Assert.assertArrayEquals(doubles, rbs.deserializeDoubles(buffer), 0);
+		Assert.assertArrayEquals(floats, rbs.deserializeFloats(buffer), 0);
+		Assert.assertNull(rbs.deserializeIntegers(buffer));
+		Assert.assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void deepCopy() {
+		ExecCommands ec = new ExecCommands();
+
+		ec.setGunColor(1234);
+		ec.getDebugProperties().add(new DebugProperty("key", "\u00e9t\u00e9"));
+
+		for (int i = 0; i < 2; i++) {
+			ExecCommands ec2 = (ExecCommands) RbSerializer.deepCopy(RbSerializer.ExecCommands_TYPE, ec);
+
+			Assert.assertNotSame(ec, ec2);
+			Assert.assertEquals(1234, ec2.getGunColor());
+			Assert.assertEquals("\u00e9t\u00e9", ec2.getDebugProperties().get(0).getValue());
+		}
+	}
+
 	// @Test
 	// 14 seconds for 1000 000,
 	// 15x faster
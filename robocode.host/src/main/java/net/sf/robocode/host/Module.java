@@ -10,6 +10,8 @@ package net.sf.robocode.host;
 
 import net.sf.robocode.core.BaseModule;
 import net.sf.robocode.core.Container;
+import net.sf.robocode.host.process.ProcessHost;
+import net.sf.robocode.host.process.RobotProcess;
 import net.sf.robocode.host.security.ThreadManager;
 
 
@@ -22,5 +24,7 @@ public class Module extends BaseModule {
 		Container.cache.addComponent(ICpuManager.class, CpuManager.class);
 		Container.cache.addComponent(IThreadManager.class, ThreadManager.class);
 		Container.cache.addComponent("robocode.host.java", JavaHost.class);
+		Container.cache.addComponent("robocode.host.process", ProcessHost.class);
+		Container.cache.addComponent(IRobotProcess.class, RobotProcess.class);
 	}
 }
@@ -12,7 +12,6 @@ import net.sf.robocode.security.HiddenAccess;
 import robocode.Event;
 
 import java.util.ArrayList;
-import java.util.Collections;
 
 
 /**
@@ -46,8 +45,4 @@ public class EventQueue extends ArrayList<Event> {
 			}
 		}
 	}
-
-	void sort() {
-		Collections.sort(this);
-	}
 }
@@ -0,0 +1,400 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.events;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import robocode.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Queue of the events of a robot, ordered like {@link Event#compareTo(Event)}: by time, then by descending priority, and
+ * then by the order given by the event type, where events comparing equal stay in the order they were added.
+ * <p>
+ * The events are kept in a bucket per priority, which is sorted by time when events are added. As events are
+ * mostly added in time order, adding and removing events take constant time, and so does dropping expired events
+ * from the front of the buckets.
+ * <p>
+ * The events of the types read by the event getters of robots are also kept in a list per type, so reading them
+ * only visits the events of that type.
+ */
+final class PriorityEventQueue implements Iterable<Event> {
+
+	// Event priorities range from -1 (DeathEvent) to 110 (RoundEndedEvent)
+	private static final int MIN_PRIORITY = -1;
+	private static final int MAX_PRIORITY = 110;
+	private static final int BUCKET_COUNT = MAX_PRIORITY - MIN_PRIORITY + 1;
+
+	// Event types with a list of their own, see getEvents(Class)
+	private static final Class<?>[] INDEXED_TYPES = {
+		BulletHitBulletEvent.class, BulletHitEvent.class, BulletMissedEvent.class, HitByBulletEvent.class,
+		HitRobotEvent.class, HitWallEvent.class, RobotDeathEvent.class, ScannedRobotEvent.class, MessageEvent.class,
+		StatusEvent.class
+	};
+
+	private final Bucket[] buckets = new Bucket[BUCKET_COUNT];
+	private final Bucket[] typeBuckets = new Bucket[INDEXED_TYPES.length];
+
+	// index into INDEXED_TYPES of each event class met, or -1
+	private final Map<Class<?>, Integer> typeIndexes = new HashMap<Class<?>, Integer>();
+
+	// bit set of the non-empty buckets
+	private final long[] used = new long[(BUCKET_COUNT + 63) >> 6];
+
+	private int size;
+
+	// index of the bucket holding the first event, or -1 when it must be looked up
+	private int first = -1;
+
+	PriorityEventQueue() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets[i] = new Bucket();
+		}
+		for (int i = 0; i < typeBuckets.length; i++) {
+			typeBuckets[i] = new Bucket();
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void add(Event event) {
+		final int index = bucketIndex(event.getPriority());
+
+		buckets[index].add(event);
+		used[index >> 6] |= 1L << index;
+
+		final int type = typeIndex(event.getClass());
+
+		if (type >= 0) {
+			typeBuckets[type].add(event);
+		}
+		size++;
+		first = -1;
+	}
+
+	/**
+	 * Returns the first event of the queue without removing it, or null if the queue is empty.
+	 */
+	Event peek() {
+		final int index = firstBucket();
+
+		return (index < 0) ? null : buckets[index].get(0);
+	}
+
+	/**
+	 * Removes and returns the first event of the queue, or null if the queue is empty.
+	 */
+	Event poll() {
+		final int index = firstBucket();
+
+		if (index < 0) {
+			return null;
+		}
+		Event event = buckets[index].removeFirst();
+
+		removed(index, 1);
+		unindex(event);
+		return event;
+	}
+
+	void clear(boolean includingSystemEvents) {
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			final Bucket bucket = buckets[index];
+			final int oldSize = bucket.size;
+
+			if (includingSystemEvents) {
+				bucket.clear();
+			} else {
+				for (int i = 0; i < bucket.size;) {
+					final Event event = bucket.get(i);
+
+					if (HiddenAccess.isCriticalEvent(event)) {
+						i++;
+					} else {
+						bucket.removeAt(i);
+						unindex(event);
+					}
+				}
+			}
+			removed(index, oldSize - bucket.size);
+		}
+		if (includingSystemEvents) {
+			for (Bucket typeBucket : typeBuckets) {
+				typeBucket.clear();
+			}
+		}
+	}
+
+	/**
+	 * Removes all events that are not critical, and which occurred at or before the specified time.
+	 * As the buckets are sorted by time, only the expired events at the front of the buckets are visited.
+	 */
+	void clear(long clearTime) {
+		for (int word = 0; word < used.length; word++) {
+			for (long bits = used[word]; bits != 0; bits &= bits - 1) {
+				final int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+				final Bucket bucket = buckets[index];
+				final int oldSize = bucket.size;
+
+				for (int i = 0; i < bucket.size;) {
+					final Event event = bucket.get(i);
+
+					if (event.getTime() > clearTime) {
+						break;
+					}
+					if (HiddenAccess.isCriticalEvent(event)) {
+						i++;
+						continue;
+					}
+					if (i == 0) {
+						bucket.removeFirst();
+					} else {
+						bucket.removeAt(i);
+					}
+					unindex(event);
+				}
+				removed(index, oldSize - bucket.size);
+			}
+		}
+	}
+
+	/**
+	 * Returns an iterator over the events in queue order.
+	 * The queue must not be modified while iterating.
+	 */
+	public Iterator<Event> iterator() {
+		return new Iterator<Event>() {
+			private final int[] cursors = new int[BUCKET_COUNT];
+			private int remaining = size;
+
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			public Event next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				int best = -1;
+				long bestTime = 0;
+
+				// the buckets are visited by descending priority, so the first of the events with the same time wins
+				for (int index = BUCKET_COUNT - 1; index >= 0; index--) {
+					final Bucket bucket = buckets[index];
+
+					if (cursors[index] < bucket.size) {
+						final long time = bucket.get(cursors[index]).getTime();
+
+						if (best < 0 || time < bestTime) {
+							best = index;
+							bestTime = time;
+						}
+					}
+				}
+				remaining--;
+				return buckets[best].get(cursors[best]++);
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns a new list with the events of the specified type in queue order. For the indexed event types, only
+	 * the events of the type are visited.
+	 */
+	<T extends Event> List<T> getEvents(Class<T> type) {
+		final int index = typeIndex(type);
+
+		if (index < 0 || INDEXED_TYPES[index] != type) {
+			List<T> events = new ArrayList<T>();
+
+			for (Event event : this) {
+				if (type.isInstance(event)) {
+					events.add(type.cast(event));
+				}
+			}
+			return events;
+		}
+		final Bucket bucket = typeBuckets[index];
+		List<T> events = new ArrayList<T>(bucket.size);
+
+		for (int i = 0; i < bucket.size; i++) {
+			events.add(type.cast(bucket.get(i)));
+		}
+		return events;
+	}
+
+	private int typeIndex(Class<?> eventClass) {
+		Integer index = typeIndexes.get(eventClass);
+
+		if (index == null) {
+			index = -1;
+			for (int i = 0; i < INDEXED_TYPES.length; i++) {
+				if (INDEXED_TYPES[i].isAssignableFrom(eventClass)) {
+					index = i;
+					break;
+				}
+			}
+			typeIndexes.put(eventClass, index);
+		}
+		return index;
+	}
+
+	private void unindex(Event event) {
+		final int type = typeIndex(event.getClass());
+
+		if (type >= 0) {
+			typeBuckets[type].remove(event);
+		}
+	}
+
+	private int firstBucket() {
+		if (first >= 0 || size == 0) {
+			return first;
+		}
+		int best = -1;
+		long bestTime = 0;
+
+		// the buckets are visited by descending priority, so the first of the events with the same time wins
+		for (int word = used.length - 1; word >= 0; word--) {
+			for (long bits = used[word]; bits != 0; bits &= ~Long.highestOneBit(bits)) {
+				final int index = (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+				final long time = buckets[index].get(0).getTime();
+
+				if (best < 0 || time < bestTime) {
+					best = index;
+					bestTime = time;
+				}
+			}
+		}
+		first = best;
+		return best;
+	}
+
+	private void removed(int index, int count) {
+		if (count == 0) {
+			return;
+		}
+		size -= count;
+		first = -1;
+		if (buckets[index].size == 0) {
+			used[index >> 6] &= ~(1L << index);
+		}
+	}
+
+	private static int bucketIndex(int priority) {
+		if (priority < MIN_PRIORITY) {
+			return 0;
+		}
+		if (priority > MAX_PRIORITY) {
+			return BUCKET_COUNT - 1;
+		}
+		return priority - MIN_PRIORITY;
+	}
+
+	/**
+	 * Events sorted in queue order in a ring buffer.
+	 */
+	private static final class Bucket {
+		private Event[] events = new Event[8];
+		private int head;
+		int size;
+
+		Event get(int i) {
+			return events[(head + i) & (events.length - 1)];
+		}
+
+		private void set(int i, Event event) {
+			events[(head + i) & (events.length - 1)] = event;
+		}
+
+		/**
+		 * Inserts the event after all events that it does not precede, searching from the back.
+		 */
+		void add(Event event) {
+			if (size == events.length) {
+				grow();
+			}
+			int i = size;
+
+			while (i > 0 && event.compareTo(get(i - 1)) < 0) {
+				set(i, get(i - 1));
+				i--;
+			}
+			set(i, event);
+			size++;
+		}
+
+		Event removeFirst() {
+			final Event event = events[head];
+
+			events[head] = null;
+			head = (head + 1) & (events.length - 1);
+			size--;
+			return event;
+		}
+
+		/**
+		 * Removes the specified event, which is searched from the front.
+		 */
+		void remove(Event event) {
+			for (int i = 0; i < size; i++) {
+				if (get(i) == event) {
+					if (i == 0) {
+						removeFirst();
+					} else {
+						removeAt(i);
+					}
+					return;
+				}
+			}
+		}
+
+		void removeAt(int index) {
+			for (int i = index; i < size - 1; i++) {
+				set(i, get(i + 1));
+			}
+			set(size - 1, null);
+			size--;
+		}
+
+		void clear() {
+			for (int i = 0; i < size; i++) {
+				set(i, null);
+			}
+			head = 0;
+			size = 0;
+		}
+
+		private void grow() {
+			Event[] grown = new Event[events.length << 1];
+
+			for (int i = 0; i < size; i++) {
+				grown[i] = get(i);
+			}
+			events = grown;
+			head = 0;
+		}
+	}
+}
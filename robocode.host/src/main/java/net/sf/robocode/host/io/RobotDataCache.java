@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.io;
+
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Session-wide cache of the state of the robot data directories, which is enabled with -DROBOTDATACACHE=true.
+ * <p>
+ * The data directory of a robot is specific to the robot name and version, and is loaded for every battle the robot
+ * takes part in. With the cache, the quota used by a data directory is counted from the files when the directory is
+ * released at the end of a battle, and taken over by the next battle without listing the directory again, as long as
+ * the directory has not been modified since. The running count of the file system manager is not handed over, as
+ * it only grows when a robot truncates and rewrites its files. Also, the data files of a robot jar are only extracted into the data directory
+ * once per session, so the robot sees its own data files from previous battles of the session.
+ */
+final class RobotDataCache {
+
+	static final boolean ENABLED = System.getProperty("ROBOTDATACACHE", "false").equals("true");
+
+	private static final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	private static final class Entry {
+		long quotaUsed = -1;
+		long lastModified;
+		int owners;
+		boolean shared;
+		String extractedFrom;
+	}
+
+	private RobotDataCache() {}
+
+	/**
+	 * Returns the quota used by the data directory, and registers the caller as owner of the directory until it calls
+	 * {@link #release(File)}.
+	 */
+	static long acquire(File dataDirectory) {
+		if (dataDirectory == null) {
+			return 0;
+		}
+		synchronized (entries) {
+			Entry entry = getEntry(dataDirectory);
+
+			if (entry.owners++ > 0) {
+				// the same robot is loaded twice, so the quota used by each owner does not add up
+				entry.shared = true;
+			} else if (entry.quotaUsed >= 0 && entry.lastModified == dataDirectory.lastModified()) {
+				return entry.quotaUsed;
+			}
+			return countQuotaUsed(dataDirectory);
+		}
+	}
+
+	/**
+	 * Releases the data directory at the end of the battle, where the quota used is counted from its files.
+	 */
+	static void release(File dataDirectory) {
+		if (dataDirectory == null) {
+			return;
+		}
+		synchronized (entries) {
+			Entry entry = getEntry(dataDirectory);
+
+			if (entry.owners > 0) {
+				entry.owners--;
+			}
+			if (entry.shared) {
+				entry.quotaUsed = -1;
+				entry.shared = entry.owners > 0;
+			} else {
+				entry.quotaUsed = countQuotaUsed(dataDirectory);
+				entry.lastModified = dataDirectory.lastModified();
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the data files from the specified root path must be extracted into the data directory, which is
+	 * the case only the first time in the session.
+	 */
+	static boolean markExtracted(File dataDirectory, String rootPath) {
+		synchronized (entries) {
+			Entry entry = getEntry(dataDirectory);
+
+			if (rootPath.equals(entry.extractedFrom)) {
+				return false;
+			}
+			entry.extractedFrom = rootPath;
+			return true;
+		}
+	}
+
+	static long countQuotaUsed(File dataDirectory) {
+		long quotaUsed = 0;
+
+		if (dataDirectory != null && dataDirectory.exists()) {
+			File[] dataFiles = dataDirectory.listFiles();
+
+			if (dataFiles != null) {
+				for (File file : dataFiles) {
+					quotaUsed += file.length();
+				}
+			}
+		}
+		return quotaUsed;
+	}
+
+	static void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	private static Entry getEntry(File dataDirectory) {
+		String key = dataDirectory.getPath();
+		Entry entry = entries.get(key);
+
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(key, entry);
+		}
+		return entry;
+	}
+}
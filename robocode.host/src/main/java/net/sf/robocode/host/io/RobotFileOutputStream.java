@@ -13,29 +13,56 @@ import java.io.IOException;
 
 
 /**
+ * Output stream for robot data files, which checks the filesystem quota of the robot on every write.
+ * When the robot data cache is enabled, small writes are collected in memory and written to the file when the buffer
+ * is full, and when the stream is flushed or closed.
+ *
  * @author Pavel Savara (original)
  */
 public class RobotFileOutputStream extends FileOutputStream {
 
+	private static final int BUFFER_SIZE = 8192;
+
 	private RobotFileSystemManager fileSystemManager;
+	private final byte[] buffer;
+	private int count;
+	private boolean closed;
 
 	public RobotFileOutputStream(String filename, boolean append, RobotFileSystemManager fileSystemManager) throws IOException {
 		super(filename, append);
 		this.fileSystemManager = fileSystemManager;
+		buffer = RobotDataCache.ENABLED ? new byte[BUFFER_SIZE] : null;
 		fileSystemManager.addStream(this);
 	}
 
 	@Override
 	public final void close() throws IOException {
 		fileSystemManager.removeStream(this);
-		super.close();
+		try {
+			flushBuffer();
+		} finally {
+			synchronized (this) {
+				closed = true;
+			}
+			super.close();
+		}
+	}
+
+	@Override
+	public final void flush() throws IOException {
+		flushBuffer();
+		super.flush();
 	}
 
 	@Override
 	public final void write(byte[] b) throws IOException {
 		try {
 			fileSystemManager.checkQuota(b.length);
-			super.write(b);
+			if (buffer != null) {
+				writeBuffered(b, 0, b.length);
+			} else {
+				super.write(b);
+			}
 		} catch (IOException e) {
 			try {
 				close();
@@ -51,7 +78,11 @@ public class RobotFileOutputStream extends FileOutputStream {
 		}
 		try {
 			fileSystemManager.checkQuota(len);
-			super.write(b, off, len);
+			if (buffer != null) {
+				writeBuffered(b, off, len);
+			} else {
+				super.write(b, off, len);
+			}
 		} catch (IOException e) {
 			try {
 				close();
@@ -64,7 +95,11 @@ public class RobotFileOutputStream extends FileOutputStream {
 	public final void write(int b) throws IOException {
 		try {
 			fileSystemManager.checkQuota(1);
-			super.write(b);
+			if (buffer != null) {
+				writeBuffered(b);
+			} else {
+				super.write(b);
+			}
 		} catch (IOException e) {
 			try {
 				close();
@@ -72,4 +107,43 @@ public class RobotFileOutputStream extends FileOutputStream {
 			throw e;
 		}
 	}
+
+	private synchronized void writeBuffered(int b) throws IOException {
+		ensureOpen();
+		if (count == buffer.length) {
+			flushBuffer();
+		}
+		buffer[count++] = (byte) b;
+	}
+
+	private synchronized void writeBuffered(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		if (off < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len > buffer.length - count) {
+			flushBuffer();
+			if (len >= buffer.length) {
+				super.write(b, off, len);
+				return;
+			}
+		}
+		System.arraycopy(b, off, buffer, count, len);
+		count += len;
+	}
+
+	private synchronized void flushBuffer() throws IOException {
+		if (count > 0 && !closed) {
+			int len = count;
+
+			count = 0;
+			super.write(buffer, 0, len);
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream Closed");
+		}
+	}
 }
@@ -55,6 +55,24 @@ public class RobotFileSystemManager {
 		updateDataFiles();
 	}
 
+	/**
+	 * Writes back the data still buffered by open streams of the robot, and hands the quota used over to the next
+	 * battle when the robot data cache is enabled.
+	 */
+	public void cleanup() {
+		if (!RobotDataCache.ENABLED) {
+			return;
+		}
+		for (RobotFileOutputStream stream : new ArrayList<RobotFileOutputStream>(streams)) {
+			try {
+				stream.flush();
+			} catch (IOException e) {
+				Logger.logError(e);
+			}
+		}
+		RobotDataCache.release(getWritableDirectory());
+	}
+
 	void addStream(RobotFileOutputStream s) throws IOException {
 		if (s == null) {
 			throw new SecurityException("You may not add a null stream.");
@@ -177,17 +195,14 @@ public class RobotFileSystemManager {
 	}
 
 	private void initializeQuota() {
-		quotaUsed = 0;
 		quotaMessagePrinted = false;
 
 		File dataDirectory = getWritableDirectory();
 
-		if (dataDirectory != null && dataDirectory.exists()) {
-			File[] dataFiles = dataDirectory.listFiles();
-
-			for (File file : dataFiles) {
-				quotaUsed += file.length();
-			}
+		if (RobotDataCache.ENABLED) {
+			quotaUsed = RobotDataCache.acquire(dataDirectory);
+		} else {
+			quotaUsed = RobotDataCache.countQuotaUsed(dataDirectory);
 		}
 	}
 
@@ -255,7 +270,8 @@ public class RobotFileSystemManager {
 
 	private void updateDataFiles() {
 		try {
-			if (rootPath.startsWith("jar:")) {
+			if (rootPath.startsWith("jar:")
+					&& (!RobotDataCache.ENABLED || RobotDataCache.markExtracted(getWritableDirectory(), rootPath))) {
 				updateDataFilesFromJar();
 			}
 		} catch (IOException e) {
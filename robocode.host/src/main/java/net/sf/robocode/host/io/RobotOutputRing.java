@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.io;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounded single-producer/single-consumer ring of the characters printed by a robot between two actions.
+ * <p>
+ * The producer writes the characters directly into the ring, and the consumer drains them into one string per
+ * action, without taking a lock. Characters that do not fit within the limit are dropped and counted, until the
+ * consumer drains the ring again. The ring starts small and grows up to the limit, where it is grown by the producer
+ * only, which publishes the new array before advancing the tail, so the consumer always sees the characters it reads
+ * in the array it reads them from.
+ */
+final class RobotOutputRing {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final int limit;
+
+	private volatile char[] buffer = new char[INITIAL_CAPACITY];
+
+	// sequence numbers of the next character to read and to write
+	private volatile long head;
+	private volatile long tail;
+
+	private final AtomicLong dropped = new AtomicLong();
+	private long totalDropped;
+
+	RobotOutputRing(int limit) {
+		this.limit = limit;
+	}
+
+	// -----------
+	// producer
+	// -----------
+
+	void put(char c, boolean unlimited) {
+		final long t = tail;
+
+		if (reserve(t, 1, unlimited) > 0) {
+			final char[] buf = buffer;
+
+			buf[(int) t & (buf.length - 1)] = c;
+			tail = t + 1;
+		}
+	}
+
+	void put(String s, boolean unlimited) {
+		final long t = tail;
+		final int len = s.length();
+		final int n = reserve(t, len, unlimited);
+
+		if (n > 0) {
+			final char[] buf = buffer;
+			final int index = (int) t & (buf.length - 1);
+			final int first = Math.min(n, buf.length - index);
+
+			s.getChars(0, first, buf, index);
+			s.getChars(first, n, buf, 0);
+			tail = t + n;
+		}
+	}
+
+	void put(char[] s, int off, int len, boolean unlimited) {
+		final long t = tail;
+		final int n = reserve(t, len, unlimited);
+
+		if (n > 0) {
+			final char[] buf = buffer;
+			final int index = (int) t & (buf.length - 1);
+			final int first = Math.min(n, buf.length - index);
+
+			System.arraycopy(s, off, buf, index, first);
+			System.arraycopy(s, off + first, buf, 0, n - first);
+			tail = t + n;
+		}
+	}
+
+	void put(byte[] b, int off, int len, boolean unlimited) {
+		final long t = tail;
+		final int n = reserve(t, len, unlimited);
+
+		if (n > 0) {
+			final char[] buf = buffer;
+			final int mask = buf.length - 1;
+
+			for (int i = 0; i < n; i++) {
+				buf[(int) (t + i) & mask] = (char) b[off + i];
+			}
+			tail = t + n;
+		}
+	}
+
+	/**
+	 * Makes room for the specified number of characters, and returns the number of characters to write into the
+	 * buffer. Characters beyond the limit are counted as dropped, unless the ring is unlimited.
+	 */
+	private int reserve(long t, int len, boolean unlimited) {
+		final long h = head;
+		final int used = (int) (t - h);
+		int n = len;
+
+		if (!unlimited && used + len > limit) {
+			n = Math.max(limit - used, 0);
+			dropped.addAndGet(len - n);
+		}
+		final char[] buf = buffer;
+
+		if (n > 0 && used + n > buf.length) {
+			grow(buf, h, t, used + n);
+		}
+		return n;
+	}
+
+	private void grow(char[] buf, long h, long t, int required) {
+		int capacity = buf.length;
+
+		while (capacity < required) {
+			capacity <<= 1;
+		}
+		char[] newBuf = new char[capacity];
+		int oldMask = buf.length - 1;
+		int newMask = capacity - 1;
+
+		for (long i = h; i < t; i++) {
+			newBuf[(int) i & newMask] = buf[(int) i & oldMask];
+		}
+		buffer = newBuf;
+	}
+
+	// -----------
+	// consumer
+	// -----------
+
+	/**
+	 * Returns the number of characters dropped in total, as accounted by the drains so far.
+	 */
+	long getTotalDropped() {
+		return totalDropped;
+	}
+
+	/**
+	 * Reads all characters written since the last drain, followed by a system message if characters were dropped
+	 * since then.
+	 */
+	String drain() {
+		final long t = tail;
+		final char[] buf = buffer;
+		final long h = head;
+		final int n = (int) (t - h);
+		final long d = dropped.getAndSet(0);
+
+		totalDropped += d;
+
+		if (n == 0 && d == 0) {
+			return "";
+		}
+		final int index = (int) h & (buf.length - 1);
+		final String droppedMessage = (d == 0)
+				? null
+				: "\nSYSTEM: This robot is printing too much between actions.  Output stopped until next action (" + d
+						+ " characters dropped).\n";
+		String text;
+
+		if (d == 0 && index + n <= buf.length) {
+			text = new String(buf, index, n);
+		} else {
+			final int first = Math.min(n, buf.length - index);
+			StringBuilder sb = new StringBuilder(n + (droppedMessage != null ? droppedMessage.length() : 0));
+
+			sb.append(buf, index, first).append(buf, 0, n - first);
+			if (droppedMessage != null) {
+				sb.append(droppedMessage);
+			}
+			text = sb.toString();
+		}
+		head = t;
+		return text;
+	}
+}
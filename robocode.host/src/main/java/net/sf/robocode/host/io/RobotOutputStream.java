@@ -15,170 +15,92 @@ import net.sf.robocode.io.RobocodeProperties;
 
 
 /**
+ * Console of a robot, where the text printed between two actions is collected in a {@link RobotOutputRing}, and read
+ * by the robot proxy when the robot takes the next action. At most ROBOTOUTPUTLIMIT characters are collected between
+ * two actions (50000 by default), unless debugging is enabled, and the characters beyond are dropped. The text left
+ * when the robot is stopped at the end of a round is read by the battle.
+ *
  * @author Mathew A. Nelson (original)
  * @author Flemming N. Larsen (contributor)
  */
 public class RobotOutputStream extends java.io.PrintStream {
 
-	private static final int MAX_CHARS = 50000;
+	private static final int MAX_CHARS = Integer.parseInt(System.getProperty("ROBOTOUTPUTLIMIT", "50000"));
 
-	private int count = 0;
-	private boolean messaged = false;
-	private final StringBuilder text;
+	private final RobotOutputRing text;
+
+	// The robot may print from several threads, so the writers take turns. The readers take turns on another lock,
+	// which is only contended when the battle reads the text left by a robot that is being stopped.
 	private final Object syncRoot = new Object();
+	private final Object readLock = new Object();
 	
 	public RobotOutputStream() {
 		super(new BufferedPipedOutputStream(128, true));
-		this.text = new StringBuilder(8192);
+		this.text = new RobotOutputRing(MAX_CHARS);
 	}
 
 	public String readAndReset() {
-		synchronized (syncRoot) {
-
-			// Out's counter must be reset before processing event.
-			// Otherwise, it will not be reset when printing in the onScannedEvent()
-			// before a scan() call, which will potentially cause a new onScannedEvent()
-			// and therefore not be able to reset the counter.
-			count = 0;
-
-			if (text.length() > 0) {
-				final String result = text.toString();
-
-				text.setLength(0);
-				return result;
-			}
-			return "";
+		// The ring must be drained before processing events.
+		// Otherwise, the limit will not be reset when printing in the onScannedEvent()
+		// before a scan() call, which will potentially cause a new onScannedEvent().
+		synchronized (readLock) {
+			return text.drain();
 		}
 	}
 
-	private boolean isOkToPrint() {
-		synchronized (syncRoot) {
-			if (RobocodeProperties.isDebuggingOn()) { // It is always allowed to print when debugging is enabled.
-				return true;
-			}
-			if (count > MAX_CHARS) {
-				if (!messaged) {
-					text.append(
-							"\nSYSTEM: This robot is printing too much between actions.  Output stopped until next action.\n");
-					messaged = true;
-				}
-				return false;
-			}
-			messaged = false;
-			return true;
-		}
+	private static boolean isUnlimited() {
+		return RobocodeProperties.isDebuggingOn(); // It is always allowed to print when debugging is enabled.
 	}
 
 	@Override
 	public void print(char[] s) {
 		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append(s);
-				count += text.length() - origLen;
-			}
+			text.put(s, 0, s.length, isUnlimited());
 		}
 	}
 
 	@Override
 	public void print(char c) {
 		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				text.append(c);
-				count++;
-			}
+			text.put(c, isUnlimited());
 		}
 	}
 
 	@Override
 	public void print(double d) {
-		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append(d);
-				count += text.length() - origLen;
-			}
-		}
+		print(String.valueOf(d));
 	}
 
 	@Override
 	public void print(float f) {
-		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append(f);
-				count += text.length() - origLen;
-			}
-		}
+		print(String.valueOf(f));
 	}
 
 	@Override
 	public void print(int i) {
-		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append(i);
-				count += text.length() - origLen;
-			}
-		}
+		print(String.valueOf(i));
 	}
 
 	@Override
 	public void print(long l) {
-		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append(l);
-				count += text.length() - origLen;
-			}
-		}
+		print(String.valueOf(l));
 	}
 
 	@Override
 	public void print(Object obj) {
-		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				if (obj != null) {
-					String s = obj.toString();
-
-					text.append(s);
-				} else {
-					text.append((Object) null);
-				}
-				count += text.length() - origLen;
-			}
-		}
+		print(String.valueOf(obj));
 	}
 
 	@Override
 	public void print(String s) {
 		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append(s);
-				count += text.length() - origLen;
-			}
+			text.put(String.valueOf(s), isUnlimited());
 		}
 	}
 
 	@Override
 	public void print(boolean b) {
-		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append(b);
-				count += text.length() - origLen;
-			}
-		}
+		print(String.valueOf(b));
 	}
 
 	@Override
@@ -247,16 +169,9 @@ public class RobotOutputStream extends java.io.PrintStream {
 
 	@Override
 	public void write(byte[] buf, int off, int len) {
-		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				if (buf != null) {
-					int origLen = text.length();
-
-					for (int i = 0; i < len; i++) {
-						text.append((char) buf[off + i]);
-					}
-					count += text.length() - origLen;
-				}
+		if (buf != null) {
+			synchronized (syncRoot) {
+				text.put(buf, off, len, isUnlimited());
 			}
 		}
 	}
@@ -264,31 +179,19 @@ public class RobotOutputStream extends java.io.PrintStream {
 	@Override
 	public void write(int b) {
 		synchronized (syncRoot) {
-			if (isOkToPrint()) {
-				int origLen = text.length();
-
-				text.append((char) b);
-				count += text.length() - origLen;
-			}
+			text.put((char) b, isUnlimited());
 		}
 	}
 
 	public void printStackTrace(Throwable t) {
 		if (t != null) {
-			synchronized (syncRoot) {
-				if (isOkToPrint()) {
-					StringWriter sw = new StringWriter();
-					final PrintWriter writer = new PrintWriter(sw);
+			StringWriter sw = new StringWriter();
+			final PrintWriter writer = new PrintWriter(sw);
 
-					t.printStackTrace(writer);
-					writer.flush();
+			t.printStackTrace(writer);
+			writer.flush();
 
-					int origLen = text.length();
-
-					text.append(sw.toString());
-					count += text.length() - origLen;
-				}
-			}
+			print(sw.toString());
 		}
 	}
 }
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.core.Container;
+import net.sf.robocode.host.IHost;
+import net.sf.robocode.host.IHostManager;
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.io.Logger;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.peer.IRobotStatics;
+import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.repository.RobotType;
+import net.sf.robocode.security.HiddenAccess;
+import robocode.control.RobotSpecification;
+
+import java.io.IOException;
+
+
+/**
+ * Host running each Java robot in a separate JVM, so a robot cannot take the heap, the threads or the CPU caches of
+ * the game and the other robots. Analyzing the robot classes is still done by the Java host within the game.
+ * <p>
+ * The host is used instead of the Java host when the ROBOTPROCESS system property is set to true.
+ */
+public class ProcessHost implements IHost {
+
+	public IHostingRobotProxy createRobotProxy(IHostManager hostManager, RobotSpecification robotSpecification, IRobotStatics statics, IRobotPeer peer) {
+		final IRobotItem specification = (IRobotItem) HiddenAccess.getFileSpecification(robotSpecification);
+
+		try {
+			return new ProcessRobotProxy(specification, peer, (RobotStatics) statics);
+		} catch (IOException e) {
+			Logger.logError("Could not start a robot process for " + specification.getFullClassName()
+					+ ", hosting the robot within the game instead", e);
+			return getJavaHost().createRobotProxy(hostManager, robotSpecification, statics, peer);
+		}
+	}
+
+	public String[] getReferencedClasses(IRobotItem robotItem) {
+		return getJavaHost().getReferencedClasses(robotItem);
+	}
+
+	public RobotType getRobotType(IRobotItem robotItem, boolean resolve, boolean message) {
+		return getJavaHost().getRobotType(robotItem, resolve, message);
+	}
+
+	private static IHost getJavaHost() {
+		return (IHost) Container.cache.getComponent("robocode.host.java");
+	}
+}
@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.io.FileUtil;
+import net.sf.robocode.io.Logger;
+import net.sf.robocode.peer.BadBehavior;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.RobotStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.sf.robocode.host.process.RobotProcessChannel.*;
+
+
+/**
+ * Game side of a robot hosted in a robot process.
+ * <p>
+ * The battle controls the robot process through the control channel, while the robot thread of the robot process
+ * executes its turns through the execute channel, which is served here by calling the serial methods of the robot
+ * peer on the buffer shared with the robot process.
+ */
+final class ProcessRobotProxy implements IHostingRobotProxy {
+
+	private static final String MAIN_CLASS = "net.sf.robocode.security.RobotProcessMain";
+	private static final String HEAP = System.getProperty("ROBOTPROCESSHEAP", null);
+	private static final long EXIT_TIMEOUT_MILLIS = 1000;
+
+	// system properties of the game which are not passed on to robot processes
+	private static final String[] LOCAL_PROPERTIES = {
+		"java.", "sun.", "os.", "user.", "file.", "line.", "path.", "awt.", "jdk.", "surefire.", "robocode.class.path"
+	};
+
+	private final IRobotItem specification;
+	private final IRobotPeer peer;
+	private final RobotStatics statics;
+
+	private final File channelFile;
+	private final RobotProcessChannel[] channels;
+	private final RobotProcessChannel control;
+	private final RbSerializer serializer = new RbSerializer();
+	private final Process process;
+	private final Thread watcher;
+
+	private boolean isLoadRequested; // guarded by control
+	private boolean isLoaded; // guarded by control
+	private volatile boolean isCleanedUp;
+	private volatile boolean isTerminated;
+
+	private String outText = ""; // guarded by control
+
+	ProcessRobotProxy(IRobotItem specification, IRobotPeer peer, RobotStatics statics) throws IOException {
+		this.specification = specification;
+		this.peer = peer;
+		this.statics = statics;
+
+		channelFile = File.createTempFile("robocode-robot", ".channel");
+		channelFile.deleteOnExit();
+		channels = RobotProcessChannel.map(channelFile);
+		control = channels[CONTROL];
+
+		process = launch();
+
+		// the robot process exits when its standard input is closed, i.e. when the game is gone
+		pump(process.getInputStream(), null);
+		pump(process.getErrorStream(), statics.getName() + ": ");
+
+		startDaemon(statics.getName() + " execute", new Runnable() {
+			public void run() {
+				serveExecute();
+			}
+		});
+		startDaemon(statics.getName() + " notify", new Runnable() {
+			public void run() {
+				serveNotify();
+			}
+		});
+		watcher = startDaemon(statics.getName() + " process", new Runnable() {
+			public void run() {
+				watch();
+			}
+		});
+	}
+
+	private Process launch() throws IOException {
+		List<String> command = new ArrayList<String>();
+
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+
+		for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if (!(argument.startsWith("-D") || argument.startsWith("-Xmx") || argument.startsWith("-agentlib")
+					|| argument.startsWith("-javaagent") || argument.startsWith("-Xrunjdwp")
+					|| argument.startsWith("-Xdebug"))) {
+				command.add(argument);
+			}
+		}
+		if (HEAP != null) {
+			command.add("-Xmx" + HEAP);
+		}
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if (isPassedOn(name)) {
+				command.add("-D" + name + '=' + System.getProperty(name));
+			}
+		}
+		command.add("-Djava.awt.headless=true");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(MAIN_CLASS);
+		command.add(channelFile.getPath());
+
+		// the robot process inherits the working directory, as relative paths in system properties are resolved on it
+		return new ProcessBuilder(command).start();
+	}
+
+	private static boolean isPassedOn(String property) {
+		for (String prefix : LOCAL_PROPERTIES) {
+			if (property.startsWith(prefix)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Thread startDaemon(String name, Runnable runnable) {
+		Thread thread = new Thread(runnable, name);
+
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private static void pump(final InputStream in, final String errorPrefix) {
+		startDaemon("Robot process output", new Runnable() {
+			public void run() {
+				byte[] buffer = new byte[4096];
+				StringBuilder line = new StringBuilder();
+
+				try {
+					int count;
+
+					while ((count = in.read(buffer)) >= 0) {
+						if (errorPrefix == null) {
+							continue; // the output of the robot reaches the robot console through the execute channel
+						}
+						for (int i = 0; i < count; i++) {
+							char c = (char) (buffer[i] & 0xFF);
+
+							if (c == '\n') {
+								Logger.realErr.println(errorPrefix + line);
+								line.setLength(0);
+							} else if (c != '\r') {
+								line.append(c);
+							}
+						}
+					}
+				} catch (IOException ignore) {// the robot process is gone
+				} finally {
+					FileUtil.cleanupStream(in);
+				}
+			}
+		});
+	}
+
+	// -----------
+	// game to robot process
+	// -----------
+
+	public void startRound(ExecCommands commands, RobotStatus status) {
+		synchronized (control) {
+			try {
+				// the robot is loaded when it is needed, so all robot processes of a battle can boot in parallel
+				if (!isLoadRequested) {
+					isLoadRequested = true;
+					isLoaded = load();
+				}
+				if (isLoaded && !isTerminated) {
+					ByteBuffer data = control.beginRequest();
+
+					serializer.serialize(data, RbSerializer.ExecCommands_TYPE, commands);
+					serializer.serialize(data, RbSerializer.RobotStatus_TYPE, status);
+					if (control.request(START_ROUND, data.position()) == OK) {
+						return;
+					}
+				}
+			} catch (IOException e) {
+				Logger.logError(statics.getName() + ": " + e.getMessage());
+			}
+			Logger.logError(statics.getName() + " could not be started in a robot process");
+			peer.drainEnergy();
+			peer.punishBadBehavior(BadBehavior.CANNOT_START);
+			peer.setRunning(false);
+		}
+	}
+
+	private boolean load() throws IOException {
+		ByteBuffer data = control.beginRequest();
+
+		serializer.serialize(data, specification.getUniqueFullClassNameWithVersion());
+		serializer.serialize(data, RbSerializer.RobotStatics_TYPE, statics);
+		return control.request(LOAD, data.position()) == OK;
+	}
+
+	public void forceStopThread() {
+		request(FORCE_STOP);
+	}
+
+	public void waitForStopThread() {
+		synchronized (control) {
+			if (request(WAIT_FOR_STOP) == OK) {
+				ByteBuffer data = control.getData();
+
+				if (data.hasRemaining()) {
+					outText = serializer.deserializeString(data);
+				}
+			}
+		}
+	}
+
+	// The console of the robot is within the robot process, which hands the text over with the commands of the robot.
+	// The text printed after the last turn of the robot is handed over when the robot has stopped.
+	public String readOutText() {
+		synchronized (control) {
+			final String text = outText;
+
+			outText = "";
+			return text;
+		}
+	}
+
+	private int request(int type) {
+		synchronized (control) {
+			if (!isLoaded || isTerminated) {
+				return FAILED;
+			}
+			try {
+				control.beginRequest();
+				return control.request(type, 0);
+			} catch (IOException e) {
+				Logger.logError(statics.getName() + ": " + e.getMessage());
+				return FAILED;
+			}
+		}
+	}
+
+	public void cleanup() {
+		isCleanedUp = true;
+
+		final boolean loaded;
+
+		synchronized (control) {
+			loaded = isLoaded;
+		}
+		if (loaded) {
+			request(CLEANUP);
+			try {
+				watcher.join(EXIT_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (RobotProcessChannel channel : channels) {
+			channel.close();
+		}
+		if (watcher.isAlive()) {
+			process.destroy();
+		}
+		FileUtil.cleanupStream(process.getOutputStream());
+		if (!channelFile.delete()) {
+			channelFile.deleteOnExit();
+		}
+	}
+
+	private void watch() {
+		try {
+			process.waitFor();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		isTerminated = true;
+		for (RobotProcessChannel channel : channels) {
+			channel.close();
+		}
+		if (!isCleanedUp) {
+			Logger.logError(statics.getName() + ": the robot process has terminated");
+			if (peer.isRunning()) {
+				peer.drainEnergy();
+				peer.setRunning(false);
+			}
+		}
+	}
+
+	// -----------
+	// robot process to game
+	// -----------
+
+	private void serveExecute() {
+		final RobotProcessChannel execute = channels[EXECUTE];
+
+		peer.setupBuffer(execute.getData());
+
+		while (true) {
+			final int type;
+
+			try {
+				type = execute.awaitRequest();
+			} catch (IOException e) {
+				return; // closed
+			}
+			int response = RESULTS;
+
+			try {
+				if (type == WAIT_FOR_BATTLE_END) {
+					peer.waitForBattleEndImplSerial();
+				} else {
+					peer.executeImplSerial();
+				}
+			} catch (ThreadDeath e) {
+				throw e;
+			} catch (IOException e) {
+				response = writeException(execute, e);
+			} catch (RuntimeException e) {
+				response = writeException(execute, e);
+			} catch (Error e) {
+				// the robot exceptions used for stopping the robot thread are errors
+				response = writeException(execute, e);
+			}
+			try {
+				execute.respond(response, execute.getData().position());
+			} catch (IOException e) {
+				return; // closed
+			}
+		}
+	}
+
+	private int writeException(RobotProcessChannel execute, Throwable t) {
+		ByteBuffer data = execute.beginResponse();
+
+		serializer.serialize(data, t.getClass().getName());
+		serializer.serialize(data, t.getMessage());
+		return EXCEPTION;
+	}
+
+	private void serveNotify() {
+		final RobotProcessChannel notify = channels[NOTIFY];
+
+		// the serializer of the proxy is used by the battle thread for the control channel
+		final RbSerializer notifySerializer = new RbSerializer();
+
+		try {
+			while (true) {
+				int type = notify.awaitRequest();
+				ByteBuffer data = notify.getData();
+
+				switch (type) {
+				case DRAIN_ENERGY:
+					peer.drainEnergy();
+					break;
+
+				case PUNISH_BAD_BEHAVIOR:
+					peer.punishBadBehavior(BadBehavior.values()[notifySerializer.deserializeInt(data)]);
+					break;
+
+				case SET_RUNNING:
+					peer.setRunning(notifySerializer.deserializeBoolean(data));
+					break;
+				}
+				notify.respond(OK, 0);
+			}
+		} catch (IOException e) {// closed
+		}
+	}
+}
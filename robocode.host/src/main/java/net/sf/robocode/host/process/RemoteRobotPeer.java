@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.peer.BadBehavior;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.exception.AbortedException;
+import robocode.exception.DeathException;
+import robocode.exception.DisabledException;
+import robocode.exception.RobotException;
+import robocode.exception.WinException;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static net.sf.robocode.host.process.RobotProcessChannel.*;
+
+
+/**
+ * Robot peer within a robot process, which forwards the calls to the robot peer of the game.
+ * The exceptions thrown by the robot peer of the game for stopping the robot are thrown again here.
+ * The serial calls, which pass the commands and results serialized in a buffer of the host, are forwarded in the same
+ * way as the other calls.
+ */
+final class RemoteRobotPeer implements IRobotPeer {
+
+	private final RobotProcessChannel execute;
+	private final RobotProcessChannel notify;
+	private final RbSerializer executeSerializer = new RbSerializer();
+	private final RbSerializer notifySerializer = new RbSerializer();
+	private final RbSerializer serialSerializer = new RbSerializer();
+	private final AtomicBoolean isRunning = new AtomicBoolean();
+
+	private volatile String name;
+	private ByteBuffer bidirectionalBuffer;
+
+	RemoteRobotPeer(RobotProcessChannel execute, RobotProcessChannel notify) {
+		this.execute = execute;
+		this.notify = notify;
+	}
+
+	/**
+	 * Sets the name of the robot, which is given to the robot thread by {@link #setupThread()}.
+	 */
+	void setName(String name) {
+		this.name = name;
+	}
+
+	public ExecResults executeImpl(ExecCommands newCommands) {
+		return execute(EXECUTE_TURN, newCommands);
+	}
+
+	public ExecResults waitForBattleEndImpl(ExecCommands newCommands) {
+		return execute(WAIT_FOR_BATTLE_END, newCommands);
+	}
+
+	private synchronized ExecResults execute(int type, ExecCommands commands) {
+		try {
+			ByteBuffer data = execute.beginRequest();
+
+			executeSerializer.serializeToBuffer(data, RbSerializer.ExecCommands_TYPE, commands);
+
+			if (execute.request(type, data.position()) == EXCEPTION) {
+				throw createException(executeSerializer.deserializeString(data), executeSerializer.deserializeString(data));
+			}
+			return (ExecResults) executeSerializer.deserialize(data);
+		} catch (IOException e) {
+			// the game is gone, or the turn could not be passed on
+			throw new AbortedException(e.getMessage());
+		}
+	}
+
+	private static Error createException(String className, String message) {
+		if (AbortedException.class.getName().equals(className)) {
+			return new AbortedException(message);
+		}
+		if (DeathException.class.getName().equals(className)) {
+			return new DeathException(message);
+		}
+		if (WinException.class.getName().equals(className)) {
+			return new WinException(message);
+		}
+		if (DisabledException.class.getName().equals(className)) {
+			return new DisabledException(message);
+		}
+		return new RobotException(className + ": " + message);
+	}
+
+	public void drainEnergy() {
+		sendNotification(DRAIN_ENERGY, 0);
+	}
+
+	public void punishBadBehavior(BadBehavior badBehavior) {
+		sendNotification(PUNISH_BAD_BEHAVIOR, badBehavior.ordinal());
+	}
+
+	public void setRunning(boolean value) {
+		isRunning.set(value);
+		sendNotification(SET_RUNNING, value ? 1 : 0);
+	}
+
+	public boolean isRunning() {
+		return isRunning.get();
+	}
+
+	private synchronized void sendNotification(int type, int argument) {
+		try {
+			ByteBuffer data = notify.beginRequest();
+
+			if (type == SET_RUNNING) {
+				notifySerializer.serialize(data, argument != 0);
+			} else {
+				notifySerializer.serialize(data, argument);
+			}
+			notify.request(type, data.position());
+		} catch (IOException ignore) {// the game is gone
+		}
+	}
+
+	public void setupBuffer(ByteBuffer bidirectionalBuffer) {
+		this.bidirectionalBuffer = bidirectionalBuffer;
+	}
+
+	public void setupThread() {
+		Thread.currentThread().setName(name);
+	}
+
+	public void executeImplSerial() throws IOException {
+		ExecCommands commands = (ExecCommands) serialSerializer.deserialize(bidirectionalBuffer);
+
+		final ExecResults results = executeImpl(commands);
+
+		((Buffer) bidirectionalBuffer).clear();
+		serialSerializer.serializeToBuffer(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
+	}
+
+	public void waitForBattleEndImplSerial() throws IOException {
+		ExecCommands commands = (ExecCommands) serialSerializer.deserialize(bidirectionalBuffer);
+
+		final ExecResults results = waitForBattleEndImpl(commands);
+
+		((Buffer) bidirectionalBuffer).clear();
+		serialSerializer.serializeToBuffer(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.core.Container;
+import net.sf.robocode.host.IHost;
+import net.sf.robocode.host.IHostManager;
+import net.sf.robocode.host.IRobotProcess;
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.io.Logger;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.repository.IRepositoryManager;
+import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.repository.IRobotSpecItem;
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.RobotStatus;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static net.sf.robocode.host.process.RobotProcessChannel.*;
+
+
+/**
+ * Robot process side of a robot hosted outside the game, see {@link ProcessRobotProxy}.
+ * The robot is hosted by the usual hosting robot proxy, which talks to the game through a {@link RemoteRobotPeer}.
+ */
+public final class RobotProcess implements IRobotProcess {
+
+	private final IHostManager hostManager;
+	private final IRepositoryManager repositoryManager;
+	private final RbSerializer serializer = new RbSerializer();
+
+	private IHostingRobotProxy robotProxy;
+
+	public RobotProcess(IHostManager hostManager, IRepositoryManager repositoryManager) {
+		this.hostManager = hostManager;
+		this.repositoryManager = repositoryManager;
+	}
+
+	public void run(String[] args) {
+		watchGame();
+
+		RobotProcessChannel[] channels;
+
+		try {
+			channels = RobotProcessChannel.map(new File(args[0]));
+		} catch (IOException e) {
+			Logger.logError("Could not map the robot process channels", e);
+			return;
+		}
+		final RobotProcessChannel control = channels[CONTROL];
+		final RemoteRobotPeer peer = new RemoteRobotPeer(channels[EXECUTE], channels[NOTIFY]);
+
+		try {
+			while (true) {
+				int type = control.awaitRequest();
+				int response = OK;
+				int length = 0;
+
+				try {
+					response = handle(type, control.getData(), peer) ? OK : FAILED;
+
+					if (type == WAIT_FOR_STOP && robotProxy != null) {
+						length = writeOutText(control.beginResponse());
+					}
+				} catch (RuntimeException e) {
+					Logger.logError(e);
+					response = FAILED;
+				}
+				control.respond(response, length);
+
+				if (type == CLEANUP) {
+					return;
+				}
+			}
+		} catch (IOException e) {
+			Logger.logError(e);
+		}
+	}
+
+	private boolean handle(int type, ByteBuffer data, RemoteRobotPeer peer) {
+		switch (type) {
+		case LOAD:
+			String name = serializer.deserializeString(data);
+			RobotStatics statics = (RobotStatics) serializer.deserializeAny(data);
+
+			robotProxy = load(name, statics, peer);
+			return robotProxy != null;
+
+		case START_ROUND:
+			ExecCommands commands = (ExecCommands) serializer.deserializeAny(data);
+			RobotStatus status = (RobotStatus) serializer.deserializeAny(data);
+
+			if (robotProxy == null) {
+				return false;
+			}
+			robotProxy.startRound(commands, status);
+			return true;
+
+		case FORCE_STOP:
+			if (robotProxy != null) {
+				robotProxy.forceStopThread();
+			}
+			return true;
+
+		case WAIT_FOR_STOP:
+			if (robotProxy != null) {
+				robotProxy.waitForStopThread();
+			}
+			return true;
+
+		case CLEANUP:
+			if (robotProxy != null) {
+				robotProxy.cleanup();
+				robotProxy = null;
+			}
+			return true;
+
+		default:
+			return false;
+		}
+	}
+
+	// Hands over the text printed by the robot after its last turn, e.g. in onDeath() at the end of the round, which
+	// would otherwise be lost as the robot does not execute another turn
+	private int writeOutText(ByteBuffer data) {
+		String text = robotProxy.readOutText();
+
+		// the newest text is kept if it does not fit, where a character takes at most 3 bytes when encoded
+		int maxChars = (data.capacity() - RbSerializer.SIZEOF_INT) / 3;
+
+		if (text.length() > maxChars) {
+			text = text.substring(text.length() - maxChars);
+		}
+		serializer.serialize(data, text);
+		return data.position();
+	}
+
+	private IHostingRobotProxy load(String name, RobotStatics statics, RemoteRobotPeer peer) {
+		List<IRobotSpecItem> items = repositoryManager.getSelectedSpecifications(name);
+
+		if (items.size() != 1 || !(items.get(0) instanceof IRobotItem)) {
+			Logger.logError("Could not find robot: " + name);
+			return null;
+		}
+		IRobotItem item = (IRobotItem) items.get(0);
+
+		peer.setName(statics.getName());
+		IHost host = (IHost) Container.cache.getComponent("robocode.host." + item.getPlatform().toLowerCase());
+
+		return host.createRobotProxy(hostManager, item.createRobotSpecification(), statics, peer);
+	}
+
+	// The game keeps the standard input of the robot process open, so the robot process exits when the game is gone
+	private void watchGame() {
+		final InputStream in = new FileInputStream(FileDescriptor.in);
+
+		Thread watcher = new Thread(new Runnable() {
+			public void run() {
+				try {
+					while (in.read() >= 0) {
+						continue; // the game does not write to the robot process
+					}
+				} catch (IOException ignore) {// the game is gone
+				}
+				System.exit(0);
+			}
+		}, "Game watcher");
+
+		watcher.setDaemon(true);
+		hostManager.addSafeThread(watcher);
+		watcher.start();
+	}
+}
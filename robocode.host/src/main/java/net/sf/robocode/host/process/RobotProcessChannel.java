@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Request/response channel between the game and a robot process over a region of a memory-mapped file.
+ * <p>
+ * Each channel has exactly one client and one server, which take turns: the client writes a request into the data
+ * area and increments the request sequence, and the server writes the response and sets the response sequence to the
+ * request sequence. Each side spins, yields and finally parks while waiting for the sequence of the other side to
+ * change.
+ * <p>
+ * The two sides are different processes, so the Java memory model does not order their accesses to the mapped file.
+ * Instead, the header of a request or response is written while holding a lock of the header region of the file, and
+ * the side that has seen the sequence change takes and releases the same lock before reading the header and data.
+ * The lock is taken after the data has been written, and is only granted to the other process once it has been
+ * released again, so everything written before the release is visible to the other process after it has taken the lock.
+ * This costs two lock system calls on each side per hand-over, while the waits themselves only read the mapped file.
+ * Each channel locks through its own handle of the file, which is opened again if an interrupt of a waiting thread
+ * closes it, as robot threads are interrupted when they are stopped.
+ * <p>
+ * Layout of a channel region:
+ * <pre>
+ * int requestSequence
+ * int responseSequence
+ * int requestType
+ * int requestLength
+ * int responseType
+ * int responseLength
+ * ... padding up to HEADER_SIZE
+ * byte data[]
+ * </pre>
+ */
+final class RobotProcessChannel {
+
+	// Channels of the mapped file of a robot process
+	static final int CONTROL = 0; // game requests, robot process responds
+	static final int EXECUTE = 1; // robot thread requests, game responds
+	static final int NOTIFY = 2; // other robot process threads request, game responds
+
+	// Control requests
+	static final int LOAD = 1;
+	static final int START_ROUND = 2;
+	static final int FORCE_STOP = 3;
+	static final int WAIT_FOR_STOP = 4;
+	static final int CLEANUP = 5;
+
+	// Execute requests
+	static final int EXECUTE_TURN = 10;
+	static final int WAIT_FOR_BATTLE_END = 11;
+
+	// Notify requests
+	static final int DRAIN_ENERGY = 20;
+	static final int PUNISH_BAD_BEHAVIOR = 21;
+	static final int SET_RUNNING = 22;
+
+	// Responses
+	static final int OK = 100;
+	static final int FAILED = 101;
+	static final int RESULTS = 102;
+	static final int EXCEPTION = 103;
+
+	private static final int REQUEST_SEQUENCE = 0;
+	private static final int RESPONSE_SEQUENCE = 4;
+	private static final int REQUEST_TYPE = 8;
+	private static final int REQUEST_LENGTH = 12;
+	private static final int RESPONSE_TYPE = 16;
+	private static final int RESPONSE_LENGTH = 20;
+	private static final int HEADER_SIZE = 64;
+
+	private static final int CONTROL_SIZE = 64 * 1024;
+	private static final int NOTIFY_SIZE = 4 * 1024;
+	private static final int EXECUTE_SIZE = Integer.parseInt(System.getProperty("ROBOTPROCESSBUFFER", "4194304"));
+
+	private static final int SPINS = 100;
+	private static final int YIELDS = 1000;
+	private static final long PARK_NANOS = 50000;
+
+	private final File file;
+	private final long headerPosition;
+	private volatile FileChannel lockChannel;
+	private boolean isInterruptedWhileLocking; // guarded by this
+	private final ByteBuffer header;
+	private final ByteBuffer data;
+	private volatile boolean closed;
+
+	private RobotProcessChannel(File file, long headerPosition, ByteBuffer region) throws IOException {
+		this.file = file;
+		this.headerPosition = headerPosition;
+		lockChannel = new RandomAccessFile(file, "rw").getChannel();
+		((Buffer) region).limit(HEADER_SIZE);
+		header = region.slice().order(ByteOrder.nativeOrder());
+		((Buffer) region).limit(region.capacity()).position(HEADER_SIZE);
+		data = region.slice();
+	}
+
+	/**
+	 * Maps the channels of the specified file, which is created with the size needed if it is empty.
+	 * The channels keep the file open for locking until they are closed.
+	 */
+	static RobotProcessChannel[] map(File file) throws IOException {
+		final int[] sizes = { CONTROL_SIZE, EXECUTE_SIZE, NOTIFY_SIZE };
+
+		long size = 0;
+
+		for (int dataSize : sizes) {
+			size += HEADER_SIZE + dataSize;
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		MappedByteBuffer mapped;
+
+		try {
+			mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} finally {
+			// the mapping stays valid after the file has been closed
+			raf.close();
+		}
+
+		RobotProcessChannel[] channels = new RobotProcessChannel[sizes.length];
+		int offset = 0;
+
+		try {
+			for (int i = 0; i < sizes.length; i++) {
+				((Buffer) mapped).limit(offset + HEADER_SIZE + sizes[i]).position(offset);
+				channels[i] = new RobotProcessChannel(file, offset, mapped.slice());
+				offset += HEADER_SIZE + sizes[i];
+			}
+		} catch (IOException e) {
+			for (RobotProcessChannel channel : channels) {
+				if (channel != null) {
+					channel.close();
+				}
+			}
+			throw e;
+		}
+		return channels;
+	}
+
+	/**
+	 * Closes this channel locally, which makes all current and future waits fail.
+	 */
+	void close() {
+		closed = true;
+		try {
+			lockChannel.close();
+		} catch (IOException ignore) {// closing anyway
+		}
+	}
+
+	boolean isClosed() {
+		return closed;
+	}
+
+	// -----------
+	// client
+	// -----------
+
+	/**
+	 * Waits until the previous request has been answered, and returns the cleared data area for the next request.
+	 */
+	ByteBuffer beginRequest() throws IOException {
+		await(RESPONSE_SEQUENCE, header.getInt(REQUEST_SEQUENCE));
+		((Buffer) data).clear();
+		return data;
+	}
+
+	/**
+	 * Sends the request written into the data area, and waits for the response.
+	 *
+	 * @return the response type, where the response is in the data area with its limit set to the response length.
+	 */
+	int request(int type, int length) throws IOException {
+		final int sequence = header.getInt(REQUEST_SEQUENCE) + 1;
+
+		publish(REQUEST_SEQUENCE, sequence, REQUEST_TYPE, type, REQUEST_LENGTH, length);
+
+		await(RESPONSE_SEQUENCE, sequence);
+
+		((Buffer) data).limit(header.getInt(RESPONSE_LENGTH)).position(0);
+		return header.getInt(RESPONSE_TYPE);
+	}
+
+	// -----------
+	// server
+	// -----------
+
+	/**
+	 * Waits for the next request.
+	 *
+	 * @return the request type, where the request is in the data area with its limit set to the request length.
+	 */
+	int awaitRequest() throws IOException {
+		awaitNot(REQUEST_SEQUENCE, header.getInt(RESPONSE_SEQUENCE));
+
+		((Buffer) data).limit(header.getInt(REQUEST_LENGTH)).position(0);
+		return header.getInt(REQUEST_TYPE);
+	}
+
+	/**
+	 * Returns the data area for writing the response, cleared.
+	 */
+	ByteBuffer beginResponse() {
+		((Buffer) data).clear();
+		return data;
+	}
+
+	/**
+	 * Answers the current request with the response written into the data area.
+	 */
+	void respond(int type, int length) throws IOException {
+		final int sequence = header.getInt(REQUEST_SEQUENCE);
+
+		publish(RESPONSE_SEQUENCE, sequence, RESPONSE_TYPE, type, RESPONSE_LENGTH, length);
+	}
+
+	ByteBuffer getData() {
+		return data;
+	}
+
+	// -----------
+	// ordering
+	// -----------
+
+	// Writes the header of a request or response while holding the lock of the header region.
+	// Only one thread of a process may hold the lock of a region, hence the synchronization.
+	private synchronized void publish(int sequenceOffset, int sequence, int typeOffset, int type, int lengthOffset,
+			int length) throws IOException {
+		final boolean interrupted = Thread.interrupted();
+
+		try {
+			FileLock lock = lock();
+
+			try {
+				header.putInt(typeOffset, type);
+				header.putInt(lengthOffset, length);
+				header.putInt(sequenceOffset, sequence);
+			} finally {
+				release(lock);
+			}
+		} finally {
+			if (interrupted || isInterruptedWhileLocking) {
+				isInterruptedWhileLocking = false;
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	// Takes and releases the lock of the header region, after having seen the sequence of the other side change.
+	private synchronized void acquire() throws IOException {
+		final boolean interrupted = Thread.interrupted();
+
+		try {
+			release(lock());
+		} finally {
+			if (interrupted || isInterruptedWhileLocking) {
+				isInterruptedWhileLocking = false;
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private FileLock lock() throws IOException {
+		while (true) {
+			if (closed) {
+				throw new IOException("Robot process channel closed");
+			}
+			try {
+				return lockChannel.lock(headerPosition, HEADER_SIZE, false);
+			} catch (ClosedChannelException e) {
+				reopen();
+			}
+		}
+	}
+
+	private void release(FileLock lock) throws IOException {
+		try {
+			lock.release();
+		} catch (ClosedChannelException e) {
+			// closing the file has released the lock
+			reopen();
+		}
+	}
+
+	// An interrupt during locking closes the file, where the interrupt is cleared for locking again, and is passed on
+	// when the lock has been released
+	private void reopen() throws IOException {
+		isInterruptedWhileLocking |= Thread.interrupted();
+		if (closed) {
+			throw new IOException("Robot process channel closed");
+		}
+		lockChannel = new RandomAccessFile(file, "rw").getChannel();
+		if (closed) {
+			lockChannel.close();
+			throw new IOException("Robot process channel closed");
+		}
+	}
+
+	// -----------
+	// waiting
+	// -----------
+
+	private void await(int offset, int expected) throws IOException {
+		boolean interrupted = false;
+
+		try {
+			for (int i = 0; header.getInt(offset) != expected; i = (i < YIELDS) ? i + 1 : i) {
+				interrupted |= idle(i);
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		acquire();
+	}
+
+	private void awaitNot(int offset, int unexpected) throws IOException {
+		boolean interrupted = false;
+
+		try {
+			for (int i = 0; header.getInt(offset) == unexpected; i = (i < YIELDS) ? i + 1 : i) {
+				interrupted |= idle(i);
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		acquire();
+	}
+
+	// The interrupted flag is cleared while waiting, as parking returns immediately for an interrupted thread
+	private boolean idle(int iteration) throws IOException {
+		if (closed) {
+			throw new IOException("Robot process channel closed");
+		}
+		if (iteration < SPINS) {
+			return false;
+		}
+		if (iteration < YIELDS) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+		return Thread.interrupted();
+	}
+}
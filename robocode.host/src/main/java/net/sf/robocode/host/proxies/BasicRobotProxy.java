@@ -424,15 +424,7 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 		graphicsProxy.setPaintingEnabled(false);
 		do {
 			// Make sure remaining system events like e.g. are processed this round
-			try {
-				eventManager.processEvents();
-
-				// The exceptions below are expected to occur, and has already been logged in the robot console,
-				// but still exists in the robot's event queue. Hence we just ignore these!
-				// Look in the HostingRobotProxy.run() to see which robot errors that are already handled.
-			} catch (DeathException ignore) {} catch (WinException ignore) {// Bug fix [2952549]
-			} catch (AbortedException ignore) {} catch (DisabledException ignore) {// Bug fix [2976258]
-			}
+			processRemainingEvents();
 
 			commands.setOutputText(out.readAndReset());
 			commands.setGraphicsCalls(graphicsProxy.readoutQueuedCalls());
@@ -442,16 +434,33 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 
 			updateStatus(execResults.getCommands(), execResults.getStatus());
 
-			// Add remaining events like BattleEndedEvent Otherwise, the robot might never receive those events
+			// Add remaining events like BattleEndedEvent Otherwise, the robot might never receive those events.
+			// The DeathEvent is still here when the robot was killed while it was taking its turn.
 			if (execResults.getEvents() != null) {
 				for (Event event : execResults.getEvents()) {
-					if (event instanceof BattleEndedEvent) {
+					if (event instanceof BattleEndedEvent || event instanceof DeathEvent) {
 						eventManager.add(event);
 					}
 				}
 			}
 			eventManager.resetCustomEvents();
 		} while (!execResults.isHalt() && execResults.isShouldWait());
+
+		// The events added last, e.g. onDeath() of a robot killed while taking its turn. The text printed here is read
+		// by the battle when the robot thread has stopped.
+		processRemainingEvents();
+	}
+
+	private void processRemainingEvents() {
+		try {
+			eventManager.processEvents();
+
+			// The exceptions below are expected to occur, and has already been logged in the robot console,
+			// but still exists in the robot's event queue. Hence we just ignore these!
+			// Look in the HostingRobotProxy.run() to see which robot errors that are already handled.
+		} catch (DeathException ignore) {} catch (WinException ignore) {// Bug fix [2952549]
+		} catch (AbortedException ignore) {} catch (DisabledException ignore) {// Bug fix [2976258]
+		}
 	}
 
 	private void updateStatus(ExecCommands commands, RobotStatus status) {
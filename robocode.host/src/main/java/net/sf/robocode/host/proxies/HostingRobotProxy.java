@@ -21,15 +21,18 @@ import net.sf.robocode.peer.IRobotPeer;
 import net.sf.robocode.repository.IRobotItem;
 import net.sf.robocode.core.Container;
 import robocode.RobotStatus;
+import robocode.control.RandomFactory;
 import robocode.exception.AbortedException;
 import robocode.exception.DeathException;
 import robocode.exception.DisabledException;
 import robocode.exception.WinException;
 import robocode.robotinterfaces.IBasicRobot;
 import robocode.robotinterfaces.peer.IBasicRobotPeer;
+import robocode.util.RobotRandom;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 
@@ -55,6 +58,9 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 	protected final RobotStatics statics;
 	protected RobotOutputStream out;
 
+	// The random number generator of the robot, which is used by the robot thread in all rounds of the battle
+	private final Random random;
+
 	private final Set<String> securityViolations = Collections.synchronizedSet(new HashSet<String>());
 
 	HostingRobotProxy(IRobotItem robotSpecification, IHostManager hostManager, IRobotPeer peer, RobotStatics statics) {
@@ -63,6 +69,8 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 		this.hostManager = hostManager;
 		this.robotSpecification = robotSpecification;
 
+		random = new RobotRandom(statics.getRandomSeed());
+
 		robotClassLoader = getHost(robotSpecification).createLoader(robotSpecification);
 		robotClassLoader.setRobotProxy(this);
 
@@ -86,6 +94,9 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 		robot = null;
 
 		// Remove the file system and the manager
+		if (robotFileSystemManager != null) {
+			robotFileSystemManager.cleanup();
+		}
 		robotFileSystemManager = null;
 		if (out != null) {
 			out.close();
@@ -154,6 +165,12 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 		}
 	}
 
+	public String readOutText() {
+		final RobotOutputStream out = this.out;
+
+		return (out != null) ? out.readAndReset() : "";
+	}
+
 	private void loadClassBattle() {
 		try {
 			robotClassLoader.loadRobotMainClass(true);
@@ -199,6 +216,8 @@ abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedThread {
 	protected abstract void executeImpl();
 
 	public void run() {
+		RandomFactory.setThreadRandom(random);
+
 		// Only initialize AWT if we are not running in headless mode.
 		// Bugfix [2833271] IllegalThreadStateException with the AWT-Shutdown thread.
 		// Read more about headless mode here:
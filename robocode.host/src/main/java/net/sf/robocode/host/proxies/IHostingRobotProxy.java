@@ -23,6 +23,12 @@ public interface IHostingRobotProxy {
 
 	void waitForStopThread();
 
+	/**
+	 * Reads the text printed by the robot that has not been handed over to the battle yet, e.g. text printed just
+	 * before the robot thread was stopped.
+	 */
+	String readOutText();
+
 	void cleanup();
 
 }
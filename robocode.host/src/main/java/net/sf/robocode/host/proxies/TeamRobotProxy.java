@@ -10,7 +10,7 @@ package net.sf.robocode.host.proxies;
 
 import net.sf.robocode.host.RobotStatics;
 import net.sf.robocode.host.IHostManager;
-import net.sf.robocode.host.serialization.RobocodeObjectInputStream;
+import net.sf.robocode.host.serialization.TeamMessageCodec;
 import net.sf.robocode.peer.IRobotPeer;
 import net.sf.robocode.peer.TeamMessage;
 import net.sf.robocode.repository.IRobotItem;
@@ -26,11 +26,11 @@ import java.util.List;
  */
 public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer {
 	private static final int MAX_MESSAGE_SIZE = 32768;
-	private final ByteArrayOutputStream byteStreamWriter;
+	private final TeamMessageCodec messageCodec;
 
 	public TeamRobotProxy(IRobotItem specification, IHostManager hostManager, IRobotPeer peer, RobotStatics statics) {
 		super(specification, hostManager, peer, statics);
-		byteStreamWriter = new ByteArrayOutputStream(MAX_MESSAGE_SIZE);
+		messageCodec = new TeamMessageCodec(MAX_MESSAGE_SIZE);
 	}
 
 	// team
@@ -69,15 +69,8 @@ public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer
 			if (!statics.isTeamRobot()) {
 				throw new IOException("You are not on a team.");
 			}
-			byteStreamWriter.reset();
-			ObjectOutputStream objectStreamWriter = new ObjectOutputStream(byteStreamWriter);
+			final byte[] bytes = messageCodec.encode(message);
 
-			objectStreamWriter.writeObject(message);
-			objectStreamWriter.flush();
-			byteStreamWriter.flush();
-			final byte[] bytes = byteStreamWriter.toByteArray();
-
-			objectStreamWriter.reset();
 			if (bytes.length > MAX_MESSAGE_SIZE) {
 				throw new IOException("Message too big. " + bytes.length + ">" + MAX_MESSAGE_SIZE);
 			}
@@ -96,20 +89,10 @@ public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer
 		}
 		for (TeamMessage teamMessage : teamMessages) {
 			try {
-				ByteArrayInputStream byteStreamReader = new ByteArrayInputStream(teamMessage.message);
-				byteStreamReader.reset();
-
-				RobocodeObjectInputStream objectStreamReader = null;
-				try {
-					objectStreamReader = new RobocodeObjectInputStream(byteStreamReader, (ClassLoader) robotClassLoader);
-					Serializable message = (Serializable) objectStreamReader.readObject();
-					MessageEvent event = new MessageEvent(teamMessage.sender, message);
-					eventManager.add(event);
-				} finally {
-					if (objectStreamReader != null) {
-						objectStreamReader.close();
-					}
-				}
+				Serializable message = messageCodec.decode(teamMessage.message, (ClassLoader) robotClassLoader);
+				MessageEvent event = new MessageEvent(teamMessage.sender, message);
+
+				eventManager.add(event);
 			} catch (IOException e) {
 				out.printStackTrace(e);
 			} catch (ClassNotFoundException e) {
@@ -11,17 +11,24 @@ package net.sf.robocode.host.security;
 import net.sf.robocode.io.Logger;
 import robocode.robotinterfaces.IBasicRobot;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
+ * Scans the constant pool of class files for the classes they reference, and for the super class and interfaces of
+ * robot classes. The class file is read directly from its ByteBuffer without copying it, and only the UTF-8
+ * constants naming classes are decoded. All methods are thread-safe, so class files can be analyzed in parallel.
+ * <p>
+ * Robot classes get the random number generators they create replaced with {@link robocode.util.RobotRandom}, so
+ * random number generators created by robots are seeded from the random number generator of the robot.
+ *
  * @author Mathew A. Nelson (original)
  * @author Flemming N. Larsen (contributor)
  * @author Robert D. Maupin (contributor)
@@ -40,7 +47,69 @@ public final class ClassAnalyzer {
 	private final static byte CONSTANT_Utf8 = 1;
 	private final static byte CONSTANT_MethodHandle = 15;
 	private final static byte CONSTANT_MethodType = 16;
+	private final static byte CONSTANT_Dynamic = 17;
 	private final static byte CONSTANT_InvokeDynamic = 18;
+	private final static byte CONSTANT_Module = 19;
+	private final static byte CONSTANT_Package = 20;
+
+	private final static int MAX_CONSTANT_POOL_COUNT = 0xFFFF;
+
+	private final static String RANDOM_CLASS = "java/util/Random";
+	private final static String ROBOT_RANDOM_CLASS = "robocode/util/RobotRandom";
+
+	private final static int OPCODE_IINC = 0x84;
+	private final static int OPCODE_TABLESWITCH = 0xaa;
+	private final static int OPCODE_LOOKUPSWITCH = 0xab;
+	private final static int OPCODE_INVOKESPECIAL = 0xb7;
+	private final static int OPCODE_NEW = 0xbb;
+	private final static int OPCODE_WIDE = 0xc4;
+
+	// The lengths of the instructions with fixed lengths by opcode, where 0 is an unknown opcode
+	private final static byte[] INSTRUCTION_LENGTHS = new byte[256];
+
+	static {
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x00, 0xca, (byte) 1);
+		INSTRUCTION_LENGTHS[0x10] = 2; // bipush
+		INSTRUCTION_LENGTHS[0x11] = 3; // sipush
+		INSTRUCTION_LENGTHS[0x12] = 2; // ldc
+		INSTRUCTION_LENGTHS[0x13] = 3; // ldc_w
+		INSTRUCTION_LENGTHS[0x14] = 3; // ldc2_w
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x15, 0x1a, (byte) 2); // iload .. aload
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x36, 0x3b, (byte) 2); // istore .. astore
+		INSTRUCTION_LENGTHS[OPCODE_IINC] = 3;
+		Arrays.fill(INSTRUCTION_LENGTHS, 0x99, 0xa9, (byte) 3); // ifeq .. jsr
+		INSTRUCTION_LENGTHS[0xa9] = 2; // ret
+		Arrays.fill(INSTRUCTION_LENGTHS, 0xb2, 0xb9, (byte) 3); // getstatic .. invokestatic
+		INSTRUCTION_LENGTHS[0xb9] = 5; // invokeinterface
+		INSTRUCTION_LENGTHS[0xba] = 5; // invokedynamic
+		INSTRUCTION_LENGTHS[OPCODE_NEW] = 3;
+		INSTRUCTION_LENGTHS[0xbc] = 2; // newarray
+		INSTRUCTION_LENGTHS[0xbd] = 3; // anewarray
+		INSTRUCTION_LENGTHS[0xc0] = 3; // checkcast
+		INSTRUCTION_LENGTHS[0xc1] = 3; // instanceof
+		INSTRUCTION_LENGTHS[0xc5] = 4; // multianewarray
+		INSTRUCTION_LENGTHS[0xc6] = 3; // ifnull
+		INSTRUCTION_LENGTHS[0xc7] = 3; // ifnonnull
+		INSTRUCTION_LENGTHS[0xc8] = 5; // goto_w
+		INSTRUCTION_LENGTHS[0xc9] = 5; // jsr_w
+		INSTRUCTION_LENGTHS[OPCODE_TABLESWITCH] = 0;
+		INSTRUCTION_LENGTHS[OPCODE_LOOKUPSWITCH] = 0;
+		INSTRUCTION_LENGTHS[OPCODE_WIDE] = 0;
+	}
+
+	private final static int ACC_INTERFACE = 0x0200;
+	private final static int ACC_ABSTRACT = 0x0400;
+
+	// Class names are shared between all analyzed classes, e.g. the names of the Robocode API classes
+	private final static int MAX_INTERNED_NAMES = 65536;
+	private final static ConcurrentMap<String, String> internedNames = new ConcurrentHashMap<String, String>();
+
+	private final static ThreadLocal<char[]> charBuffer = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[256];
+		}
+	};
 
 	/**
 	 * ClassAnalyzer constructor comment.
@@ -50,47 +119,296 @@ public final class ClassAnalyzer {
 	}
 
 	static void getReferencedClasses(ByteBuffer classFile, Set<String> collection) {
+		try {
+			ConstantPool pool = ConstantPool.parse(classFile);
+
+			if (pool == null) return;
 
-		List<Integer> classNameIndexes = new ArrayList<Integer>();
-		ClassInfo info;
+			for (int i = 0; i < pool.classCount; i++) {
+				int nameIndex = pool.classNameIndexes[i];
 
+				// skip array classes
+				if (pool.isUtf8StartingWith(nameIndex, '[')) {
+					continue;
+				}
+				String className = pool.getUtf8(nameIndex, true);
+
+				if (className != null) {
+					collection.add(className);
+				}
+			}
+		} catch (IndexOutOfBoundsException ignore) {// truncated class file
+		}
+	}
+
+	/**
+	 * Returns the class file with the random number generators it creates replaced with
+	 * {@link robocode.util.RobotRandom}, or the class file itself if it does not create any.
+	 * <p>
+	 * Only the {@code new} instructions and the constructor calls of {@link java.util.Random} are changed, which refer
+	 * to a class constant and method references appended to the constant pool. Field types, method descriptors, casts
+	 * and stack map frames keep naming {@link java.util.Random}, which the created {@link robocode.util.RobotRandom}
+	 * instances are assignable to, as it is a subclass of {@link java.util.Random} with the same constructors. A class
+	 * extending {@link java.util.Random} gets {@link robocode.util.RobotRandom} as super class, so the calls of its
+	 * super constructor still name its super class.
+	 * <p>
+	 * Class files with instructions that cannot be read are returned unchanged.
+	 */
+	static ByteBuffer replaceRandomClass(ByteBuffer classFile) {
 		try {
-			DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile.array(), 0, classFile.limit()));
-			info = parseClassFile(classNameIndexes, in);
-			if (info == null) return;
-		} catch (IOException e) {
-			return;
+			ConstantPool pool = ConstantPool.parse(classFile);
+
+			if (pool == null) return classFile;
+
+			ByteBuffer data = pool.data;
+			int constant_pool_count = pool.offsets.length;
+
+			// the constants naming Random, and the new indexes of the method references to its constructors
+			boolean[] isRandomClass = new boolean[constant_pool_count];
+			int[] replacedConstructors = new int[constant_pool_count];
+			int[] constructorRefs = new int[constant_pool_count];
+			int constructorCount = 0;
+			boolean hasRandomClass = false;
+
+			for (int i = 1; i < constant_pool_count; i++) {
+				int offset = pool.offsets[i];
+
+				if (offset > 0 && data.get(offset) == CONSTANT_Class
+						&& pool.isUtf8Equal(readUnsignedShort(data, offset + 1), RANDOM_CLASS)) {
+					isRandomClass[i] = true;
+					hasRandomClass = true;
+				}
+			}
+			if (!hasRandomClass) {
+				return classFile;
+			}
+			int robotRandomClass = constant_pool_count + 1;
+
+			for (int i = 1; i < constant_pool_count; i++) {
+				int offset = pool.offsets[i];
+
+				if (offset > 0 && data.get(offset) == CONSTANT_Methodref
+						&& isRandomClass[readUnsignedShort(data, offset + 1)]) {
+					int nameAndType = pool.offsets[readUnsignedShort(data, offset + 3)];
+
+					if (pool.isUtf8Equal(readUnsignedShort(data, nameAndType + 1), "<init>")) {
+						constructorRefs[constructorCount] = i;
+						replacedConstructors[i] = robotRandomClass + 1 + constructorCount++;
+					}
+				}
+			}
+			if (robotRandomClass + 1 + constructorCount > MAX_CONSTANT_POOL_COUNT) {
+				return classFile;
+			}
+
+			// the positions of the constant indexes to replace, together with the replacing constant indexes
+			IntList patches = new IntList();
+
+			int super_class_offset = pool.end + 4;
+
+			if (isRandomClass[readUnsignedShort(data, super_class_offset)]) {
+				patches.add(super_class_offset, robotRandomClass);
+			}
+			if (!findRandomConstructions(pool, isRandomClass, robotRandomClass, replacedConstructors, patches)) {
+				return classFile;
+			}
+			if (patches.size == 0) {
+				return classFile;
+			}
+
+			// the constants appended to the constant pool
+			int utf8Length = ROBOT_RANDOM_CLASS.length();
+			int appendedLength = 3 + utf8Length + 3 + 5 * constructorCount;
+
+			int length = data.limit();
+			ByteBuffer result = ByteBuffer.allocate(length + appendedLength);
+
+			ByteBuffer head = data.duplicate();
+
+			((Buffer) head).position(0).limit(pool.end);
+			result.put(head);
+
+			result.put(CONSTANT_Utf8);
+			result.putShort((short) utf8Length);
+			for (int i = 0; i < utf8Length; i++) {
+				result.put((byte) ROBOT_RANDOM_CLASS.charAt(i));
+			}
+			result.put(CONSTANT_Class);
+			result.putShort((short) constant_pool_count);
+			for (int i = 0; i < constructorCount; i++) {
+				result.put(CONSTANT_Methodref);
+				result.putShort((short) robotRandomClass);
+				result.putShort(data.getShort(pool.offsets[constructorRefs[i]] + 3)); // the same name and type
+			}
+
+			ByteBuffer tail = data.duplicate();
+
+			((Buffer) tail).position(pool.end).limit(length);
+			result.put(tail);
+
+			result.putShort(8, (short) (robotRandomClass + 1 + constructorCount));
+			for (int i = 0; i < patches.size; i += 2) {
+				result.putShort(patches.values[i] + appendedLength, (short) patches.values[i + 1]);
+			}
+			((Buffer) result).flip();
+			return result;
+		} catch (IndexOutOfBoundsException e) {// truncated class file
+			return classFile;
+		}
+	}
+
+	/**
+	 * Adds the positions of the operands of the {@code new} instructions and constructor calls of
+	 * {@link java.util.Random} in the code of the methods to the patches.
+	 *
+	 * @return false if the methods could not be read; true otherwise.
+	 */
+	private static boolean findRandomConstructions(ConstantPool pool, boolean[] isRandomClass, int robotRandomClass,
+			int[] replacedConstructors, IntList patches) {
+		ByteBuffer data = pool.data;
+
+		// skip access_flags, this_class, super_class and the interfaces
+		int pos = pool.end + 6;
+
+		pos += 2 + 2 * readUnsignedShort(data, pos);
+
+		// skip the fields
+		int fields_count = readUnsignedShort(data, pos);
+
+		pos += 2;
+		for (int i = 0; i < fields_count; i++) {
+			pos = skipAttributes(data, pos + 6);
 		}
 
-		for (Integer classNameIndex : classNameIndexes) {
-			String className = info.utf8s[classNameIndex].replace('\\', '.').replace('/', '.');
+		int methods_count = readUnsignedShort(data, pos);
+
+		pos += 2;
+		for (int i = 0; i < methods_count; i++) {
+			int attributes_count = readUnsignedShort(data, pos + 6);
+
+			pos += 8;
+			for (int j = 0; j < attributes_count; j++) {
+				int attribute_length = data.getInt(pos + 2);
+
+				if (pool.isUtf8Equal(readUnsignedShort(data, pos), "Code")) {
+					// Code_attribute { u2 name; u4 length; u2 max_stack; u2 max_locals; u4 code_length; u1 code[]; ... }
+					int code_length = data.getInt(pos + 10);
+
+					if (!findRandomConstructions(data, pos + 14, code_length, isRandomClass, robotRandomClass,
+							replacedConstructors, patches)) {
+						return false;
+					}
+				}
+				pos += 6 + attribute_length;
+			}
+		}
+		return true;
+	}
+
+	private static boolean findRandomConstructions(ByteBuffer data, int code, int code_length,
+			boolean[] isRandomClass, int robotRandomClass, int[] replacedConstructors, IntList patches) {
+		int pc = 0;
+
+		while (pc < code_length) {
+			int opcode = data.get(code + pc) & 0xFF;
+			int length;
+
+			switch (opcode) {
+			case OPCODE_NEW:
+				if (isRandomClass[readUnsignedShort(data, code + pc + 1)]) {
+					patches.add(code + pc + 1, robotRandomClass);
+				}
+				length = 3;
+				break;
+
+			case OPCODE_INVOKESPECIAL:
+				int replacedConstructor = replacedConstructors[readUnsignedShort(data, code + pc + 1)];
+
+				if (replacedConstructor != 0) {
+					patches.add(code + pc + 1, replacedConstructor);
+				}
+				length = 3;
+				break;
+
+			case OPCODE_TABLESWITCH: {
+				int operands = pc + 1 + ((4 - ((pc + 1) & 3)) & 3);
+				int low = data.getInt(code + operands + 4);
+				int high = data.getInt(code + operands + 8);
 
-			if (className.indexOf("[") != 0 && !collection.contains(className)) {
-				collection.add(className);
+				length = operands - pc + 12 + 4 * (high - low + 1);
+				break;
+			}
+
+			case OPCODE_LOOKUPSWITCH: {
+				int operands = pc + 1 + ((4 - ((pc + 1) & 3)) & 3);
+				int npairs = data.getInt(code + operands + 4);
+
+				length = operands - pc + 8 + 8 * npairs;
+				break;
+			}
+
+			case OPCODE_WIDE:
+				length = ((data.get(code + pc + 1) & 0xFF) == OPCODE_IINC) ? 6 : 4;
+				break;
+
+			default:
+				length = INSTRUCTION_LENGTHS[opcode];
+			}
+			if (length <= 0) {
+				return false; // unknown opcode or malformed switch
 			}
+			pc += length;
 		}
+		return pc == code_length;
 	}
 
-	private static final class ClassInfo {
-		String[] utf8s;
-		int[] classNames;
+	private static int skipAttributes(ByteBuffer data, int pos) {
+		int attributes_count = readUnsignedShort(data, pos);
 
-		ClassInfo(int constant_pool_count) {
-			utf8s = new String[constant_pool_count];
-			classNames = new int[constant_pool_count];
+		pos += 2;
+		for (int i = 0; i < attributes_count; i++) {
+			pos += 6 + data.getInt(pos + 2);
 		}
+		return pos;
+	}
+
+	/**
+	 * Growable list of ints, which holds pairs of positions and values.
+	 */
+	private static final class IntList {
+		int[] values = new int[16];
+		int size;
+
+		void add(int position, int value) {
+			if (size + 2 > values.length) {
+				int[] grown = new int[values.length * 2];
 
-		private String getClassName(int info_index) {
-			return utf8s[classNames[info_index]];
+				System.arraycopy(values, 0, grown, 0, size);
+				values = grown;
+			}
+			values[size++] = position;
+			values[size++] = value;
 		}
 	}
 
-	private static ClassInfo parseClassFile(List<Integer> classNameIndexes, DataInputStream in) throws IOException {
-		 /*
-		 http://java.sun.com/docs/books/vmspec/2nd-edition/html/ClassFile.doc.html
+	/**
+	 * The constant pool of a class file, holding the offsets of the constant pool entries into the class file.
+	 */
+	private static final class ConstantPool {
+		final ByteBuffer data;
+		final int[] offsets;
+		final int[] classNameIndexes;
+		int classCount;
+		int end;
+
+		private ConstantPool(ByteBuffer data, int constant_pool_count) {
+			this.data = data;
+			offsets = new int[constant_pool_count];
+			classNameIndexes = new int[constant_pool_count];
+		}
 
-		 4.1 The ClassFile Structure
-		 A class file consists of a single ClassFile structure:
+		/*
+		 https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-4.html
 
 		 ClassFile {
 		 u4 magic;
@@ -103,219 +421,210 @@ public final class ClassAnalyzer {
 		 u2 super_class;
 		 u2 interfaces_count;
 		 u2 interfaces[interfaces_count];
-		 u2 fields_count;
-		 field_info fields[fields_count];
-		 u2 methods_count;
-		 method_info methods[methods_count];
-		 u2 attributes_count;
-		 attribute_info attributes[attributes_count];
+		 ...
 		 }
+
+		 All constant_pool table entries start with a u1 tag, followed by the info of the entry, which is fixed-size
+		 except for CONSTANT_Utf8_info { u1 tag; u2 length; u1 bytes[length]; }
 		 */
+		static ConstantPool parse(ByteBuffer classFile) {
+			// absolute reads on a duplicate leave the position of the original buffer untouched
+			ByteBuffer data = classFile.duplicate();
 
-		ClassInfo info;
-		long magic = in.readInt();
+			data.order(ByteOrder.BIG_ENDIAN);
 
-		if (magic != 0xCAFEBABE) {
-			Logger.logError("Not a class file!");
-			return null;
+			if (data.limit() < 10 || data.getInt(0) != 0xCAFEBABE) {
+				Logger.logError("Not a class file!");
+				return null;
+			}
+			int constant_pool_count = readUnsignedShort(data, 8);
+
+			ConstantPool pool = new ConstantPool(data, constant_pool_count);
+
+			int pos = 10;
+
+			for (int i = 1; i < constant_pool_count; i++) {
+				pool.offsets[i] = pos;
+
+				switch (data.get(pos)) {
+				case CONSTANT_Class:
+					pool.classNameIndexes[pool.classCount++] = readUnsignedShort(data, pos + 1);
+					pos += 3;
+					break;
+
+				case CONSTANT_String:
+				case CONSTANT_MethodType:
+				case CONSTANT_Module:
+				case CONSTANT_Package:
+					pos += 3;
+					break;
+
+				case CONSTANT_MethodHandle:
+					pos += 4;
+					break;
+
+				case CONSTANT_Fieldref:
+				case CONSTANT_Methodref:
+				case CONSTANT_InterfaceMethodref:
+				case CONSTANT_NameAndType:
+				case CONSTANT_Dynamic:
+				case CONSTANT_InvokeDynamic:
+				case CONSTANT_Integer:
+				case CONSTANT_Float:
+					pos += 5;
+					break;
+
+				case CONSTANT_Long:
+				case CONSTANT_Double:
+					pos += 9;
+					i++; // 8-byte constants take up two entries in the constant pool
+					break;
+
+				case CONSTANT_Utf8:
+					pos += 3 + readUnsignedShort(data, pos + 1);
+					break;
+
+				default:
+					Logger.logError("Unknown constant pool tag in class file!");
+					return null;
+				}
+			}
+			if (pos > data.limit()) {
+				return null;
+			}
+			pool.end = pos;
+			return pool;
 		}
-		in.readUnsignedShort(); // minor version
-		in.readUnsignedShort(); // major version
-		int constant_pool_count = in.readUnsignedShort();
-
-		info = new ClassInfo(constant_pool_count);
-
-			/*
-
-			 All constant_pool table entries have the following general format:
-
-
-			 cp_info {
-			 u1 tag;
-			 u1 info[];
-			 }
-
-			 Constant Type  Value
-			 CONSTANT_Class  7
-			 CONSTANT_Fieldref  9
-			 CONSTANT_Methodref  10
-			 CONSTANT_InterfaceMethodref  11
-			 CONSTANT_String  8
-			 CONSTANT_Integer  3
-			 CONSTANT_Float  4
-			 CONSTANT_Long  5
-			 CONSTANT_Double  6
-			 CONSTANT_NameAndType  12
-			 CONSTANT_Utf8  1
-			 CONSTANT_MethodHandle  15
-			 CONSTANT_MethodType  16
-			 CONSTANT_InvokeDynamic  18
-			 */
 
+		int readUnsignedShortAfterPool(int offset) {
+			return readUnsignedShort(data, end + offset);
+		}
 
-		for (int i = 1; i < constant_pool_count; i++) {
-			byte tag = in.readByte();
+		/**
+		 * Returns the name of the class at the specified index in binary form, e.g. "java/lang/Object".
+		 */
+		String getClassName(int classIndex) {
+			if (classIndex <= 0 || classIndex >= offsets.length || data.get(offsets[classIndex]) != CONSTANT_Class) {
+				return null;
+			}
+			return getUtf8(readUnsignedShort(data, offsets[classIndex] + 1), false);
+		}
 
-			switch (tag) {
+		boolean isUtf8StartingWith(int index, char ch) {
+			if (!isUtf8(index)) {
+				return false;
+			}
+			int offset = offsets[index];
 
-			/*
-			 CONSTANT_Class_info {
-			 u1 tag;
-			 u2 name_index;
-			 }
-			 */
-			case CONSTANT_Class: {
-					int name_index = in.readUnsignedShort();
+			return readUnsignedShort(data, offset + 1) > 0 && data.get(offset + 3) == ch;
+		}
 
-					classNameIndexes.add(name_index);
+		/**
+		 * Checks if the UTF-8 constant at the specified index equals the specified ASCII string.
+		 */
+		boolean isUtf8Equal(int index, String ascii) {
+			if (!isUtf8(index)) {
+				return false;
+			}
+			int offset = offsets[index];
+			int length = ascii.length();
 
-					info.classNames[i] = name_index;
+			if (readUnsignedShort(data, offset + 1) != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (data.get(offset + 3 + i) != ascii.charAt(i)) {
+					return false;
 				}
-				break;
+			}
+			return true;
+		}
 
-			/*
-			 CONSTANT_Fieldref_info {
-			 u1 tag;
-			 u2 class_index;
-			 u2 name_and_type_index;
-			 }
-			 CONSTANT_Methodref_info {
-			 u1 tag;
-			 u2 class_index;
-			 u2 name_and_type_index;
-			 }
-			 CONSTANT_InterfaceMethodref_info {
-			 u1 tag;
-			 u2 class_index;
-			 u2 name_and_type_index;
-			 }
-			 CONSTANT_InvokeDynamic_info {
-			 u1 tag;
-			 u2 bootstrap_method_attr_index;
-			 u2 name_and_type_index;
-			 }
-			 */
-			case CONSTANT_Fieldref:
-			case CONSTANT_Methodref:
-			case CONSTANT_InterfaceMethodref:
-			case CONSTANT_InvokeDynamic: {
-					in.readUnsignedShort(); // class index
-					in.readUnsignedShort(); // name and type index
-				}
-				break;
+		/**
+		 * Decodes the modified UTF-8 string at the specified index, where the package separators are replaced with
+		 * dots when dotted is true.
+		 */
+		String getUtf8(int index, boolean dotted) {
+			if (!isUtf8(index)) {
+				return null;
+			}
+			int offset = offsets[index];
+			int length = readUnsignedShort(data, offset + 1);
 
-			/*
-			 CONSTANT_MethodHandle_info {
-			 u1 tag;
-			 u1 reference_kind;
-			 u2 reference_index;
-			 }
-			 */
-			case CONSTANT_MethodHandle: {
-					in.readUnsignedByte(); //reference_kind
-					in.readUnsignedShort(); // reference_index
-				}
-				break;
+			char[] chars = charBuffer.get();
 
-			/*
-			 CONSTANT_String_info {
-			 u1 tag;
-			 u2 string_index;
-			 }
-			 CONSTANT_MethodType_info {
-			 u1 tag;
-			 u2 descriptor_index;
-			 }
-			 */
-			case CONSTANT_String:
-			case CONSTANT_MethodType: {
-					in.readUnsignedShort();
+			if (chars.length < length) {
+				chars = new char[length];
+				charBuffer.set(chars);
+			}
+			int count = 0;
+			int pos = offset + 3;
+			int end = pos + length;
+
+			while (pos < end) {
+				int b = data.get(pos++) & 0xFF;
+				char c;
+
+				if (b < 0x80) {
+					c = (char) b;
+				} else if ((b & 0xE0) == 0xC0) {
+					c = (char) (((b & 0x1F) << 6) | (data.get(pos++) & 0x3F));
+				} else if ((b & 0xF0) == 0xE0) {
+					c = (char) (((b & 0x0F) << 12) | ((data.get(pos++) & 0x3F) << 6) | (data.get(pos++) & 0x3F));
+				} else {
+					return null; // malformed
 				}
-				break;
-
-			/*
-			 CONSTANT_Integer_info {
-			 u1 tag;
-			 u4 bytes;
-			 }
-			 CONSTANT_Float_info {
-			 u1 tag;
-			 u4 bytes;
-			 }
-			 */
-			case CONSTANT_Integer:
-			case CONSTANT_Float: {
-					in.readInt(); // bytes
+				if (dotted && (c == '/' || c == '\\')) {
+					c = '.';
 				}
-				break;
+				chars[count++] = c;
+			}
+			if (pos > end) {
+				return null; // malformed
+			}
+			return intern(new String(chars, 0, count));
+		}
 
-			/*
-			 CONSTANT_Long_info {
-			 u1 tag;
-			 u4 high_bytes;
-			 u4 low_bytes;
-			 }
-			 CONSTANT_Double_info {
-			 u1 tag;
-			 u4 high_bytes;
-			 u4 low_bytes;
-			 }
-			 All 8-byte constants take up two entries in the constant_pool table of the class file. If a CONSTANT_Long_info or CONSTANT_Double_info structure is the item in the constant_pool table at index n, then the next usable item in the pool is located at index n+2. The constant_pool index n+1 must be valid but is considered unusable.2
-			 */
-
-			case CONSTANT_Long:
-			case CONSTANT_Double: {
-					in.readInt(); // high bytes
-					in.readInt(); // low bytes
-					i++; // see "all 8-byte..." comment above.
-				}
-				break;
+		private boolean isUtf8(int index) {
+			return index > 0 && index < offsets.length && offsets[index] > 0 && data.get(offsets[index]) == CONSTANT_Utf8;
+		}
+	}
 
-			/*
-			 CONSTANT_NameAndType_info {
-			 u1 tag;
-			 u2 name_index;
-			 u2 descriptor_index;
-			 }
-			 */
-			case CONSTANT_NameAndType: {
-					in.readUnsignedShort(); // name index
-					in.readUnsignedShort(); // descriptor index
-				}
-				break;
+	private static int readUnsignedShort(ByteBuffer data, int offset) {
+		return data.getShort(offset) & 0xFFFF;
+	}
 
-			/*
-			 CONSTANT_Utf8_info {
-			 u1 tag;
-			 u2 length;
-			 u1 bytes[length];
-			 }
-			 */
-			case CONSTANT_Utf8: {
-					String utf8_string = in.readUTF();
-
-					info.utf8s[i] = utf8_string;
-				}
-				break;
-			} // switch
-		} // for i
-		return info;
+	private static String intern(String name) {
+		String interned = internedNames.get(name);
+
+		if (interned != null) {
+			return interned;
+		}
+		if (internedNames.size() >= MAX_INTERNED_NAMES) {
+			internedNames.clear();
+		}
+		interned = internedNames.putIfAbsent(name, name);
+		return (interned != null) ? interned : name;
 	}
 
 	public interface ByteBufferFunction {
 		ByteBuffer get(String binaryName);
 	}
 
+	/**
+	 * Predicate for robot main classes, i.e. concrete classes assignable to {@link IBasicRobot}. The predicate is
+	 * thread-safe, and the results for all super classes and interfaces met are cached.
+	 */
 	public static final class RobotMainClassPredicate {
-		private final HashMap<String, Boolean> cache = new HashMap<String, Boolean>();
-		private final HashMap<String, Boolean> isConcrete = new HashMap<String, Boolean>();
+		private final ConcurrentMap<String, Boolean> cache = new ConcurrentHashMap<String, Boolean>();
+		private final ConcurrentMap<String, Boolean> isConcrete = new ConcurrentHashMap<String, Boolean>();
 		private final ByteBufferFunction fn;
 
 		public RobotMainClassPredicate(ByteBufferFunction fn) {
 			this.fn = fn;
 		}
 
-		private boolean calcAssignableToRobot(String binaryName) {
+		private boolean calcAssignableToRobot(String binaryName, Set<String> visiting) {
 			if (binaryName.startsWith("robocode/")) {
 				try {
 					return IBasicRobot.class.isAssignableFrom(Class.forName(binaryName
@@ -331,40 +640,37 @@ public final class ClassAnalyzer {
 
 			if (classFile == null) return false;
 
-			List<Integer> classNameIndexes = new ArrayList<Integer>();
-			ClassInfo info;
-
 			try {
-				DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile.array(), 0, classFile.limit()));
-				info = parseClassFile(classNameIndexes, in);
-				if (info == null) return false;
+				ConstantPool pool = ConstantPool.parse(classFile);
 
-				int access_flags = in.readUnsignedShort();
+				if (pool == null) return false;
 
-				isConcrete.put(binaryName, !((access_flags & 0x0200) != 0 | (access_flags & 0x0400) != 0));
+				int access_flags = pool.readUnsignedShortAfterPool(0);
 
-				in.readUnsignedShort(); // this_class
-				int super_class = in.readUnsignedShort(); // super_class
-				int interfaces_count = in.readUnsignedShort(); // interfaces_count
+				isConcrete.put(binaryName, (access_flags & (ACC_INTERFACE | ACC_ABSTRACT)) == 0);
 
-				if (isAssignableToRobot(info.getClassName(super_class))) {
+				int super_class = pool.readUnsignedShortAfterPool(4);
+				int interfaces_count = pool.readUnsignedShortAfterPool(6);
+
+				if (isAssignableToRobot(pool.getClassName(super_class), visiting)) {
 					return true;
 				}
 
 				for (int i = 0; i < interfaces_count; ++i) {
-					int interface_index = in.readUnsignedShort(); // interface_index
-					if (isAssignableToRobot(info.getClassName(interface_index))) {
+					int interface_index = pool.readUnsignedShortAfterPool(8 + 2 * i);
+
+					if (isAssignableToRobot(pool.getClassName(interface_index), visiting)) {
 						return true;
 					}
 				}
 
 				return false;
-			} catch (IOException e) {
+			} catch (IndexOutOfBoundsException e) {
 				return false;
 			}
 		}
 
-		private boolean isAssignableToRobot(String binaryName) {
+		private boolean isAssignableToRobot(String binaryName, Set<String> visiting) {
 			if (binaryName == null) return false;
 
 			if (binaryName.startsWith("java/")) {
@@ -374,9 +680,10 @@ public final class ClassAnalyzer {
 			Boolean ret = cache.get(binaryName);
 			if (ret != null) return ret;
 
-			cache.put(binaryName, false); // in case malicious circular references
+			// in case malicious circular references
+			if (!visiting.add(binaryName)) return false;
 
-			boolean res = calcAssignableToRobot(binaryName);
+			boolean res = calcAssignableToRobot(binaryName, visiting);
 
 			cache.put(binaryName, res);
 
@@ -384,7 +691,7 @@ public final class ClassAnalyzer {
 		}
 
 		public boolean isMainClassBinary(String binaryName) {
-			if (isAssignableToRobot(binaryName)) {
+			if (isAssignableToRobot(binaryName, new HashSet<String>())) {
 				Boolean concrete = isConcrete.get(binaryName);
 				if (concrete == null) return false;
 				return concrete;
@@ -9,6 +9,7 @@ package net.sf.robocode.host.security;
 
 import net.sf.robocode.io.FileUtil;
 import net.sf.robocode.io.Logger;
+import net.sf.robocode.io.RobotArchive;
 import net.sf.robocode.io.URLJarCollector;
 
 import java.io.BufferedInputStream;
@@ -27,6 +28,12 @@ public final class ClassFileReader {
 	public static ByteBuffer readClassFileFromURL(URL url) {
 		if (url == null) return null;
 
+		// Read directly from robot jars and jars within robot jars, if possible
+		ByteBuffer archived = RobotArchive.readEntry(url);
+		if (archived != null) {
+			return archived;
+		}
+
 		InputStream is = null;
 		BufferedInputStream bis = null;
 		ByteBuffer result;
@@ -42,6 +42,29 @@ public class RobocodeSecurityPolicy extends Policy {
 
 	private final IThreadManager threadManager;
 
+	// Granted permissions that do not depend on the state of the robot, cached per robot thread
+	private static final int MAX_CACHED_DECISIONS = 256;
+	private final ThreadLocal<DecisionCache> decisionCaches = new ThreadLocal<DecisionCache>();
+
+	private static final class DecisionCache {
+		final IHostedThread robotProxy;
+		final Set<Permission> granted = new HashSet<Permission>();
+
+		DecisionCache(IHostedThread robotProxy) {
+			this.robotProxy = robotProxy;
+		}
+
+		boolean grant(Permission perm, boolean implies) {
+			if (implies) {
+				if (granted.size() >= MAX_CACHED_DECISIONS) {
+					granted.clear();
+				}
+				granted.add(perm);
+			}
+			return implies;
+		}
+	}
+
 	public RobocodeSecurityPolicy(IThreadManager threadManager) {
 		this.parentPolicy = Policy.getPolicy();
 		this.allPermissions = new Permissions();
@@ -135,6 +158,12 @@ public class RobocodeSecurityPolicy extends Policy {
 			return false;
 		}
 
+		DecisionCache decisionCache = getDecisionCache(robotProxy);
+
+		if (decisionCache.granted.contains(perm)) {
+			return true;
+		}
+
 		// Attempt to stop the window from displaying
 		if (perm instanceof java.awt.AWTPermission) {
 			final String message = "Preventing " + robotProxy.getStatics().getName() + " from access: " + perm;
@@ -153,7 +182,7 @@ public class RobocodeSecurityPolicy extends Policy {
 
 			// Robot wants access to read something
 			if (filePermission.getActions().equals("read")) {
-				return impliesRobotFileRead(robotProxy, fileSystemManager, filePermission);
+				return decisionCache.grant(perm, impliesRobotFileRead(robotProxy, fileSystemManager, filePermission));
 
 			} // Robot wants access to write something
 			else if (filePermission.getActions().equals("write")) {
@@ -169,7 +198,7 @@ public class RobocodeSecurityPolicy extends Policy {
 		// check package access
 		if (perm instanceof RuntimePermission) {
 			if (name.startsWith("accessClassInPackage.")) {
-				return impliesRobotPackageAccess(robotProxy, name.substring(21));
+				return decisionCache.grant(perm, impliesRobotPackageAccess(robotProxy, name.substring(21)));
 			} else if (name.equals("accessDeclaredMembers")) {
 				return true;
 			}
@@ -182,6 +211,17 @@ public class RobocodeSecurityPolicy extends Policy {
 		return false;
 	}
 
+	// Only positive decisions are cached, as a denied permission must punish the robot every time
+	private DecisionCache getDecisionCache(IHostedThread robotProxy) {
+		DecisionCache decisionCache = decisionCaches.get();
+
+		if (decisionCache == null || decisionCache.robotProxy != robotProxy) {
+			decisionCache = new DecisionCache(robotProxy);
+			decisionCaches.set(decisionCache);
+		}
+		return decisionCache;
+	}
+
 	private boolean impliesRobotPackageAccess(IHostedThread robotProxy, String packageName) {
 		if (packageName.startsWith("robocode.control") || packageName.startsWith("net.sf.robocode")) {
 			if (allowedPackages.contains(packageName)) {
@@ -13,6 +13,7 @@ import net.sf.robocode.host.IHostedThread;
 import net.sf.robocode.host.IRobotClassLoader;
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.io.RobocodeProperties;
+import net.sf.robocode.io.RobotArchive;
 import robocode.robotinterfaces.IBasicRobot;
 
 import java.io.IOException;
@@ -131,7 +132,7 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 		if (result == null) {
 			ByteBuffer resource = findLocalResource(name);
 			if (resource != null) {
-				result = defineClass(name, resource, codeSource);
+				result = defineClass(name, ClassAnalyzer.replaceRandomClass(resource), codeSource);
 				if (resolve) {
 					resolveClass(result);
 				}
@@ -149,6 +150,14 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 				// try to find it in robot's class path
 				// this is URL, don't change to File.pathSeparator
 				String path = name.replace('.', '/').concat(".class");
+
+				// first try to read it directly from the robot jars, which avoids opening URL connections
+				for (URL classPathUrl : getURLs()) {
+					ByteBuffer archived = RobotArchive.readEntry(classPathUrl, path);
+					if (archived != null) {
+						return archived;
+					}
+				}
 				URL url = findResource(path);
 
 				return ClassFileReader.readClassFileFromURL(url);
@@ -18,13 +18,25 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 
 
 /**
+ * Keeps track of the safe threads of the game and the robot owning each robot thread group.
+ * <p>
+ * Threads and thread groups do not override equals() and hashCode(), so the concurrent maps and sets used here are
+ * identity-keyed, and all lookups are constant-time regardless of the number of robots. The verdict for the current
+ * thread is furthermore cached in a thread local until the registered threads or thread groups change, as the
+ * security manager asks for it on every permission check.
+ *
  * @author Mathew A. Nelson (original)
  * @author Flemming N. Larsen (contributor)
  * @author Robert D. Maupin (contributor)
@@ -33,33 +45,51 @@ public class ThreadManager implements IThreadManager {
 
 	private final PrintStream syserr = System.err;
 
-	private final List<Thread> safeThreads = new CopyOnWriteArrayList<Thread>();
-	private final List<ThreadGroup> safeThreadGroups = new CopyOnWriteArrayList<ThreadGroup>();
-	private final List<ThreadGroup> groups = new CopyOnWriteArrayList<ThreadGroup>();
+	private final Set<Thread> safeThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+	private final Set<ThreadGroup> safeThreadGroups = Collections.newSetFromMap(new ConcurrentHashMap<ThreadGroup, Boolean>());
+	private final ConcurrentMap<ThreadGroup, IHostedThread> robots = new ConcurrentHashMap<ThreadGroup, IHostedThread>();
 	private final List<Thread> outputStreamThreads = new CopyOnWriteArrayList<Thread>();
-	private final List<IHostedThread> robots = new CopyOnWriteArrayList<IHostedThread>();
+
+	// Incremented whenever a thread or thread group is (un)registered, which invalidates all cached verdicts
+	private final AtomicInteger generation = new AtomicInteger();
+
+	private final ThreadLocal<ThreadVerdict> verdicts = new ThreadLocal<ThreadVerdict>();
 
 	private Thread robotLoaderThread;
 	private IHostedThread loadingRobot;
 
+	private static final class ThreadVerdict {
+		final int generation;
+		final boolean isSafe;
+		final IHostedThread robotProxy;
+
+		ThreadVerdict(int generation, boolean isSafe, IHostedThread robotProxy) {
+			this.generation = generation;
+			this.isSafe = isSafe;
+			this.robotProxy = robotProxy;
+		}
+	}
+
 	public ThreadManager() {}
 
 	public void addSafeThread(Thread safeThread) {
 		safeThreads.add(safeThread);
+		generation.incrementAndGet();
 	}
 
 	public void removeSafeThread(Thread safeThread) {
 		safeThreads.remove(safeThread);
+		generation.incrementAndGet();
 	}
 
 	public void addSafeThreadGroup(ThreadGroup safeThreadGroup) {
 		safeThreadGroups.add(safeThreadGroup);
+		generation.incrementAndGet();
 	}
 
 	public void addThreadGroup(ThreadGroup g, IHostedThread robotProxy) {
-		if (!groups.contains(g)) {
-			groups.add(g);
-			robots.add(robotProxy);
+		if (robots.putIfAbsent(g, robotProxy) == null) {
+			generation.incrementAndGet();
 		}
 	}
 
@@ -76,7 +106,7 @@ public class ThreadManager implements IThreadManager {
 		return null;
 	}
 
-	public synchronized IHostedThread getLoadedOrLoadingRobotProxy(Thread t) {
+	public IHostedThread getLoadedOrLoadingRobotProxy(Thread t) {
 		IHostedThread robotProxy = getRobotProxy(t);
 
 		if (robotProxy == null) {
@@ -86,22 +116,24 @@ public class ThreadManager implements IThreadManager {
 	}
 
 	public IHostedThread getRobotProxy(Thread t) {
+		if (t == Thread.currentThread()) {
+			return getVerdict(t).robotProxy;
+		}
+		return lookupRobotProxy(t);
+	}
+
+	private IHostedThread lookupRobotProxy(Thread t) {
 		ThreadGroup g = t.getThreadGroup();
 
 		if (g == null) {
 			return null;
 		}
-		int index = groups.indexOf(g);
-
-		if (index == -1) {
-			return null;
-		}
-		return robots.get(index);
+		return robots.get(g);
 	}
 
 	public void reset() {
-		groups.clear();
 		robots.clear();
+		generation.incrementAndGet();
 	}
 
 	public synchronized void setLoadingRobot(IHostedThread newLoadingRobotProxy) {
@@ -180,18 +212,10 @@ public class ThreadManager implements IThreadManager {
 
 	public boolean isSafeThread(Thread c) {
 		try {
-			if (safeThreads.contains(c)) {
-				return true;
+			if (c == Thread.currentThread()) {
+				return getVerdict(c).isSafe;
 			}
-
-			for (ThreadGroup tg : safeThreadGroups) {
-				if (c.getThreadGroup() == tg) {
-					safeThreads.add(c);
-					return true;
-				}
-			}
-
-			return false;
+			return lookupIsSafe(c);
 		} catch (Exception e) {
 			syserr.println("Exception checking safe thread: ");
 			e.printStackTrace(syserr);
@@ -199,6 +223,27 @@ public class ThreadManager implements IThreadManager {
 		}
 	}
 
+	private boolean lookupIsSafe(Thread c) {
+		if (safeThreads.contains(c)) {
+			return true;
+		}
+		ThreadGroup tg = c.getThreadGroup();
+
+		return tg != null && safeThreadGroups.contains(tg);
+	}
+
+	// Must only be called with the current thread, as the verdict is cached for the current thread
+	private ThreadVerdict getVerdict(Thread current) {
+		final int currentGeneration = generation.get();
+		ThreadVerdict verdict = verdicts.get();
+
+		if (verdict == null || verdict.generation != currentGeneration) {
+			verdict = new ThreadVerdict(currentGeneration, lookupIsSafe(current), lookupRobotProxy(current));
+			verdicts.set(verdict);
+		}
+		return verdict;
+	}
+
 	public PrintStream getRobotOutputStream() {
 		Thread c = Thread.currentThread();
 
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.serialization;
+
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Encoder and decoder of team messages, owned by one team robot, which reuses its streams for all messages.
+ * <p>
+ * Besides Java serialization, messages are sent in a compact form when possible:
+ * <ul>
+ * <li>byte arrays are sent as they are.</li>
+ * <li>Externalizable messages of public classes with a public no-arg constructor are sent as the class name followed
+ * by the data written by writeExternal(), as long as writeExternal() writes primitive data and strings only. When it
+ * writes objects, the message falls back to Java serialization.</li>
+ * </ul>
+ * The compact forms start with a tag byte, which cannot be mistaken for the magic number starting a Java serialization
+ * stream.
+ */
+public final class TeamMessageCodec {
+
+	private static final byte RAW = 1;
+	private static final byte EXTERNALIZABLE = 2;
+
+	private final ByteArrayOutputStream byteStreamWriter;
+	private final CompactObjectOutput compactWriter;
+	private final ReusableByteArrayInputStream byteStreamReader = new ReusableByteArrayInputStream();
+	private final CompactObjectInput compactReader = new CompactObjectInput(byteStreamReader);
+	private final Map<Class<?>, Boolean> compactClasses = new HashMap<Class<?>, Boolean>();
+
+	public TeamMessageCodec(int initialSize) {
+		byteStreamWriter = new ByteArrayOutputStream(initialSize);
+		compactWriter = new CompactObjectOutput(byteStreamWriter);
+	}
+
+	/**
+	 * Encodes the message into a new byte array.
+	 */
+	public byte[] encode(Serializable message) throws IOException {
+		byteStreamWriter.reset();
+
+		if (message instanceof byte[]) {
+			byteStreamWriter.write(RAW);
+			byteStreamWriter.write((byte[]) message);
+			return byteStreamWriter.toByteArray();
+		}
+		if (message instanceof Externalizable && isCompactClass(message.getClass())) {
+			compactWriter.objectWritten = false;
+			compactWriter.writeByte(EXTERNALIZABLE);
+			compactWriter.writeUTF(message.getClass().getName());
+			try {
+				((Externalizable) message).writeExternal(compactWriter);
+			} catch (UnsupportedObjectException ignore) {// falls back to Java serialization
+			}
+			compactWriter.flush();
+			if (!compactWriter.objectWritten) {
+				return byteStreamWriter.toByteArray();
+			}
+			byteStreamWriter.reset();
+		}
+		ObjectOutputStream objectStreamWriter = new ObjectOutputStream(byteStreamWriter);
+
+		objectStreamWriter.writeObject(message);
+		objectStreamWriter.flush();
+		return byteStreamWriter.toByteArray();
+	}
+
+	/**
+	 * Decodes a message, where the classes of the message are loaded by the specified class loader.
+	 */
+	public Serializable decode(byte[] bytes, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+		if (bytes.length > 0 && bytes[0] == RAW) {
+			return Arrays.copyOfRange(bytes, 1, bytes.length);
+		}
+		if (bytes.length > 0 && bytes[0] == EXTERNALIZABLE) {
+			byteStreamReader.reset(bytes, 1);
+
+			String className = compactReader.readUTF();
+			Externalizable message = newInstance(Class.forName(className, false, classLoader));
+
+			message.readExternal(compactReader);
+			return message;
+		}
+		RobocodeObjectInputStream objectStreamReader = new RobocodeObjectInputStream(new ByteArrayInputStream(bytes),
+				classLoader);
+
+		try {
+			return (Serializable) objectStreamReader.readObject();
+		} finally {
+			objectStreamReader.close();
+		}
+	}
+
+	private boolean isCompactClass(Class<?> c) {
+		Boolean compact = compactClasses.get(c);
+
+		if (compact == null) {
+			compact = Modifier.isPublic(c.getModifiers())
+					&& (c.getEnclosingClass() == null || Modifier.isStatic(c.getModifiers()));
+			if (compact) {
+				try {
+					c.getConstructor();
+				} catch (NoSuchMethodException e) {
+					compact = false;
+				}
+			}
+			compactClasses.put(c, compact);
+		}
+		return compact;
+	}
+
+	private static Externalizable newInstance(Class<?> c) throws IOException {
+		if (!Externalizable.class.isAssignableFrom(c)) {
+			throw new InvalidClassException(c.getName(), "Not an Externalizable class");
+		}
+		try {
+			Constructor<?> constructor = c.getConstructor();
+
+			return (Externalizable) constructor.newInstance();
+		} catch (Exception e) {
+			throw new InvalidClassException(c.getName(), e.toString());
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class UnsupportedObjectException extends IOException {}
+
+	private static class CompactObjectOutput extends DataOutputStream implements ObjectOutput {
+		boolean objectWritten;
+
+		CompactObjectOutput(OutputStream out) {
+			super(out);
+		}
+
+		public void writeObject(Object obj) throws IOException {
+			objectWritten = true;
+			throw new UnsupportedObjectException();
+		}
+	}
+
+	private static class CompactObjectInput extends DataInputStream implements ObjectInput {
+		CompactObjectInput(InputStream in) {
+			super(in);
+		}
+
+		public Object readObject() throws IOException {
+			throw new StreamCorruptedException("No object was written to the team message");
+		}
+	}
+
+	private static class ReusableByteArrayInputStream extends ByteArrayInputStream {
+		ReusableByteArrayInputStream() {
+			super(new byte[0]);
+		}
+
+		void reset(byte[] bytes, int offset) {
+			buf = bytes;
+			pos = offset;
+			mark = offset;
+			count = bytes.length;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.events;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import robocode.BulletMissedEvent;
+import robocode.Event;
+import robocode.HitWallEvent;
+import robocode.ScannedRobotEvent;
+import robocode.StatusEvent;
+import robocode.WinEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+
+public class PriorityEventQueueTest {
+
+	@BeforeClass
+	public static void init() {
+		HiddenAccess.init();
+	}
+
+	@Test
+	public void ordersLikeSortedList() {
+		Random random = new Random(42);
+		PriorityEventQueue queue = new PriorityEventQueue();
+		List<Event> expected = new ArrayList<Event>();
+
+		for (int i = 0; i < 500; i++) {
+			Event event = createEvent(random);
+
+			event.setTime(random.nextInt(5));
+			queue.add(event);
+			expected.add(event);
+		}
+		Collections.sort(expected);
+
+		List<Event> iterated = new ArrayList<Event>();
+
+		for (Event event : queue) {
+			iterated.add(event);
+		}
+		Assert.assertEquals(expected, iterated);
+		assertEventsOfType(expected, queue, ScannedRobotEvent.class);
+		assertEventsOfType(expected, queue, StatusEvent.class);
+		assertEventsOfType(expected, queue, WinEvent.class);
+
+		for (Event event : expected) {
+			Assert.assertSame(event, queue.peek());
+			Assert.assertSame(event, queue.poll());
+		}
+		Assert.assertTrue(queue.isEmpty());
+		Assert.assertNull(queue.poll());
+	}
+
+	@Test
+	public void clearExpiredKeepsCriticalEvents() {
+		PriorityEventQueue queue = new PriorityEventQueue();
+		Event win = new WinEvent();
+		Event old = new HitWallEvent(0);
+		Event recent = new HitWallEvent(0);
+
+		win.setTime(1);
+		old.setTime(1);
+		recent.setTime(3);
+		queue.add(recent);
+		queue.add(old);
+		queue.add(win);
+
+		queue.clear(2);
+
+		Assert.assertEquals(2, queue.size());
+		Assert.assertEquals(1, queue.getEvents(HitWallEvent.class).size());
+		Assert.assertSame(recent, queue.getEvents(HitWallEvent.class).get(0));
+		Assert.assertSame(win, queue.poll());
+		Assert.assertSame(recent, queue.poll());
+	}
+
+	private static <T extends Event> void assertEventsOfType(List<Event> expected, PriorityEventQueue queue, Class<T> type) {
+		List<T> events = new ArrayList<T>();
+
+		for (Event event : expected) {
+			if (type.isInstance(event)) {
+				events.add(type.cast(event));
+			}
+		}
+		Assert.assertEquals(events, queue.getEvents(type));
+	}
+
+	// the events get the default priority of their type, like when added by the event manager
+	private static Event createEvent(Random random) {
+		Event event;
+
+		switch (random.nextInt(5)) {
+		case 0:
+			event = new ScannedRobotEvent("robot", 100, 0, random.nextInt(800), 0, 0, false);
+			event.setPriority(10);
+			return event;
+
+		case 1:
+			event = new HitWallEvent(0);
+			event.setPriority(30);
+			return event;
+
+		case 2:
+			event = new BulletMissedEvent(null);
+			event.setPriority(60);
+			return event;
+
+		case 3:
+			event = new StatusEvent(null);
+			event.setPriority(99);
+			return event;
+
+		default:
+			return new WinEvent();
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.io;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+
+public class RobotDataCacheTest {
+
+	private File dataDirectory;
+
+	@Before
+	public void setup() throws IOException {
+		dataDirectory = File.createTempFile("robotdata", ".data");
+		Assert.assertTrue(dataDirectory.delete());
+		Assert.assertTrue(dataDirectory.mkdir());
+		writeFile("a.txt", 10);
+		writeFile("b.txt", 20);
+	}
+
+	@After
+	public void cleanup() {
+		RobotDataCache.clear();
+		File[] files = dataDirectory.listFiles();
+
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		dataDirectory.delete();
+	}
+
+	@Test
+	public void quotaIsHandedOverBetweenBattles() throws IOException {
+		Assert.assertEquals(30, RobotDataCache.acquire(dataDirectory));
+
+		// rewriting a file does not modify the directory, but the quota used is counted from the files when released
+		long lastModified = dataDirectory.lastModified();
+
+		writeFile("a.txt", 5);
+		Assert.assertTrue(dataDirectory.setLastModified(lastModified));
+		RobotDataCache.release(dataDirectory);
+
+		Assert.assertEquals(25, RobotDataCache.acquire(dataDirectory));
+		RobotDataCache.release(dataDirectory);
+	}
+
+	@Test
+	public void modifiedDirectoryIsCountedAgain() {
+		Assert.assertEquals(30, RobotDataCache.acquire(dataDirectory));
+		RobotDataCache.release(dataDirectory);
+
+		Assert.assertTrue(new File(dataDirectory, "a.txt").delete());
+		Assert.assertTrue(dataDirectory.setLastModified(dataDirectory.lastModified() + 10000));
+
+		Assert.assertEquals(20, RobotDataCache.acquire(dataDirectory));
+		RobotDataCache.release(dataDirectory);
+	}
+
+	@Test
+	public void sharedDirectoryIsCountedAgain() {
+		Assert.assertEquals(30, RobotDataCache.acquire(dataDirectory));
+		Assert.assertEquals(30, RobotDataCache.acquire(dataDirectory));
+		RobotDataCache.release(dataDirectory);
+		RobotDataCache.release(dataDirectory);
+
+		Assert.assertEquals(30, RobotDataCache.acquire(dataDirectory));
+		RobotDataCache.release(dataDirectory);
+	}
+
+	@Test
+	public void dataFilesAreExtractedOncePerSession() {
+		Assert.assertTrue(RobotDataCache.markExtracted(dataDirectory, "jar:file:/robots/a.jar!/"));
+		Assert.assertFalse(RobotDataCache.markExtracted(dataDirectory, "jar:file:/robots/a.jar!/"));
+		Assert.assertTrue(RobotDataCache.markExtracted(dataDirectory, "jar:file:/robots/b.jar!/"));
+	}
+
+	private void writeFile(String name, int length) throws IOException {
+		FileOutputStream out = new FileOutputStream(new File(dataDirectory, name));
+
+		try {
+			out.write(new byte[length]);
+		} finally {
+			out.close();
+		}
+	}
+}
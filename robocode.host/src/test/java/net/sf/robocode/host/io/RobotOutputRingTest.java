@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.io;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class RobotOutputRingTest {
+
+	@Test
+	public void drainsWhatWasWritten() {
+		RobotOutputRing ring = new RobotOutputRing(100);
+
+		Assert.assertEquals("", ring.drain());
+
+		ring.put("Hello", false);
+		ring.put(' ', false);
+		ring.put("world".toCharArray(), 0, 5, false);
+		ring.put(new byte[] { '!', '\n' }, 0, 2, false);
+
+		Assert.assertEquals("Hello world!\n", ring.drain());
+		Assert.assertEquals("", ring.drain());
+	}
+
+	@Test
+	public void dropsBeyondLimitUntilDrained() {
+		RobotOutputRing ring = new RobotOutputRing(10);
+
+		ring.put("0123456", false);
+		ring.put("789abc", false);
+		ring.put('d', false);
+
+		String text = ring.drain();
+
+		Assert.assertTrue(text, text.startsWith("0123456789\nSYSTEM: This robot is printing too much"));
+		Assert.assertTrue(text, text.contains("(4 characters dropped)"));
+		Assert.assertEquals(4, ring.getTotalDropped());
+
+		ring.put("0123456789", false);
+		Assert.assertEquals("0123456789", ring.drain());
+		Assert.assertEquals(4, ring.getTotalDropped());
+	}
+
+	@Test
+	public void wrapsAndGrows() {
+		RobotOutputRing ring = new RobotOutputRing(50000);
+		StringBuilder expected = new StringBuilder();
+
+		for (int turn = 0; turn < 50; turn++) {
+			expected.setLength(0);
+			for (int i = 0; i < turn * 37; i++) {
+				String s = Integer.toString(turn * i);
+
+				ring.put(s, false);
+				expected.append(s);
+			}
+			Assert.assertEquals(expected.toString(), ring.drain());
+		}
+		Assert.assertEquals(0, ring.getTotalDropped());
+	}
+
+	@Test
+	public void unlimitedWhenDebugging() {
+		RobotOutputRing ring = new RobotOutputRing(10);
+		StringBuilder expected = new StringBuilder();
+
+		for (int i = 0; i < 3000; i++) {
+			ring.put((char) ('a' + i % 26), true);
+			expected.append((char) ('a' + i % 26));
+		}
+		Assert.assertEquals(expected.toString(), ring.drain());
+	}
+
+	@Test
+	public void producerAndConsumerThreads() throws InterruptedException {
+		final RobotOutputRing ring = new RobotOutputRing(1 << 20);
+		final int count = 200000;
+		final AtomicBoolean done = new AtomicBoolean();
+
+		Thread producer = new Thread(new Runnable() {
+			public void run() {
+				for (int i = 0; i < count; i++) {
+					ring.put((i % 10) + ",", false);
+				}
+				done.set(true);
+			}
+		});
+
+		producer.start();
+
+		StringBuilder read = new StringBuilder();
+
+		while (!done.get()) {
+			read.append(ring.drain());
+		}
+		producer.join();
+		read.append(ring.drain());
+
+		Assert.assertEquals(0, ring.getTotalDropped());
+		Assert.assertEquals(2 * count, read.length());
+		for (int i = 0; i < count; i++) {
+			Assert.assertEquals((char) ('0' + i % 10), read.charAt(2 * i));
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.jarjar;
+
+
+import net.sf.robocode.io.JarJar;
+import net.sf.robocode.io.RobotArchive;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+public class RobotArchiveTest {
+	static {
+		JarJarURLConnection.register();
+	}
+
+	private static final File OUTER = new File("src/test/resources/Outer.jar").getAbsoluteFile();
+
+	@After
+	public void cleanup() {
+		RobotArchive.closeAll();
+	}
+
+	@Test
+	public void readNestedEntries() throws IOException {
+		URL base = new URL("jar:jarjar:" + OUTER.toURI() + JarJar.SEPARATOR + "Inner.jar!/");
+
+		// stored entry
+		assertTest(RobotArchive.readEntry(base, "Hello.class"));
+		assertTest(RobotArchive.readEntry(new URL(base, "Hello.class")));
+
+		// deflated entry
+		ByteBuffer ahead = RobotArchive.readEntry(base, "tested/robots/Ahead.class");
+
+		Assert.assertNotNull(ahead);
+		Assert.assertEquals(0xCAFEBABE, ahead.getInt(0));
+
+		Assert.assertNull(RobotArchive.readEntry(base, "Missing.class"));
+	}
+
+	@Test
+	public void readOuterEntries() throws IOException {
+		RobotArchive archive = RobotArchive.open(OUTER);
+
+		Assert.assertTrue(archive.contains("Inner.jar"));
+		Assert.assertFalse(archive.contains("Missing.jar"));
+		Assert.assertSame(archive, RobotArchive.open(OUTER));
+		Assert.assertTrue(archive.getNestedArchive("Inner.jar").contains("level1/Hello.class"));
+	}
+
+	@Test
+	public void largeArchiveIsReleasedWhenClosed() throws IOException {
+		// larger than the jar files read into the heap, so the file is memory-mapped
+		byte[] content = new byte[5 * 1024 * 1024];
+
+		Arrays.fill(content, (byte) 7);
+		File file = writeJar(content);
+
+		try {
+			RobotArchive archive = RobotArchive.open(file);
+			ByteBuffer entry = archive.getEntry("Large.bin");
+
+			Assert.assertFalse(entry.isDirect());
+			Assert.assertEquals(content.length, entry.remaining());
+			Assert.assertEquals(7, entry.get(content.length - 1));
+
+			RobotArchive.closeAll();
+
+			try {
+				archive.getEntry("Large.bin");
+				Assert.fail("Entry read from closed archive");
+			} catch (IOException expected) {// as expected
+			}
+			// the entry read before is not a view of the unmapped file
+			Assert.assertEquals(7, entry.get(content.length - 1));
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void modifiedArchiveIsOpenedAgain() throws IOException {
+		File file = writeJar(new byte[] { 1, 2, 3 });
+
+		try {
+			RobotArchive archive = RobotArchive.open(file);
+
+			Assert.assertEquals(3, archive.getEntry("Large.bin").remaining());
+
+			FileOutputStream out = new FileOutputStream(file);
+
+			try {
+				writeJar(out, new byte[] { 4, 5, 6, 7 });
+			} finally {
+				out.close();
+			}
+			// the file may be rewritten within the time stamp resolution of the file system
+			Assert.assertTrue(file.setLastModified(file.lastModified() + 2000));
+
+			RobotArchive reopened = RobotArchive.open(file);
+
+			Assert.assertNotSame(archive, reopened);
+			Assert.assertEquals(4, reopened.getEntry("Large.bin").remaining());
+		} finally {
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void invalidEntrySizesAreRejected() throws IOException {
+		// a Zip64 size, and a size far beyond what the deflated entry can hold
+		assertRejected(0xFFFFFFFF);
+		assertRejected(0x7FFFFFF0);
+	}
+
+	private static void assertRejected(int size) throws IOException {
+		File file = writeJar(new byte[] { 1, 2, 3 });
+
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+			try {
+				byte[] bytes = new byte[(int) raf.length()];
+
+				raf.readFully(bytes);
+				ByteBuffer jar = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+				for (int offset = 0; offset < bytes.length - 4; offset++) {
+					if (jar.getInt(offset) == 0x02014b50) {
+						// uncompressed size of the entry in the central directory
+						raf.seek(offset + 24);
+						raf.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(size).array());
+					}
+				}
+			} finally {
+				raf.close();
+			}
+			try {
+				RobotArchive.open(file);
+				Assert.fail("Archive with invalid entry size opened");
+			} catch (IOException expected) {// as expected
+			}
+			// the caller falls back to an URL connection
+			Assert.assertNull(RobotArchive.readEntry(new URL("jar:" + file.toURI() + "!/Large.bin")));
+		} finally {
+			RobotArchive.closeAll();
+			Assert.assertTrue(file.delete());
+		}
+	}
+
+	private static File writeJar(byte[] content) throws IOException {
+		File file = File.createTempFile("RobotArchiveTest", ".jar");
+		FileOutputStream out = new FileOutputStream(file);
+
+		try {
+			writeJar(out, content);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private static void writeJar(FileOutputStream out, byte[] content) throws IOException {
+		ZipOutputStream zip = new ZipOutputStream(out);
+		ZipEntry entry = new ZipEntry("Large.bin");
+		CRC32 crc = new CRC32();
+
+		crc.update(content);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(content.length);
+		entry.setCrc(crc.getValue());
+		zip.putNextEntry(entry);
+		zip.write(content);
+		zip.closeEntry();
+		zip.finish();
+	}
+
+	private static void assertTest(ByteBuffer buffer) {
+		Assert.assertNotNull(buffer);
+		byte[] bytes = new byte[buffer.remaining()];
+
+		buffer.get(bytes);
+		Assert.assertEquals("Test", new String(bytes));
+	}
+}
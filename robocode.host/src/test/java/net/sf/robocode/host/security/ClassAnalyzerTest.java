@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import net.sf.robocode.io.JarJar;
+import net.sf.robocode.io.RobotArchive;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.util.RobotRandom;
+import robocode.util.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+
+public class ClassAnalyzerTest {
+
+	private static final URL INNER_JAR;
+
+	static {
+		try {
+			INNER_JAR = new URL("jar:jarjar:" + new File("src/test/resources/Outer.jar").getAbsoluteFile().toURI()
+					+ JarJar.SEPARATOR + "Inner.jar!/");
+		} catch (MalformedURLException e) {
+			throw new Error(e);
+		}
+	}
+
+	@After
+	public void cleanup() {
+		RobotArchive.closeAll();
+	}
+
+	@Test
+	public void referencedClasses() {
+		ByteBuffer classFile = RobotArchive.readEntry(INNER_JAR, "tested/robots/Ahead.class");
+		int position = classFile.position();
+
+		Set<String> referenced = new HashSet<String>();
+
+		ClassAnalyzer.getReferencedClasses(classFile, referenced);
+
+		Assert.assertTrue(referenced.contains("tested.robots.Ahead"));
+		Assert.assertTrue(referenced.contains("robocode.AdvancedRobot"));
+		Assert.assertEquals(position, classFile.position());
+	}
+
+	@Test
+	public void notAClassFile() {
+		Set<String> referenced = new HashSet<String>();
+
+		ClassAnalyzer.getReferencedClasses(RobotArchive.readEntry(INNER_JAR, "Hello.class"), referenced);
+		ClassAnalyzer.getReferencedClasses(ByteBuffer.wrap(new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 50, 0, 9, 7 }), referenced);
+
+		Assert.assertTrue(referenced.isEmpty());
+	}
+
+	@Test
+	public void mainClass() {
+		ClassAnalyzer.RobotMainClassPredicate predicate = new ClassAnalyzer.RobotMainClassPredicate(new ClassAnalyzer.ByteBufferFunction() {
+			public ByteBuffer get(String binaryName) {
+				return RobotArchive.readEntry(INNER_JAR, binaryName + ".class");
+			}
+		});
+
+		Assert.assertTrue(predicate.isMainClass("tested.robots.Ahead"));
+		Assert.assertFalse(predicate.isMainClass("Hello"));
+		Assert.assertFalse(predicate.isMainClass("tested.robots.Missing"));
+	}
+
+	@Test
+	public void replaceRandomClass() throws Exception {
+		ByteBuffer classFile = readClass(RandomUser.class.getName());
+
+		ByteBuffer rewritten = ClassAnalyzer.replaceRandomClass(classFile);
+
+		Assert.assertNotSame(classFile, rewritten);
+		Assert.assertTrue(rewritten.limit() > classFile.limit());
+		Assert.assertEquals(0, classFile.position());
+
+		ByteBuffer noRandom = readClass(RewritingClassLoader.class.getName());
+
+		Assert.assertSame(noRandom, ClassAnalyzer.replaceRandomClass(noRandom));
+	}
+
+	@Test
+	public void rewrittenClassesLoad() throws Exception {
+		Class<?> userClass = Class.forName(RandomUser.class.getName(), true, new RewritingClassLoader());
+		Object user = userClass.newInstance();
+
+		Random random = (Random) userClass.getMethod("getRandom").invoke(user);
+		Random seeded = (Random) userClass.getMethod("getSeeded").invoke(user);
+
+		Assert.assertTrue(random instanceof RobotRandom);
+		Assert.assertTrue(seeded instanceof RobotRandom);
+		Assert.assertEquals(new Random(42).nextLong(), seeded.nextLong());
+
+		// fields, parameters and return values keep their type
+		Method setRandom = userClass.getMethod("setRandom", Random.class);
+
+		setRandom.invoke(user, new Random());
+		Assert.assertFalse(userClass.getMethod("getRandom").invoke(user) instanceof RobotRandom);
+		Assert.assertSame(Utils.getRandom(), userClass.getMethod("fromUtils").invoke(user));
+		Assert.assertTrue(((Integer) userClass.getMethod("next", Random.class).invoke(user, (Object) null)) < 10);
+
+		// a subclass of Random gets RobotRandom as super class
+		Random subclass = (Random) userClass.getMethod("createSubclass").invoke(user);
+
+		Assert.assertTrue(subclass instanceof RobotRandom);
+		Assert.assertEquals(RobotRandom.class, subclass.getClass().getSuperclass());
+	}
+
+	private static ByteBuffer readClass(String name) throws IOException {
+		InputStream in = ClassAnalyzerTest.class.getClassLoader().getResourceAsStream(
+				name.replace('.', '/') + ".class");
+
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+
+			for (int n; (n = in.read(buffer)) >= 0;) {
+				out.write(buffer, 0, n);
+			}
+			return ByteBuffer.wrap(out.toByteArray());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Loads the nested classes of this test with the random number generators they create replaced, like the robot
+	 * class loader does.
+	 */
+	private static class RewritingClassLoader extends ClassLoader {
+		RewritingClassLoader() {
+			super(ClassAnalyzerTest.class.getClassLoader());
+		}
+
+		@Override
+		protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith(ClassAnalyzerTest.class.getName() + "$")) {
+				return super.loadClass(name, resolve);
+			}
+			Class<?> result = findLoadedClass(name);
+
+			if (result == null) {
+				try {
+					result = defineClass(name, ClassAnalyzer.replaceRandomClass(readClass(name)), null);
+				} catch (IOException e) {
+					throw new ClassNotFoundException(name, e);
+				}
+			}
+			if (resolve) {
+				resolveClass(result);
+			}
+			return result;
+		}
+	}
+
+	public static class RandomUser {
+		private Random random = new Random();
+		private final Random seeded = new Random(42);
+
+		public Random getRandom() {
+			return random;
+		}
+
+		public void setRandom(Random random) {
+			this.random = random;
+		}
+
+		public Random getSeeded() {
+			return seeded;
+		}
+
+		public Random fromUtils() {
+			Random utilsRandom = Utils.getRandom();
+
+			random = utilsRandom;
+			return utilsRandom;
+		}
+
+		public int next(Random other) {
+			return pick(other).nextInt(10);
+		}
+
+		private Random pick(Random other) {
+			return other != null ? other : random;
+		}
+
+		public Random createSubclass() {
+			return new SubRandom(7);
+		}
+	}
+
+	public static class SubRandom extends Random {
+		private static final long serialVersionUID = 1L;
+
+		public SubRandom() {
+			super();
+		}
+
+		public SubRandom(long seed) {
+			super(seed);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import net.sf.robocode.host.IHostedThread;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+public class ThreadManagerTest {
+
+	private final ThreadManager threadManager = new ThreadManager();
+
+	@Test
+	public void safeThreadVerdictFollowsRegistration() {
+		Thread current = Thread.currentThread();
+
+		Assert.assertFalse(threadManager.isSafeThread(current));
+
+		threadManager.addSafeThread(current);
+		Assert.assertTrue(threadManager.isSafeThread(current));
+
+		threadManager.removeSafeThread(current);
+		Assert.assertFalse(threadManager.isSafeThread(current));
+
+		threadManager.addSafeThreadGroup(current.getThreadGroup());
+		Assert.assertTrue(threadManager.isSafeThread(current));
+	}
+
+	@Test
+	public void robotProxyByThreadGroup() throws InterruptedException {
+		final IHostedThread robotProxy = createRobotProxy();
+		ThreadGroup group = new ThreadGroup("robot");
+
+		threadManager.addThreadGroup(group, robotProxy);
+
+		final AtomicReference<IHostedThread> found = new AtomicReference<IHostedThread>();
+		final AtomicReference<Boolean> safe = new AtomicReference<Boolean>();
+
+		Thread robotThread = new Thread(group, new Runnable() {
+			public void run() {
+				found.set(threadManager.getRobotProxy(Thread.currentThread()));
+				safe.set(threadManager.isSafeThread(Thread.currentThread()));
+			}
+		});
+
+		robotThread.start();
+		robotThread.join();
+
+		Assert.assertSame(robotProxy, found.get());
+		Assert.assertFalse(safe.get());
+		Assert.assertNull(threadManager.getRobotProxy(Thread.currentThread()));
+
+		threadManager.reset();
+
+		Thread otherThread = new Thread(group, new Runnable() {
+			public void run() {
+				found.set(threadManager.getRobotProxy(Thread.currentThread()));
+			}
+		});
+
+		otherThread.start();
+		otherThread.join();
+
+		Assert.assertNull(found.get());
+	}
+
+	private static IHostedThread createRobotProxy() {
+		return (IHostedThread) Proxy.newProxyInstance(IHostedThread.class.getClassLoader(),
+				new Class<?>[] { IHostedThread.class }, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getName().equals("equals")) {
+					return proxy == args[0];
+				}
+				if (method.getName().equals("hashCode")) {
+					return System.identityHashCode(proxy);
+				}
+				return null;
+			}
+		});
+	}
+}
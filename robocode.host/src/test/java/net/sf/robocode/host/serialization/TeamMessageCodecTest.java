@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.serialization;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamConstants;
+import java.io.Serializable;
+import java.util.Arrays;
+
+
+public class TeamMessageCodecTest {
+
+	private final TeamMessageCodec codec = new TeamMessageCodec(1024);
+	private final ClassLoader classLoader = getClass().getClassLoader();
+
+	@Test
+	public void rawBytes() throws Exception {
+		byte[] message = { 1, 2, 3, -84, -19 };
+		byte[] bytes = codec.encode(message);
+
+		Assert.assertEquals(message.length + 1, bytes.length);
+
+		Serializable decoded = codec.decode(bytes, classLoader);
+
+		Assert.assertTrue(Arrays.equals(message, (byte[]) decoded));
+		Assert.assertNotSame(message, decoded);
+	}
+
+	@Test
+	public void compactExternalizable() throws Exception {
+		byte[] bytes = codec.encode(new Radar(7, 123.5, "Tracker"));
+
+		Assert.assertFalse(isSerializationStream(bytes));
+
+		Radar decoded = (Radar) codec.decode(bytes, classLoader);
+
+		Assert.assertEquals(7, decoded.index);
+		Assert.assertEquals(123.5, decoded.distance, 0);
+		Assert.assertEquals("Tracker", decoded.target);
+
+		// the streams are reused for the next message
+		decoded = (Radar) codec.decode(codec.encode(new Radar(8, 1, "Walls")), classLoader);
+		Assert.assertEquals("Walls", decoded.target);
+	}
+
+	@Test
+	public void externalizableWritingObjectsFallsBack() throws Exception {
+		byte[] bytes = codec.encode(new Nested(new Radar(1, 2, "Crazy")));
+
+		Assert.assertTrue(isSerializationStream(bytes));
+
+		Nested decoded = (Nested) codec.decode(bytes, classLoader);
+
+		Assert.assertEquals("Crazy", decoded.radar.target);
+	}
+
+	@Test
+	public void serializable() throws Exception {
+		byte[] bytes = codec.encode("Hello team");
+
+		Assert.assertTrue(isSerializationStream(bytes));
+		Assert.assertEquals("Hello team", codec.decode(bytes, classLoader));
+	}
+
+	private static boolean isSerializationStream(byte[] bytes) {
+		return ((bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF)) == (ObjectStreamConstants.STREAM_MAGIC & 0xFFFF);
+	}
+
+	public static class Radar implements Externalizable {
+		int index;
+		double distance;
+		String target;
+
+		public Radar() {}
+
+		Radar(int index, double distance, String target) {
+			this.index = index;
+			this.distance = distance;
+			this.target = target;
+		}
+
+		public void writeExternal(ObjectOutput out) throws IOException {
+			out.writeInt(index);
+			out.writeDouble(distance);
+			out.writeUTF(target);
+		}
+
+		public void readExternal(ObjectInput in) throws IOException {
+			index = in.readInt();
+			distance = in.readDouble();
+			target = in.readUTF();
+		}
+	}
+
+	public static class Nested implements Externalizable {
+		Radar radar;
+
+		public Nested() {}
+
+		Nested(Radar radar) {
+			this.radar = radar;
+		}
+
+		public void writeExternal(ObjectOutput out) throws IOException {
+			out.writeObject(radar);
+		}
+
+		public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+			radar = (Radar) in.readObject();
+		}
+	}
+}
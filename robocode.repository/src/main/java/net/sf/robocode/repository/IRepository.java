@@ -60,6 +60,14 @@ public interface IRepository {
 	 */
 	void addOrUpdateItem(IRepositoryItem item);
 
+	/**
+	 * Notifies this repository that the meta-data of an item has changed, e.g. when the item has been updated and its
+	 * properties must be read again.
+	 *
+	 * @param item is the item that has changed.
+	 */
+	void itemChanged(IRepositoryItem item);
+
 	/**
 	 * Returns an item stored in this repository identified by a friendly URL (key).
 	 *
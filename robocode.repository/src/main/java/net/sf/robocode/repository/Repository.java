@@ -27,6 +27,8 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -41,6 +43,12 @@ class Repository implements IRepository {
 	private Map<String, IRepositoryItem> repositoryItems = new ConcurrentHashMap<String, IRepositoryItem>();
 	private Map<String, IRepositoryItem> removedItems = new ConcurrentHashMap<String, IRepositoryItem>();
 
+	// The robot and team items by full class name, which are used for resolving names with a version
+	private Map<String, Set<IRepositoryItem>> itemsByClassName = new ConcurrentHashMap<String, Set<IRepositoryItem>>();
+
+	// Incremented whenever items or roots are added, removed or changed, so indexes over the items know when to rebuild
+	private final AtomicInteger modificationCount = new AtomicInteger();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -107,6 +115,8 @@ class Repository implements IRepository {
 	 * {@inheritDoc}
 	 */
 	public void addOrUpdateItem(IRepositoryItem repositoryItem) {
+		addItemByClassName(repositoryItem);
+
 		Collection<String> friendlyUrls = repositoryItem.getFriendlyURLs();
 		if (friendlyUrls != null) {
 			// Add or update the item so it can be found using later using any friendly URL
@@ -117,6 +127,7 @@ class Repository implements IRepository {
 					// than the existing item.
 					if (existingItem == null || repositoryItem.compareTo(existingItem) > 0) {
 						repositoryItems.put(friendly, repositoryItem);
+						modificationCount.incrementAndGet();
 					}
 				}
 			}
@@ -128,12 +139,69 @@ class Repository implements IRepository {
 	 */
 	public IRepositoryItem getItem(String friendlyUrl) {
 		IRepositoryItem repositoryItem = repositoryItems.get(friendlyUrl);
+		if (repositoryItem == null) {
+			repositoryItem = getItemByNameWithVersion(friendlyUrl);
+		}
 		if (repositoryItem == null) {
 			repositoryItem = removedItems.get(friendlyUrl);
 		}
 		return repositoryItem;
 	}
 
+	// Robots are not registered under their name with version until their properties have been read, so a name with
+	// a version like "sample.Corners 1.0" is resolved here by comparing it against the items with the same class name.
+	private IRepositoryItem getItemByNameWithVersion(String friendlyUrl) {
+		int index = friendlyUrl.indexOf(' ');
+		if (index <= 0) {
+			return null;
+		}
+		Set<IRepositoryItem> items = itemsByClassName.get(friendlyUrl.substring(0, index));
+		if (items != null) {
+			for (IRepositoryItem repositoryItem : items) {
+				if (friendlyUrl.equals(((IRobotSpecItem) repositoryItem).getUniqueFullClassNameWithVersion())) {
+					return repositoryItem;
+				}
+			}
+		}
+		return null;
+	}
+
+	private void addItemByClassName(IRepositoryItem repositoryItem) {
+		if (repositoryItem instanceof IRobotSpecItem) {
+			String fullClassName = ((IRobotSpecItem) repositoryItem).getFullClassName();
+			if (fullClassName != null) {
+				Set<IRepositoryItem> items = itemsByClassName.get(fullClassName);
+				if (items == null) {
+					items = new CopyOnWriteArraySet<IRepositoryItem>();
+					itemsByClassName.put(fullClassName, items);
+				}
+				items.add(repositoryItem);
+			}
+		}
+	}
+
+	private void removeItemByClassName(IRepositoryItem repositoryItem) {
+		if (repositoryItem instanceof IRobotSpecItem) {
+			String fullClassName = ((IRobotSpecItem) repositoryItem).getFullClassName();
+			if (fullClassName != null) {
+				Set<IRepositoryItem> items = itemsByClassName.get(fullClassName);
+				if (items != null) {
+					items.remove(repositoryItem);
+					if (items.isEmpty()) {
+						itemsByClassName.remove(fullClassName);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void itemChanged(IRepositoryItem repositoryItem) {
+		modificationCount.incrementAndGet();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -153,6 +221,7 @@ class Repository implements IRepository {
 	 */
 	public void removeRoot(String friendlyUrl) {
 		roots.remove(friendlyUrl);
+		modificationCount.incrementAndGet();
 	}
 
 	/**
@@ -172,7 +241,9 @@ class Repository implements IRepository {
 
 			removedItems.put(key, entry.getValue());
 			repositoryItems.remove(key);
+			removeItemByClassName(entry.getValue());
 		}
+		modificationCount.incrementAndGet();
 	}
 
 	/**
@@ -195,5 +266,18 @@ class Repository implements IRepository {
 
 		// Clear items to be removed
 		removedItems.clear(); 
+
+		modificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Returns the modification count of this repository, which is changed whenever items or roots are added, removed or
+	 * changed.
+	 *
+	 * @return the modification count.
+	 */
+	// Only for the RepositoryManager
+	public int getModificationCount() {
+		return modificationCount.get();
 	}
 }
@@ -0,0 +1,320 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.repository;
+
+
+import net.sf.robocode.repository.RepositoryQuery.CodeSizeClass;
+import net.sf.robocode.repository.RepositoryQuery.Origin;
+import net.sf.robocode.repository.items.IRepositoryItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * Secondary indexes over the items of a repository used for answering {@link RepositoryQuery} queries without
+ * scanning all items. An index is a snapshot of the repository, and must be rebuilt when the modification count of
+ * the repository has changed, or the repository has been replaced.
+ * <p>
+ * The name, package, origin and robot type indexes are built up front as these only need the names and roots of the
+ * items. The author and code size indexes need the properties of the items, and are hence first built when a query
+ * uses them.
+ */
+final class RepositoryIndex {
+
+	private final Repository repository;
+	private final int modificationCount;
+
+	private final List<IRobotSpecItem> items;
+
+	// Full and short class names in lower case, where the sorted map is used for prefix lookups
+	private final TreeMap<String, List<IRobotSpecItem>> byName = new TreeMap<String, List<IRobotSpecItem>>();
+	private final Map<String, List<IRobotSpecItem>> byShortName = new HashMap<String, List<IRobotSpecItem>>();
+	private final Map<String, List<IRobotSpecItem>> byPackage = new HashMap<String, List<IRobotSpecItem>>();
+	private final Map<RobotType, List<IRobotSpecItem>> byRobotType = new HashMap<RobotType, List<IRobotSpecItem>>();
+	private final Map<Origin, List<IRobotSpecItem>> byOrigin = new EnumMap<Origin, List<IRobotSpecItem>>(Origin.class);
+	private final List<IRobotSpecItem> robots = new ArrayList<IRobotSpecItem>();
+
+	// Lazy indexes
+	private Map<String, List<IRobotSpecItem>> byAuthor;
+	private Map<CodeSizeClass, List<IRobotSpecItem>> byCodeSizeClass;
+
+	RepositoryIndex(Repository repository) {
+		this.repository = repository;
+		this.modificationCount = repository.getModificationCount();
+
+		// The same item is registered under several friendly URLs
+		Set<IRobotSpecItem> unique = new LinkedHashSet<IRobotSpecItem>();
+
+		for (IRepositoryItem repositoryItem : repository.getItems().values()) {
+			unique.add((IRobotSpecItem) repositoryItem);
+		}
+		items = Collections.unmodifiableList(new ArrayList<IRobotSpecItem>(unique));
+
+		for (Origin origin : Origin.values()) {
+			byOrigin.put(origin, new ArrayList<IRobotSpecItem>());
+		}
+		for (IRobotSpecItem item : items) {
+			String fullClassName = item.getFullClassName();
+
+			if (fullClassName != null) {
+				String shortClassName = item.getShortClassName().toLowerCase();
+
+				add(byName, fullClassName.toLowerCase(), item);
+				if (!shortClassName.equals(fullClassName.toLowerCase())) {
+					add(byName, shortClassName, item);
+				}
+				add(byShortName, shortClassName, item);
+
+				String fullPackage = item.getFullPackage();
+				if (fullPackage != null) {
+					add(byPackage, fullPackage, item);
+				}
+			}
+			if (!item.isTeam()) {
+				robots.add(item);
+				if (item instanceof IRobotItem) {
+					add(byRobotType, ((IRobotItem) item).getRobotType(), item);
+				}
+			}
+			if (item.isInJAR()) {
+				byOrigin.get(Origin.JAR).add(item);
+			}
+			boolean isDevelopment = fullClassName != null && item.isDevelopmentVersion();
+
+			byOrigin.get(isDevelopment ? Origin.DEVELOPMENT : Origin.NOT_DEVELOPMENT).add(item);
+		}
+		byOrigin.put(Origin.ANY, items);
+	}
+
+	/**
+	 * Checks if this index is still up-to-date with the specified repository.
+	 */
+	boolean isUpToDate(Repository repository) {
+		return this.repository == repository && modificationCount == repository.getModificationCount();
+	}
+
+	/**
+	 * Returns all items in the index, valid or not.
+	 */
+	List<IRobotSpecItem> getItems() {
+		return items;
+	}
+
+	/**
+	 * Returns the valid items matching the specified query, sorted.
+	 */
+	List<IRobotSpecItem> query(RepositoryQuery query) {
+		Collection<IRobotSpecItem> candidates = getCandidates(query);
+
+		List<IRobotSpecItem> result = new ArrayList<IRobotSpecItem>();
+
+		for (IRobotSpecItem item : candidates) {
+			if (matches(item, query)) {
+				result.add(item);
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	// Returns the smallest candidate collection among the indexes that applies to the query
+	private Collection<IRobotSpecItem> getCandidates(RepositoryQuery query) {
+		Collection<IRobotSpecItem> candidates = byOrigin.get(query.getOrigin());
+
+		if (query.isRobotsOnly()) {
+			candidates = smallest(candidates, robots);
+		}
+		if (query.getShortName() != null) {
+			candidates = smallest(candidates, get(byShortName, query.getShortName().toLowerCase()));
+		}
+		if (query.getPackage() != null) {
+			candidates = smallest(candidates, get(byPackage, query.getPackage()));
+		}
+		if (query.getNamePrefix() != null) {
+			candidates = smallest(candidates, getByNamePrefix(query.getNamePrefix().toLowerCase()));
+		}
+		if (query.getRobotType() != null) {
+			candidates = smallest(candidates, getByRobotType(query.getRobotType()));
+		}
+		if (query.getAuthorName() != null) {
+			candidates = smallest(candidates, get(getAuthorIndex(), query.getAuthorName().toLowerCase()));
+		}
+		if (query.getCodeSizeClass() != null) {
+			candidates = smallest(candidates, get(getCodeSizeClassIndex(), query.getCodeSizeClass()));
+		}
+		return candidates;
+	}
+
+	private Collection<IRobotSpecItem> getByNamePrefix(String prefix) {
+		SortedMap<String, List<IRobotSpecItem>> subMap = byName.subMap(prefix, prefix + Character.MAX_VALUE);
+
+		// An item is both found by its full and short class name, if these are different
+		Set<IRobotSpecItem> result = new LinkedHashSet<IRobotSpecItem>();
+
+		for (List<IRobotSpecItem> list : subMap.values()) {
+			result.addAll(list);
+		}
+		return result;
+	}
+
+	private Collection<IRobotSpecItem> getByRobotType(RobotType robotType) {
+		List<IRobotSpecItem> result = new ArrayList<IRobotSpecItem>();
+
+		for (Map.Entry<RobotType, List<IRobotSpecItem>> entry : byRobotType.entrySet()) {
+			if (entry.getKey().includes(robotType)) {
+				result.addAll(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	private synchronized Map<String, List<IRobotSpecItem>> getAuthorIndex() {
+		if (byAuthor == null) {
+			byAuthor = new HashMap<String, List<IRobotSpecItem>>();
+
+			for (IRobotSpecItem item : items) {
+				String authorName = item.getAuthorName();
+
+				if (authorName != null) {
+					add(byAuthor, authorName.toLowerCase(), item);
+				}
+			}
+		}
+		return byAuthor;
+	}
+
+	private synchronized Map<CodeSizeClass, List<IRobotSpecItem>> getCodeSizeClassIndex() {
+		if (byCodeSizeClass == null) {
+			byCodeSizeClass = new EnumMap<CodeSizeClass, List<IRobotSpecItem>>(CodeSizeClass.class);
+
+			for (IRobotSpecItem item : robots) {
+				if (item instanceof IRobotItem) {
+					Integer codeSize = ((IRobotItem) item).getCodeSize();
+
+					if (codeSize != null) {
+						for (CodeSizeClass codeSizeClass : CodeSizeClass.values()) {
+							if (codeSizeClass.contains(codeSize)) {
+								add(byCodeSizeClass, codeSizeClass, item);
+							}
+						}
+					}
+				}
+			}
+		}
+		return byCodeSizeClass;
+	}
+
+	private static boolean matches(IRobotSpecItem item, RepositoryQuery query) {
+		if (!item.isValid()) {
+			return false;
+		}
+		String fullClassName = item.getFullClassName();
+
+		if (query.getNamePrefix() != null) {
+			String prefix = query.getNamePrefix().toLowerCase();
+
+			if (fullClassName == null
+					|| !(fullClassName.toLowerCase().startsWith(prefix)
+					|| item.getShortClassName().toLowerCase().startsWith(prefix))) {
+				return false;
+			}
+		}
+		if (query.getShortName() != null
+				&& (fullClassName == null || !query.getShortName().equalsIgnoreCase(item.getShortClassName()))) {
+			return false;
+		}
+		if (query.getPackage() != null && !query.getPackage().equals(item.getFullPackage())) {
+			return false;
+		}
+		if (query.isOnlyWithPackage() && item.getFullPackage() == null) {
+			return false;
+		}
+		if (query.isOnlyWithSource() && !item.isSourceIncluded()) {
+			return false;
+		}
+		if (query.isRobotsOnly() && item.isTeam()) {
+			return false;
+		}
+		switch (query.getOrigin()) {
+		case DEVELOPMENT:
+			if (!item.isDevelopmentVersion()) {
+				return false;
+			}
+			break;
+
+		case NOT_DEVELOPMENT:
+			if (item.isDevelopmentVersion()) {
+				return false;
+			}
+			break;
+
+		case JAR:
+			if (!item.isInJAR()) {
+				return false;
+			}
+			break;
+
+		default:
+			break;
+		}
+		if (query.getRobotType() != null || query.getCodeSizeClass() != null) {
+			if (!(item instanceof IRobotItem)) {
+				return false;
+			}
+			IRobotItem robotItem = (IRobotItem) item;
+
+			if (query.getRobotType() != null && !robotItem.getRobotType().includes(query.getRobotType())) {
+				return false;
+			}
+			if (query.getCodeSizeClass() != null) {
+				Integer codeSize = robotItem.getCodeSize();
+
+				if (codeSize == null || !query.getCodeSizeClass().contains(codeSize)) {
+					return false;
+				}
+			}
+		}
+		if (query.getAuthorName() != null && !query.getAuthorName().equalsIgnoreCase(item.getAuthorName())) {
+			return false;
+		}
+		return true;
+	}
+
+	private static Collection<IRobotSpecItem> smallest(Collection<IRobotSpecItem> a, Collection<IRobotSpecItem> b) {
+		return (b.size() < a.size()) ? b : a;
+	}
+
+	private static <K> List<IRobotSpecItem> get(Map<K, List<IRobotSpecItem>> index, K key) {
+		List<IRobotSpecItem> list = index.get(key);
+
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		return list;
+	}
+
+	private static <K> void add(Map<K, List<IRobotSpecItem>> index, K key, IRobotSpecItem item) {
+		List<IRobotSpecItem> list = index.get(key);
+
+		if (list == null) {
+			list = new ArrayList<IRobotSpecItem>();
+			index.put(key, list);
+		}
+		list.add(item);
+	}
+}
@@ -47,6 +47,7 @@ public class RepositoryManager implements IRepositoryManager { // NO_UCD (use de
 	
 	private final ISettingsManager properties;
 	private Repository repository;
+	private RepositoryIndex repositoryIndex;
 
 	public RepositoryManager(ISettingsManager properties) { // NO_UCD (unused code)
 		this.properties = properties;
@@ -171,6 +172,7 @@ public class RepositoryManager implements IRepositoryManager { // NO_UCD (use de
 		if (rebuild) {
 			Logger.logMessage("Rebuilding robot database...");
 			repository = new Repository();
+			repositoryIndex = null;
 		} else if (repository == null) {
 			setStatus("Reading robot database");
 			repository = load();
@@ -279,17 +281,23 @@ public class RepositoryManager implements IRepositoryManager { // NO_UCD (use de
 	}
 
 	private Collection<IRobotSpecItem> getAllValidItems() {
-		final ArrayList<IRobotSpecItem> res = new ArrayList<IRobotSpecItem>();
+		final List<IRobotSpecItem> res = new ArrayList<IRobotSpecItem>();
 
-		for (IRepositoryItem repositoryItem : repository.getItems().values()) {
-			final IRobotSpecItem spec = (IRobotSpecItem) repositoryItem;
-			if (repositoryItem.isValid() && !res.contains(spec)) {
-				res.add(spec);
+		for (IRobotSpecItem item : getIndex().getItems()) {
+			if (item.isValid()) {
+				res.add(item);
 			}
 		}
 		return res;
 	}
 
+	private synchronized RepositoryIndex getIndex() {
+		if (repositoryIndex == null || !repositoryIndex.isUpToDate(repository)) {
+			repositoryIndex = new RepositoryIndex(repository);
+		}
+		return repositoryIndex;
+	}
+
 	private List<IRobotSpecItem> getValidItems(String friendlyUrls) {
 		List<IRobotSpecItem> result = new ArrayList<IRobotSpecItem>();
 		StringTokenizer tokenizer = new StringTokenizer(friendlyUrls, ",");
@@ -311,42 +319,9 @@ public class RepositoryManager implements IRepositoryManager { // NO_UCD (use de
 		return result;
 	}
 
-	public List<IRobotSpecItem> getRepositoryItems(boolean onlyWithSource, boolean onlyWithPackage, boolean onlyRobots, boolean onlyDevelopment, boolean onlyNotDevelopment, boolean ignoreTeamRobots, boolean onlyInJar) {
+	public List<IRobotSpecItem> getRepositoryItems(RepositoryQuery query) {
 		checkDbExists();
-
-		final List<IRobotSpecItem> res = new ArrayList<IRobotSpecItem>();
-
-		for (IRepositoryItem repositoryItem : repository.getItems().values()) {
-			final IRobotSpecItem spec = (IRobotSpecItem) repositoryItem;
-
-			if (!repositoryItem.isValid()) {
-				continue;
-			}
-			if (onlyWithSource && !spec.isSourceIncluded()) {
-				continue;
-			}
-			if (onlyWithPackage && spec.getFullPackage() == null) {
-				continue;
-			}
-			if (onlyInJar && !spec.isInJAR()) {
-				continue;
-			}
-			if (onlyRobots && !(repositoryItem instanceof RobotItem)) {
-				continue;
-			}
-			if (onlyDevelopment && !spec.isDevelopmentVersion()) {
-				continue;
-			}
-			if (onlyNotDevelopment && spec.isDevelopmentVersion()) {
-				continue;
-			}
-			if (res.contains(spec)) {
-				continue;
-			}
-			res.add(spec);
-		}
-		Collections.sort(res);
-		return res;
+		return getIndex().query(query);
 	}
 
 	public boolean verifyRobotName(String robotName, String shortClassName) {
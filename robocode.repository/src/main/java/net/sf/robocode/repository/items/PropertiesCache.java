@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.repository.items;
+
+
+import net.sf.robocode.io.FileUtil;
+import net.sf.robocode.io.URLJarCollector;
+import net.sf.robocode.repository.root.IRepositoryRoot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * Bounded cache of robot and team .properties files shared by all repository items.
+ * Entries are keyed by the URL of the .properties entry and the last modification time of the file containing it,
+ * i.e. the jar file for items within a jar, so a changed jar or file is never served stale properties.
+ * The least recently used entries are evicted when the cache is full.
+ */
+final class PropertiesCache {
+
+	private static final int MAX_ENTRIES = Integer.parseInt(System.getProperty("ROBOTPROPERTIESCACHESIZE", "4096"));
+
+	private static final Map<String, Properties> cache = new LinkedHashMap<String, Properties>(256, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Properties> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private PropertiesCache() {}
+
+	/**
+	 * Loads the properties at the specified URL into the specified target, reading the URL only if the properties
+	 * are not cached already.
+	 *
+	 * @param propertiesUrl is the URL of the .properties file or jar entry.
+	 * @param container is the file containing the properties, i.e. the jar file or the .properties file itself.
+	 * @param target is the properties to fill in.
+	 * @throws IOException if the properties could not be read.
+	 */
+	static void load(URL propertiesUrl, File container, Properties target) throws IOException {
+		final String key = propertiesUrl.toString() + '@' + (container == null ? 0 : container.lastModified());
+
+		Properties cached;
+
+		synchronized (cache) {
+			cached = cache.get(key);
+		}
+		if (cached == null) {
+			cached = new Properties();
+
+			InputStream ios = null;
+			try {
+				URLConnection con = URLJarCollector.openConnection(propertiesUrl);
+
+				ios = con.getInputStream();
+				cached.load(ios);
+			} finally {
+				FileUtil.cleanupStream(ios);
+			}
+			synchronized (cache) {
+				cache.put(key, cached);
+			}
+		}
+		// Copy, as the item owning the target is allowed to modify its properties
+		target.putAll(cached);
+	}
+
+	/**
+	 * Returns the file containing the item at the specified URL, i.e. the jar file if the item is within a jar.
+	 *
+	 * @param itemUrl is the URL of the item.
+	 * @param root is the repository root of the item.
+	 * @return the file containing the item, or null if it could not be determined.
+	 */
+	static File getContainer(URL itemUrl, IRepositoryRoot root) {
+		if (root.isJAR()) {
+			return root.getPath();
+		}
+		if ("file".equals(itemUrl.getProtocol())) {
+			try {
+				return new File(itemUrl.toURI());
+			} catch (URISyntaxException ignore) {} catch (IllegalArgumentException ignore) {}
+		}
+		return null;
+	}
+}
@@ -78,6 +78,9 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	private String className;
 	protected boolean isPropertiesLoaded;
 
+	// Set when the .properties file has been looked up from the class file, even if no such file exists
+	private boolean isPropertiesResolved;
+
 	public RobotItem(URL itemURL, IRepositoryRoot root) {
 		super(itemURL, root);
 
@@ -90,11 +93,11 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	private void populate() {
 		populatePropertiesURLFromClassURL();
 		populateClassURLFromPropertiesURL();
-		loadProperties();
 	}
 
 	public void setClassURL(URL classUrl) {
 		this.classURL = classUrl;
+		isPropertiesResolved = false;
 		populate();
 	}
 
@@ -116,7 +119,7 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	// -------------------------------------
 
 	private void populatePropertiesURLFromClassURL() {
-		if (propertiesURL == null && classURL != null) {
+		if (propertiesURL == null && classURL != null && !isPropertiesResolved) {
 			final String path = classURL.toString().replaceFirst("\\" + CLASS_EXTENSION, PROPERTIES_EXTENSION);
 
 			try {
@@ -127,6 +130,7 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 			if (isInvalidURL(propertiesURL)) {
 				propertiesURL = null;
 			}
+			isPropertiesResolved = true;
 		}
 	}
 
@@ -267,7 +271,12 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 			} else {
 				urls.add(getUniqueFullClassName());
 			}
-			urls.add(getUniqueFullClassNameWithVersion());
+			// The version is only known here if the properties have been read already, as indexing the item must not
+			// read them. Names with a version are otherwise resolved by Repository.getItem(String).
+			String version = isPropertiesLoaded ? properties.getProperty(ROBOT_VERSION, null) : null;
+			if (version != null) {
+				urls.add(getFullClassName() + ' ' + version + (isDevelopmentVersion() ? "*" : ""));
+			}
 		}
 		if (root.isJAR()) {
 			urls.add(root.getURL().toString());
@@ -287,6 +296,11 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	 */
 	public void update(long lastModified, boolean force) {
 		if (lastModified > this.lastModified || force) {
+			// A .properties file may have been added next to the class file since it was looked up
+			if (propertiesURL == null) {
+				isPropertiesResolved = false;
+				populate();
+			}
 			if (force) {
 				isValid = true;
 			}
@@ -294,11 +308,16 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 				validateType(false);
 			}
 			this.lastModified = lastModified;
+
+			// The properties may have changed, and are read again first when one of them is needed
+			properties.clear();
+			isPropertiesLoaded = false;
+
 			if (classURL == null) {
 				isValid = false;
 			}
-			loadProperties();
-			if (!isTeamRobot() && root.isJAR() && !isPropertiesLoaded) {
+			// A robot within a jar must have a .properties entry, which has been checked to exist by populate()
+			if (!isTeamRobot() && root.isJAR() && propertiesURL == null) {
 				isValid = false;
 			}
 			if (isValid) {
@@ -326,23 +345,22 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 
 	// Note that ROBOCODE_CLASSNAME can be invalid, an hence can't be trusted when loaded!
 	// Hence, we read the fullClassName field instead and NOT the ROBOCODE_CLASSNAME property.
+	// The properties are loaded lazily, i.e. first when one of them is needed, and through the shared
+	// PropertiesCache so listing and filtering the repository does not need to read the jar files.
 	private boolean loadProperties() {
-		if (!isPropertiesLoaded && propertiesURL != null) {
-			InputStream ios = null;
-			try {
-				URLConnection con = URLJarCollector.openConnection(propertiesURL);
-
-				ios = con.getInputStream();
-				properties.load(ios);
-				isPropertiesLoaded = true;
-				return true;
-			} catch (IOException e) {
-				return false;
-			} finally {
-				FileUtil.cleanupStream(ios);
+		if (!isPropertiesLoaded) {
+			populate();
+
+			if (propertiesURL != null) {
+				try {
+					PropertiesCache.load(propertiesURL, PropertiesCache.getContainer(propertiesURL, root), properties);
+					isPropertiesLoaded = true;
+				} catch (IOException e) {
+					return false;
+				}
 			}
 		}
-		return false;
+		return isPropertiesLoaded;
 	}
 
 	private boolean verifyName() {
@@ -393,6 +411,8 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	}
 
 	public void storeProperties(OutputStream os, RobotProperties robotProps) throws IOException {
+		loadProperties();
+
 		if (className != null) {
 			properties.setProperty(ROBOT_CLASSNAME, className);
 		}
@@ -437,9 +457,14 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 		} finally {
 			FileUtil.cleanupStream(fos);
 		}
+		isPropertiesResolved = false;
 		populatePropertiesURLFromClassURL();
 	}
 
+	public RobotType getRobotType() {
+		return robotType != null ? robotType : RobotType.INVALID;
+	}
+
 	public boolean isJuniorRobot() {
 		return robotType.isJuniorRobot();
 	}
@@ -493,22 +518,27 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	}
 
 	public String getVersion() {
+		loadProperties();
 		return properties.getProperty(ROBOT_VERSION, null);
 	}
 
 	public String getDescription() {
+		loadProperties();
 		return properties.getProperty(ROBOT_DESCRIPTION, null);
 	}
 
 	public String getAuthorName() {
+		loadProperties();
 		return properties.getProperty(ROBOT_AUTHOR_NAME, null);
 	}
 
 	public String getPlatform() {
+		loadProperties();
 		return properties.getProperty(ROBOT_PLATFORM, "Java");
 	}
 
 	public URL getWebpage() {
+		loadProperties();
 		try {
 			String webPage = properties.getProperty(ROBOT_WEBPAGE, null);
 			if (webPage == null || webPage.trim().isEmpty()) {
@@ -521,6 +551,8 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	}
 
 	public Integer getCodeSize() {
+		loadProperties();
+
 		String value = properties.getProperty(ROBOT_CODESIZE);
 		if (value == null) {
 			return null;
@@ -533,10 +565,12 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	}
 	
 	public boolean getIncludeSource() {
+		loadProperties();
 		return properties.getProperty(ROBOT_INCLUDE_SOURCE, "true").equalsIgnoreCase("true");
 	}
 
 	public boolean getIncludeData() {
+		loadProperties();
 		return properties.getProperty(ROBOT_INCLUDE_DATA, "true").equalsIgnoreCase("true");
 	}
 
@@ -545,6 +579,7 @@ public class RobotItem extends RobotSpecItem implements IRobotItem {
 	}
 
 	public String getRobocodeVersion() {
+		loadProperties();
 		return properties.getProperty(ROBOCODE_VERSION, null);
 	}
 
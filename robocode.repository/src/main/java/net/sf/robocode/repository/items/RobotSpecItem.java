@@ -182,15 +182,20 @@ public abstract class RobotSpecItem extends RepositoryItem implements IRobotSpec
 		if (other instanceof IRobotSpecItem) {
 			IRobotSpecItem otherRI = (IRobotSpecItem) other;
 
-			return compare(getFullPackage(), getFullClassName(), getVersion(), otherRI.getFullPackage(),
-					otherRI.getFullClassName(), otherRI.getVersion());
+			int result = compare(getFullPackage(), getFullClassName(), otherRI.getFullPackage(),
+					otherRI.getFullClassName());
+			if (result != 0) {
+				return result;
+			}
+			// Same robot, so compare versions, which are read from the properties only here
+			return compareVersions(getVersion(), otherRI.getVersion());
 		}
 
 		// for IgnoredItem
 		return 0;
 	}
 
-	private static int compare(String p1, String c1, String v1, String p2, String c2, String v2) {
+	private static int compare(String p1, String c1, String p2, String c2) {
 		AlphanumericComparator alphaNumComparator = new AlphanumericComparator();
 
 		// Compare packages
@@ -201,12 +206,12 @@ public abstract class RobotSpecItem extends RepositoryItem implements IRobotSpec
 		}
 
 		// Same package, so compare classes
-		result = alphaNumComparator.compare(c1, c2);
-		if (result != 0) {
-			return result;
-		}
+		return alphaNumComparator.compare(c1, c2);
+	}
+
+	private static int compareVersions(String v1, String v2) {
+		AlphanumericComparator alphaNumComparator = new AlphanumericComparator();
 
-		// Same robot, so compare versions
 		if (v1 == null && v2 == null) {
 			return 0;
 		}
@@ -110,19 +110,11 @@ public class TeamItem extends RobotSpecItem implements IRobotSpecItem {
 
 	private boolean loadProperties() {
 		if (itemUrl != null) {
-			InputStream ios = null;
-
 			try {
-				final URLConnection connection = URLJarCollector.openConnection(itemUrl);
-
-				ios = connection.getInputStream();
-				
-				properties.load(ios);
+				PropertiesCache.load(itemUrl, PropertiesCache.getContainer(itemUrl, root), properties);
 				return true;
 			} catch (IOException e) {
 				Logger.logError(e);
-			} finally {
-				FileUtil.cleanupStream(ios);
 			}
 		}
 		return false;
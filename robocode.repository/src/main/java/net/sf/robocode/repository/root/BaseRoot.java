@@ -10,6 +10,7 @@ package net.sf.robocode.repository.root;
 
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.repository.IRepository;
+import net.sf.robocode.repository.items.IRepositoryItem;
 import net.sf.robocode.ui.IWindowManager;
 
 import java.io.File;
@@ -54,6 +55,16 @@ public abstract class BaseRoot implements Serializable, IRepositoryRoot {
 		this.repository = repository;
 	}
 
+	// Updates an item, and notifies the repository if the item has been updated, as its meta-data may have changed
+	protected void updateItem(IRepositoryItem repositoryItem, long lastModified, boolean force) {
+		boolean isChanged = lastModified > repositoryItem.getLastModified() || force;
+
+		repositoryItem.update(lastModified, force);
+		if (isChanged) {
+			repository.itemChanged(repositoryItem);
+		}
+	}
+
 	public String toString() {
 		return rootURL != null ? rootURL.toString() : null;
 	}
@@ -64,7 +64,7 @@ public final class ClasspathRoot extends BaseRoot implements IRepositoryRoot {
 		// Run thru all found repository items and update these according to their 'last modified' date
 		for (int i = 0; i < items.size(); i++) {
 			IRepositoryItem repositoryItem = items.get(i);
-			repositoryItem.update(itemsLastModification.get(i), force);
+			updateItem(repositoryItem, itemsLastModification.get(i), force);
 		}
 	}
 
@@ -135,7 +135,7 @@ public final class ClasspathRoot extends BaseRoot implements IRepositoryRoot {
 		setStatus("Updating classpath: " + rootPath);
 
 		File file = new File(item.getItemURL().toString());
-		item.update(file.lastModified(), force);
+		updateItem(item, file.lastModified(), force);
 	}
 
 	public boolean isChanged(IRepositoryItem repositoryItem) {
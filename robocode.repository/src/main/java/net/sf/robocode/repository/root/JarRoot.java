@@ -76,7 +76,7 @@ public final class JarRoot extends BaseRoot implements IRepositoryRoot {
 
 			visitItems(repositoryItems);
 			for (IRepositoryItem repositoryItem : repositoryItems) {
-				repositoryItem.update(lastModified, force);
+				updateItem(repositoryItem, lastModified, force);
 			}
 		}
 	}
@@ -161,7 +161,7 @@ public final class JarRoot extends BaseRoot implements IRepositoryRoot {
 	}
 
 	public void updateItem(IRepositoryItem repositoryItem, boolean force) {
-		repositoryItem.update(rootPath.lastModified(), force);
+		updateItem(repositoryItem, rootPath.lastModified(), force);
 	}
 
 	public boolean isChanged(IRepositoryItem repositoryItem) {
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.repository;
+
+
+import net.sf.robocode.repository.RepositoryQuery.CodeSizeClass;
+import net.sf.robocode.repository.RepositoryQuery.Origin;
+import net.sf.robocode.repository.items.IRepositoryItem;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Tests the queries answered by the index over a repository, where the items are stand-ins only answering the
+ * getters used by the index.
+ */
+public class RepositoryIndexTest {
+
+	private static final RobotType ADVANCED = new RobotType(false, true, false, false, true, false, false, false);
+	private static final RobotType ADVANCED_DROID = new RobotType(false, true, false, false, true, true, true, false);
+	private static final RobotType JUNIOR = new RobotType(true, false, false, false, false, false, false, false);
+
+	private Repository repository;
+
+	@Before
+	public void setup() {
+		repository = new Repository();
+
+		add(robot("sample.Walls", ADVANCED, 600).set("getAuthorName", "Mathew Nelson").set("isInJAR", true));
+		add(robot("sample.Crazy", ADVANCED, 1000).set("getAuthorName", "Mathew Nelson").set("isDevelopmentVersion", true));
+		add(robot("sample.MyFirstDroid", ADVANCED_DROID, 200).set("isInJAR", true));
+		add(robot("tested.robots.Walls", JUNIOR, null).set("isDevelopmentVersion", true));
+		add(robot("sample.Broken", ADVANCED, 100).set("isValid", false));
+		add(item("sample.MyFirstTeam", true).set("getAuthorName", "Mathew Nelson").set("isInJAR", true));
+		add(item("Unpackaged", false).set("getFullPackage", null).set("getRobotType", ADVANCED));
+	}
+
+	@Test
+	public void queryByName() {
+		RepositoryIndex index = new RepositoryIndex(repository);
+
+		assertNames(index.query(new RepositoryQuery().setNamePrefix("SAMPLE.m")), "sample.MyFirstDroid",
+				"sample.MyFirstTeam");
+		// the short class name is matched as well
+		assertNames(index.query(new RepositoryQuery().setNamePrefix("wa")), "sample.Walls", "tested.robots.Walls");
+		assertNames(index.query(new RepositoryQuery().setShortName("walls")), "sample.Walls", "tested.robots.Walls");
+		assertNames(index.query(new RepositoryQuery().setPackage("tested.robots")), "tested.robots.Walls");
+		assertNames(index.query(new RepositoryQuery().setNamePrefix("missing")));
+	}
+
+	@Test
+	public void queryByProperties() {
+		RepositoryIndex index = new RepositoryIndex(repository);
+
+		assertNames(index.query(new RepositoryQuery().setAuthorName("mathew nelson")), "sample.Crazy",
+				"sample.MyFirstTeam", "sample.Walls");
+		assertNames(index.query(new RepositoryQuery().setCodeSizeClass(CodeSizeClass.NANO)), "sample.MyFirstDroid");
+		assertNames(index.query(new RepositoryQuery().setCodeSizeClass(CodeSizeClass.MICRO)), "sample.MyFirstDroid",
+				"sample.Walls");
+		assertNames(index.query(new RepositoryQuery().setCodeSizeClass(CodeSizeClass.MINI)), "sample.Crazy",
+				"sample.MyFirstDroid", "sample.Walls");
+		assertNames(index.query(new RepositoryQuery().setRobotType(JUNIOR)), "tested.robots.Walls");
+		assertNames(index.query(new RepositoryQuery().setRobotType(ADVANCED_DROID)), "sample.MyFirstDroid");
+	}
+
+	@Test
+	public void queryByOrigin() {
+		RepositoryIndex index = new RepositoryIndex(repository);
+
+		assertNames(index.query(new RepositoryQuery().setOrigin(Origin.DEVELOPMENT)), "sample.Crazy",
+				"tested.robots.Walls");
+		assertNames(index.query(new RepositoryQuery().setOrigin(Origin.JAR).setRobotsOnly(true)), "sample.MyFirstDroid",
+				"sample.Walls");
+		assertNames(index.query(new RepositoryQuery().setOrigin(Origin.NOT_DEVELOPMENT).setOnlyWithPackage(true)),
+				"sample.MyFirstDroid", "sample.MyFirstTeam", "sample.Walls");
+	}
+
+	@Test
+	public void combinedCriteriaMustAllMatch() {
+		RepositoryIndex index = new RepositoryIndex(repository);
+
+		assertNames(index.query(new RepositoryQuery().setPackage("sample").setAuthorName("Mathew Nelson")
+				.setOrigin(Origin.JAR).setRobotsOnly(true)), "sample.Walls");
+		assertNames(index.query(new RepositoryQuery().setShortName("Walls").setCodeSizeClass(CodeSizeClass.MINI)),
+				"sample.Walls");
+	}
+
+	@Test
+	public void invalidItemsAreOnlyListed() {
+		RepositoryIndex index = new RepositoryIndex(repository);
+
+		assertNames(index.query(new RepositoryQuery().setShortName("Broken")));
+		Assert.assertEquals(7, index.getItems().size());
+	}
+
+	@Test
+	public void indexIsOutdatedWhenRepositoryChanges() {
+		RepositoryIndex index = new RepositoryIndex(repository);
+
+		Assert.assertTrue(index.isUpToDate(repository));
+
+		IRepositoryItem item = add(robot("sample.Fire", ADVANCED, 300));
+
+		Assert.assertFalse(index.isUpToDate(repository));
+
+		index = new RepositoryIndex(repository);
+		repository.itemChanged(item);
+		Assert.assertFalse(index.isUpToDate(repository));
+	}
+
+	@Test
+	public void indexIsOutdatedForOtherRepository() {
+		RepositoryIndex index = new RepositoryIndex(repository);
+		Repository rebuilt = new Repository();
+
+		// the modification counts of a rebuilt repository start over, and can be equal to those of the previous one
+		while (rebuilt.getModificationCount() < repository.getModificationCount()) {
+			rebuilt.itemChanged(null);
+		}
+		Assert.assertEquals(repository.getModificationCount(), rebuilt.getModificationCount());
+		Assert.assertFalse(index.isUpToDate(rebuilt));
+	}
+
+	@Test
+	public void itemsAreFoundByNameWithVersion() {
+		IRepositoryItem item = add(robot("sample.Fire", ADVANCED, 300).set("getUniqueFullClassNameWithVersion",
+				"sample.Fire 1.2"));
+
+		Assert.assertSame(item, repository.getItem("sample.Fire 1.2"));
+		Assert.assertNull(repository.getItem("sample.Fire 1.3"));
+		Assert.assertNull(repository.getItem("sample.Walls 1.2"));
+		// looking up an item does not change the items of the repository
+		Assert.assertFalse(repository.getItems().containsKey("sample.Fire 1.2"));
+	}
+
+	private IRepositoryItem add(ItemValues values) {
+		IRepositoryItem item = values.create();
+
+		repository.addOrUpdateItem(item);
+		return item;
+	}
+
+	private static void assertNames(List<IRobotSpecItem> items, String... expected) {
+		List<String> names = new ArrayList<String>();
+
+		for (IRobotSpecItem item : items) {
+			names.add(item.getFullClassName());
+		}
+		Assert.assertEquals(Arrays.asList(expected), names);
+	}
+
+	private static ItemValues robot(String fullClassName, RobotType robotType, Integer codeSize) {
+		return item(fullClassName, false).set("getRobotType", robotType).set("getCodeSize", codeSize);
+	}
+
+	private static ItemValues item(String fullClassName, boolean isTeam) {
+		int index = fullClassName.lastIndexOf('.');
+
+		return new ItemValues(isTeam).set("getFullClassName", fullClassName)
+				.set("getShortClassName", fullClassName.substring(index + 1))
+				.set("getFullPackage", (index < 0) ? null : fullClassName.substring(0, index))
+				.set("getFriendlyURLs", Collections.singleton(fullClassName)).set("isTeam", isTeam).set("isValid", true);
+	}
+
+	// The values returned by the getters of an item, where other getters return false, 0 or null
+	private static class ItemValues implements InvocationHandler {
+		private final Map<String, Object> values = new HashMap<String, Object>();
+		private final boolean isTeam;
+
+		ItemValues(boolean isTeam) {
+			this.isTeam = isTeam;
+		}
+
+		ItemValues set(String getter, Object value) {
+			values.put(getter, value);
+			return this;
+		}
+
+		IRepositoryItem create() {
+			Class<?> itemInterface = isTeam ? IRobotSpecItem.class : IRobotItem.class;
+
+			return (IRepositoryItem) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { IRepositoryItem.class, itemInterface }, this);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (name.equals("compareTo")) {
+				return ((String) values.get("getFullClassName")).compareTo(((IRobotSpecItem) args[0]).getFullClassName());
+			}
+			if (values.containsKey(name)) {
+				return values.get(name);
+			}
+			Class<?> returnType = method.getReturnType();
+
+			if (returnType == boolean.class) {
+				return false;
+			}
+			if (returnType == long.class) {
+				return 0L;
+			}
+			if (returnType == int.class) {
+				return 0;
+			}
+			return null;
+		}
+	}
+}
@@ -8,12 +8,8 @@
 package net.sf.robocode.roborumble.battlesengine;
 
 
-import net.sf.robocode.io.Logger;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 import robocode.control.*;
-import robocode.control.events.BattleAdaptor;
-import robocode.control.events.BattleCompletedEvent;
-import robocode.control.events.BattleErrorEvent;
 
 import java.io.*;
 import java.util.*;
@@ -22,7 +18,7 @@ import java.util.*;
 /**
  * The BattlesRunner is running battles.
  * Reads a file with the battles to be runned and outputs the results in another file.
- * Controlled by properties files.
+ * Controlled by properties files. The battles are run by the engine of a RumbleSession.
  *
  * @author Albert Prez (original)
  * @author Flemming N. Larsen (contributor)
@@ -36,10 +32,11 @@ public class BattlesRunner {
 	private final String outfile;
 	private final String user;
 	private String game;
-	private static RobotResults[] lastResults;
-	private static IRobocodeEngine engine;
+	private final RumbleSession session;
+
+	public BattlesRunner(String propertiesfile, RumbleSession session) {
+		this.session = session;
 
-	public BattlesRunner(String propertiesfile) {
 		// Read parameters
 		Properties parameters = getProperties(propertiesfile);
 
@@ -55,21 +52,8 @@ public class BattlesRunner {
 			game = game.substring(game.indexOf("/") + 1);
 		}
 		game = game.substring(0, game.indexOf("."));
-
-		initialize();
-	}
-
-	private void initialize() {
-		if (engine == null) {
-			engine = new RobocodeEngine();
-			engine.addBattleListener(new BattleObserver());
-		}
 	}
 
-	public String getVersion() {
-		return (engine != null) ? engine.getVersion() : null;
-	}
-	
 	public void runBattlesImpl(boolean melee) {
 		// Initialize objects
 		BattlefieldSpecification field = new BattlefieldSpecification(fieldlen, fieldhei);
@@ -97,7 +81,7 @@ public class BattlesRunner {
 
 			System.out.println("Fighting battle " + (index) + " ... " + enemies);
 
-			final RobotSpecification[] robotsList = engine.getLocalRepository(enemies);
+			final RobotSpecification[] robotsList = session.loadRobots(enemies);
 
 			if (robotsList.length > 1) {
 				final String team0 = robotsList[0].getTeamId();
@@ -107,14 +91,15 @@ public class BattlesRunner {
 					final BattleSpecification specification = new BattleSpecification(battle.getNumRounds(),
 							battle.getBattlefield(), robotsList);
 
-					lastResults = null;
-					engine.runBattle(specification, true);
-					if (lastResults != null && lastResults.length > 1) {
-						dumpResults(outtxt, lastResults, rumbleBattle, melee);
+					final RobotResults[] results = session.runBattle(specification);
+
+					if (results != null && results.length > 1) {
+						dumpResults(outtxt, results, rumbleBattle, melee);
 					}
 				}
 			} else {
 				System.err.println("Skipping battle because can't load robots: " + enemies);
+				session.battleSkipped();
 			}
 			index++;
 		}
@@ -199,16 +184,4 @@ public class BattlesRunner {
 					"RESULT = " + winnerBotName + " wins " + results[0].getScore() + " to " + results[1].getScore());
 		}
 	}
-
-	class BattleObserver extends BattleAdaptor {
-		@Override
-		public void onBattleError(final BattleErrorEvent event) {
-			Logger.realErr.println(event.getError());
-		}
-
-		@Override
-		public void onBattleCompleted(final BattleCompletedEvent event) {
-			lastResults = RobotResults.convertResults(event.getSortedResults());
-		}
-	}
 }
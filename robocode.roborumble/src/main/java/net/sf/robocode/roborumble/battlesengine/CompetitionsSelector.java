@@ -12,6 +12,10 @@ import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.storeProperties;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import net.sf.robocode.repository.CodeSizeCalculator;
@@ -40,6 +44,42 @@ public class CompetitionsSelector {
 		sizes = getProperties(sizesfile);
 	}
 
+	/**
+	 * Calculates the code sizes missing in the sizes file for the specified bots in parallel, and saves the sizes
+	 * file once afterwards. This way checkCompetitorForSize() does not need to analyze the bots one by one.
+	 *
+	 * @param botNames is the names of the bots, e.g. "sample.Walls 1.0".
+	 */
+	public void updateCodeSizes(Collection<String> botNames) {
+		List<File> missing = new ArrayList<File>();
+
+		for (String botName : botNames) {
+			String name = botName.replace(' ', '_');
+
+			if (Long.parseLong(sizes.getProperty(name, "0")) == 0) {
+				File f = new File(repository + name + ".jar");
+				if (f.exists()) {
+					missing.add(f);
+				}
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
+
+		Map<File, Integer> codeSizes = CodeSizeCalculator.getJarFileCodeSizes(missing);
+
+		for (Map.Entry<File, Integer> entry : codeSizes.entrySet()) {
+			String fileName = entry.getKey().getName();
+			String name = fileName.substring(0, fileName.length() - ".jar".length());
+
+			sizes.setProperty(name, Long.toString(entry.getValue()));
+		}
+		if (codeSizes.size() > 0) {
+			storeProperties(sizes, sizesfile, "Bots code size");
+		}
+	}
+
 	public Boolean checkCompetitorForSize(String botName, long maxSize) {
 		String name = botName.replace(' ', '_');
 
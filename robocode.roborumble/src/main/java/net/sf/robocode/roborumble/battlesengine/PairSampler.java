@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Picks pairs of bots for battles, where bots with few battles and pairs of bots that have rarely battled each other
+ * are more likely to be picked.
+ * <p>
+ * The first bot is sampled with a weight given by the number of battles the bot is missing, using a binary search in
+ * the cumulative weights. The opponent is sampled by rejection, where a random opponent is accepted with a
+ * probability that decreases with the number of battles of the pair, so the opponents are only scanned when no other
+ * bot than the first bot has been picked as opponent within the maximum number of rejects.
+ */
+final class PairSampler {
+
+	// Maximum number of rejected opponents including the first bot itself, after which the least battled opponent seen
+	// is taken
+	private static final int MAX_REJECTS = 16;
+
+	private final RatingStore ratings;
+	private final List<String> bots;
+	private final List<String> opponents;
+	private final Random random;
+	private final double[] cumulativeWeights;
+
+	/**
+	 * Creates a sampler.
+	 *
+	 * @param ratings       the ratings of the competition.
+	 * @param bots          the bots to pick the first bot from.
+	 * @param opponents     the bots to pick the opponent from.
+	 * @param battlesPerBot the number of battles each bot should have.
+	 * @param random        the random number generator.
+	 */
+	PairSampler(RatingStore ratings, List<String> bots, List<String> opponents, int battlesPerBot, Random random) {
+		this.ratings = ratings;
+		this.bots = bots;
+		this.opponents = opponents;
+		this.random = random;
+
+		cumulativeWeights = new double[bots.size()];
+
+		double sum = 0;
+
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			double battles = ratings.getBattles(bots.get(i));
+
+			// bots that are not rated are missing all their battles
+			sum += Math.max(1, battlesPerBot - Math.max(0, battles));
+			cumulativeWeights[i] = sum;
+		}
+	}
+
+	/**
+	 * Returns a pair of different bots, where the first bot is one of the bots and the second bot is an opponent.
+	 *
+	 * @return the pair, or null if there are no bots, or no other opponent than the first bot picked.
+	 */
+	String[] nextPair() {
+		if (bots.isEmpty()) {
+			return null;
+		}
+		String bot = nextBot();
+		String opponent = nextOpponent(bot);
+
+		return opponent != null ? new String[] { bot, opponent } : null;
+	}
+
+	private String nextBot() {
+		double total = cumulativeWeights[cumulativeWeights.length - 1];
+		int i = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * total);
+
+		if (i < 0) {
+			i = -i - 1;
+		} else {
+			i++; // an exact hit on a cumulative weight belongs to the next bot
+		}
+		return bots.get(Math.min(i, bots.size() - 1));
+	}
+
+	private String nextOpponent(String bot) {
+		if (opponents.isEmpty()) {
+			return null;
+		}
+		String best = null;
+		int bestCount = Integer.MAX_VALUE;
+
+		for (int rejects = 0; rejects < MAX_REJECTS; rejects++) {
+			String opponent = opponents.get(random.nextInt(opponents.size()));
+
+			if (opponent.equals(bot)) {
+				continue;
+			}
+			int count = ratings.getPairCount(bot, opponent);
+
+			if (random.nextInt(count + 1) == 0) {
+				return opponent;
+			}
+			if (count < bestCount) {
+				best = opponent;
+				bestCount = count;
+			}
+		}
+		return best != null ? best : nextOtherOpponent(bot);
+	}
+
+	// Scans the opponents from a random one for another bot, as only the bot itself has been picked as opponent
+	private String nextOtherOpponent(String bot) {
+		int start = random.nextInt(opponents.size());
+
+		for (int i = 0; i < opponents.size(); i++) {
+			String opponent = opponents.get((start + i) % opponents.size());
+
+			if (!opponent.equals(bot)) {
+				return opponent;
+			}
+		}
+		return null;
+	}
+}
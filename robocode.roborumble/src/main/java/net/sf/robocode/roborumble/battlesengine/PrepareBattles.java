@@ -34,10 +34,10 @@ public class PrepareBattles {
 	private final int numbattles;
 	private final CompetitionsSelector size;
 	private final String runonly;
-	private final Properties generalratings;
-	private final Properties miniratings;
-	private final Properties microratings;
-	private final Properties nanoratings;
+	private final RatingStore generalratings;
+	private final RatingStore miniratings;
+	private final RatingStore microratings;
+	private final RatingStore nanoratings;
 	private final String priority;
 	private final int prioritynum;
 	private final int meleebots;
@@ -58,10 +58,10 @@ public class PrepareBattles {
 		runonly = parameters.getProperty("RUNONLY", "GENERAL");
 		prioritynum = Integer.parseInt(parameters.getProperty("BATTLESPERBOT", "500"));
 		meleebots = Integer.parseInt(parameters.getProperty("MELEEBOTS", "10"));
-		generalratings = getProperties(parameters.getProperty("RATINGS.GENERAL", ""));
-		miniratings = getProperties(parameters.getProperty("RATINGS.MINIBOTS", ""));
-		microratings = getProperties(parameters.getProperty("RATINGS.MICROBOTS", ""));
-		nanoratings = getProperties(parameters.getProperty("RATINGS.NANOBOTS", ""));
+		generalratings = RatingStore.load(parameters.getProperty("RATINGS.GENERAL", ""));
+		miniratings = RatingStore.load(parameters.getProperty("RATINGS.MINIBOTS", ""));
+		microratings = RatingStore.load(parameters.getProperty("RATINGS.MICROBOTS", ""));
+		nanoratings = RatingStore.load(parameters.getProperty("RATINGS.NANOBOTS", ""));
 		priority = parameters.getProperty("PRIORITYBATTLESFILE", "");
 
 		// Read and prepare exclude filters
@@ -73,43 +73,17 @@ public class PrepareBattles {
 
 		// Read participants
 
-		BufferedReader br = null;
-
-		try {
-			FileReader fr = new FileReader(participantsfile);
-
-			br = new BufferedReader(fr);
-			String participant;
+		List<String> participants = readParticipants();
 
-			while ((participant = br.readLine()) != null) {
-				if (participant.indexOf(",") != -1) {
-					String name = participant.substring(0, participant.indexOf(","));
-
-					if (isExcluded(name)) {
-						continue; // ignore excluded participant
-					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
-
-					if (exists) {
-						if ((runonly.equals("MINI") && size.checkCompetitorForSize(name, 1500))
-								|| (runonly.equals("MICRO") && size.checkCompetitorForSize(name, 750))
-								|| (runonly.equals("NANO") && size.checkCompetitorForSize(name, 250))
-								|| (!runonly.equals("MINI") && !runonly.equals("MICRO") && !runonly.equals("NANO"))) {
-							names.add(name);
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			System.out.println("Participants file not found ... Aborting");
-			System.out.println(e);
+		if (participants == null) {
 			return false;
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException ignored) {}
+		}
+		for (String name : participants) {
+			if ((runonly.equals("MINI") && size.checkCompetitorForSize(name, 1500))
+					|| (runonly.equals("MICRO") && size.checkCompetitorForSize(name, 750))
+					|| (runonly.equals("NANO") && size.checkCompetitorForSize(name, 250))
+					|| (!runonly.equals("MINI") && !runonly.equals("MICRO") && !runonly.equals("NANO"))) {
+				names.add(name);
 			}
 		}
 
@@ -148,68 +122,42 @@ public class PrepareBattles {
 
 		// Read participants
 
-		BufferedReader br = null;
-
-		try {
-			FileReader fr = new FileReader(participantsfile);
-
-			br = new BufferedReader(fr);
-			String participant;
-
-			while ((participant = br.readLine()) != null) {
-				if (participant.indexOf(",") != -1) {
-					String name = participant.substring(0, participant.indexOf(","));
-
-					if (isExcluded(name)) {
-						continue; // ignore excluded participant
-					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
+		List<String> participants = readParticipants();
 
-					if (exists) {
-						namesAll.add(name);
-						if (size.checkCompetitorForSize(name, 1500)) {
-							namesMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750)) {
-							namesMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250)) {
-							namesNano.add(name);
-						}
-						if (robotHasPriority(name, generalratings)) {
-							priorityAll.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
-							priorityMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
-							priorityMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
-							priorityNano.add(name);
-						}
-						if (!isRobotInRatings(name)) {
-							namesNoRanking.add(name);
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			System.out.println("Participants file not found ... Aborting");
-			System.out.println(e);
+		if (participants == null) {
 			return false;
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException ignored) {}
+		}
+		for (String name : participants) {
+			namesAll.add(name);
+			if (size.checkCompetitorForSize(name, 1500)) {
+				namesMini.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 750)) {
+				namesMicro.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 250)) {
+				namesNano.add(name);
+			}
+			if (robotHasPriority(name, generalratings)) {
+				priorityAll.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
+				priorityMini.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
+				priorityMicro.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
+				priorityNano.add(name);
+			}
+			if (!isRobotInRatings(name)) {
+				namesNoRanking.add(name);
 			}
 		}
 
 		// Read priority battles
 
-		br = null;
+		BufferedReader br = null;
 
 		try {
 			FileReader fr = new FileReader(priority);
@@ -268,8 +216,15 @@ public class PrepareBattles {
 
 			count++;
 		}
-		// Add bots with less than 500 battles, or a random battle if all bots have enough battles
+		// Add bots with less than 500 battles, or a random battle if all bots have enough battles.
+		// Bots missing the most battles, and pairs of bots that have battled the least, are picked most often.
 		if (namesAll.size() > 1) {
+			PairSampler samplerAll = null;
+			PairSampler samplerMini = null;
+			PairSampler samplerMicro = null;
+			PairSampler samplerNano = null;
+			PairSampler samplerRandom = null;
+
 			while (count < numbattles) {
 				String[] bots;
 				if (namesNoRanking.size() > 0) {
@@ -277,18 +232,33 @@ public class PrepareBattles {
 					List<String> listWithSingleItem = new ArrayList<String>();
 					String bot = namesNoRanking.get(0);
 					listWithSingleItem.add(bot);
-					bots = getRandomBots(listWithSingleItem, namesAll);
+					bots = new PairSampler(generalratings, listWithSingleItem, namesAll, prioritynum, RANDOM).nextPair();
 					namesNoRanking.remove(0);
 				} else if (priorityAll.size() > 0) {
-					bots = getRandomBots(priorityAll, namesAll);
+					if (samplerAll == null) {
+						samplerAll = new PairSampler(generalratings, priorityAll, namesAll, prioritynum, RANDOM);
+					}
+					bots = samplerAll.nextPair();
 				} else if (priorityMini.size() > 0 && namesMini.size() > 1) {
-					bots = getRandomBots(priorityMini, namesMini);
+					if (samplerMini == null) {
+						samplerMini = new PairSampler(miniratings, priorityMini, namesMini, prioritynum, RANDOM);
+					}
+					bots = samplerMini.nextPair();
 				} else if (priorityMicro.size() > 0 && namesMicro.size() > 1) {
-					bots = getRandomBots(priorityMicro, namesMicro);
+					if (samplerMicro == null) {
+						samplerMicro = new PairSampler(microratings, priorityMicro, namesMicro, prioritynum, RANDOM);
+					}
+					bots = samplerMicro.nextPair();
 				} else if (priorityNano.size() > 0 && namesNano.size() > 1) {
-					bots = getRandomBots(priorityNano, namesNano);
+					if (samplerNano == null) {
+						samplerNano = new PairSampler(nanoratings, priorityNano, namesNano, prioritynum, RANDOM);
+					}
+					bots = samplerNano.nextPair();
 				} else {
-					bots = getRandomBots(namesAll, namesAll);
+					if (samplerRandom == null) {
+						samplerRandom = new PairSampler(generalratings, namesAll, namesAll, prioritynum, RANDOM);
+					}
+					bots = samplerRandom.nextPair();
 				}
 				if (bots != null) {
 					battlesfile.writeBattle(new RumbleBattle(new String[]{bots[0], bots[1]}, runonly));
@@ -301,34 +271,63 @@ public class PrepareBattles {
 		return true;
 	}
 
-	private String[] getRandomBots(List<String> list1, List<String> list2) {
-		int bot1 = RANDOM.nextInt(list1.size());
-		int bot2 = RANDOM.nextInt(list2.size());
+	/**
+	 * Reads the participants that are not excluded and exist in the bots repository, and calculates their missing
+	 * code sizes in one go so the competitions can be checked without analyzing the bots.
+	 *
+	 * @return the names of the participants, or null if the participants file could not be read.
+	 */
+	private List<String> readParticipants() {
+		List<String> names = new ArrayList<String>();
+
+		BufferedReader br = null;
+
+		try {
+			FileReader fr = new FileReader(participantsfile);
+
+			br = new BufferedReader(fr);
+			String participant;
 
-		while ((list1.get(bot1)).equals(list2.get(bot2))) {
-			bot1 = RANDOM.nextInt(list1.size());
-			bot2 = RANDOM.nextInt(list2.size());
+			while ((participant = br.readLine()) != null) {
+				if (participant.indexOf(",") != -1) {
+					String name = participant.substring(0, participant.indexOf(","));
+
+					if (isExcluded(name)) {
+						continue; // ignore excluded participant
+					}
+					String jar = name.replace(' ', '_') + ".jar";
+					boolean exists = (new File(botsrepository + jar)).exists();
+
+					if (exists) {
+						names.add(name);
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("Participants file not found ... Aborting");
+			System.out.println(e);
+			return null;
+		} finally {
+			if (br != null) {
+				try {
+					br.close();
+				} catch (IOException ignored) {}
+			}
 		}
-		String[] bots = new String[2];
+		size.updateCodeSizes(names);
 
-		bots[0] = list1.get(bot1);
-		bots[1] = list2.get(bot2);
-		return bots;
+		return names;
 	}
 
-	private boolean robotHasPriority(String name, Properties ratings) {
+	private boolean robotHasPriority(String name, RatingStore ratings) {
 		if (name == null || ratings == null) {
 			return false;
 		}
-		String bot = name.replaceAll(" ", "_");
-		String values = ratings.getProperty(bot);
+		double battles = ratings.getBattles(name);
 
-		if (values == null) {
-			return false; // must be false (Bug 3474173)
+		if (battles < 0) {
+			return false; // must be false when not rated (Bug 3474173)
 		}
-		String[] value = values.split(",");
-		double battles = Double.parseDouble(value[1]);
-
 		return (battles < prioritynum);
 	}
 
@@ -336,12 +335,10 @@ public class PrepareBattles {
 		if (name == null || name.trim().length() == 0) {
 			return false;
 		}
-		String bot = name.replaceAll(" ", "_");
+		RatingStore[] ratingLists = new RatingStore[] { generalratings, miniratings, microratings, nanoratings };
 		
-		Properties[] ratingLists = new Properties[] { generalratings, miniratings, microratings, nanoratings };
-		
-		for (Properties ratings : ratingLists) {
-			if (ratings.getProperty(bot) != null) {
+		for (RatingStore ratings : ratingLists) {
+			if (ratings.contains(name)) {
 				return true;
 			}
 		}
@@ -363,68 +360,42 @@ public class PrepareBattles {
 
 		// Read participants
 
-		BufferedReader br = null;
-
-		try {
-			FileReader fr = new FileReader(participantsfile);
-
-			br = new BufferedReader(fr);
-			String participant;
-
-			while ((participant = br.readLine()) != null) {
-				if (participant.indexOf(",") != -1) {
-					String name = participant.substring(0, participant.indexOf(","));
+		List<String> participants = readParticipants();
 
-					if (isExcluded(name)) {
-						continue; // ignore excluded participant
-					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
-
-					if (exists) {
-						namesAll.add(name);
-						if (size.checkCompetitorForSize(name, 1500)) {
-							namesMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750)) {
-							namesMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250)) {
-							namesNano.add(name);
-						}
-						if (robotHasPriority(name, generalratings)) {
-							priorityAll.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
-							priorityMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
-							priorityMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
-							priorityNano.add(name);
-						}
-						if (!isRobotInRatings(name)) {
-							namesNoRanking.add(name);
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			System.out.println("Participants file not found ... Aborting");
-			System.out.println(e);
+		if (participants == null) {
 			return false;
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException ignored) {}
+		}
+		for (String name : participants) {
+			namesAll.add(name);
+			if (size.checkCompetitorForSize(name, 1500)) {
+				namesMini.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 750)) {
+				namesMicro.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 250)) {
+				namesNano.add(name);
+			}
+			if (robotHasPriority(name, generalratings)) {
+				priorityAll.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
+				priorityMini.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
+				priorityMicro.add(name);
+			}
+			if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
+				priorityNano.add(name);
+			}
+			if (!isRobotInRatings(name)) {
+				namesNoRanking.add(name);
 			}
 		}
 
 		// Read priority battles
 
-		br = null;
+		BufferedReader br = null;
 
 		try {
 			FileReader fr = new FileReader(priority);
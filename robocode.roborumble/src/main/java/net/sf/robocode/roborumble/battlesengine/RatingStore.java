@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * Ratings of the bots in a competition, indexed by bot name, together with the number of battles fought between each
+ * pair of bots and when the bots and pairs were last battled.
+ * <p>
+ * The ratings file downloaded from the server is only parsed when it has changed since it was last read. The store
+ * itself is kept in a compact binary file next to the ratings file, which is updated in place by the clients of the
+ * store and rewritten atomically by save().
+ * <p>
+ * Bot names are given as in the ratings file, e.g. "sample.Walls_1.0", where names with a space instead of an
+ * underscore are accepted too, e.g. "sample.Walls 1.0".
+ */
+public final class RatingStore {
+
+	private static final int MAGIC = 0x52524453; // "RRDS"
+	private static final int VERSION = 1;
+
+	private final String ratingsfile;
+	private final File storefile;
+
+	private final List<Bot> bots = new ArrayList<Bot>();
+	private final Map<String, Bot> botsByName = new HashMap<String, Bot>();
+	private final Map<Long, Pair> pairs = new HashMap<Long, Pair>();
+
+	// size and time stamp of the ratings file when it was last read
+	private long sourceLength;
+	private long sourceModified;
+
+	// serial number of the last battle recorded, used for the last battled indexes
+	private long battleSerial;
+
+	private RatingStore(String ratingsfile) {
+		this.ratingsfile = ratingsfile;
+		this.storefile = hasFile(ratingsfile) ? new File(ratingsfile + ".dat") : null;
+	}
+
+	/**
+	 * Loads the store of a ratings file. The binary store is read first, and the ratings file is merged into it if the
+	 * ratings file has changed since it was last read, in which case the store is saved right away.
+	 *
+	 * @param ratingsfile the filename of the ratings file, which can be empty if the competition is not used.
+	 * @return the store, which is empty if the competition is not used or nothing could be read.
+	 */
+	public static RatingStore load(String ratingsfile) {
+		RatingStore store = new RatingStore(ratingsfile);
+
+		if (store.storefile == null) {
+			return store;
+		}
+		if (store.storefile.exists()) {
+			try {
+				store.read();
+			} catch (IOException e) {
+				System.out.println("Could not read ratings store: " + store.storefile);
+				store.clear();
+			}
+		}
+
+		File source = new File(ratingsfile);
+
+		if (source.length() != store.sourceLength || source.lastModified() != store.sourceModified) {
+			store.merge(source);
+			store.save();
+		}
+		return store;
+	}
+
+	/**
+	 * Saves the store by writing a temporary file, which replaces the previous store when it has been written.
+	 *
+	 * @return true if the store was saved; false otherwise.
+	 */
+	public boolean save() {
+		if (storefile == null) {
+			return false;
+		}
+		File tempfile = new File(storefile.getPath() + ".tmp");
+		DataOutputStream out = null;
+
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempfile)));
+			write(out);
+			out.close();
+			out = null;
+		} catch (IOException e) {
+			System.out.println("Could not write ratings store: " + tempfile);
+			return false;
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException ignored) {}
+			}
+		}
+		// Renaming onto an existing file fails on some platforms, where the previous store must be deleted first
+		if (!tempfile.renameTo(storefile) && !(storefile.delete() && tempfile.renameTo(storefile))) {
+			System.out.println("Could not replace ratings store: " + storefile);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the names of the rated bots.
+	 */
+	public List<String> getBotNames() {
+		List<String> names = new ArrayList<String>();
+
+		for (Bot bot : bots) {
+			if (bot.rated) {
+				names.add(bot.name);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Checks if a bot is in the ratings file.
+	 */
+	public boolean contains(String name) {
+		return getRated(name) != null;
+	}
+
+	/**
+	 * Returns the number of battles of a bot, or -1 if the bot is not in the ratings file.
+	 */
+	public double getBattles(String name) {
+		Bot bot = getRated(name);
+
+		return bot != null ? bot.battles : -1;
+	}
+
+	/**
+	 * Sets the number of battles of a bot, if the bot is in the ratings file.
+	 */
+	public void setBattles(String name, double battles) {
+		Bot bot = getRated(name);
+
+		if (bot != null) {
+			bot.battles = battles;
+		}
+	}
+
+	/**
+	 * Returns the number of battles fought between two bots.
+	 */
+	public int getPairCount(String name1, String name2) {
+		Pair pair = getPair(name1, name2);
+
+		return pair != null ? pair.count : 0;
+	}
+
+	/**
+	 * Returns the serial number of the last battle fought between two bots, or 0 if they have not battled.
+	 */
+	public long getPairLastBattled(String name1, String name2) {
+		Pair pair = getPair(name1, name2);
+
+		return pair != null ? pair.lastBattled : 0;
+	}
+
+	/**
+	 * Returns the serial number of the last battle fought by a bot, or 0 if it has not battled.
+	 */
+	public long getLastBattled(String name) {
+		Bot bot = botsByName.get(key(name));
+
+		return bot != null ? bot.lastBattled : 0;
+	}
+
+	/**
+	 * Records a battle fought between two bots, which updates the pair count and the last battled indexes.
+	 */
+	public void recordBattle(String name1, String name2) {
+		Bot bot1 = getOrAdd(name1);
+		Bot bot2 = getOrAdd(name2);
+
+		if (bot1 == bot2) {
+			return;
+		}
+		long pairKey = pairKey(bot1, bot2);
+		Pair pair = pairs.get(pairKey);
+
+		if (pair == null) {
+			pair = new Pair();
+			pairs.put(pairKey, pair);
+		}
+		battleSerial++;
+		pair.count++;
+		pair.lastBattled = battleSerial;
+		bot1.lastBattled = battleSerial;
+		bot2.lastBattled = battleSerial;
+	}
+
+	private Bot getRated(String name) {
+		Bot bot = botsByName.get(key(name));
+
+		return bot != null && bot.rated ? bot : null;
+	}
+
+	private Pair getPair(String name1, String name2) {
+		Bot bot1 = botsByName.get(key(name1));
+		Bot bot2 = botsByName.get(key(name2));
+
+		return bot1 != null && bot2 != null ? pairs.get(pairKey(bot1, bot2)) : null;
+	}
+
+	private Bot getOrAdd(String name) {
+		String key = key(name);
+		Bot bot = botsByName.get(key);
+
+		if (bot == null) {
+			bot = new Bot(bots.size(), key);
+			bots.add(bot);
+			botsByName.put(key, bot);
+		}
+		return bot;
+	}
+
+	private static long pairKey(Bot bot1, Bot bot2) {
+		int low = Math.min(bot1.index, bot2.index);
+		int high = Math.max(bot1.index, bot2.index);
+
+		return ((long) low << 32) | high;
+	}
+
+	private static String key(String name) {
+		return name.replace(' ', '_');
+	}
+
+	private static boolean hasFile(String filename) {
+		return filename != null && filename.trim().length() > 0;
+	}
+
+	private void clear() {
+		bots.clear();
+		botsByName.clear();
+		pairs.clear();
+		sourceLength = 0;
+		sourceModified = 0;
+		battleSerial = 0;
+	}
+
+	// Bots that are no longer in the ratings file are kept unrated, so their pair counts are not lost
+	private void merge(File source) {
+		for (Bot bot : bots) {
+			bot.rated = false;
+		}
+		if (source.exists()) {
+			Properties ratings = getProperties(ratingsfile);
+
+			for (Enumeration<?> e = ratings.propertyNames(); e.hasMoreElements();) {
+				String name = (String) e.nextElement();
+				String[] values = ratings.getProperty(name).split(",", 3);
+
+				try {
+					double rating = Double.parseDouble(values[0]);
+					double battles = Double.parseDouble(values[1]);
+					Bot bot = getOrAdd(name);
+
+					bot.rated = true;
+					bot.rating = rating;
+					bot.battles = battles;
+					bot.rest = values.length > 2 ? values[2] : "";
+				} catch (RuntimeException ex) {
+					System.out.println("Ignoring rating: " + name);
+				}
+			}
+		}
+		sourceLength = source.length();
+		sourceModified = source.lastModified();
+	}
+
+	private void read() throws IOException {
+		DataInputStream in = null;
+
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(storefile)));
+
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unsupported ratings store: " + storefile);
+			}
+			sourceLength = in.readLong();
+			sourceModified = in.readLong();
+			battleSerial = in.readLong();
+
+			int botCount = in.readInt();
+
+			for (int i = 0; i < botCount; i++) {
+				Bot bot = getOrAdd(in.readUTF());
+
+				bot.rated = in.readBoolean();
+				bot.rating = in.readDouble();
+				bot.battles = in.readDouble();
+				bot.rest = in.readUTF();
+				bot.lastBattled = in.readLong();
+			}
+
+			int pairCount = in.readInt();
+
+			for (int i = 0; i < pairCount; i++) {
+				Bot bot1 = bots.get(in.readInt());
+				Bot bot2 = bots.get(in.readInt());
+				Pair pair = new Pair();
+
+				pair.count = in.readInt();
+				pair.lastBattled = in.readLong();
+				pairs.put(pairKey(bot1, bot2), pair);
+			}
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("Corrupt ratings store: " + storefile);
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException ignored) {}
+			}
+		}
+	}
+
+	private void write(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(sourceLength);
+		out.writeLong(sourceModified);
+		out.writeLong(battleSerial);
+
+		out.writeInt(bots.size());
+		for (Bot bot : bots) {
+			out.writeUTF(bot.name);
+			out.writeBoolean(bot.rated);
+			out.writeDouble(bot.rating);
+			out.writeDouble(bot.battles);
+			out.writeUTF(bot.rest);
+			out.writeLong(bot.lastBattled);
+		}
+
+		out.writeInt(pairs.size());
+		for (Map.Entry<Long, Pair> entry : pairs.entrySet()) {
+			long pairKey = entry.getKey();
+			Pair pair = entry.getValue();
+
+			out.writeInt((int) (pairKey >>> 32));
+			out.writeInt((int) pairKey);
+			out.writeInt(pair.count);
+			out.writeLong(pair.lastBattled);
+		}
+	}
+
+	private static final class Bot {
+		final int index;
+		final String name;
+		boolean rated;
+		double rating;
+		double battles;
+		String rest = "";
+		long lastBattled;
+
+		Bot(int index, String name) {
+			this.index = index;
+			this.name = name;
+		}
+	}
+
+	private static final class Pair {
+		int count;
+		long lastBattled;
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import net.sf.robocode.core.ContainerBase;
+import net.sf.robocode.io.Logger;
+import net.sf.robocode.repository.IRepositoryManagerBase;
+import robocode.control.*;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.BattleErrorEvent;
+
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * A RoboRumble session, which keeps one engine and its robot repository for all the iterations of the client.
+ * <p>
+ * The repository is read when the first robots are loaded, and is only read again when bots have been added to it,
+ * e.g. when missing bots have been downloaded. The whole repository is refreshed then, which only reads the jar files
+ * that are new or have changed since, so the session is not told which bots were added. The session keeps a few health
+ * figures, which are printed after each iteration, so a client running for days can be watched for growing memory and
+ * threads.
+ */
+public class RumbleSession {
+
+	private final IRobocodeEngine engine;
+	private final IRepositoryManagerBase repository;
+
+	private boolean isRepositoryChanged = true;
+	private volatile RobotResults[] lastResults;
+
+	private int iterations;
+	private long iterationStartTime;
+	private long lastIterationMillis;
+	private int battlesRun;
+	private int battlesSkipped;
+	private int repositoryRefreshes;
+
+	public RumbleSession() {
+		engine = new RobocodeEngine();
+		engine.addBattleListener(new BattleObserver());
+		repository = ContainerBase.getComponent(IRepositoryManagerBase.class);
+	}
+
+	public String getVersion() {
+		return engine.getVersion();
+	}
+
+	/**
+	 * Starts an iteration of the client.
+	 */
+	public void startIteration() {
+		iterationStartTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Ends an iteration of the client, and prints the health of the session.
+	 */
+	public void endIteration() {
+		iterations++;
+		lastIterationMillis = System.currentTimeMillis() - iterationStartTime;
+
+		System.out.println(
+				"Session health: " + iterations + " iterations, last took " + (lastIterationMillis / 1000) + " s, "
+				+ battlesRun + " battles run, " + battlesSkipped + " skipped, " + repositoryRefreshes
+				+ " repository refreshes, " + (getUsedMemory() / (1024 * 1024)) + " MB used, " + getThreadCount()
+				+ " threads");
+	}
+
+	/**
+	 * Notifies the session that bots have been added to the robots directory, which are read before the next robots
+	 * are loaded.
+	 */
+	public void botsAdded() {
+		isRepositoryChanged = true;
+	}
+
+	/**
+	 * Loads robots from the repository, which is only read if bots have been added to it.
+	 *
+	 * @param selectedRobots the comma separated list of robots to load.
+	 * @return the loaded robots.
+	 */
+	public RobotSpecification[] loadRobots(String selectedRobots) {
+		if (isRepositoryChanged) {
+			repository.refresh();
+			repositoryRefreshes++;
+			isRepositoryChanged = false;
+		}
+		return repository.loadSelectedRobots(selectedRobots);
+	}
+
+	/**
+	 * Runs a battle and waits till it is over.
+	 *
+	 * @param specification the battle to run.
+	 * @return the results of the battle, or null if the battle did not complete.
+	 */
+	public RobotResults[] runBattle(BattleSpecification specification) {
+		lastResults = null;
+		engine.runBattle(specification, true);
+
+		RobotResults[] results = lastResults;
+
+		lastResults = null;
+		if (results != null) {
+			battlesRun++;
+		}
+		return results;
+	}
+
+	/**
+	 * Counts a battle that was skipped, as its robots could not be loaded.
+	 */
+	public void battleSkipped() {
+		battlesSkipped++;
+	}
+
+	/**
+	 * Closes the engine of the session.
+	 */
+	public void close() {
+		engine.close();
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public long getLastIterationMillis() {
+		return lastIterationMillis;
+	}
+
+	public int getBattlesRun() {
+		return battlesRun;
+	}
+
+	public int getBattlesSkipped() {
+		return battlesSkipped;
+	}
+
+	public int getRepositoryRefreshes() {
+		return repositoryRefreshes;
+	}
+
+	public long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	public int getThreadCount() {
+		return ManagementFactory.getThreadMXBean().getThreadCount();
+	}
+
+	private class BattleObserver extends BattleAdaptor {
+		@Override
+		public void onBattleError(final BattleErrorEvent event) {
+			Logger.realErr.println(event.getError());
+		}
+
+		@Override
+		public void onBattleCompleted(final BattleCompletedEvent event) {
+			lastResults = RobotResults.convertResults(event.getSortedResults());
+		}
+	}
+}
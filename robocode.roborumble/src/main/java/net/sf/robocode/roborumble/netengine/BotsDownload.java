@@ -11,6 +11,7 @@ package net.sf.robocode.roborumble.netengine;
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.repository.CodeSizeCalculator;
 import net.sf.robocode.roborumble.battlesengine.CompetitionsSelector;
+import net.sf.robocode.roborumble.battlesengine.RatingStore;
 import static net.sf.robocode.roborumble.netengine.FileTransfer.DownloadStatus;
 import static net.sf.robocode.roborumble.util.ExcludesUtil.*;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
@@ -20,8 +21,9 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
-import java.util.Enumeration;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
@@ -236,7 +238,13 @@ public class BotsDownload {
 		return true; // Success
 	}
 
-	public void downloadMissingBots() {
+	/**
+	 * Downloads the participants that are missing in the bots repository.
+	 *
+	 * @return true if any bot was downloaded into the bots repository; false otherwise.
+	 */
+	public boolean downloadMissingBots() {
+		boolean isDownloaded = false;
 		Vector<String> jars = new Vector<String>();
 		Vector<String> ids = new Vector<String>();
 		Vector<String> names = new Vector<String>();
@@ -263,7 +271,7 @@ public class BotsDownload {
 		} catch (IOException e) {
 			System.out.println("Participants file not found ... Aborting");
 			System.out.println(e);
-			return;
+			return false;
 		} finally {
 			if (br != null) {
 				try {
@@ -282,11 +290,14 @@ public class BotsDownload {
 
 			if (!exists) {
 				boolean downloaded = downloadBot(botname, botjar, botid, botsrepository, tempdir);
-				if (!downloaded) {
+				if (downloaded) {
+					isDownloaded = true;
+				} else {
 					System.out.println("Could not download " + botjar);
 				}
 			}
 		}
+		return isDownloaded;
 	}
 
 	public void updateCodeSize() {
@@ -296,10 +307,12 @@ public class BotsDownload {
 				FileReader fr = new FileReader(participantsfile);
 				br = new BufferedReader(fr);
 
+				List<String> names = new ArrayList<String>();
+
 				for (String record; (record = br.readLine()) != null;) {
-					String name = record.substring(0, record.indexOf(","));
-					size.checkCompetitorForSize(name, 1500);
+					names.add(record.substring(0, record.indexOf(",")));
 				}
+				size.updateCodeSizes(names);
 			} catch (IOException e) {
 				System.out.println("Battles input file not found ... Aborting");
 				System.out.println(e);
@@ -516,15 +529,13 @@ public class BotsDownload {
 		}
 
 		// Load ratings files
-		Properties generalRatings = getProperties(generalbotsfile);
-		Properties miniRatings = getProperties(minibotsfile);
-		Properties microRatings = getProperties(microbotsfile);
-		Properties nanoRatings = getProperties(nanobotsfile);
+		RatingStore generalRatings = RatingStore.load(generalbotsfile);
+		RatingStore miniRatings = RatingStore.load(minibotsfile);
+		RatingStore microRatings = RatingStore.load(microbotsfile);
+		RatingStore nanoRatings = RatingStore.load(nanobotsfile);
 
 		// Check general ratings
-		for (Enumeration<?> e = generalRatings.propertyNames(); e.hasMoreElements();) {
-			String bot = (String) e.nextElement();
-
+		for (String bot : generalRatings.getBotNames()) {
 			if (!(isExcluded(bot) || notFound.contains(bot) || namesAll.contains(bot))) {
 				// Remove the bot from the ratings file
 				System.out.println("Removing entry ... " + bot + " from " + generalBots);
@@ -532,9 +543,7 @@ public class BotsDownload {
 			}
 		}
 		// Check mini ratings
-		for (Enumeration<?> e = miniRatings.propertyNames(); e.hasMoreElements();) {
-			String bot = (String) e.nextElement();
-
+		for (String bot : miniRatings.getBotNames()) {
 			if (!(isExcluded(bot) || notFound.contains(bot) || namesMini.contains(bot))) {
 				// Remove the bot from the ratings file
 				System.out.println("Removing entry ... " + bot + " from " + miniBots);
@@ -543,9 +552,7 @@ public class BotsDownload {
 		}
 
 		// Check micro ratings
-		for (Enumeration<?> e = microRatings.propertyNames(); e.hasMoreElements();) {
-			String bot = (String) e.nextElement();
-
+		for (String bot : microRatings.getBotNames()) {
 			if (!(isExcluded(bot) || notFound.contains(bot) || namesMicro.contains(bot))) {
 				// Remove the bot from the ratings file
 				System.out.println("Removing entry ... " + bot + " from " + microBots);
@@ -554,9 +561,7 @@ public class BotsDownload {
 		}
 
 		// Check nano ratings
-		for (Enumeration<?> e = nanoRatings.propertyNames(); e.hasMoreElements();) {
-			String bot = (String) e.nextElement();
-
+		for (String bot : nanoRatings.getBotNames()) {
 			if (!(isExcluded(bot) || notFound.contains(bot) || namesNano.contains(bot))) {
 				// Remove the bot from the ratings file
 				System.out.println("Removing entry ... " + bot + " from " + nanoBots);
@@ -8,8 +8,8 @@
 package net.sf.robocode.roborumble.netengine;
 
 
+import net.sf.robocode.roborumble.battlesengine.RatingStore;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
-import static net.sf.robocode.roborumble.util.PropertiesUtil.storeProperties;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -84,47 +84,45 @@ public class UpdateRatingFiles {
 			}
 		}
 
-		// read the ratings files
-		Properties all = getProperties(generalratings);
-		Properties mini = getProperties(miniratings);
-		Properties micro = getProperties(microratings);
-		Properties nano = getProperties(nanoratings);
+		// read the ratings stores
+		RatingStore all = RatingStore.load(generalratings);
+		RatingStore mini = RatingStore.load(miniratings);
+		RatingStore micro = RatingStore.load(microratings);
+		RatingStore nano = RatingStore.load(nanoratings);
+
+		// update #battles, where the records of the two bots of a battle follow each other
+		String[] previousSpec = null;
 
-		// update #battles
 		for (String battle : battles) {
 			String[] battleSpec = battle.split(",");
-
-			battleSpec[1] = battleSpec[1].replaceAll(" ", "_");
 			double num = Double.parseDouble(battleSpec[2]);
 
+			RatingStore ratings = null;
+
 			if (battleSpec[0].equals(game)) {
-				updateRecord(battleSpec[1], num, all);
-			} else if (battleSpec[0].equals(minibots) && mini != null) {
-				updateRecord(battleSpec[1], num, mini);
-			} else if (battleSpec[0].equals(microbots) && micro != null) {
-				updateRecord(battleSpec[1], num, micro);
-			} else if (battleSpec[0].equals(nanobots) && nano != null) {
-				updateRecord(battleSpec[1], num, nano);
+				ratings = all;
+			} else if (battleSpec[0].equals(minibots)) {
+				ratings = mini;
+			} else if (battleSpec[0].equals(microbots)) {
+				ratings = micro;
+			} else if (battleSpec[0].equals(nanobots)) {
+				ratings = nano;
 			}
-		}
-
-		// save ratings files
-		return storeProperties(all, generalratings, "General ratings updated with new battles number")
-				&& storeProperties(all, miniratings, "Mini ratings updated with new battles number")
-				&& storeProperties(all, microratings, "Micro ratings updated with new battles number")
-				&& storeProperties(all, nanoratings, "Nano ratings updated with new battles number");
-	}
-
-	private void updateRecord(String bot, double battles, Properties ratings) {
-		String values = ratings.getProperty(bot);
+			if (ratings == null) {
+				previousSpec = null;
+				continue;
+			}
+			ratings.setBattles(battleSpec[1], num);
 
-		if (values == null) {
-			return;
+			if (previousSpec != null && previousSpec[0].equals(battleSpec[0])) {
+				ratings.recordBattle(previousSpec[1], battleSpec[1]);
+				previousSpec = null;
+			} else {
+				previousSpec = battleSpec;
+			}
 		}
 
-		String[] value = values.split(",");
-
-		values = value[0] + "," + Double.toString(battles) + "," + value[2];
-		ratings.setProperty(bot, values);
+		// save ratings stores
+		return all.save() && mini.save() && micro.save() && nano.save();
 	}
 }
@@ -10,6 +10,7 @@ package roborumble;
 
 import net.sf.robocode.roborumble.battlesengine.BattlesRunner;
 import net.sf.robocode.roborumble.battlesengine.PrepareBattles;
+import net.sf.robocode.roborumble.battlesengine.RumbleSession;
 import net.sf.robocode.roborumble.netengine.BotsDownload;
 import net.sf.robocode.roborumble.netengine.ResultsUpload;
 import net.sf.robocode.roborumble.netengine.UpdateRatingFiles;
@@ -53,14 +54,12 @@ public class RoboRumbleAtHome {
 		long lastdownload = 0;
 		boolean ratingsdownloaded = false;
 		boolean participantsdownloaded;
-		String version = null;
+		// The engine and its robot repository are kept for all iterations
+		final RumbleSession session = new RumbleSession();
+		final String version = session.getVersion();
 
 		do {
-			final BattlesRunner engine = new BattlesRunner(parameters);
-
-			if (version == null) {
-				version = engine.getVersion();
-			}
+			session.startIteration();
 
 			System.out.println("Iteration number " + iterations);
 
@@ -77,7 +76,9 @@ public class RoboRumbleAtHome {
 					System.out.println("Downloading participants list ...");
 					participantsdownloaded = download.downloadParticipantsList();
 					System.out.println("Downloading missing bots ...");
-					download.downloadMissingBots();
+					if (download.downloadMissingBots()) {
+						session.botsAdded();
+					}
 					download.updateCodeSize();
 					// Send the order to the server to remove old participants from the ratings file
 					if (ratingsdownloaded && participantsdownloaded) {
@@ -124,7 +125,7 @@ public class RoboRumbleAtHome {
 						System.out.println("Executing battles ...");
 					}
 
-					engine.runBattlesImpl(isMelee);
+					new BattlesRunner(parameters, session).runBattlesImpl(isMelee);
 				}
 			}
 
@@ -143,9 +144,12 @@ public class RoboRumbleAtHome {
 				ratingsdownloaded = updater.updateRatings();
 			}
 
+			session.endIteration();
 			iterations++;
 		} while (iterates.equals("YES"));
 
+		session.close();
+
 		// With Java 5 this causes a IllegalThreadStateException, but not in Java 6
 		// System.exit(0);
 	}
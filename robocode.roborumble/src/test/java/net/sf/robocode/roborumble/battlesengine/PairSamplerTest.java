@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+
+public class PairSamplerTest {
+
+	private RatingStore ratings;
+
+	@Before
+	public void setup() {
+		// the store of an unused competition, which keeps the battles recorded in memory
+		ratings = RatingStore.load("");
+	}
+
+	@Test
+	public void noPairWithoutOtherOpponent() {
+		List<String> bots = Arrays.asList("a");
+
+		Assert.assertNull(new PairSampler(ratings, bots, bots, 100, new Random(1)).nextPair());
+		Assert.assertNull(new PairSampler(ratings, bots, Collections.<String>emptyList(), 100, new Random(1)).nextPair());
+		Assert.assertNull(new PairSampler(ratings, Collections.<String>emptyList(), bots, 100, new Random(1)).nextPair());
+	}
+
+	@Test
+	public void pairsAreDifferentBots() {
+		List<String> bots = Arrays.asList("a", "b");
+		PairSampler sampler = new PairSampler(ratings, bots, bots, 100, new Random(1));
+
+		// with two bots, the bot itself is picked as opponent more often than the maximum number of rejects at times
+		for (int i = 0; i < 100000; i++) {
+			String[] pair = sampler.nextPair();
+
+			Assert.assertNotNull(pair);
+			Assert.assertFalse(pair[0].equals(pair[1]));
+		}
+	}
+
+	@Test
+	public void otherOpponentIsFoundAmongTheBotItself() {
+		List<String> opponents = Arrays.asList("a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a",
+				"a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "a", "b");
+		PairSampler sampler = new PairSampler(ratings, Arrays.asList("a"), opponents, 100, new Random(1));
+
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertArrayEquals(new String[] { "a", "b" }, sampler.nextPair());
+		}
+	}
+
+	@Test
+	public void rarelyBattledPairsArePreferred() {
+		for (int i = 0; i < 50; i++) {
+			ratings.recordBattle("a", "b");
+		}
+		PairSampler sampler = new PairSampler(ratings, Arrays.asList("a"), Arrays.asList("a", "b", "c"), 100,
+				new Random(1));
+
+		int withB = 0;
+		int withC = 0;
+
+		for (int i = 0; i < 10000; i++) {
+			String opponent = sampler.nextPair()[1];
+
+			if (opponent.equals("b")) {
+				withB++;
+			} else if (opponent.equals("c")) {
+				withC++;
+			}
+		}
+		Assert.assertEquals(10000, withB + withC);
+		Assert.assertTrue("b: " + withB + ", c: " + withC, withC > 20 * withB);
+	}
+}
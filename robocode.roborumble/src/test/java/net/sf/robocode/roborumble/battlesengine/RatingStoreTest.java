@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+
+public class RatingStoreTest {
+
+	private File ratingsFile;
+	private File storeFile;
+
+	@Before
+	public void setup() throws IOException {
+		ratingsFile = File.createTempFile("ratings", ".txt");
+		storeFile = new File(ratingsFile.getPath() + ".dat");
+		writeRatings("sample.Walls_1.0=1600.5,120,10,20", "sample.Crazy_1.0=1400.0,80", "sample.Fire_1.0=1500.0,100");
+	}
+
+	@After
+	public void cleanup() {
+		ratingsFile.delete();
+		storeFile.delete();
+		new File(storeFile.getPath() + ".tmp").delete();
+	}
+
+	@Test
+	public void storeIsCreatedFromRatingsFile() {
+		RatingStore store = RatingStore.load(ratingsFile.getPath());
+
+		Assert.assertTrue(storeFile.exists());
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("sample.Walls_1.0", "sample.Crazy_1.0", "sample.Fire_1.0")),
+				new HashSet<String>(store.getBotNames()));
+		Assert.assertEquals(120, store.getBattles("sample.Walls_1.0"), 0);
+		Assert.assertEquals(80, store.getBattles("sample.Crazy 1.0"), 0);
+		Assert.assertEquals(-1, store.getBattles("sample.SittingDuck_1.0"), 0);
+	}
+
+	@Test
+	public void savedStoreIsLoadedAgain() {
+		RatingStore store = RatingStore.load(ratingsFile.getPath());
+
+		store.setBattles("sample.Walls_1.0", 121);
+		store.recordBattle("sample.Walls_1.0", "sample.Crazy_1.0");
+		store.recordBattle("sample.Crazy_1.0", "sample.Walls_1.0");
+		store.recordBattle("sample.Fire_1.0", "sample.Walls_1.0");
+		Assert.assertTrue(store.save());
+
+		RatingStore loaded = RatingStore.load(ratingsFile.getPath());
+
+		// the ratings file has not changed, so the battles set are kept
+		Assert.assertEquals(121, loaded.getBattles("sample.Walls_1.0"), 0);
+		Assert.assertEquals(2, loaded.getPairCount("sample.Walls_1.0", "sample.Crazy_1.0"));
+		Assert.assertEquals(1, loaded.getPairCount("sample.Walls_1.0", "sample.Fire_1.0"));
+		Assert.assertEquals(0, loaded.getPairCount("sample.Crazy_1.0", "sample.Fire_1.0"));
+		Assert.assertEquals(2, loaded.getPairLastBattled("sample.Walls_1.0", "sample.Crazy_1.0"));
+		Assert.assertEquals(3, loaded.getLastBattled("sample.Walls_1.0"));
+		Assert.assertEquals(3, loaded.getLastBattled("sample.Fire_1.0"));
+
+		// the serial numbers of the battles continue after loading
+		loaded.recordBattle("sample.Crazy_1.0", "sample.Fire_1.0");
+		Assert.assertEquals(4, loaded.getLastBattled("sample.Crazy_1.0"));
+	}
+
+	@Test
+	public void changedRatingsFileIsMerged() throws IOException {
+		RatingStore store = RatingStore.load(ratingsFile.getPath());
+
+		store.setBattles("sample.Walls_1.0", 121);
+		store.recordBattle("sample.Walls_1.0", "sample.Crazy_1.0");
+		Assert.assertTrue(store.save());
+
+		writeRatings("sample.Walls_1.0=1610.0,130", "sample.Fire_1.0=1500.0,100", "sample.SpinBot_1.0=1450.0,5");
+		// the file may be rewritten within the time stamp resolution of the file system
+		Assert.assertTrue(ratingsFile.setLastModified(ratingsFile.lastModified() + 2000));
+
+		RatingStore loaded = RatingStore.load(ratingsFile.getPath());
+
+		Assert.assertEquals(130, loaded.getBattles("sample.Walls_1.0"), 0);
+		Assert.assertEquals(5, loaded.getBattles("sample.SpinBot_1.0"), 0);
+		Assert.assertFalse(loaded.contains("sample.Crazy_1.0"));
+		Assert.assertFalse(loaded.getBotNames().contains("sample.Crazy_1.0"));
+
+		// the pair counts of bots that are no longer rated are kept
+		Assert.assertEquals(1, loaded.getPairCount("sample.Walls_1.0", "sample.Crazy_1.0"));
+	}
+
+	@Test
+	public void corruptStoreIsReadFromRatingsFile() throws IOException {
+		RatingStore.load(ratingsFile.getPath());
+
+		FileOutputStream out = new FileOutputStream(storeFile);
+
+		try {
+			out.write(new byte[] { 1, 2, 3 });
+		} finally {
+			out.close();
+		}
+
+		RatingStore loaded = RatingStore.load(ratingsFile.getPath());
+
+		Assert.assertEquals(120, loaded.getBattles("sample.Walls_1.0"), 0);
+		Assert.assertEquals(3, loaded.getBotNames().size());
+	}
+
+	@Test
+	public void unusedCompetitionHasEmptyStore() {
+		RatingStore store = RatingStore.load("");
+
+		Assert.assertTrue(store.getBotNames().isEmpty());
+		Assert.assertFalse(store.save());
+	}
+
+	private void writeRatings(String... lines) throws IOException {
+		FileOutputStream out = new FileOutputStream(ratingsFile);
+
+		try {
+			for (String line : lines) {
+				out.write((line + "\n").getBytes("ISO-8859-1"));
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
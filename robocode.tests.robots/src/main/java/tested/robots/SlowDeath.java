@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package tested.robots;
+
+
+import robocode.DeathEvent;
+import robocode.Robot;
+
+
+/**
+ * Prints in onDeath() and is still handling the event when the round ends, so the text is not handed over with
+ * a next action of the robot.
+ */
+public class SlowDeath extends Robot {
+	@Override
+	public void run() {
+		while (true) {
+			ahead(1);
+			turnGunRight(360);
+			back(1);
+			turnGunRight(360);
+		}
+	}
+
+	@Override
+	public void onDeath(DeathEvent e) {
+		out.println("Death!");
+		try {
+			Thread.sleep(10000);
+		} catch (InterruptedException ignore) {}
+	}
+}
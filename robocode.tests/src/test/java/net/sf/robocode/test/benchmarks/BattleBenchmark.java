@@ -0,0 +1,498 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.benchmarks;
+
+
+import net.sf.robocode.battle.IBattleManagerBase;
+import net.sf.robocode.core.ContainerBase;
+import net.sf.robocode.io.Logger;
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import robocode.control.BattleSpecification;
+import robocode.control.BattlefieldSpecification;
+import robocode.control.RandomFactory;
+import robocode.control.RobotSpecification;
+import robocode.control.events.*;
+import robocode.control.snapshot.IRobotSnapshot;
+
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * Runs a battle scenario without a display and at unlimited TPS a number of times, and reports the turns per second,
+ * the time spent in each phase of the battles, the allocation rate, the garbage collections and the skipped turns.
+ * <p>
+ * Each battle is started from the same random seed, so the battles of a scenario are alike, even if the scheduling of
+ * the robot threads can make them end a little differently. A few battles are run to warm up the engine before the
+ * battles that are measured. The results are compared against the baselines of the scenario, where the benchmark
+ * fails if the turns per second drop, or the bytes allocated per turn rise, by more than the tolerance. A scenario
+ * without baselines is only reported.
+ * <p>
+ * The benchmarks are not run by the build, but explicitly, e.g. with
+ * {@code mvn test -pl robocode.tests -am -Dtest=BattleBenchmarks -DfailIfNoTests=false}, and are configured with
+ * these system properties:
+ * <ul>
+ * <li>{@code benchmark.warmups} - the number of battles run before measuring, which is 3 by default.</li>
+ * <li>{@code benchmark.battles} - the number of battles measured, which is 3 by default.</li>
+ * <li>{@code benchmark.tolerance} - the tolerated relative deviation from the baselines, which is 0.2 by default.</li>
+ * <li>{@code benchmark.baselines} - the properties file with the baselines, which is
+ * {@code benchmark-baselines.properties} in the working directory by default.</li>
+ * <li>{@code benchmark.updateBaselines} - if true, the baselines of the scenario are replaced with the results.</li>
+ * </ul>
+ * As the baselines depend on the machine, they should be recorded on the machine the benchmarks are run on.
+ */
+public abstract class BattleBenchmark extends RobocodeTestBed {
+
+	private static final int WARMUP_BATTLES = Integer.getInteger("benchmark.warmups", 3);
+	private static final int MEASURED_BATTLES = Integer.getInteger("benchmark.battles", 3);
+	private static final double TOLERANCE = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.2"));
+	private static final String BASELINES_FILE = System.getProperty("benchmark.baselines",
+			"benchmark-baselines.properties");
+	private static final boolean UPDATE_BASELINES = Boolean.getBoolean("benchmark.updateBaselines");
+
+	// The allocated bytes of the threads are sampled every number of turns, as the robot threads end with the rounds
+	private static final int ALLOCATION_SAMPLE_TURNS = 50;
+
+	private static final String SKIPPED_TURN_TEXT = " skipped turn ";
+
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	private Method getThreadAllocatedBytes;
+
+	private final List<Measurement> measurements = new ArrayList<Measurement>();
+	private Measurement current;
+
+	// Start of the current phase, and whether the phase is between two turns of a round
+	private long phaseStart;
+	private boolean betweenTurns;
+
+	private final Map<Long, Long> startAllocatedBytes = new HashMap<Long, Long>();
+	private final Map<Long, Long> lastAllocatedBytes = new HashMap<Long, Long>();
+
+	public BattleBenchmark() {
+		// the output of the robots is not printed, as it would be measured too
+		isDumpingOutput = false;
+	}
+
+	/**
+	 * Returns the battlefield of the scenario.
+	 */
+	protected BattlefieldSpecification getBattlefield() {
+		return battleFieldSpec;
+	}
+
+	/**
+	 * Returns true if the battles of the scenario are recorded.
+	 */
+	protected boolean isRecording() {
+		return false;
+	}
+
+	@Override
+	protected void runSetup() {
+		try {
+			getThreadAllocatedBytes = threadMXBean.getClass().getMethod("getThreadAllocatedBytes", long[].class);
+			getThreadAllocatedBytes.setAccessible(true);
+			getThreadAllocatedBytes.invoke(threadMXBean, (Object) new long[] { Thread.currentThread().getId() });
+		} catch (Exception e) {
+			getThreadAllocatedBytes = null;
+		}
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final RobotSpecification[] robotSpecifications = engine.getLocalRepository(robotList);
+
+		Assert.assertNotNull("Robot were not loaded", robotSpecifications);
+		Assert.assertEquals("Robot were not loaded", getExpectedRobotCount(robotList), robotSpecifications.length);
+
+		BattleSpecification battleSpecification = new BattleSpecification(numRounds, getBattlefield(),
+				robotSpecifications);
+		IBattleManagerBase battleManager = ContainerBase.getComponent(IBattleManagerBase.class);
+
+		for (int battle = 0; battle < WARMUP_BATTLES + MEASURED_BATTLES; battle++) {
+			RandomFactory.resetDeterministic(getRandomSeed());
+
+			current = new Measurement();
+			startAllocatedBytes.clear();
+			lastAllocatedBytes.clear();
+			sampleAllocatedBytes(startAllocatedBytes);
+			current.gcCount = -getCollectionCount();
+			current.gcMillis = -getCollectionTime();
+
+			long start = System.nanoTime();
+
+			phaseStart = start;
+			battleManager.startNewBattle(battleSpecification, initialPositions, true, isRecording());
+
+			long end = System.nanoTime();
+
+			current.shutdownNanos += end - phaseStart;
+			current.totalNanos = end - start;
+			sampleAllocatedBytes(lastAllocatedBytes);
+			current.allocatedBytes = getAllocatedBytes();
+			current.gcCount += getCollectionCount();
+			current.gcMillis += getCollectionTime();
+
+			if (battle >= WARMUP_BATTLES) {
+				measurements.add(current);
+			}
+		}
+		current = null;
+	}
+
+	@Override
+	public void onBattleStarted(BattleStartedEvent event) {
+		super.onBattleStarted(event);
+		if (current != null) {
+			current.startupNanos += endPhase();
+		}
+	}
+
+	@Override
+	public void onRoundStarted(RoundStartedEvent event) {
+		super.onRoundStarted(event);
+		if (current != null) {
+			current.roundNanos += endPhase();
+			betweenTurns = false;
+		}
+	}
+
+	@Override
+	public void onTurnStarted(TurnStartedEvent event) {
+		super.onTurnStarted(event);
+		if (current != null) {
+			if (betweenTurns) {
+				current.dispatchNanos += endPhase();
+			} else {
+				current.roundNanos += endPhase();
+			}
+		}
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+		if (current == null) {
+			return;
+		}
+		current.updateNanos += endPhase();
+		current.turns++;
+		betweenTurns = true;
+
+		for (IRobotSnapshot robot : event.getTurnSnapshot().getRobots()) {
+			current.skippedTurns += countSkippedTurns(robot.getOutputStreamSnapshot());
+		}
+		if (current.turns % ALLOCATION_SAMPLE_TURNS == 0) {
+			sampleAllocatedBytes(lastAllocatedBytes);
+		}
+		// the bookkeeping above is part of the event dispatching
+		phaseStart = System.nanoTime();
+	}
+
+	@Override
+	public void onRoundEnded(RoundEndedEvent event) {
+		super.onRoundEnded(event);
+		if (current != null) {
+			sampleAllocatedBytes(lastAllocatedBytes);
+			current.roundNanos += endPhase();
+			betweenTurns = false;
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertTrue("No battles were measured", measurements.size() > 0);
+
+		Measurement total = new Measurement();
+
+		for (Measurement measurement : measurements) {
+			total.add(measurement);
+		}
+
+		Result result = new Result(total, measurements.size(), getThreadAllocatedBytes != null);
+		Properties baselines = loadBaselines();
+
+		report(result, baselines);
+
+		if (UPDATE_BASELINES) {
+			baselines.setProperty(getName() + ".turns", Long.toString(result.turnsPerBattle));
+			baselines.setProperty(getName() + ".turnsPerSecond", format(result.turnsPerSecond));
+			if (result.hasAllocations) {
+				baselines.setProperty(getName() + ".bytesPerTurn", format(result.bytesPerTurn));
+			}
+			saveBaselines(baselines);
+		} else {
+			compare(result, baselines);
+		}
+	}
+
+	private void report(Result result, Properties baselines) {
+		Measurement total = result.total;
+		int battles = result.battles;
+		String baselineTps = baselines.getProperty(getName() + ".turnsPerSecond");
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("Benchmark ").append(getName()).append(": ").append(battles).append(" battles of ")
+				.append(getNumRounds()).append(" rounds with ").append(getExpectedRobotCount(getRobotNames()))
+				.append(" robots").append(isRecording() ? ", recorded" : "").append('\n');
+		line(sb, "turns per battle", Long.toString(result.turnsPerBattle));
+		line(sb, "turns per second",
+				format(result.turnsPerSecond) + (baselineTps != null ? " (baseline " + baselineTps + ")" : ""));
+		line(sb, "startup", formatMillis(total.startupNanos / battles) + " per battle");
+		line(sb, "turn updates", formatMicros(total.updateNanos / Math.max(1, total.turns)) + " per turn");
+		line(sb, "turn dispatching", formatMicros(total.dispatchNanos / Math.max(1, total.turns)) + " per turn");
+		line(sb, "round changes", formatMillis(total.roundNanos / battles) + " per battle");
+		line(sb, "shutdown", formatMillis(total.shutdownNanos / battles) + " per battle");
+		if (result.hasAllocations) {
+			String baselineBytes = baselines.getProperty(getName() + ".bytesPerTurn");
+
+			line(sb, "allocation",
+					format(result.bytesPerTurn) + " bytes per turn"
+					+ (baselineBytes != null ? " (baseline " + baselineBytes + ")" : "") + ", "
+					+ format(total.allocatedBytes / (1024.0 * 1024.0) / (total.totalNanos / 1e9)) + " MB/s");
+		} else {
+			line(sb, "allocation", "not supported by this JVM");
+		}
+		line(sb, "garbage collections",
+				total.gcCount + " taking " + total.gcMillis + " ms in total, " + format(
+						total.gcMillis * 100.0 / (total.totalNanos / 1e6)) + "% of the time");
+		line(sb, "skipped turns", Long.toString(total.skippedTurns));
+
+		Logger.realOut.print(sb);
+	}
+
+	private void compare(Result result, Properties baselines) {
+		String turns = baselines.getProperty(getName() + ".turns");
+		String turnsPerSecond = baselines.getProperty(getName() + ".turnsPerSecond");
+		String bytesPerTurn = baselines.getProperty(getName() + ".bytesPerTurn");
+
+		if (turnsPerSecond == null) {
+			Logger.realOut.println("No baselines for " + getName() + " in " + new File(BASELINES_FILE).getAbsolutePath());
+			return;
+		}
+		// The robot threads are not scheduled alike in every battle, so the battles may end a little differently
+		if (turns != null && Long.parseLong(turns) != result.turnsPerBattle) {
+			Logger.realOut.println(
+					"Warning: " + getName() + " runs " + result.turnsPerBattle + " turns per battle instead of the "
+					+ turns + " turns of the baselines");
+		}
+
+		double minTurnsPerSecond = Double.parseDouble(turnsPerSecond) * (1 - TOLERANCE);
+
+		Assert.assertTrue(
+				getName() + " runs " + format(result.turnsPerSecond) + " turns per second, which is below "
+				+ format(minTurnsPerSecond),
+				result.turnsPerSecond >= minTurnsPerSecond);
+
+		if (bytesPerTurn != null && result.hasAllocations) {
+			double maxBytesPerTurn = Double.parseDouble(bytesPerTurn) * (1 + TOLERANCE);
+
+			Assert.assertTrue(
+					getName() + " allocates " + format(result.bytesPerTurn) + " bytes per turn, which is above "
+					+ format(maxBytesPerTurn),
+					result.bytesPerTurn <= maxBytesPerTurn);
+		}
+	}
+
+	private String getName() {
+		return getClass().getSimpleName();
+	}
+
+	private long endPhase() {
+		long now = System.nanoTime();
+		long duration = now - phaseStart;
+
+		phaseStart = now;
+		return duration;
+	}
+
+	private static int countSkippedTurns(String output) {
+		int count = 0;
+
+		if (output != null) {
+			for (int i = output.indexOf(SKIPPED_TURN_TEXT); i >= 0; i = output.indexOf(SKIPPED_TURN_TEXT, i + 1)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void sampleAllocatedBytes(Map<Long, Long> sample) {
+		if (getThreadAllocatedBytes == null) {
+			return;
+		}
+		long[] ids = threadMXBean.getAllThreadIds();
+
+		try {
+			long[] bytes = (long[]) getThreadAllocatedBytes.invoke(threadMXBean, (Object) ids);
+
+			for (int i = 0; i < ids.length; i++) {
+				if (bytes[i] >= 0) {
+					sample.put(ids[i], bytes[i]);
+				}
+			}
+		} catch (Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	// The threads started during the battle had allocated nothing at the start of the battle
+	private long getAllocatedBytes() {
+		long bytes = 0;
+
+		for (Map.Entry<Long, Long> entry : lastAllocatedBytes.entrySet()) {
+			Long start = startAllocatedBytes.get(entry.getKey());
+
+			bytes += entry.getValue() - (start != null ? start : 0);
+		}
+		return bytes;
+	}
+
+	private static long getCollectionCount() {
+		long count = 0;
+
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, collector.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long getCollectionTime() {
+		long time = 0;
+
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, collector.getCollectionTime());
+		}
+		return time;
+	}
+
+	private static Properties loadBaselines() {
+		Properties baselines = new Properties();
+		File file = new File(BASELINES_FILE);
+
+		if (file.exists()) {
+			InputStream in = null;
+
+			try {
+				in = new FileInputStream(file);
+				baselines.load(in);
+			} catch (IOException e) {
+				throw new AssertionError("Could not read baselines: " + file.getAbsolutePath());
+			} finally {
+				if (in != null) {
+					try {
+						in.close();
+					} catch (IOException ignored) {}
+				}
+			}
+		}
+		return baselines;
+	}
+
+	private static void saveBaselines(Properties baselines) {
+		File file = new File(BASELINES_FILE);
+		OutputStream out = null;
+
+		try {
+			out = new FileOutputStream(file);
+			baselines.store(out, "Robocode battle benchmark baselines");
+		} catch (IOException e) {
+			throw new AssertionError("Could not write baselines: " + file.getAbsolutePath());
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException ignored) {}
+			}
+		}
+		Logger.realOut.println("Baselines written to " + file.getAbsolutePath());
+	}
+
+	private static void line(StringBuilder sb, String name, String value) {
+		sb.append("  ").append(name);
+		for (int i = name.length(); i < 22; i++) {
+			sb.append(' ');
+		}
+		sb.append(value).append('\n');
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.US, "%.1f", value);
+	}
+
+	private static String formatMillis(long nanos) {
+		return format(nanos / 1e6) + " ms";
+	}
+
+	private static String formatMicros(long nanos) {
+		return format(nanos / 1e3) + " us";
+	}
+
+	/**
+	 * The measurement of a battle, or the sum of the measurements of the battles.
+	 */
+	private static class Measurement {
+		long turns;
+		long totalNanos;
+		long startupNanos;
+		long updateNanos;
+		long dispatchNanos;
+		long roundNanos;
+		long shutdownNanos;
+		long allocatedBytes;
+		long gcCount;
+		long gcMillis;
+		long skippedTurns;
+
+		void add(Measurement measurement) {
+			turns += measurement.turns;
+			totalNanos += measurement.totalNanos;
+			startupNanos += measurement.startupNanos;
+			updateNanos += measurement.updateNanos;
+			dispatchNanos += measurement.dispatchNanos;
+			roundNanos += measurement.roundNanos;
+			shutdownNanos += measurement.shutdownNanos;
+			allocatedBytes += measurement.allocatedBytes;
+			gcCount += measurement.gcCount;
+			gcMillis += measurement.gcMillis;
+			skippedTurns += measurement.skippedTurns;
+		}
+	}
+
+	/**
+	 * The figures compared against the baselines, which are computed from the sum of the measured battles.
+	 */
+	private static class Result {
+		final Measurement total;
+		final int battles;
+		final boolean hasAllocations;
+		final long turnsPerBattle;
+		final double turnsPerSecond;
+		final double bytesPerTurn;
+
+		Result(Measurement total, int battles, boolean hasAllocations) {
+			this.total = total;
+			this.battles = battles;
+			this.hasAllocations = hasAllocations;
+			turnsPerBattle = total.turns / battles;
+			turnsPerSecond = total.turns / (total.totalNanos / 1e9);
+			bytesPerTurn = (double) total.allocatedBytes / Math.max(1, total.turns);
+		}
+	}
+}
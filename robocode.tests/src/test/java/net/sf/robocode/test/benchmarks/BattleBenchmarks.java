@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.benchmarks;
+
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+
+/**
+ * All the battle benchmarks, where the battles with and without recording are run one after the other.
+ * <p>
+ * Run with {@code mvn test -pl robocode.tests -am -Dtest=BattleBenchmarks -DfailIfNoTests=false}.
+ */
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+	OneOnOneBenchmark.class, MeleeBenchmark.class, MeleeRecordingBenchmark.class, TeamsBenchmark.class,
+	SentryStressBenchmark.class
+})
+public class BattleBenchmarks {}
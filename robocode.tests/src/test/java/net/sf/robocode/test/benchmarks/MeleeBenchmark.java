@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.benchmarks;
+
+
+/**
+ * A melee battle between 10 sample robots.
+ */
+public class MeleeBenchmark extends BattleBenchmark {
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Corners,sample.Crazy,sample.Fire,sample.MyFirstRobot,sample.RamFire,sample.SpinBot,"
+				+ "sample.Tracker,sample.TrackFire,sample.VelociRobot,sample.Walls";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 5;
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.benchmarks;
+
+
+/**
+ * The melee battle of {@link MeleeBenchmark}, where the battle is recorded.
+ */
+public class MeleeRecordingBenchmark extends MeleeBenchmark {
+
+	@Override
+	protected boolean isRecording() {
+		return true;
+	}
+}
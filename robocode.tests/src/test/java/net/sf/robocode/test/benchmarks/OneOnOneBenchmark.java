@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.benchmarks;
+
+
+/**
+ * A one on one battle between two sample robots.
+ */
+public class OneOnOneBenchmark extends BattleBenchmark {
+
+	@Override
+	public String getRobotNames() {
+		return "sample.SpinBot,sample.TrackFire";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 10;
+	}
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.benchmarks;
+
+
+import robocode.control.BattlefieldSpecification;
+
+
+/**
+ * A melee battle between 100 robots on a large battlefield, where 4 of the robots are border sentries.
+ */
+public class SentryStressBenchmark extends BattleBenchmark {
+
+	private static final int SENTRIES = 4;
+	private static final int ROBOTS = 100;
+
+	private static final String[] ROBOT_NAMES = {
+		"sample.Corners", "sample.Crazy", "sample.Fire", "sample.MyFirstRobot", "sample.RamFire", "sample.SpinBot",
+		"sample.Tracker", "sample.TrackFire", "sample.VelociRobot", "sample.Walls"
+	};
+
+	private final BattlefieldSpecification battlefield = new BattlefieldSpecification(2000, 2000);
+
+	@Override
+	public String getRobotNames() {
+		StringBuilder names = new StringBuilder();
+
+		for (int i = 0; i < ROBOTS; i++) {
+			if (i > 0) {
+				names.append(',');
+			}
+			names.append(i < SENTRIES ? "samplesentry.BorderGuard" : ROBOT_NAMES[i % ROBOT_NAMES.length]);
+		}
+		return names.toString();
+	}
+
+	@Override
+	protected BattlefieldSpecification getBattlefield() {
+		return battlefield;
+	}
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.benchmarks;
+
+
+/**
+ * A battle between the sample teams, where the team members are sending messages to each other.
+ */
+public class TeamsBenchmark extends BattleBenchmark {
+
+	@Override
+	public String getRobotNames() {
+		return "sampleteam.MyFirstTeam,sampleteam.MyTwinTeam";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 5;
+	}
+
+	@Override
+	public int getExpectedRobotCount(String robotList) {
+		return 7;
+	}
+}
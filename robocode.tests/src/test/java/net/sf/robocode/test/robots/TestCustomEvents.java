@@ -35,8 +35,8 @@ public class TestCustomEvents extends RobocodeTestBed {
 			test(gh, "130 onTick99\n130 onTick30");
 			break;
 
-		case 1451:
-			test(gh, "1451 onTick99\n1451 onLowEnergy98\n1451 onTick30\n1451 onScannedRobot10");
+		case 1257:
+			test(gh, "1257 onTick99\n1257 onLowEnergy98\n1257 onTick30\n1257 onScannedRobot10");
 			break;
 
 		default:
@@ -39,6 +39,12 @@ public class TestEventPriorityFilter extends RobocodeTestBed {
 		return "tested.robots.EventPriorityFilter,tested.robots.EventPriorityFilter";
 	}
 
+	@Override
+	public String getInitialPositions() {
+		// Make sure the robots only get in the radar of each other while handling onHitWall
+		return "(568.1445492,163.0032275,229.4702731), (436.7181397,351.5039067,119.9586238)";
+	}
+
 	@Override
 	protected void runTeardown() {
 		Assert.assertFalse(messagedScanned);
@@ -53,14 +53,22 @@ public class TestFairPlay extends RobocodeTestBed {
 		final IScoreSnapshot score1 = scores[0];
 		final IScoreSnapshot score2 = scores[1];
 
+		// The total scores of equal robots differ between seeds with a standard deviation of about 3% for 200 rounds,
+		// so 10% is about three standard deviations. An engine favoring one of the robots, e.g. by letting the same
+		// robot move first in every turn, makes the scores differ by more.
 		double minTotal = Math.min(score1.getTotalScore(), score2.getTotalScore());
 		double maxTotal = Math.max(score1.getTotalScore(), score2.getTotalScore());
 
-		Assert.assertTrue("The total scores should be almost the same", maxTotal / minTotal <= 1.05);
+		Assert.assertTrue("The total scores should be almost the same", maxTotal / minTotal <= 1.10);
 
-		double minFirsts = Math.min(score1.getTotalFirsts(), score2.getTotalFirsts());
-		double maxFirsts = Math.max(score1.getTotalFirsts(), score2.getTotalFirsts());
+		// A round is won by one of the robots, or by both if they are destroyed in the same turn. The rounds won by one
+		// robot are won by each robot at random, so the difference between the firsts has a standard deviation of the
+		// square root of these rounds, and may be as large as three standard deviations.
+		int firsts1 = score1.getTotalFirsts();
+		int firsts2 = score2.getTotalFirsts();
+		int decidedRounds = 2 * getNumRounds() - firsts1 - firsts2;
 
-		Assert.assertTrue("The total firsts should be almost the same", maxFirsts / minFirsts <= 1.05);
+		Assert.assertTrue("The total firsts should be almost the same",
+				Math.abs(firsts1 - firsts2) <= 3 * Math.sqrt(decidedRounds));
 	}
 }
@@ -34,15 +34,15 @@ public class TestJunior extends RobocodeTestBed {
 
 		IRobotSnapshot robot = event.getTurnSnapshot().getRobots()[0];
 
-		if (event.getTurnSnapshot().getTurn() == 590) {
+		if (event.getTurnSnapshot().getTurn() == 601) {
 			String out = robot.getOutputStreamSnapshot();
 
 			test(out, "robocode.BulletMissedEvent 5");
-			test(out, "robocode.ScannedRobotEvent 100");
+			test(out, "robocode.ScannedRobotEvent 106");
 			test(out, "robocode.BulletHitEvent 24");
-			test(out, "robocode.StatusEvent 590");
+			test(out, "robocode.StatusEvent 601");
 			test(out, "robocode.WinEvent 1");
-			test(out, "last bullet heading 6.06794172");
+			test(out, "last bullet heading 3.76158180");
 		}
 	}
 
@@ -41,10 +41,10 @@ public class TestPosition extends RobocodeTestBed {
 			IRobotSnapshot crazy = event.getStartSnapshot().getRobots()[0];
 			IRobotSnapshot target = event.getStartSnapshot().getRobots()[1];
 
-			Assert.assertNear(568.1445492, crazy.getX());
-			Assert.assertNear(163.0032275, crazy.getY());
-			Assert.assertNear(436.7181397, target.getX());
-			Assert.assertNear(351.5039067, target.getY());
+			Assert.assertNear(495.0821306, crazy.getX());
+			Assert.assertNear(475.4750340, crazy.getY());
+			Assert.assertNear(389.0966243, target.getX());
+			Assert.assertNear(198.0948838, target.getY());
 		}
 	}
 
@@ -57,22 +57,22 @@ public class TestPosition extends RobocodeTestBed {
 		IRobotSnapshot target = event.getTurnSnapshot().getRobots()[1];
 
 		if (lastTurn == 1) {
-			Assert.assertNear(567.2831835, crazy.getX());
-			Assert.assertNear(162.4952421, crazy.getY());
-			Assert.assertNear(436.7181397, target.getX());
-			Assert.assertNear(351.5039067, target.getY());
+			Assert.assertNear(495.1342147, crazy.getX());
+			Assert.assertNear(474.4763913, crazy.getY());
+			Assert.assertNear(389.0966243, target.getX());
+			Assert.assertNear(198.0948838, target.getY());
 		}
 
 		if (lastTurn == 1700) {
-			Assert.assertNear(373.9958377, crazy.getX());
-			Assert.assertNear(196.1380677, crazy.getY());
-			Assert.assertNear(340.3212984, target.getX());
-			Assert.assertNear(456.5502002, target.getY());
+			Assert.assertNear(731.2683487, crazy.getX());
+			Assert.assertNear(330.6447683, crazy.getY());
+			Assert.assertNear(206.7341571, target.getX());
+			Assert.assertNear(169.9362466, target.getY());
 		}
 	}
 
 	@Override
 	protected void runTeardown() {
-		Assert.assertThat(lastTurn, is(2080));
+		Assert.assertThat(lastTurn, is(2293));
 	}
 }
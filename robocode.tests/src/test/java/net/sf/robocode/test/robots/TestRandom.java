@@ -39,15 +39,15 @@ public class TestRandom extends RobocodeTestBed {
 	public void onTurnEnded(TurnEndedEvent event) {
 		super.onTurnEnded(event);
 
-		Assert.assertTrue(event.getTurnSnapshot().getTurn() <= 1407);
+		Assert.assertTrue(event.getTurnSnapshot().getTurn() <= 921);
 		IRobotSnapshot fire = event.getTurnSnapshot().getRobots()[0];
 		IRobotSnapshot random = event.getTurnSnapshot().getRobots()[1];
 
-		if (event.getTurnSnapshot().getTurn() == 1241) {
-			Assert.assertNear(213.18621928, fire.getX());
-			Assert.assertNear(371.45706118, fire.getY());
-			Assert.assertNear(782.0, random.getX());
-			Assert.assertNear(230.95479253, random.getY());
+		if (event.getTurnSnapshot().getTurn() == 700) {
+			Assert.assertNear(387.01427283, fire.getX());
+			Assert.assertNear(356.81817571, fire.getY());
+			Assert.assertNear(70.47785991, random.getX());
+			Assert.assertNear(158.80521137, random.getY());
 		}
 	}
 }
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Assert;
+import robocode.BattleResults;
+import robocode.control.events.BattleCompletedEvent;
+
+
+public class TestRobotProcess extends RobocodeTestBed {
+	private BattleResults[] results;
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.SittingDuck";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 2;
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		System.setProperty("ROBOTPROCESS", "true");
+		try {
+			super.runBattle(robotList, numRounds, initialPositions);
+		} finally {
+			System.clearProperty("ROBOTPROCESS");
+		}
+	}
+
+	@Override
+	public void onBattleCompleted(BattleCompletedEvent event) {
+		results = event.getSortedResults();
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertNotNull(results);
+		Assert.assertEquals("sample.Fire", results[0].getTeamLeaderName());
+		Assert.assertEquals(getNumRounds(), results[0].getFirsts());
+		Assert.assertTrue(results[0].getBulletDamage() > 0);
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.IScoreSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Checks that the ranking maintained by the battle while the scores change is the same ranking as sorting the
+ * scores of all contestants from scratch.
+ */
+public class TestScoreRanking extends RobocodeTestBed {
+
+	private int checkedTurns;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,tested.robots.TestTeam,sample.Crazy,sample.Walls";
+	}
+
+	@Override
+	public int getExpectedRobotCount(String list) {
+		return 6;
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 3;
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		final ITurnSnapshot turn = event.getTurnSnapshot();
+		final List<IScoreSnapshot> expected = new ArrayList<IScoreSnapshot>();
+
+		for (IScoreSnapshot score : turn.getIndexedTeamScores()) {
+			if (score != null) {
+				expected.add(score);
+			}
+		}
+		Collections.sort(expected);
+		Collections.reverse(expected);
+
+		final IScoreSnapshot[] sorted = turn.getSortedTeamScores();
+
+		Assert.assertEquals(expected.size(), sorted.length);
+		for (int i = 0; i < sorted.length; i++) {
+			Assert.assertSame("Contestant ranked " + (i + 1) + " at turn " + turn.getTurn(), expected.get(i), sorted[i]);
+		}
+		checkedTurns++;
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertTrue(checkedTurns > 0);
+	}
+}
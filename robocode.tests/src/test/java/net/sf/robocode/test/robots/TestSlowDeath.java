@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import static org.hamcrest.CoreMatchers.is;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.IRobotSnapshot;
+
+
+/**
+ * Tests that the text printed by a robot just before it is stopped at the end of the round is in the last turn.
+ */
+public class TestSlowDeath extends RobocodeTestBed {
+	private int lost = 0;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 3;
+	}
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,tested.robots.SlowDeath";
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+		IRobotSnapshot robot = event.getTurnSnapshot().getRobots()[1];
+
+		if (robot.getOutputStreamSnapshot().contains("Death!")) {
+			lost++;
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertThat("death should be printed in each round", lost, is(getNumRounds()));
+	}
+}
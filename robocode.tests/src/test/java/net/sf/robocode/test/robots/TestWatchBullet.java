@@ -36,10 +36,10 @@ public class TestWatchBullet extends RobocodeTestBed {
 		final String out = robot.getOutputStreamSnapshot();
 		final int time = event.getTurnSnapshot().getTurn();
 
-		test(out, time, 33, "33 487.438779505497 119.51131582855926 347.66745091446046 true");
-		test(out, time, 45, "45 459.24550664858225 248.46533618316306 347.66745091446046 true");
-		test(out, time, 52, "52 442.799430815382 323.6885147233484 347.66745091446046 true");
-		test(out, time, 53, "53 440.4499914106391 334.43468308623204 347.66745091446046 false");
+		test(out, time, 60, "60 482.57535545286123 451.1340277918712 207.1947808191487 true");
+		test(out, time, 75, "75 388.774541519357 268.5764815173588 207.1947808191487 true");
+		test(out, time, 96, "96 257.4534020124511 12.995916733041874 207.1947808191487 true");
+		test(out, time, 97, "97 251.20001441688413 0.8254136480743988 207.1947808191487 false");
 	}
 
 	private void test(String out, int timecurr, int timeWatch, String in) {
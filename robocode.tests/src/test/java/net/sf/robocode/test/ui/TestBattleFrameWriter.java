@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.ui;
+
+
+import net.sf.robocode.battle.IBattleManagerBase;
+import net.sf.robocode.core.Container;
+import net.sf.robocode.core.ContainerBase;
+import net.sf.robocode.io.FileUtil;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.BattleSpecification;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleFinishedEvent;
+import robocode.control.events.BattleStartedEvent;
+import robocode.control.events.IBattleListener;
+import robocode.control.events.TurnEndedEvent;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Records a short battle, and replays the record through the frame writer used for the -frames command line option,
+ * which must write a PNG file with the frame size for each frame of each replayed turn.
+ * <p>
+ * The recording, window and battle managers are called by reflection, as they are loaded by the class loader of the
+ * engine.
+ */
+public class TestBattleFrameWriter extends RobocodeTestBed {
+
+	private static final int WIDTH = 320;
+	private static final int HEIGHT = 240;
+	private static final int FRAMES_PER_TURN = 2;
+
+	private File directory;
+	private boolean isReplay;
+	private int recordedTurns;
+	private int replayedTurns;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.SittingDuck";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 1;
+	}
+
+	@Override
+	public void onBattleStarted(BattleStartedEvent event) {
+		super.onBattleStarted(event);
+
+		isReplay = event.isReplay();
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		if (isReplay) {
+			replayedTurns++;
+		} else {
+			recordedTurns++;
+		}
+	}
+
+	@Override
+	protected void runSetup() {
+		try {
+			directory = File.createTempFile("robocode-frames", "");
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		Assert.assertTrue(directory.delete() && directory.mkdirs());
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final RobotSpecification[] robotSpecifications = engine.getLocalRepository(robotList);
+
+		Assert.assertEquals("Robot were not loaded", getExpectedRobotCount(robotList), robotSpecifications.length);
+
+		IBattleManagerBase battleManager = ContainerBase.getComponent(IBattleManagerBase.class);
+
+		// the test bed disables the recording of battles, unless it is enabled like from the command line
+		battleManager.startNewBattle(new BattleSpecification(numRounds, battleFieldSpec, robotSpecifications),
+				initialPositions, true, true);
+
+		try {
+			replay(battleManager, new File(directory, "battle.br"), new File(directory, "frames"));
+		} catch (Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private void replay(IBattleManagerBase battleManager, File record, File frames) throws Exception {
+		ClassLoader engineLoader = Container.engineLoader;
+
+		Class<?> recordManagerClass = engineLoader.loadClass("net.sf.robocode.recording.IRecordManager");
+		Class<?> formatClass = engineLoader.loadClass("net.sf.robocode.recording.BattleRecordFormat");
+		Class<?> optionsClass = engineLoader.loadClass("net.sf.robocode.serialization.SerializableOptions");
+		Class<?> windowManagerClass = engineLoader.loadClass("net.sf.robocode.ui.IWindowManager");
+		Class<?> replayManagerClass = engineLoader.loadClass("net.sf.robocode.battle.IBattleManager");
+
+		Object recordManager = Container.getComponent(recordManagerClass);
+		Object format = formatClass.getField("BINARY_ZIP").get(null);
+
+		recordManagerClass.getMethod("saveRecord", String.class, formatClass, optionsClass).invoke(recordManager,
+				record.getPath(), format, optionsClass.getConstructor(boolean.class).newInstance(false));
+		recordManagerClass.getMethod("loadRecord", String.class, formatClass).invoke(recordManager, record.getPath(),
+				format);
+
+		IBattleListener frameWriter = (IBattleListener) windowManagerClass.getMethod("createFrameWriter", File.class,
+				int.class, int.class, int.class).invoke(Container.getComponent(windowManagerClass), frames, WIDTH,
+				HEIGHT, FRAMES_PER_TURN);
+
+		// the listeners are called in order, so the frames have been written when the replay is seen as finished
+		final CountDownLatch finished = new CountDownLatch(1);
+		IBattleListener finishObserver = new BattleAdaptor() {
+			@Override
+			public void onBattleFinished(BattleFinishedEvent event) {
+				finished.countDown();
+			}
+		};
+
+		battleManager.addListener(frameWriter);
+		battleManager.addListener(finishObserver);
+		try {
+			replayManagerClass.getMethod("replay").invoke(Container.getComponent(replayManagerClass));
+
+			Assert.assertTrue("The replay did not finish", finished.await(60, TimeUnit.SECONDS));
+		} finally {
+			battleManager.removeListener(finishObserver);
+			battleManager.removeListener(frameWriter);
+			frameWriter.getClass().getMethod("close").invoke(frameWriter);
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		try {
+			File[] frames = new File(directory, "frames").listFiles(new FilenameFilter() {
+				public boolean accept(File dir, String name) {
+					return name.endsWith(".png");
+				}
+			});
+
+			Assert.assertTrue("No turns were recorded", recordedTurns > 0);
+			Assert.assertEquals("The replay differs from the battle", recordedTurns, replayedTurns);
+			Assert.assertNotNull(frames);
+			Assert.assertEquals("Frames written", replayedTurns * FRAMES_PER_TURN, frames.length);
+
+			BufferedImage frame = ImageIO.read(new File(directory, "frames/frame-000000.png"));
+
+			Assert.assertEquals(WIDTH, frame.getWidth());
+			Assert.assertEquals(HEIGHT, frame.getHeight());
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		} finally {
+			FileUtil.deleteDir(directory);
+		}
+	}
+}
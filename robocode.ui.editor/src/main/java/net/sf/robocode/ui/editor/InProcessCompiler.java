@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.editor;
+
+
+import net.sf.robocode.io.FileUtil;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.*;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Java compiler running inside the Robocode process, which stays loaded between compiles.
+ * <p>
+ * The file manager is kept open, so the jar files on the class path are opened and indexed only once. The classes
+ * are compiled into memory, and only written to disk when the compile succeeded, next to their source files as the
+ * javac command line would do.
+ */
+final class InProcessCompiler {
+
+	private final JavaCompiler compiler;
+	private final StandardJavaFileManager fileManager;
+
+	private List<File> classPath = Collections.emptyList();
+
+	private InProcessCompiler(JavaCompiler compiler) {
+		this.compiler = compiler;
+		this.fileManager = compiler.getStandardFileManager(null, null, null);
+	}
+
+	/**
+	 * Returns an in-process compiler, or null if no system Java compiler is available, e.g. when running on a JRE.
+	 */
+	static InProcessCompiler create() {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+		return compiler != null ? new InProcessCompiler(compiler) : null;
+	}
+
+	/**
+	 * Checks if the compiler binary configured for the editor is javac, which can be replaced by this compiler.
+	 */
+	static boolean isJavac(String compilerBinary) {
+		String name = compilerBinary != null ? compilerBinary.trim() : "";
+
+		return name.equals("javac") || name.endsWith(File.separator + "javac") || name.endsWith("javac.exe");
+	}
+
+	/**
+	 * Compiles a source file into memory.
+	 *
+	 * @param sourceFile the source file to compile.
+	 * @param options the javac options, where the class path options are taken out and applied to the file manager.
+	 * @param out the writer receiving the messages of the compiler.
+	 * @param classes the map receiving the compiled classes, with the class files they must be written to.
+	 * @return true if the source file was compiled successfully; false otherwise.
+	 * @throws IllegalArgumentException if an option is not supported by the compiler.
+	 */
+	synchronized boolean compile(File sourceFile, List<String> options, Writer out, Map<File, byte[]> classes) throws IOException {
+		List<String> compilerOptions = new ArrayList<String>();
+		File outputDir = null;
+
+		for (int i = 0; i < options.size(); i++) {
+			String option = options.get(i);
+
+			if ((option.equals("-classpath") || option.equals("-cp")) && i + 1 < options.size()) {
+				setClassPath(options.get(++i));
+			} else if (option.equals("-d") && i + 1 < options.size()) {
+				outputDir = resolve(unquote(options.get(++i)));
+			} else {
+				compilerOptions.add(option);
+			}
+		}
+
+		MemoryFileManager memoryFileManager = new MemoryFileManager(fileManager, outputDir);
+
+		Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(resolve(sourceFile.getPath()));
+		boolean success = compiler.getTask(out, memoryFileManager, null, compilerOptions, null, units).call();
+
+		out.flush();
+		if (success) {
+			for (ClassFileObject classFile : memoryFileManager.classFiles) {
+				classes.put(classFile.file, classFile.getBytes());
+			}
+		}
+		return success;
+	}
+
+	private void setClassPath(String path) throws IOException {
+		List<File> files = new ArrayList<File>();
+
+		for (String entry : unquote(path).split(File.pathSeparator)) {
+			if (entry.length() > 0) {
+				files.add(resolve(unquote(entry)));
+			}
+		}
+		if (!files.equals(classPath)) {
+			fileManager.setLocation(StandardLocation.CLASS_PATH, files);
+			classPath = files;
+		}
+	}
+
+	/**
+	 * Writes compiled classes to disk.
+	 */
+	static void writeClasses(Map<File, byte[]> classes) throws IOException {
+		for (Map.Entry<File, byte[]> entry : classes.entrySet()) {
+			File file = entry.getKey();
+			File dir = file.getParentFile();
+
+			if (dir != null && !dir.exists() && !dir.mkdirs()) {
+				throw new IOException("Unable to create directory: " + dir);
+			}
+			FileOutputStream out = null;
+
+			try {
+				out = new FileOutputStream(file);
+				out.write(entry.getValue());
+			} finally {
+				FileUtil.cleanupStream(out);
+			}
+		}
+	}
+
+	// Relative paths are relative to the Robocode directory, as the external compiler is run from there
+	private static File resolve(String path) {
+		File file = new File(path);
+
+		return file.isAbsolute() ? file : new File(FileUtil.getCwd(), path);
+	}
+
+	private static String unquote(String s) {
+		return s.replace("\"", "");
+	}
+
+	private static class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+		final List<ClassFileObject> classFiles = new ArrayList<ClassFileObject>();
+		final File outputDir;
+
+		MemoryFileManager(JavaFileManager fileManager, File outputDir) {
+			super(fileManager);
+			this.outputDir = outputDir;
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+			if (location != StandardLocation.CLASS_OUTPUT || kind != JavaFileObject.Kind.CLASS) {
+				return super.getJavaFileForOutput(location, className, kind, sibling);
+			}
+			File file;
+
+			if (outputDir != null || sibling == null || !"file".equals(sibling.toUri().getScheme())) {
+				File dir = outputDir != null ? outputDir : FileUtil.getCwd();
+
+				file = new File(dir, className.replace('.', File.separatorChar) + kind.extension);
+			} else {
+				String simpleName = className.substring(className.lastIndexOf('.') + 1);
+
+				file = new File(new File(sibling.toUri()).getParentFile(), simpleName + kind.extension);
+			}
+			ClassFileObject classFile = new ClassFileObject(className, file);
+
+			classFiles.add(classFile);
+			return classFile;
+		}
+	}
+
+	private static class ClassFileObject extends SimpleJavaFileObject {
+		final File file;
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		ClassFileObject(String className, File file) {
+			super(URI.create("memory:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+			this.file = file;
+		}
+
+		@Override
+		public OutputStream openOutputStream() {
+			bytes.reset();
+			return bytes;
+		}
+
+		byte[] getBytes() {
+			return bytes.toByteArray();
+		}
+	}
+}
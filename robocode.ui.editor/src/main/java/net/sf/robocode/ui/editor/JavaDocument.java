@@ -14,8 +14,10 @@ import java.awt.Point;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
@@ -64,23 +66,6 @@ public class JavaDocument extends StyledDocument {
 	/** Tab size (column width) */
 	private int tabSize = 4; // Default is every 4th column
 
-	/** Java language quote delimiter characters represented in a string */
-	private static final String QUOTE_DELIMITERS = "\"'";
-
-	/** Java keywords */
-	private static final Set<String> KEYWORDS = new HashSet<String>(
-			Arrays.asList(
-					new String[] {
-		"abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
-		"default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
-		"implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
-		"protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
-		"throw", "throws", "transient", "try", "void", "volatile", "while" }));
-
-	/** Predefined Java literals */
-	private static final Set<String> PREDEFINED_LITERALS = new HashSet<String>(
-			Arrays.asList(new String[] { "false", "true", "null" }));
-
 	/** Normal text attribute set */
 	private final SimpleAttributeSet normalAttrSet = new SimpleAttributeSet();
 
@@ -102,16 +87,40 @@ public class JavaDocument extends StyledDocument {
 	/** String buffer holding only space characters for fast replacement of tabulator characters */
 	private String spaceBuffer;
 
-	/** Old start offset for syntax highlighting */
-	private int lastSyntaxHighlightStartOffset;
-
-	/** Old end offset for syntax highlighting */
-	private int lastSyntaxHighlightEndOffset;
-
 	private int autoIndentationCaretPos = -1;
 
 	private boolean updateSyntaxHighlightingEDTidle = true;
 
+	// Syntax highlighting //
+
+	/** Thread lexing the documents for syntax highlighting */
+	private static final ExecutorService syntaxHighlighter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "Syntax highlighter");
+
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * Lexer state at the end of each line, and flags telling which lines have their style set from that state.
+	 * These are only changed under the document write lock, and read by the syntax highlighter under the read lock.
+	 */
+	private int[] lineStates = { JavaLexer.UNKNOWN };
+	private boolean[] styledLines = { false };
+	private int lineCount = 1;
+
+	/** Version of the text and line states, which is incremented when these are changed */
+	private int version;
+
+	/** Flag telling if the syntax highlighter is already queued to process this document */
+	private final AtomicBoolean syntaxHighlightingQueued = new AtomicBoolean();
+
+	/** First and last line visible in the view port */
+	private volatile int visibleStartLine;
+	private volatile int visibleEndLine;
+
 	/**
 	 * Constructor that creates a Java document.
 	 * 
@@ -769,213 +778,244 @@ public class JavaDocument extends StyledDocument {
 	}
 
 	/**
-	 * Perform syntax highlighting on the document. This implementation only performs syntax highlighting on the current
-	 * visible text in the view port of the text pane, and detects if the text has been changed before performing the
-	 * syntax highlighting.
+	 * Perform syntax highlighting on the document. The lexing is done by the syntax highlighter thread, which lexes
+	 * the changed lines until the lexer state at the end of a line is the same as before the change. The styles are
+	 * only set on the visible lines in the view port of the text pane, where lines are styled again only when these
+	 * have changed.
 	 * 
 	 * @throws BadLocationException
 	 */
 	private void performSyntaxHighlighting(boolean force) throws BadLocationException {
+		if (force) {
+			restyleAllLines();
+		}
 		// Return if there is nothing to highlight
 		if (getLength() == 0 && !force) {
 			return;
 		}
 
-		// Get the start and end offset of the visible text
-		
+		// Get the start and end line of the visible text
+
 		JViewport viewport = textPane.getViewport();
 		Point startPoint = viewport.getViewPosition();
 		Dimension size = viewport.getExtentSize();
 		Point endPoint = new Point(startPoint.x + size.width, startPoint.y + size.height);
 
-		int startOffset = textPane.viewToModel(startPoint);
-		int endOffset = textPane.viewToModel(endPoint);
-
-		// Return if the current start and end offset is equal to the last ones
-		if (!force && startOffset == lastSyntaxHighlightStartOffset && endOffset == lastSyntaxHighlightEndOffset) {
-			return;
-		}
-
-		lastSyntaxHighlightStartOffset = startOffset;
-		lastSyntaxHighlightEndOffset = endOffset;
-
-		setCharacterAttributes(startOffset, endOffset - startOffset, normalAttrSet, true);
-
-		// Get start and end line
-		int startLine = getElementIndex(startOffset);
-		int endLine = getElementIndex(endOffset);
+		visibleStartLine = getElementIndex(textPane.viewToModel(startPoint));
+		visibleEndLine = getElementIndex(textPane.viewToModel(endPoint));
 
-		// Process each changed line one by one from the start line to the end line
-		for (int line = startLine; line <= endLine; line++) {
-			processChangedLine(line);
+		// Queue the syntax highlighting, unless it is already queued and will see the current changes
+		if (syntaxHighlightingQueued.compareAndSet(false, true)) {
+			syntaxHighlighter.execute(new Runnable() {
+				public void run() {
+					syntaxHighlightingQueued.set(false);
+
+					final Highlighting[] highlighting = new Highlighting[1];
+
+					render(new Runnable() {
+						public void run() {
+							highlighting[0] = lexChangedLines();
+						}
+					});
+					if (highlighting[0] != null) {
+						SwingUtilities.invokeLater(new Runnable() {
+							public void run() {
+								applyHighlighting(highlighting[0]);
+							}
+						});
+					}
+				}
+			});
 		}
 	}
 
 	/**
-	 * Process changed line by applying syntax highlighting on the entire line at the given index.
-	 * 
-	 * @param lineIndex
-	 *            is the index of the line.
-	 * @throws BadLocationException
+	 * Marks all lines to be styled again, e.g. when the colors or styles have been changed.
 	 */
-	private void processChangedLine(int lineIndex) throws BadLocationException {
-		// Process the syntax tokens on the given line
-		Element element = getElement(lineIndex);
-
-		processLineTokens(element.getStartOffset(), getEndOffset(element));
+	private void restyleAllLines() {
+		writeLock();
+		try {
+			Arrays.fill(styledLines, 0, lineCount, false);
+			version++;
+		} finally {
+			writeUnlock();
+		}
 	}
 
 	/**
-	 * Process the syntax tokens contained in a line.
-	 * 
-	 * @param startOffset
-	 *            is the document start offset of the line to process.
-	 * @param endOffset
-	 *            is the document end offset of the line to process.
-	 * @throws BadLocationException
+	 * Updates the line states with the lines inserted or removed by a document change, and marks the changed lines
+	 * to be lexed again. This is called under the document write lock.
+	 *
+	 * @param e is the document event of the change.
 	 */
-	private void processLineTokens(int startOffset, int endOffset) throws BadLocationException {
-		// Calculate the length of the line based on the given start and end offset
-		int len = endOffset - startOffset;
+	private void updateLineStates(DocumentEvent e) {
+		DocumentEvent.ElementChange change = e.getChange(getDefaultRootElement());
+
+		if (change != null) {
+			int index = change.getIndex();
+			int removed = change.getChildrenRemoved().length;
+			int added = change.getChildrenAdded().length;
+			int newLineCount = lineCount - removed + added;
 
-		// Process tokens one by one
-		String textFragment = getText(startOffset, len);
-		int index = 0;
+			if (newLineCount > lineStates.length) {
+				int capacity = Math.max(2 * lineStates.length, newLineCount);
 
-		while (index < len) {
-			index += processToken(textFragment.substring(index), startOffset + index);
+				lineStates = Arrays.copyOf(lineStates, capacity);
+				styledLines = Arrays.copyOf(styledLines, capacity);
+			}
+			System.arraycopy(lineStates, index + removed, lineStates, index + added, lineCount - index - removed);
+			System.arraycopy(styledLines, index + removed, styledLines, index + added, lineCount - index - removed);
+			Arrays.fill(lineStates, index, index + added, JavaLexer.UNKNOWN);
+			Arrays.fill(styledLines, index, index + added, false);
+			lineCount = newLineCount;
+		}
+		int line = getElementIndex(e.getOffset());
+
+		if (line < lineCount) {
+			lineStates[line] = JavaLexer.UNKNOWN;
+			styledLines[line] = false;
 		}
+		version++;
 	}
 
 	/**
-	 * Process the syntax token contained in a text fragment.
-	 * 
-	 * @param textFragment
-	 *            is the text fragment.
-	 * @param startOffset
-	 *            is the start offset of the text fragment to process.
-	 * @return the number of processed characters.
-	 * @throws BadLocationException
+	 * Lexes the changed lines and the lines following these, until a line ends in the same lexer state as before the
+	 * change, and lexes the visible lines that must be styled into style runs. This is called under the document read
+	 * lock, and works on copies of the line states, which are handed over when the styles are applied.
+	 *
+	 * @return the highlighting to apply, or null if the document did not change.
 	 */
-	private int processToken(final String textFragment, final int startOffset) throws BadLocationException {
-		// Process quote token if the first character in the text fragment is a quote delimiter
-		if (isQuoteDelimiter(textFragment.charAt(0))) {
-			return processQuoteToken(textFragment, startOffset);
-		}
-		int len;
-
-		// Check if the token is a single line comment
-		// Note: Single line comment has higher precedence than a multiline comment.
-		if (textFragment.startsWith("//")) {
-			len = textFragment.length();
-			setCharacterAttributes(startOffset, len, commentAttrSet, true);
-			return len;
-		}
-		// Check if the token is a multiline comment
-		if (textFragment.startsWith("/*")) {
-			return processStartMultilineCommentToken(textFragment, startOffset);
+	private Highlighting lexChangedLines() {
+		final int count = getDefaultRootElement().getElementCount();
+		int[] states;
+		boolean[] styled;
+
+		if (count == lineCount) {
+			states = Arrays.copyOf(lineStates, count);
+			styled = Arrays.copyOf(styledLines, count);
+		} else {
+			// Should not happen, but start all over if the lines are out of sync with the document
+			states = new int[count];
+			styled = new boolean[count];
+			Arrays.fill(states, JavaLexer.UNKNOWN);
 		}
-		// Check if the token is in the middle of a multiline comment
-		if (isInMultilineComment(startOffset)) {
-			// Check if the token contains the end mark of the multiline comment
-			int endCommentIndex = textFragment.indexOf("*/");
 
-			if (endCommentIndex >= 0) {
-				len = endCommentIndex + 2; // Limit length to the end mark
-			} else {
-				len = textFragment.length(); // Use the whole token
+		Segment segment = new Segment();
+		JavaLexer.StyleRuns scratch = new JavaLexer.StyleRuns();
+		boolean changed = false;
+
+		int line = indexOfUnknown(states, 0);
+
+		while (line >= 0) {
+			int state = line > 0 ? states[line - 1] : JavaLexer.NORMAL;
+			int oldStartState = state;
+
+			for (;;) {
+				int oldState = states[line];
+
+				// The line must be styled again if its text or the state it starts in has changed
+				if (oldState == JavaLexer.UNKNOWN || state != oldStartState) {
+					styled[line] = false;
+				}
+				scratch.runCount = 0;
+				state = lexLine(line, state, segment, scratch);
+				states[line] = state;
+				oldStartState = oldState;
+				changed = true;
+
+				if (++line == count || state == oldState) {
+					break;
+				}
 			}
-			setCharacterAttributes(startOffset, len, commentAttrSet, true);
-			return len;
+			line = indexOfUnknown(states, line);
 		}
 
-		// Skip delimiter characters
-		len = 1;
-		while (len < textFragment.length()) {
-			char ch = textFragment.charAt(len);
+		JavaLexer.StyleRuns runs = new JavaLexer.StyleRuns();
+		int endLine = Math.min(visibleEndLine, count - 1);
 
-			if (!Character.isLetter(ch)) {
-				break;
+		for (line = Math.max(visibleStartLine, 0); line <= endLine; line++) {
+			if (!styled[line]) {
+				lexLine(line, line > 0 ? states[line - 1] : JavaLexer.NORMAL, segment, runs);
+				styled[line] = true;
+				changed = true;
 			}
-			len++;
 		}
+		return changed ? new Highlighting(version, states, styled, runs) : null;
+	}
 
-		// Limit token to current length, e.g. if it contained delimiter characters
-		String token = textFragment.substring(0, len);
-
-		// Check if the token is a keyword or an annotation
-		if (startOffset > 0 && !Character.isLetter(getText(startOffset - 1, 1).charAt(0)) || startOffset == 0) {
-			if (isKeyword(token)) {
-				setCharacterAttributes(startOffset, len, keywordAttrSet, true);
-			} else if (isPredefinedLiteral(token)) {
-				setCharacterAttributes(startOffset, len, literalAttrSet, true);
-			} else if (isAnnotation(token)) {
-				setCharacterAttributes(startOffset, len, annotationAttrSet, true);
-			} else {
-				len = 1;
+	private int lexLine(int line, int state, Segment segment, JavaLexer.StyleRuns runs) {
+		Element element = getElement(line);
+		int startOffset = element.getStartOffset();
+		int length = element.getEndOffset() - 1 - startOffset; // without the line separator
+
+		try {
+			getText(startOffset, length, segment);
+		} catch (BadLocationException e) {
+			e.printStackTrace();
+			return JavaLexer.UNKNOWN;
+		}
+		runs.addLine(startOffset, length);
+		return JavaLexer.lexLine(segment, startOffset, state, runs);
+	}
+
+	private static int indexOfUnknown(int[] states, int fromIndex) {
+		for (int i = fromIndex; i < states.length; i++) {
+			if (states[i] == JavaLexer.UNKNOWN) {
+				return i;
 			}
-		} else {
-			len = 1;
 		}
-		// Return the number of processed characters
-		return len;
+		return -1;
 	}
 
 	/**
-	 * Process a quote token.
-	 * 
-	 * @param textFragment
-	 *            is the text fragment.
-	 * @param startOffset
-	 *            is the start offset of the text fragment to process.
-	 * @return the number of processed characters.
-	 * @throws BadLocationException
+	 * Applies the style runs lexed by the syntax highlighter in one batch, unless the document has changed since.
+	 * In that case, the syntax highlighter has been queued again by the change.
+	 *
+	 * @param highlighting is the highlighting to apply.
 	 */
-	private int processQuoteToken(final String textFragment, final int startOffset) {
-		char quoteDelimiter = textFragment.charAt(0);
+	private void applyHighlighting(Highlighting highlighting) {
+		writeLock();
+		try {
+			if (highlighting.version != version) {
+				return;
+			}
+			lineStates = highlighting.states;
+			styledLines = highlighting.styled;
+			lineCount = highlighting.states.length;
 
-		// Find end quote if it exists. Ignore escaped quotes
-		int indexQuote = 1;
-		int quoteEndIndex = -1;
+			JavaLexer.StyleRuns runs = highlighting.runs;
 
-		for (;;) {
-			indexQuote = textFragment.indexOf(quoteDelimiter, indexQuote);
-			if (indexQuote <= 0 || indexQuote > textFragment.length()) {
-				break;
+			for (int i = 0; i < 2 * runs.lineCount; i += 2) {
+				setCharacterAttributes(runs.lines[i], runs.lines[i + 1], normalAttrSet, true);
 			}
-			if (textFragment.charAt(indexQuote - 1) != '\\') {
-				quoteEndIndex = indexQuote;
-				break;
+			for (int i = 0; i < 3 * runs.runCount; i += 3) {
+				setCharacterAttributes(runs.runs[i], runs.runs[i + 1], getAttributeSet(runs.runs[i + 2]), true);
 			}
-			indexQuote++;
+		} finally {
+			writeUnlock();
 		}
+	}
 
-		// Set length of token, if end quote was found
-		int len = quoteEndIndex >= 0 ? quoteEndIndex + 1 : textFragment.length();
+	private AttributeSet getAttributeSet(int kind) {
+		switch (kind) {
+		case JavaLexer.QUOTE:
+			return quoteAttrSet;
 
-		// Set quote attribute set
-		setCharacterAttributes(startOffset, len, quoteAttrSet, true);
+		case JavaLexer.KEYWORD:
+			return keywordAttrSet;
 
-		return len;
-	}
+		case JavaLexer.LITERAL:
+			return literalAttrSet;
 
-	/**
-	 * Process a multiline comment token.
-	 * 
-	 * @param textFragment
-	 *            is the text fragment.
-	 * @param startOffset
-	 *            is the start offset of the text fragment to process.
-	 * @return the number of processed characters.
-	 * @throws BadLocationException
-	 */
-	private int processStartMultilineCommentToken(final String textFragment, final int startOffset) {
-		int endIndex = textFragment.indexOf("*/", 1);
-		int len = endIndex >= 0 ? endIndex + 2 : textFragment.length();
+		case JavaLexer.ANNOTATION:
+			return annotationAttrSet;
 
-		setCharacterAttributes(startOffset, len, commentAttrSet, true);
+		case JavaLexer.COMMENT:
+			return commentAttrSet;
 
-		return len;
+		default:
+			return normalAttrSet;
+		}
 	}
 
 	/**
@@ -1028,47 +1068,20 @@ public class JavaDocument extends StyledDocument {
 	}
 
 	/**
-	 * Checks if a character is a quote delimiter character.
-	 * 
-	 * @param ch
-	 *            is the character.
-	 * @return true if the given character is a quote delimiter character; false otherwise.
-	 */
-	private static boolean isQuoteDelimiter(char ch) {
-		return QUOTE_DELIMITERS.indexOf(ch) >= 0;
-	}
-
-	/**
-	 * Checks if a token is a keyword.
-	 * 
-	 * @param token
-	 *            is the token.
-	 * @return true if the given token is a keyword; false otherwise.
+	 * Line states and style runs lexed by the syntax highlighter.
 	 */
-	private static boolean isKeyword(String token) {
-		return KEYWORDS.contains(token);
-	}
-
-	/**
-	 * Checks if a token is a predefined literal.
-	 * 
-	 * @param token
-	 *            is the token.
-	 * @return true if the given token is a predefined literal; false otherwise.
-	 */
-	private static boolean isPredefinedLiteral(String token) {
-		return PREDEFINED_LITERALS.contains(token);
-	}
-
-	/**
-	 * Checks if a token is an annotation.
-	 * 
-	 * @param token
-	 *            is the token.
-	 * @return true if the given token is an annotation; false otherwise.
-	 */
-	private static boolean isAnnotation(String token) {
-		return token.matches("@\\w.*");
+	private static class Highlighting {
+		final int version;
+		final int[] states;
+		final boolean[] styled;
+		final JavaLexer.StyleRuns runs;
+
+		Highlighting(int version, int[] states, boolean[] styled, JavaLexer.StyleRuns runs) {
+			this.version = version;
+			this.states = states;
+			this.styled = styled;
+			this.runs = runs;
+		}
 	}
 
 	/**
@@ -1092,6 +1105,9 @@ public class JavaDocument extends StyledDocument {
 		final CaretPositionUpdater caretPositionUpdater = new CaretPositionUpdater();
 		
 		public void insertUpdate(final DocumentEvent e) {
+			// Invalidate the line states of the changed lines
+			updateLineStates(e);
+
 			int newCaretPosition;
 			
 			// Check if the caret position has been changed by auto indentation
@@ -1112,6 +1128,9 @@ public class JavaDocument extends StyledDocument {
 		}
 
 		public void removeUpdate(final DocumentEvent e) {
+			// Invalidate the line states of the changed lines
+			updateLineStates(e);
+
 			// Set the caret position where the text was removed.
 			caretPositionUpdater.updateCaretPosition(e.getOffset());
 
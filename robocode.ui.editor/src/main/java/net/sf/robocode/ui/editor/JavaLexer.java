@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.editor;
+
+
+import javax.swing.text.Segment;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Lexer used for syntax highlighting Java source code one line at a time.
+ * <p>
+ * The lexer state at the end of a line is all that is needed to lex the next line, so it can be cached per line. After
+ * an edit, lines only need to be lexed again until a line ends in the same state as before the edit.
+ */
+final class JavaLexer {
+
+	/** Lexer state of a line that has not been lexed yet, which never equals a real state */
+	static final int UNKNOWN = -1;
+
+	/** Lexer state outside of comments */
+	static final int NORMAL = 0;
+
+	/** Lexer state inside a multiline comment */
+	static final int IN_COMMENT = 1;
+
+	// Token kinds of the style runs
+	static final int QUOTE = 1;
+	static final int KEYWORD = 2;
+	static final int LITERAL = 3;
+	static final int ANNOTATION = 4;
+	static final int COMMENT = 5;
+
+	/** Java keywords */
+	private static final Set<String> KEYWORDS = new HashSet<String>(
+			Arrays.asList(
+					new String[] {
+		"abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+		"default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+		"implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+		"protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+		"throw", "throws", "transient", "try", "void", "volatile", "while" }));
+
+	/** Predefined Java literals */
+	private static final Set<String> PREDEFINED_LITERALS = new HashSet<String>(
+			Arrays.asList(new String[] { "false", "true", "null" }));
+
+	/** Length of the longest keyword or literal, where longer identifiers are not looked up */
+	private static final int MAX_KEYWORD_LENGTH = 12;
+
+	private JavaLexer() {}
+
+	/**
+	 * Lexes a line and adds the style runs of its tokens, where text outside of the runs is normal text.
+	 *
+	 * @param line is the text of the line without the line separator.
+	 * @param lineOffset is the document offset of the line.
+	 * @param state is the lexer state at the end of the previous line.
+	 * @param runs is the style runs to add the tokens of the line to.
+	 * @return the lexer state at the end of the line.
+	 */
+	static int lexLine(Segment line, int lineOffset, int state, StyleRuns runs) {
+		final char[] s = line.array;
+		final int base = line.offset;
+		final int n = line.count;
+		int i = 0;
+
+		if (state == IN_COMMENT) {
+			int end = indexOfCommentEnd(s, base, 0, n);
+
+			if (end < 0) {
+				runs.add(lineOffset, n, COMMENT);
+				return IN_COMMENT;
+			}
+			runs.add(lineOffset, end, COMMENT);
+			i = end;
+		}
+		while (i < n) {
+			char ch = s[base + i];
+
+			if (ch == '"' || ch == '\'') {
+				// Quotes end at the matching quote delimiter, ignoring escaped characters, or at the end of the line
+				int j = i + 1;
+
+				while (j < n) {
+					char c = s[base + j++];
+
+					if (c == '\\') {
+						j++;
+					} else if (c == ch) {
+						break;
+					}
+				}
+				j = Math.min(j, n);
+				runs.add(lineOffset + i, j - i, QUOTE);
+				i = j;
+			} else if (ch == '/' && i + 1 < n && s[base + i + 1] == '/') {
+				// Single line comment has higher precedence than a multiline comment
+				runs.add(lineOffset + i, n - i, COMMENT);
+				return NORMAL;
+			} else if (ch == '/' && i + 1 < n && s[base + i + 1] == '*') {
+				int end = indexOfCommentEnd(s, base, i + 2, n);
+
+				if (end < 0) {
+					runs.add(lineOffset + i, n - i, COMMENT);
+					return IN_COMMENT;
+				}
+				runs.add(lineOffset + i, end - i, COMMENT);
+				i = end;
+			} else if (Character.isJavaIdentifierStart(ch)) {
+				int j = identifierEnd(s, base, i + 1, n);
+				int len = j - i;
+
+				if (len <= MAX_KEYWORD_LENGTH && Character.isLowerCase(ch)) {
+					String token = new String(s, base + i, len);
+
+					if (KEYWORDS.contains(token)) {
+						runs.add(lineOffset + i, len, KEYWORD);
+					} else if (PREDEFINED_LITERALS.contains(token)) {
+						runs.add(lineOffset + i, len, LITERAL);
+					}
+				}
+				i = j;
+			} else if (ch == '@' && i + 1 < n && Character.isJavaIdentifierStart(s[base + i + 1])) {
+				int j = identifierEnd(s, base, i + 2, n);
+
+				runs.add(lineOffset + i, j - i, ANNOTATION);
+				i = j;
+			} else {
+				i++;
+			}
+		}
+		return NORMAL;
+	}
+
+	/**
+	 * Returns the index after the end mark of a multiline comment, or -1 if the comment does not end on the line.
+	 */
+	private static int indexOfCommentEnd(char[] s, int base, int from, int n) {
+		for (int i = from; i + 1 < n; i++) {
+			if (s[base + i] == '*' && s[base + i + 1] == '/') {
+				return i + 2;
+			}
+		}
+		return -1;
+	}
+
+	private static int identifierEnd(char[] s, int base, int from, int n) {
+		int i = from;
+
+		while (i < n && Character.isJavaIdentifierPart(s[base + i])) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Style runs given by document offset, length and token kind, and the lines the runs belong to, which must be set
+	 * to normal text before the runs are applied.
+	 */
+	static final class StyleRuns {
+		int[] runs = new int[3 * 64];
+		int runCount;
+
+		int[] lines = new int[2 * 16];
+		int lineCount;
+
+		void add(int offset, int length, int kind) {
+			if (length <= 0) {
+				return;
+			}
+			// Extend the previous run if it is adjacent and of the same kind
+			if (runCount > 0) {
+				int last = 3 * (runCount - 1);
+
+				if (runs[last + 2] == kind && runs[last] + runs[last + 1] == offset) {
+					runs[last + 1] += length;
+					return;
+				}
+			}
+			if (3 * runCount == runs.length) {
+				runs = Arrays.copyOf(runs, 2 * runs.length);
+			}
+			int i = 3 * runCount++;
+
+			runs[i] = offset;
+			runs[i + 1] = length;
+			runs[i + 2] = kind;
+		}
+
+		void addLine(int offset, int length) {
+			if (2 * lineCount == lines.length) {
+				lines = Arrays.copyOf(lines, 2 * lines.length);
+			}
+			int i = 2 * lineCount++;
+
+			lines[i] = offset;
+			lines[i + 1] = length;
+		}
+	}
+}
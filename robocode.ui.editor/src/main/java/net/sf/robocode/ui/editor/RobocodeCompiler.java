@@ -14,8 +14,17 @@ import net.sf.robocode.repository.CodeSizeCalculator;
 import net.sf.robocode.ui.dialog.ConsoleDialog;
 import net.sf.robocode.ui.dialog.WindowUtil;
 
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 
 /**
@@ -28,18 +37,22 @@ public class RobocodeCompiler {
 	private final RobocodeEditor editor;
 	private final String compilerOptions;
 	private final String compilerClassPath;
+	private final InProcessCompiler inProcessCompiler;
 
 	protected RobocodeCompiler(RobocodeEditor editor, String binary, String options, String classPath) {
+		this(editor, binary, options, classPath, null);
+	}
+
+	RobocodeCompiler(RobocodeEditor editor, String binary, String options, String classPath, InProcessCompiler inProcessCompiler) {
 		super();
 		this.compilerBinary = binary;
 		this.compilerOptions = options;
 		this.compilerClassPath = classPath;
 		this.editor = editor;
+		this.inProcessCompiler = inProcessCompiler;
 	}
 
 	public void compile(String directory, String fileName) {
-		fileName = FileUtil.quoteFileName(fileName);
-
 		ConsoleDialog console;
 
 		if (editor != null) {
@@ -51,6 +64,139 @@ public class RobocodeCompiler {
 		console.setText("Compiling...\n");
 		WindowUtil.centerShow(editor, console);
 
+		Integer codesize;
+
+		if (inProcessCompiler != null) {
+			Map<File, byte[]> classes = new LinkedHashMap<File, byte[]>();
+
+			try {
+				if (compileInProcess(fileName, console, classes)) {
+					codesize = getCodeSize(directory, classes);
+					InProcessCompiler.writeClasses(classes);
+
+					console.append("Compiled successfully.\n");
+					console.setTitle("Compiled successfully.");
+				} else {
+					console.append("Compile Failed\n");
+					console.setTitle("Compile failed.");
+					return;
+				}
+			} catch (IllegalArgumentException e) {
+				// An option is not supported by the compiler running in-process, so the external compiler is used
+				Logger.logMessage("Compiling with " + compilerBinary + ": " + e.getMessage());
+				codesize = compileExternal(directory, fileName, console);
+			} catch (IOException e) {
+				console.append("Unable to compile!\n");
+				console.append("Exception was: " + e.toString() + "\n");
+				console.setTitle("Exception while compiling");
+				return;
+			}
+		} else {
+			codesize = compileExternal(directory, fileName, console);
+		}
+		printCodeSize(codesize, console);
+	}
+
+	private boolean compileInProcess(String fileName, final ConsoleDialog console, Map<File, byte[]> classes) throws IOException {
+		List<String> options = new ArrayList<String>();
+
+		options.addAll(split(compilerOptions));
+		options.addAll(split(compilerClassPath));
+
+		Logger.logMessage("Compile in-process: " + options + " " + fileName);
+
+		Writer out = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				console.append(new String(cbuf, off, len));
+			}
+
+			@Override
+			public void flush() {}
+
+			@Override
+			public void close() {}
+		};
+
+		return inProcessCompiler.compile(new File(fileName), options, out, classes);
+	}
+
+	private static List<String> split(String options) {
+		List<String> list = new ArrayList<String>();
+
+		if (options != null) {
+			for (String option : Arrays.asList(options.trim().split(" "))) {
+				if (option.length() > 0) {
+					list.add(option);
+				}
+			}
+		}
+		return list;
+	}
+
+	// Measures the robot directory like it is done after compiling externally, where the classes just compiled, which
+	// have not been written yet, replace the class files with the same path
+	private static Integer getCodeSize(String directory, Map<File, byte[]> classes) throws IOException {
+		File dir = new File(directory).getCanonicalFile();
+		Map<String, byte[]> classFiles = new TreeMap<String, byte[]>();
+
+		readClassFiles(dir, "", classFiles);
+
+		for (Map.Entry<File, byte[]> entry : classes.entrySet()) {
+			String path = getRelativePath(dir, entry.getKey().getCanonicalFile());
+
+			if (path != null) {
+				classFiles.put(path, entry.getValue());
+			}
+		}
+		return CodeSizeCalculator.getClassFilesCodeSize(dir, classFiles);
+	}
+
+	private static void readClassFiles(File dir, String path, Map<String, byte[]> classFiles) throws IOException {
+		File[] files = dir.listFiles();
+
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				readClassFiles(file, path + file.getName() + '/', classFiles);
+			} else if (file.getName().endsWith(".class")) {
+				classFiles.put(path + file.getName(), readFile(file));
+			}
+		}
+	}
+
+	private static byte[] readFile(File file) throws IOException {
+		DataInputStream in = null;
+
+		try {
+			in = new DataInputStream(new FileInputStream(file));
+			byte[] bytes = new byte[(int) file.length()];
+
+			in.readFully(bytes);
+			return bytes;
+		} finally {
+			FileUtil.cleanupStream(in);
+		}
+	}
+
+	// Returns the path of the file relative to the directory with '/' as separator, or null if it is not within it
+	private static String getRelativePath(File dir, File file) {
+		StringBuilder path = new StringBuilder(file.getName());
+
+		for (File parent = file.getParentFile(); parent != null; parent = parent.getParentFile()) {
+			if (parent.equals(dir)) {
+				return path.toString();
+			}
+			path.insert(0, '/').insert(0, parent.getName());
+		}
+		return null;
+	}
+
+	private Integer compileExternal(String directory, String fileName, ConsoleDialog console) {
+		fileName = FileUtil.quoteFileName(fileName);
+
 		try {
 			StringBuffer command = new StringBuffer(compilerBinary).append(' ').append(compilerOptions).append(' ').append(compilerClassPath).append(' ').append(
 					fileName);
@@ -87,7 +233,10 @@ public class RobocodeCompiler {
 			console.setTitle("Compile interrupted.");
 		}
 
-		Integer codesize = CodeSizeCalculator.getDirectoryCodeSize(new File(directory));
+		return CodeSizeCalculator.getDirectoryCodeSize(new File(directory));
+	}
+
+	private static void printCodeSize(Integer codesize, ConsoleDialog console) {
 		if (codesize != null) {
 			String weightClass = null;
 
@@ -30,19 +30,37 @@ public class RobocodeCompilerFactory {
 
 	private CompilerProperties compilerProperties;
 
+	// javac running in-process, which is kept loaded between compiles
+	private InProcessCompiler inProcessCompiler;
+	private boolean inProcessCompilerLookedUp;
+
 	public RobocodeCompiler createCompiler(RobocodeEditor editor) {
 		compilerProperties = null;
 		if (getCompilerProperties().getCompilerBinary() == null
 				|| getCompilerProperties().getCompilerBinary().length() == 0) {
 			if (configureCompiler(editor)) {
-				return new RobocodeCompiler(editor, getCompilerProperties().getCompilerBinary(),
-						getCompilerProperties().getCompilerOptions(), getCompilerProperties().getCompilerClasspath());
+				return newCompiler(editor);
 			}
 			logError("Unable to create compiler.");
 			return null;
 		}
-		return new RobocodeCompiler(editor, getCompilerProperties().getCompilerBinary(),
-				getCompilerProperties().getCompilerOptions(), getCompilerProperties().getCompilerClasspath());
+		return newCompiler(editor);
+	}
+
+	private RobocodeCompiler newCompiler(RobocodeEditor editor) {
+		String binary = getCompilerProperties().getCompilerBinary();
+
+		return new RobocodeCompiler(editor, binary, getCompilerProperties().getCompilerOptions(),
+				getCompilerProperties().getCompilerClasspath(),
+				InProcessCompiler.isJavac(binary) ? getInProcessCompiler() : null);
+	}
+
+	private synchronized InProcessCompiler getInProcessCompiler() {
+		if (!inProcessCompilerLookedUp && !System.getProperty("INPROCESSCOMPILER", "true").equals("false")) {
+			inProcessCompiler = InProcessCompiler.create();
+			inProcessCompilerLookedUp = true;
+		}
+		return inProcessCompiler;
 	}
 
 	public CompilerProperties getCompilerProperties() {
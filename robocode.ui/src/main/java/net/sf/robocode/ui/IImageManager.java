@@ -9,6 +9,7 @@ package net.sf.robocode.ui;
 
 
 import net.sf.robocode.ui.gfx.RenderObject;
+import net.sf.robocode.ui.gfx.RobotSprites;
 
 import java.awt.Image;
 
@@ -25,9 +26,18 @@ public interface IImageManager {
 
 	RenderObject getExplosionDebriseRenderImage();
 
-	RenderObject getColoredBodyRenderImage(Integer color);
+	/**
+	 * Returns the body, gun and radar of a robot colored with the specified colors.
+	 */
+	RobotSprites getRobotSprites(int bodyColor, int gunColor, int radarColor);
 
-	RenderObject getColoredGunRenderImage(Integer color);
+	/**
+	 * Returns the number of times the robot sprites were found in the cache.
+	 */
+	long getSpriteCacheHits();
 
-	RenderObject getColoredRadarRenderImage(Integer color);
+	/**
+	 * Returns the number of times the robot sprites had to be colored, as they were not in the cache.
+	 */
+	long getSpriteCacheMisses();
 }
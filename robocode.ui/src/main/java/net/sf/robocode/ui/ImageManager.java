@@ -14,17 +14,19 @@ import net.sf.robocode.ui.gfx.ImageUtil;
 import net.sf.robocode.ui.gfx.RenderImage;
 import net.sf.robocode.ui.gfx.RenderImageRegion;
 import net.sf.robocode.ui.gfx.RenderObject;
+import net.sf.robocode.ui.gfx.RobotSprites;
+import net.sf.robocode.ui.gfx.RotatedRenderImage;
 
 import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.Image;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 
 /**
@@ -48,13 +50,18 @@ public class ImageManager implements IImageManager {
 	private Image gunImage;
 	private Image radarImage;
 
-	private static final int MAX_NUM_COLORS = 256;
+	// Maximum number of megabytes used by the colored robot sprites
+	private static final long SPRITE_CACHE_SIZE = Long.parseLong(System.getProperty("SPRITECACHESIZE", "64")) << 20;
 
-	private HashMap<Integer, Image> gl2RobotImageCache;
+	// Number of rotations pre-rendered for the robot sprites, where 0 means the sprites are rotated when drawn.
+	// The sprites of a robot take about 2 MB with 64 rotations, so the cache size must be raised for big melee battles.
+	private static final int SPRITE_ROTATIONS = Integer.parseInt(System.getProperty("SPRITEROTATIONS", "0"));
 
-	private HashMap<Integer, RenderObject> robotBodyImageCache;
-	private HashMap<Integer, RenderObject> robotGunImageCache;
-	private HashMap<Integer, RenderObject> robotRadarImageCache;
+	private SpriteCache spriteCache;
+	private final SpriteKey spriteLookupKey = new SpriteKey(0, 0, 0);
+
+	private long spriteCacheHits;
+	private long spriteCacheMisses;
 
 	public ImageManager(ISettingsManager properties) {
 		this.properties = properties;
@@ -70,10 +77,10 @@ public class ImageManager implements IImageManager {
 		bodyImage = null;
 		gunImage = null;
 		radarImage = null;
-		gl2RobotImageCache = new RenderCache<Integer, Image>();
-		robotBodyImageCache = new RenderCache<Integer, RenderObject>();
-		robotGunImageCache = new RenderCache<Integer, RenderObject>();
-		robotRadarImageCache = new RenderCache<Integer, RenderObject>();
+		gl2RobotImage = null;
+		spriteCache = new SpriteCache(SPRITE_CACHE_SIZE);
+		spriteCacheHits = 0;
+		spriteCacheMisses = 0;
 
 		// Read images into the cache
 		getBodyImage();
@@ -225,94 +232,140 @@ public class ImageManager implements IImageManager {
 		return radarImage;
 	}
 
-	private Image getColoredGl2RobotImage(Integer color) {
-		Image img = gl2RobotImageCache.get(color);
-		if (img == null) {
-			img = ImageUtil.createColouredRobotImage(getGl2RobotImage(), new Color(color, true));
-			gl2RobotImageCache.put(color, img);
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The sprites are kept in a cache bounded by the memory used by the images, where the least recently used sprites
+	 * are removed first. The cache is looked up without allocating memory.
+	 */
+	public RobotSprites getRobotSprites(int bodyColor, int gunColor, int radarColor) {
+		spriteLookupKey.set(bodyColor, gunColor, radarColor);
+
+		RobotSprites sprites = spriteCache.get(spriteLookupKey);
+
+		if (sprites != null) {
+			spriteCacheHits++;
+			return sprites;
+		}
+		spriteCacheMisses++;
+
+		if (USE_GL2_IMAGE) {
+			BufferedImage image = toBufferedImage(getGl2RobotImage());
+
+			sprites = createRobotSprites(new Sprite(image, 2, 100, 205, 230, GL2_ROBOT_SCALE, bodyColor),
+					new Sprite(image, 209, 30, 121, 300, GL2_ROBOT_SCALE, gunColor),
+					new Sprite(image, 2, 2, 151, 96, GL2_ROBOT_SCALE, radarColor));
+		} else {
+			sprites = createRobotSprites(new Sprite(toBufferedImage(getBodyImage()), bodyColor),
+					new Sprite(toBufferedImage(getGunImage()), gunColor),
+					new Sprite(toBufferedImage(getRadarImage()), radarColor));
 		}
-		return img;
+		spriteCache.add(new SpriteKey(bodyColor, gunColor, radarColor), sprites);
+		return sprites;
 	}
 
-	public RenderObject getColoredBodyRenderImage(Integer color) {
-		RenderObject img = robotBodyImageCache.get(color);
-		if (img == null) {
-			if (USE_GL2_IMAGE) {
-				img = new RenderImageRegion(getColoredGl2RobotImage(color),
-					2, 100, 205, 230, GL2_ROBOT_SCALE);
-			} else {
-				img = new RenderImage(ImageUtil.createColouredRobotImage(getBodyImage(), new Color(color, true)));
-			}
-			robotBodyImageCache.put(color, img);
-		}
-		return img;
+	public long getSpriteCacheHits() {
+		return spriteCacheHits;
 	}
 
-	public RenderObject getColoredGunRenderImage(Integer color) {
-		RenderObject img = robotGunImageCache.get(color);
+	public long getSpriteCacheMisses() {
+		return spriteCacheMisses;
+	}
 
-		if (img == null) {
-			if (USE_GL2_IMAGE) {
-				img = new RenderImageRegion(getColoredGl2RobotImage(color),
-					209, 30, 121, 300, GL2_ROBOT_SCALE);
+	private static RobotSprites createRobotSprites(Sprite body, Sprite gun, Sprite radar) {
+		return new RobotSprites(body.renderObject, gun.renderObject, radar.renderObject,
+				body.size + gun.size + radar.size);
+	}
+
+	private static BufferedImage toBufferedImage(Image image) {
+		return image instanceof BufferedImage ? (BufferedImage) image : ImageUtil.getBufferedImage(image);
+	}
+
+	/**
+	 * A robot part colored with the color of the robot, which is cut out of the image containing the robot parts.
+	 */
+	private static class Sprite {
+		final RenderObject renderObject;
+		final long size;
+
+		Sprite(BufferedImage image, int color) {
+			this(image, 0, 0, image.getWidth(), image.getHeight(), 1, color);
+		}
+
+		Sprite(BufferedImage image, int sx, int sy, int w, int h, double scale, int color) {
+			BufferedImage colored = ImageUtil.createColouredRobotImage(image, sx, sy, w, h, new Color(color, true));
+
+			if (SPRITE_ROTATIONS > 0) {
+				RotatedRenderImage rotated = new RotatedRenderImage(colored, scale, SPRITE_ROTATIONS);
+
+				renderObject = rotated;
+				size = rotated.getSize();
 			} else {
-				img = new RenderImage(ImageUtil.createColouredRobotImage(getGunImage(), new Color(color, true)));
+				renderObject = new RenderImageRegion(colored, 0, 0, w, h, scale);
+				size = 4L * w * h;
 			}
-			robotGunImageCache.put(color, img);
 		}
-		return img;
 	}
 
-	public RenderObject getColoredRadarRenderImage(Integer color) {
-		RenderObject img = robotRadarImageCache.get(color);
+	/**
+	 * Key of the robot sprites, which is the colors of the body, gun and radar.
+	 */
+	private static final class SpriteKey {
+		private int bodyColor;
+		private int gunColor;
+		private int radarColor;
 
-		if (img == null) {
-			if (USE_GL2_IMAGE) {
-				img = new RenderImageRegion(getColoredGl2RobotImage(color),
-					2, 2, 151, 96, GL2_ROBOT_SCALE);
-			} else {
-				img = new RenderImage(ImageUtil.createColouredRobotImage(getRadarImage(), new Color(color, true)));
+		SpriteKey(int bodyColor, int gunColor, int radarColor) {
+			set(bodyColor, gunColor, radarColor);
+		}
+
+		void set(int bodyColor, int gunColor, int radarColor) {
+			this.bodyColor = bodyColor;
+			this.gunColor = gunColor;
+			this.radarColor = radarColor;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof SpriteKey)) {
+				return false;
 			}
-			robotRadarImageCache.put(color, img);
+			SpriteKey key = (SpriteKey) o;
+
+			return bodyColor == key.bodyColor && gunColor == key.gunColor && radarColor == key.radarColor;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * bodyColor + gunColor) * 31 + radarColor;
 		}
-		return img;
 	}
 
 	/**
-	 * Class used for caching rendered robot parts in various colors.
-	 *
-	 * @author Titus Chen
+	 * Cache of robot sprites, where the least recently used sprites are removed when the images of the sprites use
+	 * more memory than the maximum size. The most recently added sprites are always kept.
 	 */
 	@SuppressWarnings("serial")
-	private static class RenderCache<K, V> extends LinkedHashMap<K, V> {
-
-		/* Note about initial capacity:
-		 * To avoid rehashing (inefficient though probably unavoidable), initial
-		 * capacity must be at least 1 greater than the maximum capacity.
-		 * However, initial capacities are set to the smallest power of 2 greater
-		 * than or equal to the passed argument, resulting in 512 with this code.
-		 * I was not aware of this before, but notice: the current implementation
-		 * behaves similarly.  The simple solution would be to set maximum capacity
-		 * to 255, but the problem with doing so is that in a battle of 256 robots
-		 * of different colors, the net result would end up being real-time
-		 * rendering due to the nature of access ordering.  However, 256 robot
-		 * battles are rarely fought.
-		 */
-		private static final int INITIAL_CAPACITY = MAX_NUM_COLORS + 1;
-
-		private static final float LOAD_FACTOR = 1;
-
-		public RenderCache() {
-
-			/* The "true" parameter needed for access-order:
-			 * when cache fills, the least recently accessed entry is removed
-			 */
-			super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+	private static class SpriteCache extends LinkedHashMap<SpriteKey, RobotSprites> {
+		private final long maxSize;
+		private long size;
+
+		SpriteCache(long maxSize) {
+			// The "true" parameter needed for access-order
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
 		}
 
-		@Override
-		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-			return size() > MAX_NUM_COLORS;
+		void add(SpriteKey key, RobotSprites sprites) {
+			put(key, sprites);
+			size += sprites.getSize();
+
+			Iterator<RobotSprites> it = values().iterator();
+
+			while (size > maxSize && size() > 1) {
+				size -= it.next().getSize();
+				it.remove();
+			}
 		}
 	}
 }
@@ -17,6 +17,8 @@ import net.sf.robocode.io.FileUtil;
 import net.sf.robocode.repository.IRepositoryManager;
 import net.sf.robocode.settings.ISettingsManager;
 import net.sf.robocode.ui.battle.AwtBattleAdaptor;
+import net.sf.robocode.ui.battleview.BattleFrameWriter;
+import net.sf.robocode.ui.battleview.PngSequenceSink;
 import net.sf.robocode.ui.dialog.AboutBox;
 import net.sf.robocode.ui.dialog.FileDropHandler;
 import net.sf.robocode.ui.dialog.NewBattleDialog;
@@ -784,6 +786,11 @@ public class WindowManager implements IWindowManagerExt {
 		}
 	}
 
+	public IBattleListener createFrameWriter(File directory, int width, int height, int framesPerTurn) throws IOException {
+		return new BattleFrameWriter(settingsManager, width, height, framesPerTurn,
+				Runtime.getRuntime().availableProcessors(), new PngSequenceSink(directory));
+	}
+
 	public void runIntroBattle() {
 		final File intro = new File(FileUtil.getCwd(), "battles/intro.battle");
 		if (intro.exists()) {
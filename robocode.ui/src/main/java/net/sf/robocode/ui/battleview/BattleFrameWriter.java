@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.battleview;
+
+
+import net.sf.robocode.io.Logger;
+import net.sf.robocode.settings.ISettingsManager;
+import net.sf.robocode.ui.ImageManager;
+import robocode.BattleRules;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleFinishedEvent;
+import robocode.control.events.BattleStartedEvent;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+
+/**
+ * Battle listener that renders the turns of battles into frames without a display, e.g. for making videos of battle
+ * records. It is added as listener to the battle manager, and renders the turns of live battles as well as replayed
+ * battle records:
+ * <pre>
+ * battleManager.addListener(new BattleFrameWriter(properties, 800, 600, 2, 4, new PngSequenceSink(dir)));
+ * </pre>
+ * The frames are drawn by a {@link BattleRenderer} into plain Java2D images by a pool of rendering threads, each
+ * having its own renderer and images, and are encoded by the rendering threads too. The encoded frames are written
+ * into the frame sink in the order of the battle.
+ */
+public class BattleFrameWriter extends BattleAdaptor {
+
+	private final ISettingsManager properties;
+	private final int width;
+	private final int height;
+	private final int framesPerTurn;
+	private final int maxPendingFrames;
+	private final IFrameSink sink;
+
+	private final ExecutorService executor;
+
+	private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+		@Override
+		protected Worker initialValue() {
+			return new Worker();
+		}
+	};
+
+	// Frames being rendered, in the order of the battle
+	private final Queue<Future<byte[]>> pendingFrames = new ArrayDeque<Future<byte[]>>();
+	private int frameNumber;
+
+	private int battleNumber;
+	private BattleRules battleRules;
+	private int robotsCount;
+	private long groundSeed;
+	private ITurnSnapshot lastSnapshot;
+
+	/**
+	 * Creates a new frame writer.
+	 *
+	 * @param properties    the settings for the drawing options
+	 * @param width         the width of the frames
+	 * @param height        the height of the frames
+	 * @param framesPerTurn the number of frames rendered per turn, where the robots and bullets are interpolated
+	 *                      between the turns
+	 * @param threads       the number of rendering threads
+	 * @param sink          the sink receiving the frames
+	 */
+	public BattleFrameWriter(ISettingsManager properties, int width, int height, int framesPerTurn, int threads, IFrameSink sink) {
+		this.properties = properties;
+		this.width = width;
+		this.height = height;
+		this.framesPerTurn = Math.max(1, framesPerTurn);
+		this.maxPendingFrames = 4 * Math.max(1, threads);
+		this.sink = sink;
+
+		executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+			private int count;
+
+			public synchronized Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Frame renderer " + (++count));
+
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Returns the number of frames written so far.
+	 */
+	public int getFrameCount() {
+		return frameNumber;
+	}
+
+	/**
+	 * Waits for the pending frames to be written, and closes the frame sink.
+	 */
+	public void close() {
+		writeFrames(0);
+		executor.shutdown();
+		try {
+			sink.close();
+		} catch (IOException e) {
+			Logger.logError(e);
+		}
+	}
+
+	@Override
+	public void onBattleStarted(BattleStartedEvent event) {
+		battleNumber++;
+		battleRules = event.getBattleRules();
+		robotsCount = event.getRobotsCount();
+		// All rendering threads draw the ground of a battle from the same seed, so the ground is the same in all frames
+		groundSeed = new Random().nextLong();
+		lastSnapshot = null;
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		final ITurnSnapshot snapshot = event.getTurnSnapshot();
+
+		if (snapshot == null || battleRules == null) {
+			return;
+		}
+		ITurnSnapshot last = lastSnapshot;
+
+		if (last != null && (last.getRound() != snapshot.getRound() || last.getTurn() + 1 != snapshot.getTurn())) {
+			last = null;
+		}
+		for (int frame = 1; frame <= framesPerTurn; frame++) {
+			double t = (last == null) ? 1 : (double) frame / framesPerTurn;
+
+			pendingFrames.add(executor.submit(new FrameTask(battleNumber, battleRules, robotsCount, groundSeed, snapshot, last, t)));
+			writeFrames(maxPendingFrames);
+		}
+		lastSnapshot = snapshot;
+	}
+
+	@Override
+	public void onBattleFinished(BattleFinishedEvent event) {
+		writeFrames(0);
+		lastSnapshot = null;
+	}
+
+	/**
+	 * Writes the rendered frames in order, while waiting for the frames beyond the specified number of pending frames.
+	 */
+	private void writeFrames(int maxPending) {
+		while (!pendingFrames.isEmpty() && (pendingFrames.size() > maxPending || pendingFrames.peek().isDone())) {
+			Future<byte[]> frame = pendingFrames.poll();
+
+			try {
+				sink.write(frameNumber, frame.get());
+				frameNumber++;
+			} catch (ExecutionException e) {
+				Logger.logError(e.getCause());
+			} catch (IOException e) {
+				Logger.logError(e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private final class Worker {
+		final BattleRenderer renderer;
+		final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		int battleNumber;
+
+		Worker() {
+			// Each renderer has its own image manager, as the render objects are transformed while being painted
+			ImageManager imageManager = new ImageManager(properties);
+
+			imageManager.initialize();
+			renderer = new BattleRenderer(properties, imageManager);
+		}
+	}
+
+	private final class FrameTask implements Callable<byte[]> {
+		private final int battleNumber;
+		private final BattleRules battleRules;
+		private final int robotsCount;
+		private final long groundSeed;
+		private final ITurnSnapshot snapshot;
+		private final ITurnSnapshot lastSnapshot;
+		private final double t;
+
+		FrameTask(int battleNumber, BattleRules battleRules, int robotsCount, long groundSeed, ITurnSnapshot snapshot,
+				ITurnSnapshot lastSnapshot, double t) {
+			this.battleNumber = battleNumber;
+			this.battleRules = battleRules;
+			this.robotsCount = robotsCount;
+			this.groundSeed = groundSeed;
+			this.snapshot = snapshot;
+			this.lastSnapshot = lastSnapshot;
+			this.t = t;
+		}
+
+		public byte[] call() throws IOException {
+			final Worker worker = workers.get();
+			final BattleRenderer renderer = worker.renderer;
+			final Graphics2D g = worker.image.createGraphics();
+
+			try {
+				if (worker.battleNumber != battleNumber) {
+					renderer.setGroundSeed(groundSeed);
+					renderer.startBattle(battleRules, robotsCount);
+					worker.battleNumber = battleNumber;
+				}
+				if (!renderer.isInitialized()) {
+					renderer.initialize(width, height, g);
+				}
+				renderer.drawBattle(g, snapshot, lastSnapshot, t);
+			} finally {
+				g.dispose();
+			}
+			return sink.encode(worker.image);
+		}
+	}
+}
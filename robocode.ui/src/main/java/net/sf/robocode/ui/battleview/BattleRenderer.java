@@ -0,0 +1,873 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.battleview;
+
+
+import net.sf.robocode.battle.snapshot.RobotSnapshot;
+import net.sf.robocode.robotpaint.BadPaintException;
+import net.sf.robocode.robotpaint.Graphics2DSerialized;
+import net.sf.robocode.robotpaint.IGraphicsProxy;
+import net.sf.robocode.settings.ISettingsManager;
+import net.sf.robocode.ui.IImageManager;
+import net.sf.robocode.ui.gfx.GraphicsState;
+import net.sf.robocode.ui.gfx.RenderObject;
+import net.sf.robocode.ui.gfx.RobotSprites;
+import robocode.BattleRules;
+import robocode.Rules;
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+import robocode.util.Utils;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.round;
+import static java.lang.Math.sqrt;
+
+
+/**
+ * Draws turn snapshots of a battle onto a Graphics2D, which is used by the {@link BattleView} and for rendering
+ * battles into images without a display.
+ * <p>
+ * A renderer keeps state between frames, like the pre-rendered ground and the proxies replaying the robot paintings,
+ * so it must be used by one thread at a time. Renderers running in parallel must each use their own image manager.
+ *
+ * @author Mathew A. Nelson (original)
+ * @author Flemming N. Larsen (original)
+ * @author Pavel Savara (contributor)
+ */
+public class BattleRenderer {
+
+	private static final Color CANVAS_BG_COLOR = new Color(23, 23, 23); // new Color(12, 12, 12); // SystemColor.controlDkShadow;
+	private static final Color GROUND_COLOR = new Color(23, 23, 23); // Color.BLACK
+	private static final Color EDGE_COLOR = new Color(255, 255, 255, 32); // Color.RED;
+
+	private static final Color SENTRY_BORDER_COLOR = new Color(0xff, 0x00, 0x00, 0x80);
+
+	private static final AlphaComposite SCAN_ARC_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.2f);
+
+	private static final AffineTransform IDENTITY = new AffineTransform();
+
+	private static final int ROBOT_TEXT_Y_OFFSET = 24;
+
+	private static final BasicStroke DEFAULT_STROKE = new BasicStroke();
+
+	private BattleRules battleRules;
+
+	// The battle and battlefield,
+	private BattleField battleField = new BattleField(800, 600);
+
+	// The size of the view the battlefield is drawn in
+	private int viewWidth;
+	private int viewHeight;
+
+	private boolean initialized;
+	private double scale = 1.0;
+
+	// Ground
+	private int[][] groundTiles;
+
+	private final int groundTileWidth = 64;
+	private final int groundTileHeight = 64;
+
+	private Image groundImage;
+
+	// Seed of the ground tiles, or null for a new random ground whenever the tiles are made
+	private Long groundSeed;
+
+	// Draw option related things
+	private boolean drawRobotName;
+	private boolean drawRobotEnergy;
+	private boolean drawScanArcs;
+	private boolean drawExplosions;
+	private boolean drawGround;
+	private boolean drawExplosionDebris;
+	private boolean allowScaleUp;
+
+	private RenderingHints renderingHints;
+
+	// Fonts and the like
+	private Font smallFontBase;
+
+	private Font smallFont;
+	private FontMetrics smallFontMetrics;
+
+	private final IImageManager imageManager;
+	private final ISettingsManager properties;
+
+	private final MirroredGraphics mirroredGraphics = new MirroredGraphics();
+
+	private final GraphicsState graphicsState = new GraphicsState();
+	private final GraphicsState robotPaintState = new GraphicsState();
+	private IGraphicsProxy[] robotGraphics;
+
+	// Objects reused for every frame, so drawing a frame does not allocate memory
+	private final AffineTransform battleTransform = new AffineTransform();
+	private final AffineTransform transform = new AffineTransform();
+	private final Ellipse2D.Double bulletShape = new Ellipse2D.Double();
+	private final Color[] colors = new Color[64];
+
+	// The robots and bullets of the last turn by their ids, which are updated when the last turn changes
+	private ITurnSnapshot interpolatedSnapshot;
+	private IRobotSnapshot[] lastRobots = new IRobotSnapshot[0];
+	private final BulletTable lastBullets = new BulletTable();
+
+	// The energy texts of the robots, which are only formatted when the energy changes
+	private String[] energyTexts = new String[0];
+	private int[] energyTenths = new int[0];
+
+	public BattleRenderer(ISettingsManager properties, IImageManager imageManager) {
+		this.properties = properties;
+		this.imageManager = imageManager;
+	}
+
+	/**
+	 * Prepares the renderer for drawing the turns of a new battle.
+	 */
+	public void startBattle(BattleRules battleRules, int robotsCount) {
+		this.battleRules = battleRules;
+
+		battleField = new BattleField(battleRules.getBattlefieldWidth(), battleRules.getBattlefieldHeight());
+		robotGraphics = new IGraphicsProxy[robotsCount];
+
+		setLastTurn(null);
+		energyTexts = new String[robotsCount];
+		energyTenths = new int[robotsCount];
+
+		initialized = false;
+	}
+
+	/**
+	 * Sets the seed of the ground tiles, so renderers drawing frames of the same battle draw the same ground.
+	 */
+	public void setGroundSeed(long seed) {
+		if (groundSeed == null || groundSeed != seed) {
+			groundSeed = seed;
+			groundTiles = null;
+			groundImage = null;
+		}
+	}
+
+	public void finishBattle() {
+		robotGraphics = null;
+		setLastTurn(null);
+	}
+
+	public BattleField getBattleField() {
+		return battleField;
+	}
+
+	public double getScale() {
+		return scale;
+	}
+
+	public boolean isInitialized() {
+		return initialized;
+	}
+
+	public void reinitialize() {
+		initialized = false;
+	}
+
+	public void loadDisplayOptions() {
+		ISettingsManager props = properties;
+
+		drawRobotName = props.getOptionsViewRobotNames();
+		drawRobotEnergy = props.getOptionsViewRobotEnergy();
+		drawScanArcs = props.getOptionsViewScanArcs();
+		drawGround = props.getOptionsViewGround();
+		drawExplosions = props.getOptionsViewExplosions();
+		drawExplosionDebris = props.getOptionsViewExplosionDebris();
+		allowScaleUp = props.getOptionsRenderingAllowScaleUp();
+
+		renderingHints = props.getRenderingHints();
+	}
+
+	/**
+	 * Initializes the renderer for drawing into a view of the specified size.
+	 *
+	 * @param width  the width of the view
+	 * @param height the height of the view
+	 * @param g      graphics used for measuring the fonts
+	 */
+	public void initialize(int width, int height, Graphics g) {
+		loadDisplayOptions();
+
+		viewWidth = width;
+		viewHeight = height;
+
+		// If we are scaled...
+		if (allowScaleUp || viewWidth < battleField.getWidth() || viewHeight < battleField.getHeight()) {
+			// Use the smaller scale.
+			// Actually we don't need this, since
+			// the RobocodeFrame keeps our aspect ratio intact.
+
+			scale = min((double) viewWidth / battleField.getWidth(), (double) viewHeight / battleField.getHeight());
+		} else {
+			scale = 1;
+		}
+
+		try {
+			smallFontBase = null;
+			smallFontBase = (Font) Toolkit.getDefaultToolkit().getDesktopProperty("win.icon.font");
+			if (smallFontBase != null) {
+				smallFontBase = smallFontBase.deriveFont((float) 11);
+			}
+		} catch (Exception ignore) {
+		}
+		if (smallFontBase == null) {
+			smallFontBase = new Font("Dialog", Font.PLAIN, 10);
+		}
+
+		// Scale font
+		smallFont = smallFontBase.deriveFont((float) (smallFontBase.getSize2D() / Math.min(1., scale)));
+		smallFontMetrics = g.getFontMetrics(smallFont);
+
+		// Initialize ground image
+		if (drawGround) {
+			createGroundImage();
+		} else {
+			groundImage = null;
+		}
+
+		initialized = true;
+	}
+
+	private void createGroundImage() {
+		// Reinitialize ground tiles
+
+		Random r = (groundSeed != null) ? new Random(groundSeed) : new Random(); // independent
+
+		final int NUM_HORZ_TILES = battleField.getWidth() / groundTileWidth + 1;
+		final int NUM_VERT_TILES = battleField.getHeight() / groundTileHeight + 1;
+
+		if ((groundTiles == null) || (groundTiles.length != NUM_VERT_TILES) || (groundTiles[0].length != NUM_HORZ_TILES)) {
+
+			groundTiles = new int[NUM_VERT_TILES][NUM_HORZ_TILES];
+			for (int y = NUM_VERT_TILES - 1; y >= 0; y--) {
+				for (int x = NUM_HORZ_TILES - 1; x >= 0; x--) {
+					groundTiles[y][x] = (int) round(r.nextDouble() * 4);
+				}
+			}
+		}
+
+		// Create new buffered image with the ground pre-rendered
+
+		int groundWidth = (int) (battleField.getWidth() * scale);
+		int groundHeight = (int) (battleField.getHeight() * scale);
+
+		groundImage = new BufferedImage(groundWidth, groundHeight, BufferedImage.TYPE_INT_RGB);
+
+		Graphics2D groundGfx = (Graphics2D) groundImage.getGraphics();
+
+		groundGfx.setRenderingHints(renderingHints);
+
+		groundGfx.setTransform(AffineTransform.getScaleInstance(scale, scale));
+
+		for (int y = NUM_VERT_TILES - 1; y >= 0; y--) {
+			for (int x = NUM_HORZ_TILES - 1; x >= 0; x--) {
+				Image img = imageManager.getGroundTileImage(groundTiles[y][x]);
+
+				if (img != null) {
+					groundGfx.drawImage(img, x * groundTileWidth, y * groundTileHeight, null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draws a turn of the battle, where the robots and bullets are interpolated from the last turn by the specified
+	 * fraction, which is 1 for drawing the turn as it is.
+	 */
+	public void drawBattle(Graphics2D g, ITurnSnapshot snapShot, ITurnSnapshot lastSnapshot, double t) {
+		// Save the graphics state
+		graphicsState.save(g);
+
+		// Reset transform
+		g.setTransform(IDENTITY);
+
+		// Reset clip
+		g.setClip(null);
+
+		// Clear canvas
+		g.setColor(CANVAS_BG_COLOR);
+		g.fillRect(0, 0, viewWidth, viewHeight);
+
+		// Calculate border space
+		double dx = (viewWidth - scale * battleField.getWidth()) / 2;
+		double dy = (viewHeight - scale * battleField.getHeight()) / 2;
+
+		// Scale and translate the graphics
+		battleTransform.setToTranslation(dx, dy);
+		battleTransform.scale(scale, scale);
+		g.setTransform(battleTransform);
+
+		// Set the clip rectangle
+		g.setClip(0, 0, battleField.getWidth(), battleField.getHeight());
+
+		// Draw ground
+		drawGround(g);
+
+		if (t != 1.) {
+			setLastTurn(lastSnapshot);
+		}
+
+		if (snapShot != null) {
+			// Draw scan arcs
+			drawScanArcs(g, snapShot);
+
+			// Draw robots
+			drawRobots(g, snapShot, t);
+		}
+
+		// The remaining parts are drawn outside the battlefield too
+		g.setClip(null);
+
+		// Draw the border of the battlefield
+		drawBorderEdge(g);
+
+		if (snapShot != null) {
+			// Draw all bullets
+			drawExplosions(g, snapShot, t);
+
+			// Draw robot (debug) paintings
+			drawRobotPaint(g, snapShot);
+
+			// Draw all bullets
+			drawBullets(g, snapShot, t);
+
+			// Draw all text
+			drawText(g, snapShot, t);
+		}
+
+		// Restore the graphics state
+		graphicsState.restore(g);
+	}
+
+	private void drawGround(Graphics2D g) {
+		if (drawGround) {
+			// Create pre-rendered ground image if it is not available
+			if (groundImage == null) {
+				createGroundImage();
+			}
+			// Draw the pre-rendered ground if it is available
+			if (groundImage != null) {
+				int groundWidth = (int) (battleField.getWidth() * scale) + 1;
+				int groundHeight = (int) (battleField.getHeight() * scale) + 1;
+
+				int dx = (viewWidth - groundWidth) / 2;
+				int dy = (viewHeight - groundHeight) / 2;
+
+				g.setTransform(IDENTITY);
+				g.drawImage(groundImage, dx, dy, groundWidth, groundHeight, null);
+
+				g.setTransform(battleTransform);
+			}
+		} else {
+			// Ground should not be drawn
+			g.setColor(GROUND_COLOR);
+			g.fillRect(0, 0, battleField.getWidth(), battleField.getHeight());
+		}
+
+		// Draw Sentry Border if it is enabled visually
+		if (properties.getOptionsViewSentryBorder()) {
+			drawSentryBorder(g);
+		}
+	}
+
+	private void drawSentryBorder(Graphics2D g) {
+		int borderSentrySize = battleRules.getSentryBorderSize();
+
+		g.setColor(SENTRY_BORDER_COLOR);
+		g.fillRect(0, 0, borderSentrySize, battleField.getHeight());
+		g.fillRect(battleField.getWidth() - borderSentrySize, 0, borderSentrySize, battleField.getHeight());
+		g.fillRect(borderSentrySize, 0, battleField.getWidth() - 2 * borderSentrySize, borderSentrySize);
+		g.fillRect(borderSentrySize, battleField.getHeight() - borderSentrySize,
+			battleField.getWidth() - 2 * borderSentrySize, borderSentrySize);
+	}
+
+	private void drawBorderEdge(Graphics2D g) {
+		g.setColor(EDGE_COLOR);
+		g.drawRect(-1, -1, battleField.getWidth() + 2, battleField.getHeight() + 2);
+	}
+
+	private void drawScanArcs(Graphics2D g, ITurnSnapshot snapShot) {
+		if (drawScanArcs) {
+			for (IRobotSnapshot robotSnapshot : snapShot.getRobots()) {
+				if (robotSnapshot.getState().isAlive()) {
+					drawScanArc(g, robotSnapshot);
+				}
+			}
+		}
+	}
+
+	private void drawRobots(Graphics2D g, ITurnSnapshot snapShot, double t) {
+		double x, y;
+		AffineTransform at = transform;
+		int battleFieldHeight = battleField.getHeight();
+
+		if (drawGround && drawExplosionDebris) {
+			RenderObject explodeDebrise = imageManager.getExplosionDebriseRenderImage();
+
+			for (IRobotSnapshot robotSnapshot : snapShot.getRobots()) {
+				if (robotSnapshot.getState().isDead()) {
+					x = robotSnapshot.getX();
+					y = battleFieldHeight - robotSnapshot.getY();
+
+					at.setToTranslation(x, y);
+
+					explodeDebrise.setTransform(at);
+					explodeDebrise.paint(g);
+				}
+			}
+		}
+
+		for (IRobotSnapshot robotSnapshot : snapShot.getRobots()) {
+			if (robotSnapshot.getState().isAlive()) {
+				double rx = robotSnapshot.getX();
+				double ry = robotSnapshot.getY();
+
+				double bodyHeading = robotSnapshot.getBodyHeading();
+				double gunHeading = robotSnapshot.getGunHeading();
+				double radarHeading = robotSnapshot.getRadarHeading();
+
+				if (t != 1.) {
+					IRobotSnapshot l = getLastRobot(robotSnapshot.getRobotIndex());
+					if (l != null) {
+						rx = l.getX() * (1. - t) + rx * t;
+						ry = l.getY() * (1. - t) + ry * t;
+
+						double lBodyHeading = l.getBodyHeading();
+						double lGunHeading = l.getGunHeading();
+						double lRadarHeading = l.getRadarHeading();
+
+						bodyHeading = lBodyHeading + Utils.normalRelativeAngle(bodyHeading - lBodyHeading) * t;
+						gunHeading = lGunHeading + Utils.normalRelativeAngle(gunHeading - lGunHeading) * t;
+						radarHeading = lRadarHeading + Utils.normalRelativeAngle(radarHeading - lRadarHeading) * t;
+					}
+				}
+
+				x = rx;
+				y = battleFieldHeight - ry;
+
+				at.setToTranslation(x, y);
+				at.rotate(bodyHeading);
+
+				RobotSprites sprites = imageManager.getRobotSprites(robotSnapshot.getBodyColor(),
+						robotSnapshot.getGunColor(), robotSnapshot.getRadarColor());
+
+				RenderObject robotRenderImage = sprites.getBody();
+
+				robotRenderImage.setTransform(at);
+				robotRenderImage.paint(g);
+
+				at.setToTranslation(x, y);
+				at.rotate(gunHeading);
+
+				RenderObject gunRenderImage = sprites.getGun();
+
+				gunRenderImage.setTransform(at);
+				gunRenderImage.paint(g);
+
+				if (!robotSnapshot.isDroid()) {
+					at.setToTranslation(x, y);
+					at.rotate(radarHeading);
+
+					RenderObject radarRenderImage = sprites.getRadar();
+
+					radarRenderImage.setTransform(at);
+					radarRenderImage.paint(g);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the last turn, which the robots and bullets of the drawn turn are interpolated from. The robots and bullets
+	 * of the last turn are only looked up again when the last turn changes, which is once per turn, and not once per
+	 * drawn frame.
+	 */
+	private void setLastTurn(ITurnSnapshot lastSnapshot) {
+		if (lastSnapshot == interpolatedSnapshot && lastSnapshot != null) {
+			return;
+		}
+		interpolatedSnapshot = lastSnapshot;
+
+		Arrays.fill(lastRobots, null);
+		lastBullets.clear();
+
+		if (lastSnapshot != null) {
+			for (IRobotSnapshot robot : lastSnapshot.getRobots()) {
+				int index = robot.getRobotIndex();
+
+				if (index >= lastRobots.length) {
+					lastRobots = Arrays.copyOf(lastRobots, index + 1);
+				}
+				lastRobots[index] = robot;
+			}
+			for (IBulletSnapshot bullet : lastSnapshot.getBullets()) {
+				lastBullets.put(bullet);
+			}
+		}
+	}
+
+	private IRobotSnapshot getLastRobot(int robotIndex) {
+		return robotIndex >= 0 && robotIndex < lastRobots.length ? lastRobots[robotIndex] : null;
+	}
+
+	private void drawText(Graphics2D g, ITurnSnapshot snapShot, double t) {
+		for (IRobotSnapshot robotSnapshot : snapShot.getRobots()) {
+			if (robotSnapshot.getState().isDead()) {
+				continue;
+			}
+			double rx = robotSnapshot.getX();
+			double ry = robotSnapshot.getY();
+
+			if (t != 1.) {
+				IRobotSnapshot l = getLastRobot(robotSnapshot.getRobotIndex());
+				if (l != null) {
+					rx = l.getX() * (1. - t) + rx * t;
+					ry = l.getY() * (1. - t) + ry * t;
+				}
+			}
+
+			float x = (float) rx;
+			float y = battleField.getHeight() - (float) ry;
+
+			if (drawRobotEnergy) {
+				g.setColor(Color.white);
+				String energyString;
+
+				if (robotSnapshot.getEnergy() == 0 && robotSnapshot.getState().isAlive()) {
+					energyString = "Disabled";
+				} else {
+					energyString = getEnergyText(robotSnapshot);
+				}
+				centerString(g, energyString, x, y - ROBOT_TEXT_Y_OFFSET - smallFontMetrics.getHeight() * .5f, smallFont,
+					smallFontMetrics);
+			}
+			if (drawRobotName) {
+				g.setColor(Color.white);
+				centerString(g, robotSnapshot.getVeryShortName(), x,
+					y + ROBOT_TEXT_Y_OFFSET + smallFontMetrics.getHeight() * .5f, smallFont, smallFontMetrics);
+			}
+		}
+	}
+
+	private String getEnergyText(IRobotSnapshot robotSnapshot) {
+		int ll = (int) robotSnapshot.getEnergy();
+		int rl = (int) ((robotSnapshot.getEnergy() - ll + .001) * 10.0);
+
+		if (rl == 10) {
+			rl = 9;
+		}
+		int index = robotSnapshot.getRobotIndex();
+
+		if (index < 0 || index >= energyTexts.length) {
+			return ll + "." + rl;
+		}
+		int tenths = 10 * ll + rl;
+
+		if (energyTexts[index] == null || energyTenths[index] != tenths) {
+			energyTexts[index] = ll + "." + rl;
+			energyTenths[index] = tenths;
+		}
+		return energyTexts[index];
+	}
+
+	private void drawRobotPaint(Graphics2D g, ITurnSnapshot turnSnapshot) {
+
+		int robotIndex = 0;
+
+		for (IRobotSnapshot robotSnapshot : turnSnapshot.getRobots()) {
+			final Object graphicsCalls = ((RobotSnapshot) robotSnapshot).getGraphicsCalls();
+
+			if (graphicsCalls == null || !robotSnapshot.isPaintEnabled()) {
+				continue;
+			}
+
+			// Save the graphics state
+			GraphicsState gfxState = robotPaintState;
+
+			gfxState.save(g);
+			try {
+				g.setBackground(Color.WHITE);
+				g.setColor(Color.BLACK);
+				g.setFont(smallFontBase);
+				g.setStroke(DEFAULT_STROKE);
+
+				g.setClip(null);
+				g.setComposite(AlphaComposite.SrcAtop);
+
+				IGraphicsProxy gfxProxy = getRobotGraphics(robotIndex);
+
+				if (robotSnapshot.isSGPaintEnabled()) {
+					gfxProxy.processTo(g, graphicsCalls);
+				} else {
+					mirroredGraphics.bind(g, battleField.getHeight());
+					try {
+						gfxProxy.processTo(mirroredGraphics, graphicsCalls);
+					} finally {
+						mirroredGraphics.release();
+					}
+				}
+			} catch (BadPaintException ex) {
+				((RobotSnapshot) robotSnapshot).setPaintEnabled(false);
+				ex.printStackTrace();
+			} finally {
+				// Restore the graphics state
+				gfxState.restore(g);
+			}
+
+			robotIndex++;
+		}
+	}
+
+	private IGraphicsProxy getRobotGraphics(int robotIndex) {
+		if (robotGraphics[robotIndex] == null) {
+			robotGraphics[robotIndex] = new Graphics2DSerialized();
+			robotGraphics[robotIndex].setPaintingEnabled(true);
+		}
+		return robotGraphics[robotIndex];
+	}
+
+	private void drawBullets(Graphics2D g, ITurnSnapshot snapShot, double t) {
+		boolean forceBulletColor = properties.getOptionsRenderingForceBulletColor();
+
+		for (IBulletSnapshot bulletSnapshot : snapShot.getBullets()) {
+			if (bulletSnapshot.getState().isActive()) {
+				AffineTransform at = getBulletTransform(bulletSnapshot, t);
+
+				// radius = sqrt(x^2 / 0.1 * power), where x is the width of 1 pixel for a minimum 0.1 bullet
+				double size = max(2 * sqrt(2.5 * bulletSnapshot.getPower()), 2 / this.scale);
+
+				bulletShape.setFrame(at.getTranslateX() - size / 2, at.getTranslateY() - size / 2, size, size);
+
+				Color bulletColor;
+
+				if (forceBulletColor) {
+					bulletColor = Color.WHITE;
+				} else {
+					bulletColor = getColor(0xFF000000 | bulletSnapshot.getColor());
+				}
+				g.setColor(bulletColor);
+				g.fill(bulletShape);
+			}
+		}
+	}
+
+	private void drawExplosions(Graphics2D g, ITurnSnapshot snapShot, double t) {
+		if (drawExplosions) {
+			for (IBulletSnapshot bulletSnapshot : snapShot.getBullets()) {
+				if (!bulletSnapshot.getState().isActive()) {
+					AffineTransform at = getBulletTransform(bulletSnapshot, t);
+
+					int explosionIndex = bulletSnapshot.getExplosionImageIndex();
+					int frame = bulletSnapshot.getFrame();
+
+					// Sanity check to avoid bug-354 - Replaying an XML record can cause an ArrayIndexOutOfBoundsException
+					if (explosionIndex >= 0 && frame >= 0) {
+						if (!bulletSnapshot.isExplosion()) {
+							double scale = sqrt(1000 * bulletSnapshot.getPower()) / 128;
+							at.scale(scale, scale);
+						}
+						RenderObject explosionRenderImage = imageManager.getExplosionRenderImage(explosionIndex, frame);
+						explosionRenderImage.setTransform(at);
+						explosionRenderImage.paint(g);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the transform placing a bullet on the battlefield, which is reused for the next bullet.
+	 */
+	private AffineTransform getBulletTransform(IBulletSnapshot bulletSnapshot, double t) {
+		double x;
+		double y;
+		double bx = bulletSnapshot.getPaintX();
+		double by = bulletSnapshot.getPaintY();
+
+		if (t != 1.) {
+			if (bulletSnapshot.getBulletId() == 0) {
+				IRobotSnapshot l = getLastRobot(bulletSnapshot.getOwnerIndex());
+				if (l != null) {
+					bx = l.getX() * (1. - t) + bx * t;
+					by = l.getY() * (1. - t) + by * t;
+				}
+			} else {
+				IBulletSnapshot l = lastBullets.get(bulletSnapshot.getOwnerIndex(), bulletSnapshot.getBulletId());
+				if (l != null) {
+					bx = l.getPaintX() * (1. - t) + bx * t;
+					by = l.getPaintY() * (1. - t) + by * t;
+				}
+			}
+		}
+
+		x = bx;
+		y = battleField.getHeight() - by;
+
+		transform.setToTranslation(x, y);
+		return transform;
+	}
+
+	private void centerString(Graphics2D g, String s, float x, float y, Font font, FontMetrics fm) {
+		g.setFont(font);
+
+		int width = fm.stringWidth(s);
+		int height = fm.getHeight();
+		int descent = fm.getDescent();
+
+		float left = x - width * .5f;
+		float top = y - height * .5f;
+
+		float scaledViewWidth = viewWidth / (float) scale;
+		float scaledViewHeight = viewHeight / (float) scale;
+
+		float borderWidth = (scaledViewWidth - battleField.getWidth()) * .5f;
+		float borderHeight = (scaledViewHeight - battleField.getHeight()) * .5f;
+
+		if (left + width > scaledViewWidth - borderWidth) {
+			left = scaledViewWidth - borderWidth - width;
+		}
+		if (top + height > scaledViewHeight - borderHeight) {
+			top = scaledViewHeight - borderHeight - height;
+		}
+		if (left < -borderWidth) {
+			left = -borderWidth;
+		}
+		if (top < -borderHeight) {
+			top = -borderHeight;
+		}
+		g.drawString(s, left, top + height - descent);
+	}
+
+	private void drawScanArc(Graphics2D g, IRobotSnapshot robotSnapshot) {
+		Arc2D.Double scanArc = (Arc2D.Double) ((RobotSnapshot) robotSnapshot).getScanArc();
+
+		if (scanArc == null) {
+			return;
+		}
+
+		final Composite savedComposite = g.getComposite();
+
+		g.setComposite(SCAN_ARC_COMPOSITE);
+
+		scanArc.setAngleStart((360 - scanArc.getAngleStart() - scanArc.getAngleExtent()) % 360);
+		scanArc.y = battleField.getHeight() - robotSnapshot.getY() - Rules.RADAR_SCAN_RADIUS;
+
+		int scanColor = robotSnapshot.getScanColor();
+
+		g.setColor(getColor(scanColor));
+
+		if (abs(scanArc.getAngleExtent()) >= .5) {
+			g.fill(scanArc);
+		} else {
+			g.draw(scanArc);
+		}
+
+		g.setComposite(savedComposite);
+	}
+
+	/**
+	 * Returns the color with the specified ARGB value, where recently used colors are cached.
+	 */
+	private Color getColor(int argb) {
+		int i = (argb ^ (argb >>> 8) ^ (argb >>> 16)) & (colors.length - 1);
+		Color color = colors[i];
+
+		if (color == null || color.getRGB() != argb) {
+			color = new Color(argb, true);
+			colors[i] = color;
+		}
+		return color;
+	}
+
+	/**
+	 * Hash table of bullets by their owner index and bullet id, using open addressing, so a table can be cleared and
+	 * filled again without allocating memory.
+	 */
+	private static final class BulletTable {
+		private long[] keys = new long[64];
+		private IBulletSnapshot[] bullets = new IBulletSnapshot[64];
+		private int size;
+
+		void clear() {
+			if (size > 0) {
+				Arrays.fill(bullets, null);
+				size = 0;
+			}
+		}
+
+		void put(IBulletSnapshot bullet) {
+			if (2 * (size + 1) > keys.length) {
+				grow();
+			}
+			long key = key(bullet.getOwnerIndex(), bullet.getBulletId());
+			int i = indexOf(key);
+
+			if (bullets[i] == null) {
+				keys[i] = key;
+				size++;
+			}
+			bullets[i] = bullet;
+		}
+
+		IBulletSnapshot get(int ownerIndex, int bulletId) {
+			return bullets[indexOf(key(ownerIndex, bulletId))];
+		}
+
+		private int indexOf(long key) {
+			int mask = keys.length - 1;
+			int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+			int i = (h ^ (h >>> 16)) & mask;
+
+			while (bullets[i] != null && keys[i] != key) {
+				i = (i + 1) & mask;
+			}
+			return i;
+		}
+
+		private void grow() {
+			IBulletSnapshot[] oldBullets = bullets;
+
+			keys = new long[2 * keys.length];
+			bullets = new IBulletSnapshot[keys.length];
+			size = 0;
+			for (IBulletSnapshot bullet : oldBullets) {
+				if (bullet != null) {
+					put(bullet);
+				}
+			}
+		}
+
+		private static long key(int ownerIndex, int bulletId) {
+			return (long) ownerIndex << 32 | (bulletId & 0xFFFFFFFFL);
+		}
+	}
+}
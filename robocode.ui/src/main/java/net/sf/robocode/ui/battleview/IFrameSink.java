@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.battleview;
+
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+
+/**
+ * Receives the frames rendered by a {@link BattleFrameWriter}.
+ */
+public interface IFrameSink {
+
+	/**
+	 * Encodes a rendered frame. This method is called by the rendering threads concurrently, and the frame image is
+	 * reused for the next frame of the rendering thread as soon as this method returns.
+	 *
+	 * @param frame the rendered frame
+	 * @return the encoded frame
+	 */
+	byte[] encode(BufferedImage frame) throws IOException;
+
+	/**
+	 * Writes an encoded frame. This method is called by one thread at a time, for the frames in the order of the
+	 * battle.
+	 *
+	 * @param frameNumber the number of the frame, starting from 0
+	 * @param data        the encoded frame
+	 */
+	void write(int frameNumber, byte[] data) throws IOException;
+
+	/**
+	 * Called when all frames have been written.
+	 */
+	void close() throws IOException;
+}
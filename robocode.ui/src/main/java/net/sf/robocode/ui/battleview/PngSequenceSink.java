@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.battleview;
+
+
+import net.sf.robocode.io.FileUtil;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+
+/**
+ * Writes the frames as numbered PNG files into a directory, e.g. frame-000000.png, frame-000001.png etc., which
+ * can be read by video encoders as an image sequence.
+ */
+public class PngSequenceSink implements IFrameSink {
+
+	private final File directory;
+
+	public PngSequenceSink(File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create the directory: " + directory);
+		}
+		this.directory = directory;
+	}
+
+	public byte[] encode(BufferedImage frame) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+		if (!ImageIO.write(frame, "png", out)) {
+			throw new IOException("No PNG writer available");
+		}
+		return out.toByteArray();
+	}
+
+	public void write(int frameNumber, byte[] data) throws IOException {
+		FileOutputStream out = null;
+
+		try {
+			out = new FileOutputStream(new File(directory, String.format("frame-%06d.png", frameNumber)));
+			out.write(data);
+		} finally {
+			FileUtil.cleanupStream(out);
+		}
+	}
+
+	public void close() {}
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.battleview;
+
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Writes the frames as raw 24-bit RGB pixels into a stream, one frame after the other, which can be piped into a video
+ * encoder, e.g. {@code ffmpeg -f rawvideo -pix_fmt rgb24 -s 800x600 -r 30 -i - battle.mp4}.
+ */
+public class RawFrameSink implements IFrameSink {
+
+	private final OutputStream out;
+
+	public RawFrameSink(OutputStream out) {
+		this.out = new BufferedOutputStream(out, 1024 * 1024);
+	}
+
+	public byte[] encode(BufferedImage frame) {
+		final int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+		final byte[] data = new byte[3 * pixels.length];
+
+		for (int i = 0, j = 0; i < pixels.length; i++) {
+			final int rgb = pixels[i];
+
+			data[j++] = (byte) (rgb >> 16);
+			data[j++] = (byte) (rgb >> 8);
+			data[j++] = (byte) rgb;
+		}
+		return data;
+	}
+
+	public void write(int frameNumber, byte[] data) throws IOException {
+		out.write(data);
+	}
+
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -174,4 +174,26 @@ public abstract class BaseScoreDialog extends JDialog {
 			}
 		}
 	}
+
+	/**
+	 * Widens the columns that are too narrow for the values in a range of rows.
+	 */
+	protected void widenColumns(int firstRow, int lastRow) {
+		for (int x = 0; x < getTableModel().getColumnCount(); x++) {
+			TableColumn col = getTable().getColumnModel().getColumn(x);
+			int width = col.getPreferredWidth();
+
+			for (int y = firstRow; y <= lastRow; y++) {
+				Component comp = getTable().getDefaultRenderer(getTableModel().getColumnClass(x)).getTableCellRendererComponent(
+						getTable(), getTableModel().getValueAt(y, x), false, false, 0, x);
+
+				width = Math.max(width, comp.getPreferredSize().width);
+			}
+			if (width > col.getPreferredWidth()) {
+				col.setPreferredWidth(width);
+				col.setMinWidth(width);
+				col.setWidth(width);
+			}
+		}
+	}
 }
@@ -67,18 +67,23 @@ public class RankingDialog extends BaseScoreDialog {
 		final ITurnSnapshot current = snapshot.get();
 
 		if (lastSnapshot != current) {
-			setResultsData();
-
 			lastSnapshot = current;
-			tableModel.updateSource(lastSnapshot);
-			if (table.getModel().getRowCount() != lastRows) {
-				lastRows = table.getModel().getRowCount();
+			if (!tableModel.updateSource(lastSnapshot)) {
+				return;
+			}
+			if (tableModel.getRowCount() != lastRows) {
+				setResultsData();
+
+				lastRows = tableModel.getRowCount();
 
 				table.setPreferredSize(
 						new Dimension(table.getColumnModel().getTotalColumnWidth(),
-						table.getModel().getRowCount() * table.getRowHeight()));
+						tableModel.getRowCount() * table.getRowHeight()));
 				table.setPreferredScrollableViewportSize(table.getPreferredSize());
 				pack();
+			} else {
+				// Only the rows with changed scores need to be measured
+				widenColumns(tableModel.getFirstChangedRow(), tableModel.getLastChangedRow());
 			}
 			repaint();
 		}
@@ -11,6 +11,7 @@ package net.sf.robocode.ui.dialog;
 import net.sf.robocode.core.Container;
 import net.sf.robocode.repository.IRobotSpecItem;
 import net.sf.robocode.repository.IRepositoryManager;
+import net.sf.robocode.repository.RepositoryQuery;
 import net.sf.robocode.ui.IWindowManager;
 
 import javax.swing.*;
@@ -430,8 +431,23 @@ public class RobotSelectionPanel extends WizardPanel {
 					windowManager.setBusyPointer(true);
 					repositoryManager.refresh(withClear);
 
-					List<IRobotSpecItem> robotList = repositoryManager.getRepositoryItems(onlyShowSource,
-							onlyShowWithPackage, onlyShowRobots, onlyShowDevelopment, false, ignoreTeamRobots, onlyShowInJar);
+					List<IRobotSpecItem> robotList;
+
+					if (onlyShowDevelopment && onlyShowInJar) {
+						// Robots within a jar file are never development versions
+						robotList = new ArrayList<IRobotSpecItem>();
+					} else {
+						RepositoryQuery query = new RepositoryQuery().setOnlyWithSource(onlyShowSource)
+								.setOnlyWithPackage(onlyShowWithPackage)
+								.setRobotsOnly(onlyShowRobots);
+
+						if (onlyShowDevelopment) {
+							query.setOrigin(RepositoryQuery.Origin.DEVELOPMENT);
+						} else if (onlyShowInJar) {
+							query.setOrigin(RepositoryQuery.Origin.JAR);
+						}
+						robotList = repositoryManager.getRepositoryItems(query);
+					}
 
 					getAvailableRobotsPanel().setRobotList(robotList);
 					if (preSelectedRobots != null && preSelectedRobots.length() > 0) {
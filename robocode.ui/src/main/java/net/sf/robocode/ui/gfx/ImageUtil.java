@@ -90,6 +90,32 @@ public class ImageUtil {
 						: Toolkit.getDefaultToolkit().createImage(new FilteredImageSource(img.getSource(), new ColorFilter(color)));
 	}
 
+	/**
+	 * Creates a coloured robot image from a region of an image. Unlike
+	 * {@link #createColouredRobotImage(Image, Color)}, the colors are changed right
+	 * away, and not when the image is drawn the first time.
+	 *
+	 * @param img    the source image
+	 * @param x      the x coordinate of the region in the source image
+	 * @param y      the y coordinate of the region in the source image
+	 * @param width  the width of the region
+	 * @param height the height of the region
+	 * @param color  the new color that substitutes the old color(s) in the source image
+	 * @return a new image with the size of the region
+	 */
+	public static BufferedImage createColouredRobotImage(BufferedImage img, int x, int y, int width, int height, Color color) {
+		int[] pixels = img.getRGB(x, y, width, height, null, 0, width);
+		ColorFilter filter = new ColorFilter(color);
+
+		for (int i = 0; i < pixels.length; i++) {
+			pixels[i] = filter.filterRGB(0, 0, pixels[i]);
+		}
+		BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+		result.setRGB(0, 0, width, height, pixels, 0, width);
+		return result;
+	}
+
 	/**
 	 * A color filter used for changing colors into another color.
 	 *
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.gfx;
+
+
+/**
+ * The body, gun and radar of a robot, which have been colored with the colors of the robot.
+ */
+public final class RobotSprites {
+
+	private final RenderObject body;
+	private final RenderObject gun;
+	private final RenderObject radar;
+	private final long size;
+
+	/**
+	 * Constructs new {@code RobotSprites}.
+	 *
+	 * @param body  the colored body
+	 * @param gun   the colored gun
+	 * @param radar the colored radar
+	 * @param size  the number of bytes used by the images of the sprites
+	 */
+	public RobotSprites(RenderObject body, RenderObject gun, RenderObject radar, long size) {
+		this.body = body;
+		this.gun = gun;
+		this.radar = radar;
+		this.size = size;
+	}
+
+	public RenderObject getBody() {
+		return body;
+	}
+
+	public RenderObject getGun() {
+		return gun;
+	}
+
+	public RenderObject getRadar() {
+		return radar;
+	}
+
+	/**
+	 * Returns the number of bytes used by the images of the sprites.
+	 */
+	public long getSize() {
+		return size;
+	}
+}
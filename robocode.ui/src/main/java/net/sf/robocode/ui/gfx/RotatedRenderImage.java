@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2001-2020 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.ui.gfx;
+
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+
+/**
+ * An image that can be rendered, which has its rotations pre-rendered at fixed angular steps.
+ * <p>
+ * The rotation of the current transform is rounded to the nearest step, and the pre-rendered frame of that step is
+ * drawn without transforming the image, which is a lot cheaper than drawing a rotated image. The image has its origin
+ * in the center of the image.
+ */
+public class RotatedRenderImage extends RenderObject {
+
+	private final BufferedImage[] frames;
+	private final int[] originX;
+	private final int[] originY;
+
+	/**
+	 * Constructs a new {@code RotatedRenderImage}.
+	 *
+	 * @param image the image to be rendered
+	 * @param scale the scale the image is rendered with
+	 * @param steps the number of rotations to pre-render
+	 */
+	public RotatedRenderImage(Image image, double scale, int steps) {
+		super();
+
+		frames = new BufferedImage[steps];
+		originX = new int[steps];
+		originY = new int[steps];
+
+		double w = image.getWidth(null) * scale;
+		double h = image.getHeight(null) * scale;
+
+		for (int i = 0; i < steps; i++) {
+			double angle = 2 * Math.PI * i / steps;
+			double sin = Math.abs(Math.sin(angle));
+			double cos = Math.abs(Math.cos(angle));
+
+			int frameWidth = (int) Math.ceil(w * cos + h * sin) + 2;
+			int frameHeight = (int) Math.ceil(w * sin + h * cos) + 2;
+
+			BufferedImage frame = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = frame.createGraphics();
+
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.translate(frameWidth / 2.0, frameHeight / 2.0);
+			g.rotate(angle);
+			g.scale(scale, scale);
+			g.drawImage(image, -image.getWidth(null) / 2, -image.getHeight(null) / 2, null);
+			g.dispose();
+
+			frames[i] = frame;
+			originX[i] = frameWidth / 2;
+			originY[i] = frameHeight / 2;
+		}
+	}
+
+	/**
+	 * Constructs a new {@code RotatedRenderImage} that is a copy of another {@code RotatedRenderImage}.
+	 *
+	 * @param ri the {@code RotatedRenderImage} to copy
+	 */
+	public RotatedRenderImage(RotatedRenderImage ri) {
+		super(ri);
+
+		frames = ri.frames;
+		originX = ri.originX;
+		originY = ri.originY;
+	}
+
+	/**
+	 * Returns the number of bytes used by the pre-rendered frames.
+	 */
+	public long getSize() {
+		long size = 0;
+
+		for (BufferedImage frame : frames) {
+			size += 4L * frame.getWidth() * frame.getHeight();
+		}
+		return size;
+	}
+
+	@Override
+	public void paint(Graphics2D g) {
+		int i = getFrameIndex();
+
+		g.drawImage(frames[i], (int) Math.round(transform.getTranslateX()) - originX[i],
+				(int) Math.round(transform.getTranslateY()) - originY[i], null);
+	}
+
+	@Override
+	public Rectangle getBounds() {
+		int i = getFrameIndex();
+
+		return new Rectangle((int) Math.round(transform.getTranslateX()) - originX[i],
+				(int) Math.round(transform.getTranslateY()) - originY[i], frames[i].getWidth(), frames[i].getHeight());
+	}
+
+	@Override
+	public RenderObject copy() {
+		return new RotatedRenderImage(this);
+	}
+
+	private int getFrameIndex() {
+		double angle = Math.atan2(transform.getShearY(), transform.getScaleX());
+		int i = (int) Math.round(angle * frames.length / (2 * Math.PI)) % frames.length;
+
+		return i < 0 ? i + frames.length : i;
+	}
+}